@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.repo.content.filestore.FileContentReader;
+import org.alfresco.repo.content.filestore.FileContentTransfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of copying the content of a file store file to another file, through the reader's input stream and by
+ * {@link FileContentTransfer}, for which the copy is done by the kernel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentTransferBenchmark
+{
+    @Param({ "65536", "16777216" })
+    public int contentSize;
+
+    /** Size of the ranges read by the range benchmarks */
+    @Param({ "65536" })
+    public int rangeSize;
+
+    private File contentFile;
+    private File targetFile;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        byte[] content = new byte[contentSize];
+        ThreadLocalRandom.current().nextBytes(content);
+        contentFile = File.createTempFile("ContentTransferBenchmark", ".bin");
+        Files.write(contentFile.toPath(), content);
+        targetFile = File.createTempFile("ContentTransferBenchmark", ".out");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        contentFile.delete();
+        targetFile.delete();
+    }
+
+    @Benchmark
+    public long copyStream() throws IOException
+    {
+        try (OutputStream os = openTarget(); InputStream is = new FileContentReader(contentFile).getContentInputStream())
+        {
+            return is.transferTo(os);
+        }
+    }
+
+    @Benchmark
+    public long transfer() throws IOException
+    {
+        try (FileOutputStream os = openTarget())
+        {
+            return FileContentTransfer.transfer(new FileContentReader(contentFile), os.getChannel());
+        }
+    }
+
+    @Benchmark
+    public long copyStreamRange() throws IOException
+    {
+        long start = randomRangeStart();
+        try (OutputStream os = openTarget(); InputStream is = new FileContentReader(contentFile).getContentInputStream())
+        {
+            is.skipNBytes(start);
+            byte[] range = is.readNBytes(rangeSize);
+            os.write(range);
+            return range.length;
+        }
+    }
+
+    @Benchmark
+    public long transferRange() throws IOException
+    {
+        long start = randomRangeStart();
+        try (FileOutputStream os = openTarget())
+        {
+            return FileContentTransfer.transfer(new FileContentReader(contentFile), start, rangeSize, os.getChannel());
+        }
+    }
+
+    private long randomRangeStart()
+    {
+        int limit = contentSize - rangeSize;
+        return limit > 0 ? ThreadLocalRandom.current().nextInt(limit) : 0L;
+    }
+
+    private FileOutputStream openTarget() throws IOException
+    {
+        return new FileOutputStream(targetFile);
+    }
+}
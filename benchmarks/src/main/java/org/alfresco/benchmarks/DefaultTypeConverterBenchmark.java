@@ -0,0 +1,119 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.datatype.DefaultTypeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DefaultTypeConverter} conversions that occur for most property reads and writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DefaultTypeConverterBenchmark
+{
+    private String longString;
+    private Long longValue;
+    private String dateString;
+    private Date date;
+    private String nodeRefString;
+    private NodeRef nodeRef;
+    private List<String> longStrings;
+
+    @Setup
+    public void setUp()
+    {
+        longString = "1234567890";
+        longValue = Long.valueOf(1234567890L);
+        dateString = "2024-03-15T10:15:30.123Z";
+        date = new Date();
+        nodeRefString = "workspace://SpacesStore/5c3b1c4e-1e8b-4f0e-9e8b-0f0f0f0f0f0f";
+        nodeRef = new NodeRef(nodeRefString);
+        longStrings = Arrays.asList("1", "22", "333", "4444", "55555", "666666", "7777777", "88888888");
+    }
+
+    @Benchmark
+    public Long stringToLong()
+    {
+        return DefaultTypeConverter.INSTANCE.convert(Long.class, longString);
+    }
+
+    @Benchmark
+    public String longToString()
+    {
+        return DefaultTypeConverter.INSTANCE.convert(String.class, longValue);
+    }
+
+    @Benchmark
+    public Date stringToDate()
+    {
+        return DefaultTypeConverter.INSTANCE.convert(Date.class, dateString);
+    }
+
+    @Benchmark
+    public String dateToString()
+    {
+        return DefaultTypeConverter.INSTANCE.convert(String.class, date);
+    }
+
+    @Benchmark
+    public NodeRef stringToNodeRef()
+    {
+        return DefaultTypeConverter.INSTANCE.convert(NodeRef.class, nodeRefString);
+    }
+
+    @Benchmark
+    public String nodeRefToString()
+    {
+        return DefaultTypeConverter.INSTANCE.convert(String.class, nodeRef);
+    }
+
+    @Benchmark
+    public Collection<Long> collectionOfStringsToLongs()
+    {
+        return DefaultTypeConverter.INSTANCE.convert(Long.class, longStrings);
+    }
+}
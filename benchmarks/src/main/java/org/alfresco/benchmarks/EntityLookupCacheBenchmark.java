@@ -0,0 +1,186 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.repo.cache.DefaultSimpleCache;
+import org.alfresco.repo.cache.lookup.EntityLookupCache;
+import org.alfresco.repo.cache.lookup.EntityLookupCache.EntityLookupCallbackDAOAdaptor;
+import org.alfresco.util.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link EntityLookupCache} lookups by key, by value and in batches, backed by an in-memory entity DAO.
+ * The cache is sized to hold a configurable fraction of the entities so that misses reach the DAO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityLookupCacheBenchmark
+{
+    @Param({ "10000" })
+    public int entityCount;
+
+    /** Percentage of the entities that fit in the cache */
+    @Param({ "100", "50" })
+    public int cachedPercent;
+
+    @Param({ "100" })
+    public int batchSize;
+
+    private EntityLookupCache<Long, String, String> cache;
+
+    @Setup
+    public void setUp()
+    {
+        InMemoryEntityDAO dao = new InMemoryEntityDAO();
+        for (int i = 0; i < entityCount; i++)
+        {
+            dao.createValue(valueFor(i));
+        }
+        // Keys and value keys share the cache, so allow two entries per cached entity
+        int cacheSize = Math.max(1, entityCount * cachedPercent / 100) * 2;
+        cache = new EntityLookupCache<>(new DefaultSimpleCache<>(cacheSize, "benchmarkEntityCache"), "Benchmark", dao);
+        for (int i = 0; i < entityCount; i++)
+        {
+            cache.getByValue(valueFor(i));
+        }
+    }
+
+    @Benchmark
+    public Pair<Long, String> getByKey()
+    {
+        return cache.getByKey(randomKey());
+    }
+
+    @Benchmark
+    public Pair<Long, String> getByValue()
+    {
+        return cache.getByValue(valueFor(ThreadLocalRandom.current().nextInt(entityCount)));
+    }
+
+    @Benchmark
+    public Pair<Long, String> getOrCreateExistingValue()
+    {
+        return cache.getOrCreateByValue(valueFor(ThreadLocalRandom.current().nextInt(entityCount)));
+    }
+
+    @Benchmark
+    public List<Pair<Long, String>> getByKeysBatch()
+    {
+        List<Long> keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++)
+        {
+            keys.add(randomKey());
+        }
+        return cache.getByKeys(keys);
+    }
+
+    private Long randomKey()
+    {
+        // Keys are allocated from 1
+        return Long.valueOf(ThreadLocalRandom.current().nextInt(entityCount) + 1L);
+    }
+
+    private static String valueFor(int i)
+    {
+        return "http://www.alfresco.org/model/benchmark/" + i;
+    }
+
+    /**
+     * Stands in for a table with a unique value column
+     */
+    private static class InMemoryEntityDAO extends EntityLookupCallbackDAOAdaptor<Long, String, String>
+    {
+        private final AtomicLong nextId = new AtomicLong(1L);
+        private final Map<Long, String> valuesById = new ConcurrentHashMap<>();
+        private final Map<String, Long> idsByValue = new ConcurrentHashMap<>();
+
+        @Override
+        public String getValueKey(String value)
+        {
+            return value;
+        }
+
+        @Override
+        public Pair<Long, String> findByKey(Long key)
+        {
+            String value = valuesById.get(key);
+            return value == null ? null : new Pair<>(key, value);
+        }
+
+        @Override
+        public Pair<Long, String> findByValue(String value)
+        {
+            Long id = idsByValue.get(value);
+            return id == null ? null : new Pair<>(id, value);
+        }
+
+        @Override
+        public List<Pair<Long, String>> findByKeys(List<Long> keys)
+        {
+            List<Pair<Long, String>> results = new ArrayList<>(keys.size());
+            for (Long key : keys)
+            {
+                Pair<Long, String> pair = findByKey(key);
+                if (pair != null)
+                {
+                    results.add(pair);
+                }
+            }
+            return results;
+        }
+
+        @Override
+        public Pair<Long, String> createValue(String value)
+        {
+            Long id = nextId.getAndIncrement();
+            valuesById.put(id, value);
+            idsByValue.put(value, id);
+            return new Pair<>(id, value);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.benchmarks.support.DictionaryFixture;
+import org.alfresco.repo.search.impl.parsers.AlfrescoFunctionEvaluationContext;
+import org.alfresco.repo.search.impl.parsers.FTSParser;
+import org.alfresco.repo.search.impl.parsers.FTSQueryParser;
+import org.alfresco.repo.search.impl.querymodel.Constraint;
+import org.alfresco.repo.search.impl.querymodel.QueryOptions.Connective;
+import org.alfresco.repo.search.impl.querymodel.impl.lucene.LuceneQueryModelFactory;
+import org.alfresco.service.namespace.NamespaceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link FTSQueryParser} parsing of AFTS queries into the query model, as done for every search
+ * before it is sent to the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FTSQueryParserBenchmark
+{
+    private static final String KEYWORDS_TEMPLATE = "keywords";
+
+    @Param({
+        "report",
+        "cm:name:report* AND TYPE:\"cm:content\"",
+        "\"quarterly report\"~3 OR cm:title:(draft budget)",
+        "cm:created:[2020-01-01 TO NOW] AND -ASPECT:\"cm:versionable\" AND PARENT:\"workspace://SpacesStore/abc\"",
+        "keywords:report AND =cm:author:admin"
+    })
+    public String query;
+
+    private AlfrescoFunctionEvaluationContext functionContext;
+    private Map<String, String> templates;
+
+    @Setup
+    public void setUp()
+    {
+        DictionaryFixture dictionary = DictionaryFixture.getInstance();
+        functionContext = new AlfrescoFunctionEvaluationContext(
+                dictionary.getNamespaceService(), dictionary.getDictionaryService(), NamespaceService.CONTENT_MODEL_1_0_URI);
+        templates = new HashMap<>();
+        templates.put(KEYWORDS_TEMPLATE, "%(cm:name cm:title cm:description TEXT)");
+    }
+
+    @Benchmark
+    public Constraint buildFTS()
+    {
+        // The parser adds its own template to the map it is given
+        return FTSQueryParser.buildFTS(query, new LuceneQueryModelFactory<Object, Object, RuntimeException>(), functionContext, null, null,
+                FTSParser.Mode.DEFAULT_CONJUNCTION, Connective.OR, new HashMap<>(templates), "TEXT",
+                FTSQueryParser.RerankPhase.SINGLE_PASS);
+    }
+}
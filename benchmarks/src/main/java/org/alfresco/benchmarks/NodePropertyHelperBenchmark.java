@@ -0,0 +1,122 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.benchmarks.support.DictionaryFixture;
+import org.alfresco.benchmarks.support.InMemoryLocaleDAO;
+import org.alfresco.benchmarks.support.InMemoryQNameDAO;
+import org.alfresco.model.ContentModel;
+import org.alfresco.repo.domain.node.NodePropertyHelper;
+import org.alfresco.repo.domain.node.NodePropertyKey;
+import org.alfresco.repo.domain.node.NodePropertyValue;
+import org.alfresco.service.cmr.repository.MLText;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.StoreRef;
+import org.alfresco.service.namespace.QName;
+import org.alfresco.util.GUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link NodePropertyHelper} conversion of a typical document's properties to and from their persisted form,
+ * using the in-memory dictionary and in-memory QName and locale DAOs. Content properties are not included
+ * as they need the content data DAO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodePropertyHelperBenchmark
+{
+    private static final QName PROP_RESIDUAL = QName.createQName("http://www.alfresco.org/model/benchmark/1.0", "residual");
+
+    private NodePropertyHelper helper;
+    private Map<QName, Serializable> publicProperties;
+    private Map<NodePropertyKey, NodePropertyValue> persistentProperties;
+
+    @Setup
+    public void setUp()
+    {
+        DictionaryFixture dictionary = DictionaryFixture.getInstance();
+        helper = new NodePropertyHelper(dictionary.getDictionaryService(), new InMemoryQNameDAO(), new InMemoryLocaleDAO(), null);
+
+        publicProperties = new HashMap<>();
+        publicProperties.put(ContentModel.PROP_NAME, "Quarterly report.docx");
+        MLText title = new MLText();
+        title.addValue(Locale.ENGLISH, "Quarterly report");
+        title.addValue(Locale.FRENCH, "Rapport trimestriel");
+        publicProperties.put(ContentModel.PROP_TITLE, title);
+        publicProperties.put(ContentModel.PROP_DESCRIPTION, new MLText(Locale.ENGLISH, "Figures for the last quarter"));
+        publicProperties.put(ContentModel.PROP_CREATED, new Date());
+        publicProperties.put(ContentModel.PROP_MODIFIED, new Date());
+        publicProperties.put(ContentModel.PROP_AUTHOR, "admin");
+        publicProperties.put(ContentModel.PROP_VERSION_LABEL, "1.3");
+        publicProperties.put(ContentModel.PROP_AUTO_VERSION, Boolean.TRUE);
+        publicProperties.put(ContentModel.PROP_NODE_DBID, Long.valueOf(123456L));
+        publicProperties.put(ContentModel.PROP_LOCALE, Locale.UK);
+        List<NodeRef> categories = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            categories.add(new NodeRef(StoreRef.STORE_REF_WORKSPACE_SPACESSTORE, GUID.generate()));
+        }
+        publicProperties.put(ContentModel.PROP_CATEGORIES, (Serializable) categories);
+        publicProperties.put(PROP_RESIDUAL, Integer.valueOf(42));
+
+        // Also creates the QName and locale entities, so the benchmarks only see cache hits
+        persistentProperties = helper.convertToPersistentProperties(publicProperties);
+    }
+
+    @Benchmark
+    public Map<NodePropertyKey, NodePropertyValue> convertToPersistentProperties()
+    {
+        return helper.convertToPersistentProperties(publicProperties);
+    }
+
+    @Benchmark
+    public Map<QName, Serializable> convertToPublicProperties()
+    {
+        return helper.convertToPublicProperties(persistentProperties);
+    }
+}
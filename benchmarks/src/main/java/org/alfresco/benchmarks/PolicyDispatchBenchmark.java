@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.benchmarks.support.DictionaryFixture;
+import org.alfresco.model.ContentModel;
+import org.alfresco.repo.node.NodeServicePolicies.OnUpdatePropertiesPolicy;
+import org.alfresco.repo.policy.ClassPolicyDelegate;
+import org.alfresco.repo.policy.JavaBehaviour;
+import org.alfresco.repo.policy.PolicyComponentImpl;
+import org.alfresco.repo.policy.PolicyComponentImpl.DispatchMode;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.StoreRef;
+import org.alfresco.service.namespace.QName;
+import org.alfresco.util.GUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Invocation of the <tt>onUpdateProperties</tt> policy of a document with the versionable, titled and
+ * auditable aspects, with one Java behaviour bound to each class, comparing proxy and compiled policy
+ * dispatch. {@link #getAndInvoke()} includes building the aggregate policy, as the node service does
+ * for every write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyDispatchBenchmark
+{
+    @Param({ "PROXY", "COMPILED" })
+    public DispatchMode dispatchMode;
+
+    private ClassPolicyDelegate<OnUpdatePropertiesPolicy> delegate;
+    private NodeRef nodeRef;
+    private Set<QName> classes;
+    private Map<QName, Serializable> before;
+    private Map<QName, Serializable> after;
+    private OnUpdatePropertiesPolicy policy;
+
+    @Setup
+    public void setUp()
+    {
+        PolicyComponentImpl policyComponent = new PolicyComponentImpl(DictionaryFixture.getInstance().getDictionaryService());
+        policyComponent.setDispatchMode(dispatchMode);
+        delegate = policyComponent.registerClassPolicy(OnUpdatePropertiesPolicy.class);
+
+        classes = new HashSet<>();
+        classes.add(ContentModel.TYPE_CONTENT);
+        classes.add(ContentModel.ASPECT_VERSIONABLE);
+        classes.add(ContentModel.ASPECT_TITLED);
+        classes.add(ContentModel.ASPECT_AUDITABLE);
+        for (QName classQName : classes)
+        {
+            // Separate instances, as behaviours with the same instance and method are only invoked once
+            policyComponent.bindClassBehaviour(OnUpdatePropertiesPolicy.QNAME, classQName,
+                    new JavaBehaviour(new UpdateCounter(), "onUpdateProperties"));
+        }
+
+        nodeRef = new NodeRef(StoreRef.STORE_REF_WORKSPACE_SPACESSTORE, GUID.generate());
+        before = new HashMap<>();
+        before.put(ContentModel.PROP_NAME, "Quarterly report.docx");
+        after = new HashMap<>(before);
+        after.put(ContentModel.PROP_TITLE, "Quarterly report");
+        policy = delegate.get(nodeRef, classes);
+    }
+
+    @Benchmark
+    public void invoke()
+    {
+        policy.onUpdateProperties(nodeRef, before, after);
+    }
+
+    @Benchmark
+    public void getAndInvoke()
+    {
+        delegate.get(nodeRef, classes).onUpdateProperties(nodeRef, before, after);
+    }
+
+    /**
+     * A behaviour doing a trivial amount of work, so that dispatch dominates.
+     */
+    public static class UpdateCounter
+    {
+        private int updates;
+
+        public void onUpdateProperties(NodeRef nodeRef, Map<QName, Serializable> before, Map<QName, Serializable> after)
+        {
+            updates += after.size();
+        }
+
+        public int getUpdates()
+        {
+            return updates;
+        }
+    }
+}
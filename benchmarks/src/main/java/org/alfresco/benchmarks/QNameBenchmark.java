@@ -0,0 +1,108 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.service.namespace.DynamicNamespacePrefixResolver;
+import org.alfresco.service.namespace.NamespaceService;
+import org.alfresco.service.namespace.QName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link QName} creation from its different string forms, conversion back to a prefixed string,
+ * and use as a map key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QNameBenchmark
+{
+    private DynamicNamespacePrefixResolver prefixResolver;
+    private Map<QName, Object> properties;
+    private String localName;
+
+    @Setup
+    public void setUp()
+    {
+        prefixResolver = new DynamicNamespacePrefixResolver();
+        prefixResolver.registerNamespace(NamespaceService.CONTENT_MODEL_PREFIX, NamespaceService.CONTENT_MODEL_1_0_URI);
+        prefixResolver.registerNamespace(NamespaceService.SYSTEM_MODEL_PREFIX, NamespaceService.SYSTEM_MODEL_1_0_URI);
+
+        properties = new HashMap<>();
+        properties.put(ContentModel.PROP_NAME, "name");
+        properties.put(ContentModel.PROP_TITLE, "title");
+        properties.put(ContentModel.PROP_CREATED, "created");
+        properties.put(ContentModel.PROP_NODE_DBID, "dbid");
+        // Not a constant, so that the JIT cannot fold the QName creation
+        localName = new String("name");
+    }
+
+    @Benchmark
+    public QName createFromNamespaceAndLocalName()
+    {
+        return QName.createQName(NamespaceService.CONTENT_MODEL_1_0_URI, localName);
+    }
+
+    @Benchmark
+    public QName createFromFullyQualifiedString()
+    {
+        return QName.createQName("{" + NamespaceService.CONTENT_MODEL_1_0_URI + "}" + localName);
+    }
+
+    @Benchmark
+    public QName createFromPrefixedString()
+    {
+        return QName.createQName("cm:" + localName, prefixResolver);
+    }
+
+    @Benchmark
+    public String toPrefixString()
+    {
+        return ContentModel.PROP_NAME.toPrefixString(prefixResolver);
+    }
+
+    @Benchmark
+    public Object mapLookupWithNewQName()
+    {
+        return properties.get(QName.createQName(NamespaceService.CONTENT_MODEL_1_0_URI, localName));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.benchmarks.support.InMemoryTransactionManager;
+import org.alfresco.repo.cache.DefaultSimpleCache;
+import org.alfresco.repo.cache.TransactionalCache;
+import org.alfresco.repo.cache.TransactionalCache.ValueHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link TransactionalCache} reads and writes, outside a transaction and within read-only and read-write
+ * transactions including the commit of the transactional changes to the shared cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionalCacheBenchmark
+{
+    @Param({ "10000" })
+    public int sharedCacheSize;
+
+    /** Number of cache operations in each transaction */
+    @Param({ "100" })
+    public int operationsPerTxn;
+
+    private TransactionalCache<Serializable, Object> cache;
+    private TransactionTemplate readOnlyTxn;
+    private TransactionTemplate readWriteTxn;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        DefaultSimpleCache<Serializable, ValueHolder<Object>> sharedCache = new DefaultSimpleCache<>(sharedCacheSize * 2, "benchmarkSharedCache");
+        cache = new TransactionalCache<>();
+        cache.setName("benchmarkTransactionalCache");
+        cache.setSharedCache(sharedCache);
+        cache.setMaxCacheSize(operationsPerTxn * 2);
+        cache.afterPropertiesSet();
+        for (int i = 0; i < sharedCacheSize; i++)
+        {
+            cache.put(Long.valueOf(i), "value-" + i);
+        }
+
+        readOnlyTxn = InMemoryTransactionManager.newTransactionTemplate(true);
+        readWriteTxn = InMemoryTransactionManager.newTransactionTemplate(false);
+    }
+
+    @Benchmark
+    public Object getOutsideTransaction()
+    {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    public void getInReadOnlyTransaction(Blackhole blackhole)
+    {
+        readOnlyTxn.execute(status -> {
+            for (int i = 0; i < operationsPerTxn; i++)
+            {
+                blackhole.consume(cache.get(randomKey()));
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void getAndPutInReadWriteTransaction(Blackhole blackhole)
+    {
+        readWriteTxn.execute(status -> {
+            for (int i = 0; i < operationsPerTxn; i++)
+            {
+                Long key = randomKey();
+                Object value = cache.get(key);
+                blackhole.consume(value);
+                // Update one key in ten, as a typical write transaction mostly reads
+                if (i % 10 == 0)
+                {
+                    cache.put(key, "value-" + key);
+                }
+            }
+            return null;
+        });
+    }
+
+    private Long randomKey()
+    {
+        return Long.valueOf(ThreadLocalRandom.current().nextInt(sharedCacheSize));
+    }
+}
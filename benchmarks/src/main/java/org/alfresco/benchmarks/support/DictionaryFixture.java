@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks.support;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.alfresco.repo.dictionary.CompiledModelsCache;
+import org.alfresco.repo.dictionary.DictionaryBootstrap;
+import org.alfresco.repo.dictionary.DictionaryComponent;
+import org.alfresco.repo.dictionary.DictionaryDAOImpl;
+import org.alfresco.repo.dictionary.DictionaryNamespaceComponent;
+import org.alfresco.repo.tenant.SingleTServiceImpl;
+import org.alfresco.repo.tenant.TenantService;
+import org.alfresco.service.cmr.dictionary.DictionaryService;
+import org.alfresco.service.namespace.NamespaceService;
+import org.alfresco.util.ThreadPoolExecutorFactoryBean;
+import org.alfresco.util.cache.DefaultAsynchronouslyRefreshedCacheRegistry;
+
+/**
+ * An in-memory dictionary holding the dictionary, system and content models, shared by all benchmarks
+ * in the JVM.
+ */
+public final class DictionaryFixture
+{
+    private static DictionaryFixture instance;
+
+    private final DictionaryService dictionaryService;
+    private final NamespaceService namespaceService;
+
+    public static synchronized DictionaryFixture getInstance()
+    {
+        if (instance == null)
+        {
+            try
+            {
+                instance = new DictionaryFixture();
+            }
+            catch (Exception e)
+            {
+                throw new IllegalStateException("Failed to bootstrap the dictionary", e);
+            }
+        }
+        return instance;
+    }
+
+    private DictionaryFixture() throws Exception
+    {
+        TenantService tenantService = new SingleTServiceImpl();
+        DictionaryDAOImpl dictionaryDAO = new DictionaryDAOImpl();
+        dictionaryDAO.setTenantService(tenantService);
+
+        CompiledModelsCache compiledModelsCache = new CompiledModelsCache();
+        compiledModelsCache.setDictionaryDAO(dictionaryDAO);
+        compiledModelsCache.setTenantService(tenantService);
+        compiledModelsCache.setRegistry(new DefaultAsynchronouslyRefreshedCacheRegistry());
+        ThreadPoolExecutorFactoryBean threadPoolfactory = new ThreadPoolExecutorFactoryBean();
+        threadPoolfactory.afterPropertiesSet();
+        compiledModelsCache.setThreadPoolExecutor((ThreadPoolExecutor) threadPoolfactory.getObject());
+        dictionaryDAO.setDictionaryRegistryCache(compiledModelsCache);
+        dictionaryDAO.init();
+
+        DictionaryBootstrap bootstrap = new DictionaryBootstrap();
+        bootstrap.setModels(Arrays.asList(
+                "alfresco/model/dictionaryModel.xml",
+                "alfresco/model/systemModel.xml",
+                "alfresco/model/contentModel.xml"));
+        bootstrap.setDictionaryDAO(dictionaryDAO);
+        bootstrap.setTenantService(tenantService);
+        bootstrap.bootstrap();
+
+        DictionaryComponent dictionaryComponent = new DictionaryComponent();
+        dictionaryComponent.setDictionaryDAO(dictionaryDAO);
+        this.dictionaryService = dictionaryComponent;
+
+        DictionaryNamespaceComponent namespaceComponent = new DictionaryNamespaceComponent();
+        namespaceComponent.setNamespaceDAO(dictionaryDAO);
+        this.namespaceService = namespaceComponent;
+    }
+
+    public DictionaryService getDictionaryService()
+    {
+        return dictionaryService;
+    }
+
+    public NamespaceService getNamespaceService()
+    {
+        return namespaceService;
+    }
+}
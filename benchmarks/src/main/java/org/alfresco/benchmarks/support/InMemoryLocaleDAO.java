@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.repo.cache.DefaultSimpleCache;
+import org.alfresco.repo.domain.locale.AbstractLocaleDAOImpl;
+import org.alfresco.repo.domain.locale.LocaleEntity;
+
+/**
+ * Locale DAO storing its entities in maps instead of the <tt>alf_locale</tt> table.
+ */
+public class InMemoryLocaleDAO extends AbstractLocaleDAOImpl
+{
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private final Map<Long, LocaleEntity> localesById = new ConcurrentHashMap<>();
+    private final Map<String, LocaleEntity> localesByStr = new ConcurrentHashMap<>();
+
+    public InMemoryLocaleDAO()
+    {
+        setLocaleEntityCache(new DefaultSimpleCache<>(100, "localeEntityCache"));
+    }
+
+    @Override
+    protected LocaleEntity getLocaleEntity(Long id)
+    {
+        return localesById.get(id);
+    }
+
+    @Override
+    protected List<LocaleEntity> getLocaleEntities(List<Long> ids)
+    {
+        List<LocaleEntity> entities = new ArrayList<>(ids.size());
+        for (Long id : ids)
+        {
+            LocaleEntity entity = localesById.get(id);
+            if (entity != null)
+            {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    @Override
+    protected LocaleEntity getLocaleEntity(String localeStr)
+    {
+        return localesByStr.get(localeStr);
+    }
+
+    @Override
+    protected LocaleEntity createLocaleEntity(String localeStr)
+    {
+        LocaleEntity entity = new LocaleEntity();
+        entity.setId(nextId.getAndIncrement());
+        entity.setVersion(LocaleEntity.CONST_LONG_ZERO);
+        entity.setLocaleStr(localeStr);
+        localesById.put(entity.getId(), entity);
+        localesByStr.put(localeStr, entity);
+        return entity;
+    }
+}
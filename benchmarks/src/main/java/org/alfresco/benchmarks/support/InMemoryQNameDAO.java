@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.repo.cache.DefaultSimpleCache;
+import org.alfresco.repo.domain.qname.AbstractQNameDAOImpl;
+import org.alfresco.repo.domain.qname.NamespaceEntity;
+import org.alfresco.repo.domain.qname.QNameEntity;
+import org.alfresco.util.Pair;
+
+/**
+ * QName DAO storing its entities in maps instead of the <tt>alf_namespace</tt> and <tt>alf_qname</tt> tables.
+ * The entity caches are set up as in the repository, so lookups follow the production cache paths.
+ */
+public class InMemoryQNameDAO extends AbstractQNameDAOImpl
+{
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private final Map<Long, NamespaceEntity> namespacesById = new ConcurrentHashMap<>();
+    private final Map<String, NamespaceEntity> namespacesByUri = new ConcurrentHashMap<>();
+    private final Map<Long, QNameEntity> qnamesById = new ConcurrentHashMap<>();
+    private final Map<Pair<Long, String>, QNameEntity> qnamesByName = new ConcurrentHashMap<>();
+
+    public InMemoryQNameDAO()
+    {
+        setNamespaceCache(new DefaultSimpleCache<>(1000, "namespaceEntityCache"));
+        setQnameCache(new DefaultSimpleCache<>(10000, "qnameEntityCache"));
+    }
+
+    @Override
+    protected NamespaceEntity findNamespaceEntityById(Long id)
+    {
+        return namespacesById.get(id);
+    }
+
+    @Override
+    protected NamespaceEntity findNamespaceEntityByUri(String uri)
+    {
+        return namespacesByUri.get(uri);
+    }
+
+    @Override
+    protected NamespaceEntity createNamespaceEntity(String uri)
+    {
+        NamespaceEntity entity = new NamespaceEntity();
+        entity.setId(nextId.getAndIncrement());
+        entity.setVersion(NamespaceEntity.CONST_LONG_ZERO);
+        entity.setUriSafe(uri);
+        namespacesById.put(entity.getId(), entity);
+        namespacesByUri.put(uri, entity);
+        return entity;
+    }
+
+    @Override
+    protected int updateNamespaceEntity(NamespaceEntity entity, String uri)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected QNameEntity findQNameEntityById(Long id)
+    {
+        return qnamesById.get(id);
+    }
+
+    @Override
+    protected List<QNameEntity> findQNameEntitiesByIds(List<Long> ids)
+    {
+        List<QNameEntity> entities = new ArrayList<>(ids.size());
+        for (Long id : ids)
+        {
+            QNameEntity entity = qnamesById.get(id);
+            if (entity != null)
+            {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    @Override
+    protected QNameEntity findQNameEntityByNamespaceAndLocalName(Long nsId, String localName)
+    {
+        return qnamesByName.get(new Pair<>(nsId, localName));
+    }
+
+    @Override
+    protected QNameEntity createQNameEntity(Long nsId, String localName)
+    {
+        QNameEntity entity = new QNameEntity();
+        entity.setId(nextId.getAndIncrement());
+        entity.setVersion(QNameEntity.CONST_LONG_ZERO);
+        entity.setNamespaceId(nsId);
+        entity.setLocalNameSafe(localName);
+        qnamesById.put(entity.getId(), entity);
+        qnamesByName.put(new Pair<>(nsId, localName), entity);
+        return entity;
+    }
+
+    @Override
+    protected int updateQNameEntity(QNameEntity entity, Long nsId, String localName)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected int deleteQNameEntity(QNameEntity entity)
+    {
+        throw new UnsupportedOperationException();
+    }
+}
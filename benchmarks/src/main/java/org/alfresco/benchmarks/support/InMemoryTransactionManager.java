@@ -0,0 +1,72 @@
+/*
+ * #%L
+ * Alfresco Benchmarks
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.benchmarks.support;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * A transaction manager without any resource. Transactions only drive the Spring synchronizations, which is
+ * enough for transaction-aware components such as the <tt>TransactionalCache</tt> to follow their normal
+ * commit and rollback paths.
+ */
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @return a template running callbacks in read-only or read-write transactions of this manager
+     */
+    public static TransactionTemplate newTransactionTemplate(boolean readOnly)
+    {
+        TransactionTemplate template = new TransactionTemplate(new InMemoryTransactionManager());
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    @Override
+    protected Object doGetTransaction()
+    {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition)
+    {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status)
+    {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status)
+    {
+    }
+}
@@ -34,6 +34,9 @@ public class PagingRequest
     
     private int requestTotalCountMax = 0; // request total count up to a given max (0 => do not request total count)
     private String queryExecutionId;
+    
+    private boolean keysetPaging = false;
+    private String afterCursor;
 
     /**
      * Construct a page request
@@ -158,4 +161,45 @@ public class PagingRequest
     {
         this.queryExecutionId = queryExecutionId; 
     }
+    
+    /**
+     * @return                      true if keyset paging was requested (see {@link #setKeysetPaging(boolean)})
+     */
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging;
+    }
+    
+    /**
+     * Request keyset (seek) paging, if supported by the query. Pages are then positioned by an opaque cursor
+     * rather than by the skip count, so that a deep page costs about the same as the first one.  The cursor
+     * for the next page is returned by {@link PagingResults#getNextCursor()}.
+     */
+    public void setKeysetPaging(boolean keysetPaging)
+    {
+        this.keysetPaging = keysetPaging;
+    }
+    
+    /**
+     * @return                      the cursor after which the page starts, or <tt>null</tt> for the first page
+     */
+    public String getAfterCursor()
+    {
+        return afterCursor;
+    }
+    
+    /**
+     * Start the page after the given cursor, as returned by {@link PagingResults#getNextCursor()} for the previous
+     * page.  Setting a cursor implies keyset paging.  Any skip count is applied relative to the cursor.
+     * 
+     * @param afterCursor           the opaque cursor (or <tt>null</tt> to start from the first item)
+     */
+    public void setAfterCursor(String afterCursor)
+    {
+        this.afterCursor = afterCursor;
+        if (afterCursor != null)
+        {
+            this.keysetPaging = true;
+        }
+    }
 }
@@ -76,4 +76,16 @@ public interface PagingResults<R>
      * @return                      a unique ID associated with the query execution results
      */
     public String getQueryExecutionId();
+    
+    /**
+     * Get the cursor from which the next page can be requested with keyset paging
+     * (see {@link PagingRequest#setAfterCursor(String)}).
+     * 
+     * @return                      an opaque cursor, or <tt>null</tt> if keyset paging was not requested,
+     *                              is not supported by the query, or there are no more items
+     */
+    public default String getNextCursor()
+    {
+        return null;
+    }
 }
@@ -0,0 +1,515 @@
+/*
+ * Copyright (C) 2005-2024 Alfresco Software Limited.
+ *
+ * This file is part of Alfresco
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.alfresco.util;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link BridgeTable} that interns its nodes as <tt>int</tt> ids and keeps the closure of each node in primitive arrays.
+ * <p>
+ * Each node's ancestors and descendants are held in an open addressing table keyed by depth and node id, with the
+ * reference count alongside. That replaces the three levels of nested hash maps (and the boxed depths and counters)
+ * of the plain bridge table, so a large hierarchy takes a fraction of the memory.
+ * <p>
+ * The count of an entry is the number of distinct paths of that length between the two nodes, so removing a link takes
+ * away exactly the paths it added and the table can be kept up to date in place rather than being rebuilt. As with the
+ * plain table, adding a link that would make a cycle fails with a {@link ConcurrentModificationException}, but here the
+ * table is left unchanged. Reads are safe concurrently with updates.
+ */
+public class CompactBridgeTable<T> extends BridgeTable<T>
+{
+    /** Rough size of the interning of a node: a hash map entry, a boxed id and a list slot */
+    private static final long NODE_OVERHEAD_BYTES = 72L;
+
+    private final HashMap<T, Integer> ids = new HashMap<T, Integer>();
+
+    private final ArrayList<T> nodes = new ArrayList<T>();
+
+    private final ArrayList<Closure> ancestorClosures = new ArrayList<Closure>();
+
+    private final ArrayList<Closure> descendantClosures = new ArrayList<Closure>();
+
+    private int nodesWithAncestors = 0;
+
+    @Override
+    public void addLink(T parent, T child)
+    {
+        readWriteLock.writeLock().lock();
+        try
+        {
+            updatePaths(intern(parent), intern(child), 1);
+        }
+        finally
+        {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeLink(T parent, T child)
+    {
+        readWriteLock.writeLock().lock();
+        try
+        {
+            Integer parentId = ids.get(parent);
+            Integer childId = ids.get(child);
+            Closure childsAncestors = childId == null ? null : ancestorClosures.get(childId);
+            if (parentId == null || childsAncestors == null || !childsAncestors.containsKey(Closure.key(1, parentId)))
+            {
+                // There is no such link
+                return;
+            }
+            updatePaths(parentId, childId, -1);
+        }
+        finally
+        {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public HashSet<T> getDescendants(T node, int start, int end)
+    {
+        readWriteLock.readLock().lock();
+        try
+        {
+            Integer id = ids.get(node);
+            return id == null ? new HashSet<T>() : collect(descendantClosures.get(id), start, end);
+        }
+        finally
+        {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public HashSet<T> getAncestors(T node, int start, int end)
+    {
+        readWriteLock.readLock().lock();
+        try
+        {
+            Integer id = ids.get(node);
+            return id == null ? new HashSet<T>() : collect(ancestorClosures.get(id), start, end);
+        }
+        finally
+        {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        readWriteLock.readLock().lock();
+        try
+        {
+            return nodesWithAncestors;
+        }
+        finally
+        {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return a copy of the nodes that have (or have had) a parent, as for the plain bridge table
+     */
+    @Override
+    public Set<T> keySet()
+    {
+        readWriteLock.readLock().lock();
+        try
+        {
+            Set<T> keys = new HashSet<T>(nodesWithAncestors * 2);
+            for (int id = 0; id < nodes.size(); id++)
+            {
+                if (ancestorClosures.get(id) != null)
+                {
+                    keys.add(nodes.get(id));
+                }
+            }
+            return keys;
+        }
+        finally
+        {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of interned nodes
+     */
+    public int getNodeCount()
+    {
+        readWriteLock.readLock().lock();
+        try
+        {
+            return nodes.size();
+        }
+        finally
+        {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of (depth, node) entries across all ancestor and descendant closures
+     */
+    public long getEntryCount()
+    {
+        readWriteLock.readLock().lock();
+        try
+        {
+            long count = 0;
+            for (int id = 0; id < nodes.size(); id++)
+            {
+                count += size(ancestorClosures.get(id)) + size(descendantClosures.get(id));
+            }
+            return count;
+        }
+        finally
+        {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return an estimate of the heap taken by the table, not counting the nodes themselves
+     */
+    public long getEstimatedSizeInBytes()
+    {
+        readWriteLock.readLock().lock();
+        try
+        {
+            long bytes = nodes.size() * NODE_OVERHEAD_BYTES;
+            for (int id = 0; id < nodes.size(); id++)
+            {
+                bytes += sizeInBytes(ancestorClosures.get(id)) + sizeInBytes(descendantClosures.get(id));
+            }
+            return bytes;
+        }
+        finally
+        {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    private static int size(Closure closure)
+    {
+        return closure == null ? 0 : closure.size;
+    }
+
+    private static long sizeInBytes(Closure closure)
+    {
+        return closure == null ? 0 : closure.sizeInBytes();
+    }
+
+    private int intern(T node)
+    {
+        Integer id = ids.get(node);
+        if (id == null)
+        {
+            id = nodes.size();
+            ids.put(node, id);
+            nodes.add(node);
+            ancestorClosures.add(null);
+            descendantClosures.add(null);
+        }
+        return id;
+    }
+
+    private HashSet<T> collect(Closure closure, int start, int end)
+    {
+        HashSet<T> answer = new HashSet<T>();
+        if (closure != null)
+        {
+            long[] keys = closure.keys;
+            for (int i = 0; i < keys.length; i++)
+            {
+                long key = keys[i];
+                if (key != Closure.FREE)
+                {
+                    int depth = Closure.depth(key);
+                    if (depth >= start && depth <= end)
+                    {
+                        answer.add(nodes.get(Closure.id(key)));
+                    }
+                }
+            }
+        }
+        return answer;
+    }
+
+    private Closure descendants(int id)
+    {
+        Closure closure = descendantClosures.get(id);
+        if (closure == null)
+        {
+            closure = new Closure();
+            descendantClosures.set(id, closure);
+        }
+        return closure;
+    }
+
+    private Closure ancestors(int id)
+    {
+        Closure closure = ancestorClosures.get(id);
+        if (closure == null)
+        {
+            closure = new Closure();
+            ancestorClosures.set(id, closure);
+            nodesWithAncestors++;
+        }
+        return closure;
+    }
+
+    /**
+     * Adds (or with a negative sign removes) the paths through a link: every path from an ancestor of the parent to the
+     * parent, followed by the link, followed by every path from the child to one of its descendants.
+     */
+    private void updatePaths(int parent, int child, int sign)
+    {
+        Closure parentsAncestors = ancestorClosures.get(parent);
+        if (parent == child || contains(parentsAncestors, child))
+        {
+            // A cycle would feed a closure into itself
+            throw new ConcurrentModificationException("Cyclic link from " + nodes.get(parent) + " to " + nodes.get(child));
+        }
+        long[] above = withSelf(parentsAncestors, parent);
+        int[] aboveCounts = countsWithSelf(parentsAncestors);
+        long[] below = withSelf(descendantClosures.get(child), child);
+        int[] belowCounts = countsWithSelf(descendantClosures.get(child));
+
+        for (int i = 0; i < above.length; i++)
+        {
+            Closure descendants = descendants(Closure.id(above[i]));
+            for (int j = 0; j < below.length; j++)
+            {
+                int depth = Closure.depth(above[i]) + Closure.depth(below[j]) + 1;
+                descendants.add(Closure.key(depth, Closure.id(below[j])), sign * aboveCounts[i] * belowCounts[j]);
+            }
+        }
+        for (int j = 0; j < below.length; j++)
+        {
+            Closure ancestors = ancestors(Closure.id(below[j]));
+            for (int i = 0; i < above.length; i++)
+            {
+                int depth = Closure.depth(above[i]) + Closure.depth(below[j]) + 1;
+                ancestors.add(Closure.key(depth, Closure.id(above[i])), sign * aboveCounts[i] * belowCounts[j]);
+            }
+        }
+    }
+
+    private static boolean contains(Closure closure, int id)
+    {
+        if (closure != null)
+        {
+            for (long key : closure.keys)
+            {
+                if (key != Closure.FREE && Closure.id(key) == id)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the keys of the closure, preceded by the node itself at depth zero
+     */
+    private static long[] withSelf(Closure closure, int id)
+    {
+        long[] keys = new long[size(closure) + 1];
+        keys[0] = Closure.key(0, id);
+        if (closure != null)
+        {
+            int next = 1;
+            for (long key : closure.keys)
+            {
+                if (key != Closure.FREE)
+                {
+                    keys[next++] = key;
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return the counts matching {@link #withSelf(Closure, int)}, the node itself being reached once
+     */
+    private static int[] countsWithSelf(Closure closure)
+    {
+        int[] counts = new int[size(closure) + 1];
+        counts[0] = 1;
+        if (closure != null)
+        {
+            int next = 1;
+            for (int i = 0; i < closure.keys.length; i++)
+            {
+                if (closure.keys[i] != Closure.FREE)
+                {
+                    counts[next++] = closure.counts[i];
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Reference counts keyed by depth and node id, in a linear probing table. Depths start at one, so no key is zero
+     * and zero marks a free slot.
+     */
+    private static final class Closure
+    {
+        static final long FREE = 0L;
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        long[] keys = new long[INITIAL_CAPACITY];
+        int[] counts = new int[INITIAL_CAPACITY];
+        int size;
+
+        static long key(int depth, int id)
+        {
+            return ((long) depth << 32) | (id & 0xFFFFFFFFL);
+        }
+
+        static int depth(long key)
+        {
+            return (int) (key >>> 32);
+        }
+
+        static int id(long key)
+        {
+            return (int) key;
+        }
+
+        long sizeInBytes()
+        {
+            // object header and fields, plus the two arrays with their headers
+            return 32 + 16 + 8L * keys.length + 16 + 4L * counts.length;
+        }
+
+        private int slot(long key)
+        {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+        }
+
+        /**
+         * Adjusts the count of a key, adding it if it is not there and dropping it when the count reaches zero. Counts
+         * are path counts, which wrap consistently on overflow as links are only ever removed after being added.
+         */
+        void add(long key, int delta)
+        {
+            int i = slot(key);
+            while (keys[i] != FREE)
+            {
+                if (keys[i] == key)
+                {
+                    counts[i] += delta;
+                    if (counts[i] == 0)
+                    {
+                        delete(i);
+                    }
+                    return;
+                }
+                i = (i + 1) & (keys.length - 1);
+            }
+            if (delta == 0)
+            {
+                return;
+            }
+            keys[i] = key;
+            counts[i] = delta;
+            size++;
+            if (size * 4 > keys.length * 3)
+            {
+                resize(keys.length * 2);
+            }
+        }
+
+        boolean containsKey(long key)
+        {
+            int i = slot(key);
+            while (keys[i] != FREE)
+            {
+                if (keys[i] == key)
+                {
+                    return true;
+                }
+                i = (i + 1) & (keys.length - 1);
+            }
+            return false;
+        }
+
+        private void delete(int i)
+        {
+            int mask = keys.length - 1;
+            int j = i;
+            while (true)
+            {
+                j = (j + 1) & mask;
+                if (keys[j] == FREE)
+                {
+                    break;
+                }
+                // Shift back any entry whose home slot does not lie cyclically in (i, j]
+                int home = slot(keys[j]);
+                boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays)
+                {
+                    keys[i] = keys[j];
+                    counts[i] = counts[j];
+                    i = j;
+                }
+            }
+            keys[i] = FREE;
+            counts[i] = 0;
+            size--;
+        }
+
+        private void resize(int capacity)
+        {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[capacity];
+            counts = new int[capacity];
+            for (int i = 0; i < oldKeys.length; i++)
+            {
+                if (oldKeys[i] != FREE)
+                {
+                    int j = slot(oldKeys[i]);
+                    while (keys[j] != FREE)
+                    {
+                        j = (j + 1) & (capacity - 1);
+                    }
+                    keys[j] = oldKeys[i];
+                    counts[j] = oldCounts[i];
+                }
+            }
+        }
+    }
+}
@@ -21,6 +21,8 @@ package org.alfresco.util;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -32,7 +34,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @since 2.1
  * @author Derek Hulley
  */
-public class TraceableThreadFactory implements ThreadFactory
+public class TraceableThreadFactory implements ThreadFactory, ForkJoinPool.ForkJoinWorkerThreadFactory
 {
     private static final AtomicInteger factoryNumber = new AtomicInteger(1);
     private static List<ThreadGroup> activeThreadGroups = Collections.synchronizedList(new ArrayList<ThreadGroup>(1));
@@ -96,6 +98,22 @@ public class TraceableThreadFactory implements ThreadFactory
         return thread;
     }
     
+    /**
+     * Creates a worker thread for a work-stealing pool, named, daemon and prioritized as for {@link #newThread(Runnable)}.
+     * Note that the thread is in the thread group of the thread that creates it rather than in the factory's group.
+     */
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+    {
+        ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool)
+        {
+        };
+        thread.setName(namePrefix + threadNumber.getAndIncrement());
+        thread.setDaemon(threadDaemon);
+        thread.setPriority(threadPriority);
+        
+        return thread;
+    }
+    
     public void setNamePrefix(String namePrefix)
     {
         this.namePrefix = namePrefix;
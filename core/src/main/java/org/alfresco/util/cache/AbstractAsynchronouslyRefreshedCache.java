@@ -197,6 +197,7 @@ public abstract class AbstractAsynchronouslyRefreshedCache<T>
             liveLock.writeLock().lock();
             try
             {
+                beforeLiveUpdate(key, cache);
                 live.put(key, cache);
             }
             finally
@@ -490,6 +491,7 @@ public abstract class AbstractAsynchronouslyRefreshedCache<T>
             liveLock.writeLock().lock();
             try
             {
+                beforeLiveUpdate(refresh.getKey(), cache);
                 live.put(refresh.getKey(), cache);
             }
             finally
@@ -603,6 +605,20 @@ public abstract class AbstractAsynchronouslyRefreshedCache<T>
             return cacheId;
         }
 
+        /**
+         * Called with the live lock held just before a newly built cache entry replaces the live one. Caches that
+         * change their live entries in place use this to bring the new entry up to date with the changes made while
+         * it was being built.
+         * 
+         * @param key
+         *            the cache key
+         * @param cache
+         *            the newly built cache entry
+         */
+        protected void beforeLiveUpdate(String key, T cache)
+        {
+        }
+
         /**
          * Build the cache entry for the specific key.
          * This method is called in a thread-safe manner i.e. it is only ever called by a single
@@ -31,11 +31,15 @@ import org.junit.Test;
  */
 public class BridgeTableTest extends TestCase
 {
+    protected BridgeTable<String> newBridgeTable()
+    {
+        return new BridgeTable<String>();
+    }
 
     @Test
     public void testBasic()
     {
-        BridgeTable<String> bridgeTable = new BridgeTable<String>();
+        BridgeTable<String> bridgeTable = newBridgeTable();
         bridgeTable.addLink("A", "B");
         bridgeTable.addLink("C", "D");
         bridgeTable.addLink("E", "F");
@@ -172,7 +176,7 @@ public class BridgeTableTest extends TestCase
      // 1M = 21 
         for (int i = 0; i < 15; i++) 
         { 
-            BridgeTable<String> bridgeTable = new BridgeTable<String>();
+            BridgeTable<String> bridgeTable = newBridgeTable();
             long start = System.nanoTime(); 
             bridgeTable.addLinks(getTreeLinks(i)); 
             long end = System.nanoTime(); 
@@ -214,7 +218,7 @@ public class BridgeTableTest extends TestCase
     @Test
     public void test_100x100()
     {
-        BridgeTable<String> bridgeTable = new BridgeTable<String>();
+        BridgeTable<String> bridgeTable = newBridgeTable();
         HashSet<Pair<String, String>> links = new HashSet<Pair<String, String>>(); 
         for (int i = 0; i < 10; i++) 
         { 
@@ -242,7 +246,7 @@ public class BridgeTableTest extends TestCase
     @Test
     public void testSecondary()
     {   
-        BridgeTable<String> bridgeTable = new BridgeTable<String>();
+        BridgeTable<String> bridgeTable = newBridgeTable();
         
         bridgeTable.addLink("A", "B");
         bridgeTable.addLink("A", "C");
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2005-2024 Alfresco Software Limited.
+ *
+ * This file is part of Alfresco
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.alfresco.util;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Runs the bridge table tests against the {@link CompactBridgeTable}, and checks it against the paths through its links.
+ */
+public class CompactBridgeTableTest extends BridgeTableTest
+{
+    @Override
+    protected BridgeTable<String> newBridgeTable()
+    {
+        return new CompactBridgeTable<String>();
+    }
+
+    @Test
+    public void testMatchesPathsThroughLinks()
+    {
+        Random random = new Random(42);
+        CompactBridgeTable<String> bridgeTable = new CompactBridgeTable<String>();
+        List<Pair<String, String>> links = new ArrayList<Pair<String, String>>();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            if (links.isEmpty() || random.nextInt(3) > 0)
+            {
+                // Only link down to a higher numbered group, so that there are no cycles
+                int parent = random.nextInt(40);
+                int child = parent + 1 + random.nextInt(10);
+                Pair<String, String> link = new Pair<String, String>("GROUP_" + parent, "GROUP_" + child);
+                links.add(link);
+                bridgeTable.addLink(link);
+            }
+            else
+            {
+                bridgeTable.removeLink(links.remove(random.nextInt(links.size())));
+            }
+
+            if (i % 100 == 99)
+            {
+                for (int group = 0; group < 50; group++)
+                {
+                    String name = "GROUP_" + group;
+                    for (int depth = 1; depth < 5; depth++)
+                    {
+                        assertEquals(reachable(links, name, depth, true), bridgeTable.getDescendants(name, depth));
+                        assertEquals(reachable(links, name, depth, false), bridgeTable.getAncestors(name, depth));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRemovingMissingLinkIsIgnored()
+    {
+        CompactBridgeTable<String> bridgeTable = new CompactBridgeTable<String>();
+        bridgeTable.addLink("A", "B");
+        bridgeTable.addLink("B", "C");
+
+        bridgeTable.removeLink("A", "C");
+        bridgeTable.removeLink("X", "C");
+
+        assertEquals(2, bridgeTable.getAncestors("C").size());
+        assertEquals(2, bridgeTable.getDescendants("A").size());
+    }
+
+    @Test
+    public void testRemovingAllLinksEmptiesTheClosures()
+    {
+        CompactBridgeTable<String> bridgeTable = new CompactBridgeTable<String>();
+        bridgeTable.addLink("A", "B");
+        bridgeTable.addLink("B", "C");
+        bridgeTable.addLink("A", "C");
+        bridgeTable.addLink("C", "D");
+        assertEquals(3, bridgeTable.getDescendants("A").size());
+        assertTrue(bridgeTable.getEntryCount() > 0);
+
+        bridgeTable.removeLink("A", "C");
+        assertEquals(3, bridgeTable.getDescendants("A").size());
+        bridgeTable.removeLink("C", "D");
+        bridgeTable.removeLink("B", "C");
+        bridgeTable.removeLink("A", "B");
+
+        assertEquals(0, bridgeTable.getEntryCount());
+        assertEquals(0, bridgeTable.getAncestors("D").size());
+        assertEquals(0, bridgeTable.getDescendants("A").size());
+        assertEquals(4, bridgeTable.getNodeCount());
+    }
+
+    @Test
+    public void testCyclicLinkIsRejected()
+    {
+        CompactBridgeTable<String> bridgeTable = new CompactBridgeTable<String>();
+        bridgeTable.addLink("A", "B");
+        bridgeTable.addLink("B", "C");
+        try
+        {
+            bridgeTable.addLink("C", "A");
+            fail("Expected the cycle to be detected");
+        }
+        catch (ConcurrentModificationException e)
+        {
+            // expected
+        }
+        assertEquals(0, bridgeTable.getAncestors("A").size());
+        assertEquals(2, bridgeTable.getDescendants("A").size());
+    }
+
+    @Test
+    public void testEstimatedSize()
+    {
+        CompactBridgeTable<String> bridgeTable = new CompactBridgeTable<String>();
+        long empty = bridgeTable.getEstimatedSizeInBytes();
+        for (int i = 1; i < 1000; i++)
+        {
+            bridgeTable.addLink("GROUP_" + (i / 2), "GROUP_" + i);
+        }
+        assertEquals(1000, bridgeTable.getNodeCount());
+        assertTrue(bridgeTable.getEstimatedSizeInBytes() > empty);
+        // Each entry takes twelve bytes at a load of at most three quarters, plus the array and node overheads
+        assertTrue(bridgeTable.getEstimatedSizeInBytes() < bridgeTable.getEntryCount() * 40 + 1000 * 200);
+    }
+
+    /**
+     * @return the groups at the end of a path of exactly the given length, walking down or up the links
+     */
+    private Set<String> reachable(List<Pair<String, String>> links, String group, int depth, boolean down)
+    {
+        Set<String> current = new HashSet<String>();
+        current.add(group);
+        for (int i = 0; i < depth; i++)
+        {
+            Set<String> next = new HashSet<String>();
+            for (Pair<String, String> link : links)
+            {
+                if (current.contains(down ? link.getFirst() : link.getSecond()))
+                {
+                    next.add(down ? link.getSecond() : link.getFirst());
+                }
+            }
+            current = next;
+        }
+        return current;
+    }
+}
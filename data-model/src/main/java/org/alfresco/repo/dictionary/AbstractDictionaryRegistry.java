@@ -32,6 +32,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -67,6 +68,10 @@ public abstract class AbstractDictionaryRegistry implements DictionaryRegistry
     private List<String> urisCache = new ArrayList<String>(20);
     private Map<String, String> prefixesCache = new ConcurrentHashMap<String, String>(0);
 
+    // class hierarchy, rebuilt lazily after the models change
+    private final AtomicInteger modelsVersion = new AtomicInteger();
+    private volatile ClassHierarchySnapshot classHierarchy;
+
     public AbstractDictionaryRegistry(DictionaryDAO dictionaryDAO)
     {
     	this.dictionaryDAO = dictionaryDAO;
@@ -77,6 +82,7 @@ public abstract class AbstractDictionaryRegistry implements DictionaryRegistry
     {
     	setCompiledModels(new HashMap<QName,CompiledModel>());
     	setUriToModels(new HashMap<String, List<CompiledModel>>());
+    	modelsVersion.incrementAndGet();
     }
 
     public Map<String, List<CompiledModel>> getUriToModels()
@@ -165,6 +171,7 @@ public abstract class AbstractDictionaryRegistry implements DictionaryRegistry
 	        }
 	
 			compiledModels.remove(modelName);
+			modelsVersion.incrementAndGet();
 	    }
 
 	    return compiledModel;
@@ -254,6 +261,7 @@ public abstract class AbstractDictionaryRegistry implements DictionaryRegistry
         }
 
 		compiledModels.put(modelName, model);
+		modelsVersion.incrementAndGet();
 
 		return modelName;
     }
@@ -700,10 +708,36 @@ public abstract class AbstractDictionaryRegistry implements DictionaryRegistry
         	urisCacheRWLock.writeLock().unlock();
         }
 	    prefixesCache.clear();
+	    modelsVersion.incrementAndGet();
 
 		removeImpl();
 	}
 
+    @Override
+    public ClassHierarchyIndex getClassHierarchyIndex()
+    {
+        // read the version first so that a model put during the build forces another one
+        int version = modelsVersion.get();
+        ClassHierarchyIndex parentIndex = getParentClassHierarchyIndex();
+        ClassHierarchySnapshot snapshot = classHierarchy;
+        if (snapshot == null || snapshot.version != version || snapshot.parentIndex != parentIndex)
+        {
+            ClassHierarchyIndex index = new ClassHierarchyIndex(getCompiledModels(true).values());
+            snapshot = new ClassHierarchySnapshot(version, parentIndex, index);
+            classHierarchy = snapshot;
+        }
+        return snapshot.index;
+    }
+
+    /**
+     * The index of the registry whose models are inherited by this one, if any. A cached
+     * index is only reused while the parent index it was built alongside is still current.
+     */
+    protected ClassHierarchyIndex getParentClassHierarchyIndex()
+    {
+        return null;
+    }
+
     @Override
     public boolean isModelInherited(QName modelName)
     {
@@ -723,4 +757,18 @@ public abstract class AbstractDictionaryRegistry implements DictionaryRegistry
 
     	return namespaceURI;
     }
+
+    private static final class ClassHierarchySnapshot
+    {
+        private final int version;
+        private final ClassHierarchyIndex parentIndex;
+        private final ClassHierarchyIndex index;
+
+        private ClassHierarchySnapshot(int version, ClassHierarchyIndex parentIndex, ClassHierarchyIndex index)
+        {
+            this.version = version;
+            this.parentIndex = parentIndex;
+            this.index = index;
+        }
+    }
 }
@@ -0,0 +1,195 @@
+/*
+ * #%L
+ * Alfresco Data model classes
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.dictionary;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.alfresco.service.cmr.dictionary.AspectDefinition;
+import org.alfresco.service.cmr.dictionary.ClassDefinition;
+import org.alfresco.service.cmr.dictionary.TypeDefinition;
+import org.alfresco.service.namespace.QName;
+
+/**
+ * Immutable, precompiled view of the type and aspect hierarchies of a set of compiled models.
+ * <p>
+ * Each class is given a dense integer id and its ancestors (itself included) are held in a
+ * {@link BitSet}, so {@link #isSubClass(QName, QName)} is a single bit test rather than a walk up
+ * the parent chain. The sub-class sets are computed once, when the index is built, and are shared
+ * between callers so they are returned unmodifiable.
+ * <p>
+ * Instances are built and cached by {@link AbstractDictionaryRegistry}, which discards them as soon
+ * as the models they were built from change.
+ */
+public final class ClassHierarchyIndex
+{
+    private final Map<QName, Integer> ids;
+    private final boolean[] aspects;
+    private final BitSet[] ancestors;
+    // sub-classes at any depth, including the class itself
+    private final List<Set<QName>> allSubClasses;
+    // immediate sub-classes only
+    private final List<Set<QName>> childClasses;
+
+    /**
+     * @param models the compiled models, inherited ones included, to index
+     */
+    public ClassHierarchyIndex(Collection<CompiledModel> models)
+    {
+        // Assign ids; the first definition of a name wins, as a name may only be defined once
+        Map<QName, Integer> ids = new HashMap<QName, Integer>(256);
+        List<ClassDefinition> classes = new ArrayList<ClassDefinition>(256);
+        for (CompiledModel model : models)
+        {
+            for (TypeDefinition type : model.getTypes())
+            {
+                if (ids.putIfAbsent(type.getName(), classes.size()) == null)
+                {
+                    classes.add(type);
+                }
+            }
+            for (AspectDefinition aspect : model.getAspects())
+            {
+                if (ids.putIfAbsent(aspect.getName(), classes.size()) == null)
+                {
+                    classes.add(aspect);
+                }
+            }
+        }
+
+        int size = classes.size();
+        boolean[] aspects = new boolean[size];
+        int[] parents = new int[size];
+        for (int id = 0; id < size; id++)
+        {
+            ClassDefinition classDef = classes.get(id);
+            aspects[id] = classDef.isAspect();
+            Integer parent = (classDef.getParentName() == null) ? null : ids.get(classDef.getParentName());
+            // types only extend types and aspects only extend aspects
+            parents[id] = (parent == null || classes.get(parent).isAspect() != aspects[id]) ? -1 : parent;
+        }
+
+        BitSet[] ancestors = new BitSet[size];
+        List<Set<QName>> allSubClasses = new ArrayList<Set<QName>>(size);
+        List<Set<QName>> childClasses = new ArrayList<Set<QName>>(size);
+        for (int id = 0; id < size; id++)
+        {
+            allSubClasses.add(new HashSet<QName>(4));
+            childClasses.add(new HashSet<QName>(4));
+        }
+        for (int id = 0; id < size; id++)
+        {
+            QName name = classes.get(id).getName();
+            BitSet classAncestors = new BitSet(size);
+            // stop on a repeated id so that a (broken) cyclic hierarchy cannot loop forever
+            for (int current = id; current != -1 && !classAncestors.get(current); current = parents[current])
+            {
+                classAncestors.set(current);
+                allSubClasses.get(current).add(name);
+            }
+            ancestors[id] = classAncestors;
+            if (parents[id] != -1 && parents[id] != id)
+            {
+                childClasses.get(parents[id]).add(name);
+            }
+        }
+        for (int id = 0; id < size; id++)
+        {
+            allSubClasses.set(id, Collections.unmodifiableSet(allSubClasses.get(id)));
+            childClasses.set(id, Collections.unmodifiableSet(childClasses.get(id)));
+        }
+
+        this.ids = ids;
+        this.aspects = aspects;
+        this.ancestors = ancestors;
+        this.allSubClasses = allSubClasses;
+        this.childClasses = childClasses;
+    }
+
+    /**
+     * @param superType QName
+     * @param follow
+     *            true => all sub types, including the type itself, false =>
+     *            immediate sub types only
+     * @return an unmodifiable set of the sub types, empty if the type is not known
+     */
+    public Set<QName> getSubTypes(QName superType, boolean follow)
+    {
+        return getSubClasses(superType, false, follow);
+    }
+
+    /**
+     * @param superAspect QName
+     * @param follow
+     *            true => all sub aspects, including the aspect itself, false =>
+     *            immediate sub aspects only
+     * @return an unmodifiable set of the sub aspects, empty if the aspect is not known
+     */
+    public Set<QName> getSubAspects(QName superAspect, boolean follow)
+    {
+        return getSubClasses(superAspect, true, follow);
+    }
+
+    /**
+     * @return true if both classes are known, are both types or both aspects, and
+     *         <tt>className</tt> is <tt>ofClassName</tt> or one of its sub-classes
+     */
+    public boolean isSubClass(QName className, QName ofClassName)
+    {
+        Integer id = ids.get(className);
+        Integer ofId = ids.get(ofClassName);
+        if (id == null || ofId == null)
+        {
+            return false;
+        }
+        return aspects[id] == aspects[ofId] && ancestors[id].get(ofId);
+    }
+
+    /**
+     * @return the number of types and aspects in the index
+     */
+    public int size()
+    {
+        return aspects.length;
+    }
+
+    private Set<QName> getSubClasses(QName superClass, boolean aspect, boolean follow)
+    {
+        Integer id = ids.get(superClass);
+        if (id == null || aspects[id] != aspect)
+        {
+            return Collections.emptySet();
+        }
+        return follow ? allSubClasses.get(id) : childClasses.get(id);
+    }
+}
@@ -30,6 +30,7 @@ import java.util.List;
 
 import org.alfresco.service.cmr.dictionary.AspectDefinition;
 import org.alfresco.service.cmr.dictionary.AssociationDefinition;
+import org.alfresco.service.cmr.dictionary.ClassDefinition;
 import org.alfresco.service.cmr.dictionary.ConstraintDefinition;
 import org.alfresco.service.cmr.dictionary.DataTypeDefinition;
 import org.alfresco.service.cmr.dictionary.ModelDefinition;
@@ -124,6 +125,34 @@ public interface DictionaryDAO extends ModelQuery
      */
     Collection<QName> getSubAspects(QName superAspect, boolean follow);
 
+    /**
+     * @param className
+     *            the class to test
+     * @param ofClassName
+     *            the class to test against
+     * @return true if both classes exist, are both types or both aspects, and
+     *         <tt>className</tt> is <tt>ofClassName</tt> or one of its sub-classes
+     */
+    default boolean isSubClass(QName className, QName ofClassName)
+    {
+        ClassDefinition classDef = getClass(className);
+        ClassDefinition ofClassDef = getClass(ofClassName);
+        if (classDef == null || ofClassDef == null || classDef.isAspect() != ofClassDef.isAspect())
+        {
+            return false;
+        }
+        while (classDef != null)
+        {
+            if (classDef.equals(ofClassDef))
+            {
+                return true;
+            }
+            QName parentClassName = classDef.getParentName();
+            classDef = (parentClassName == null) ? null : getClass(parentClassName);
+        }
+        return false;
+    }
+
     /**
      * @param model
      *            the model for which to get properties for
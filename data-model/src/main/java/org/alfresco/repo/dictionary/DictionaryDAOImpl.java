@@ -346,49 +346,8 @@ public class DictionaryDAOImpl implements DictionaryDAO, NamespaceDAO,
     @Override
     public Collection<QName> getSubTypes(QName superType, boolean follow)
     {
-        // note: could be optimised further, if compiled into the model
-
-        // Get all types (with parent type) for all models
-        Map<QName, QName> allTypesAndParents = new HashMap<QName, QName>(); // name,
-                                                                            // parent
-
-        for (CompiledModel model : getCompiledModels(true).values())
-        {
-            for (TypeDefinition type : model.getTypes())
-            {
-                allTypesAndParents.put(type.getName(), type.getParentName());
-            }
-        }
-
-        // Get sub types
-        HashSet<QName> subTypes = new HashSet<QName>();
-        for (QName type : allTypesAndParents.keySet())
-        {
-            if (follow)
-            {
-                // all sub types
-                QName current = type;
-                while ((current != null) && !current.equals(superType))
-                {
-                    current = allTypesAndParents.get(current); // get parent
-                }
-                if (current != null)
-                {
-                    subTypes.add(type);
-                }
-            }
-            else
-            {
-                // immediate sub types only
-                QName typesSuperType = allTypesAndParents.get(type);
-                if (typesSuperType != null && typesSuperType.equals(superType))
-                {
-                    subTypes.add(type);
-                }
-            }
-
-        }
-        return subTypes;
+        // copy, as callers are free to modify the result
+        return new HashSet<QName>(getTenantDictionaryRegistry().getClassHierarchyIndex().getSubTypes(superType, follow));
     }
 
     @Override
@@ -407,50 +366,14 @@ public class DictionaryDAOImpl implements DictionaryDAO, NamespaceDAO,
     @Override
     public Collection<QName> getSubAspects(QName superAspect, boolean follow)
     {
-        // note: could be optimised further, if compiled into the model
-
-        // Get all aspects (with parent aspect) for all models
-        Map<QName, QName> allAspectsAndParents = new HashMap<QName, QName>(); // name,
-                                                                              // parent
-
-        for (CompiledModel model : getCompiledModels(true).values())
-        {
-            for (AspectDefinition aspect : model.getAspects())
-            {
-                allAspectsAndParents.put(aspect.getName(),
-                        aspect.getParentName());
-            }
-        }
+        // copy, as callers are free to modify the result
+        return new HashSet<QName>(getTenantDictionaryRegistry().getClassHierarchyIndex().getSubAspects(superAspect, follow));
+    }
 
-        // Get sub aspects
-        HashSet<QName> subAspects = new HashSet<QName>();
-        for (QName aspect : allAspectsAndParents.keySet())
-        {
-            if (follow)
-            {
-                // all sub aspects
-                QName current = aspect;
-                while ((current != null) && !current.equals(superAspect))
-                {
-                    current = allAspectsAndParents.get(current); // get parent
-                }
-                if (current != null)
-                {
-                    subAspects.add(aspect);
-                }
-            }
-            else
-            {
-                // immediate sub aspects only
-                QName typesSuperAspect = allAspectsAndParents.get(aspect);
-                if (typesSuperAspect != null
-                        && typesSuperAspect.equals(superAspect))
-                {
-                    subAspects.add(aspect);
-                }
-            }
-        }
-        return subAspects;
+    @Override
+    public boolean isSubClass(QName className, QName ofClassName)
+    {
+        return getTenantDictionaryRegistry().getClassHierarchyIndex().isSubClass(className, ofClassName);
     }
 
     @Override
@@ -78,5 +78,6 @@ public interface DictionaryRegistry
     Collection<QName> getTypes(boolean includeInherited);
     Collection<QName> getAssociations(boolean includeInherited);
     Collection<QName> getAspects(boolean includeInherited);
+    ClassHierarchyIndex getClassHierarchyIndex();
     String getNamespaceURI(String prefix);
 }
@@ -86,6 +86,12 @@ public class TenantDictionaryRegistryImpl extends AbstractDictionaryRegistry
 		return ret;
 	}
 
+	@Override
+	protected ClassHierarchyIndex getParentClassHierarchyIndex()
+	{
+		return getParent().getClassHierarchyIndex();
+	}
+
 	@Override
     public List<CompiledModel> getModelsForUri(String uri)
     {
@@ -33,7 +33,9 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -582,6 +584,62 @@ public class DictionaryDAOTest
         assertFalse(test5);
     }
 
+    @Test
+    public void testSubTypesAndSubAspects()
+    {
+        QName invalid = QName.createQName(TEST_URL, "invalid");
+        QName base = QName.createQName(TEST_URL, "base");
+        QName file = QName.createQName(TEST_URL, "file");
+        QName fileDerived = QName.createQName(TEST_URL, "file-derived");
+        QName fileDerivedNoArchive = QName.createQName(TEST_URL, "file-derived-no-archive");
+        QName folder = QName.createQName(TEST_URL, "folder");
+        QName enforced = QName.createQName(TEST_URL, "enforced");
+        QName referenceable = QName.createQName(TEST_URL, "referenceable");
+        QName aspectBase = QName.createQName(TEST_URL, "aspect-base");
+        QName aspectOne = QName.createQName(TEST_URL, "aspect-one");
+        QName aspectTwo = QName.createQName(TEST_URL, "aspect-two");
+        QName aspectThree = QName.createQName(TEST2_URL, "aspect-three");
+
+        // following the hierarchy includes the class itself, immediate sub-classes do not
+        assertEquals(new HashSet<QName>(Arrays.asList(base, file, fileDerived, fileDerivedNoArchive, folder, enforced)),
+                new HashSet<QName>(dictionaryDAO.getSubTypes(base, true)));
+        assertEquals(new HashSet<QName>(Arrays.asList(file, folder, enforced)),
+                new HashSet<QName>(dictionaryDAO.getSubTypes(base, false)));
+        assertEquals(new HashSet<QName>(Arrays.asList(fileDerived, fileDerivedNoArchive)),
+                new HashSet<QName>(dictionaryDAO.getSubTypes(file, false)));
+        assertEquals(new HashSet<QName>(Arrays.asList(aspectBase, aspectOne, aspectTwo, aspectThree)),
+                new HashSet<QName>(dictionaryDAO.getSubAspects(aspectBase, true)));
+        assertEquals(new HashSet<QName>(Arrays.asList(aspectOne, aspectTwo, aspectThree)),
+                new HashSet<QName>(dictionaryDAO.getSubAspects(aspectBase, false)));
+
+        // unknown classes and the wrong kind of class have no sub-classes
+        assertTrue(dictionaryDAO.getSubTypes(invalid, true).isEmpty());
+        assertTrue(dictionaryDAO.getSubTypes(referenceable, true).isEmpty());
+        assertTrue(dictionaryDAO.getSubAspects(base, true).isEmpty());
+
+        // results belong to the caller
+        Collection<QName> subTypes = dictionaryDAO.getSubTypes(file, true);
+        subTypes.remove(file);
+        assertTrue(dictionaryDAO.getSubTypes(file, true).contains(file));
+
+        // the hierarchy follows model changes
+        M2Model model = M2Model.createModel("test3:hierarchyModel");
+        model.createNamespace("http://www.alfresco.org/test/dictionarydaotest3/1.0", "test3");
+        model.createImport(TEST_URL, "test");
+        M2Type subFolder = model.createType("test3:subFolder");
+        subFolder.setParentName("test:folder");
+        QName modelName = dictionaryDAO.putModel(model);
+        QName subFolderName = QName.createQName("http://www.alfresco.org/test/dictionarydaotest3/1.0", "subFolder");
+
+        assertTrue(dictionaryDAO.getSubTypes(base, true).contains(subFolderName));
+        assertTrue(dictionaryDAO.getSubTypes(folder, false).contains(subFolderName));
+        assertTrue(service.isSubClass(subFolderName, base));
+
+        dictionaryDAO.removeModel(modelName);
+        assertFalse(dictionaryDAO.getSubTypes(base, true).contains(subFolderName));
+        assertFalse(service.isSubClass(subFolderName, base));
+    }
+
     @Test
     public void testPropertyOverride()
     {
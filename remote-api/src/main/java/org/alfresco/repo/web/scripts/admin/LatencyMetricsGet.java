@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * Alfresco Remote API
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.web.scripts.admin;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+import org.alfresco.metrics.AbstractLatencyMetricsReporter;
+import org.alfresco.metrics.MetricsReporter;
+import org.springframework.extensions.webscripts.AbstractWebScript;
+import org.springframework.extensions.webscripts.Cache;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+/**
+ * Writes the latency histograms of the built-in DB and REST metrics reporters in the Prometheus
+ * text exposition format. Reporters that are disabled, or that do not keep histograms, are skipped.
+ */
+public class LatencyMetricsGet extends AbstractWebScript
+{
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private List<MetricsReporter> metricsReporters = Collections.emptyList();
+
+    public void setMetricsReporters(List<MetricsReporter> metricsReporters)
+    {
+        this.metricsReporters = metricsReporters;
+    }
+
+    @Override
+    public void execute(WebScriptRequest req, WebScriptResponse res) throws IOException
+    {
+        res.setContentType(CONTENT_TYPE);
+        res.setContentEncoding("UTF-8");
+        Cache cache = new Cache();
+        cache.setNeverCache(true);
+        cache.setMustRevalidate(true);
+        cache.setMaxAge(0L);
+        res.setCache(cache);
+
+        Writer out = res.getWriter();
+        for (MetricsReporter metricsReporter : metricsReporters)
+        {
+            if (metricsReporter instanceof AbstractLatencyMetricsReporter && metricsReporter.isEnabled())
+            {
+                ((AbstractLatencyMetricsReporter) metricsReporter).writePrometheusText(out);
+            }
+        }
+        out.flush();
+    }
+}
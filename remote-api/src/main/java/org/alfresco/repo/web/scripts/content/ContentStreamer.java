@@ -39,11 +39,13 @@ import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.content.MimetypeMap;
 import org.alfresco.repo.content.filestore.FileContentReader;
+import org.alfresco.repo.content.filestore.FileContentTransfer;
 import org.alfresco.repo.web.scripts.MimeTypeUtil;
 import org.alfresco.sync.repo.events.EventPublisher;
 import org.alfresco.repo.web.util.HttpRangeProcessor;
@@ -67,6 +69,8 @@ import org.springframework.extensions.webscripts.Cache;
 import org.springframework.extensions.webscripts.WebScriptException;
 import org.springframework.extensions.webscripts.WebScriptRequest;
 import org.springframework.extensions.webscripts.WebScriptResponse;
+import org.springframework.extensions.webscripts.servlet.WebScriptServletRequest;
+import org.springframework.extensions.webscripts.servlet.WebScriptServletResponse;
 import org.springframework.util.FileCopyUtils;
 
 
@@ -367,6 +371,7 @@ public class ContentStreamer implements ResourceLoaderAware
         String mimetype = MimeTypeUtil.determineMimetype(reader, req, mimetypeService);
         
         res.setHeader(HEADER_ACCEPT_RANGES, "bytes");
+        HttpServletRequest sendFileRequest = getSendFileRequest(req, res);
         try
         {
             boolean processedRange = false;
@@ -408,7 +413,7 @@ public class ContentStreamer implements ResourceLoaderAware
                            logger.info("Multi-range only supported for nodeRefs");
                   }
                   else {
-                      HttpRangeProcessor rangeProcessor = new HttpRangeProcessor(contentService);
+                      HttpRangeProcessor rangeProcessor = new HttpRangeProcessor(contentService, sendFileRequest);
                       processedRange = rangeProcessor.processRange(
                             res, reader, range.substring(6), nodeRef, propertyQName,
                             mimetype, req.getHeader(HEADER_USER_AGENT));
@@ -434,7 +439,12 @@ public class ContentStreamer implements ResourceLoaderAware
                // get the content and stream directly to the response output stream
                // assuming the repository is capable of streaming in chunks, this should allow large files
                // to be streamed directly to the browser response stream.
-               reader.getContent( res.getOutputStream() );
+               // plain files are sent by the servlet container itself, if it supports it
+               if (sendFileRequest == null || !FileContentTransfer.sendFile(
+                        sendFileRequest, ((WebScriptServletResponse) res).getHttpServletResponse(), reader, 0L, size))
+               {
+                  reader.getContent( res.getOutputStream() );
+               }
             }
         }
         catch (SocketException e1)
@@ -454,6 +464,22 @@ public class ContentStreamer implements ResourceLoaderAware
         }
     }
 
+    /**
+     * Get the servlet request, if content may be sent by the servlet container rather than written to the response.
+     * 
+     * @param req WebScriptRequest
+     * @param res WebScriptResponse
+     * @return the servlet request, or <code>null</code> if the response is buffered or otherwise wrapped
+     */
+    private static HttpServletRequest getSendFileRequest(WebScriptRequest req, WebScriptResponse res)
+    {
+        if (req instanceof WebScriptServletRequest && res instanceof WebScriptServletResponse)
+        {
+            return ((WebScriptServletRequest) req).getHttpServletRequest();
+        }
+        return null;
+    }
+
     /**
      * Set attachment header
      * 
@@ -34,8 +34,10 @@ import java.util.List;
 import java.util.StringTokenizer;
 
 import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.alfresco.repo.content.filestore.FileContentTransfer;
 import org.alfresco.service.cmr.repository.ContentReader;
 import org.alfresco.service.cmr.repository.ContentService;
 import org.alfresco.service.cmr.repository.NodeRef;
@@ -43,6 +45,7 @@ import org.alfresco.service.namespace.QName;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.extensions.webscripts.WebScriptResponse;
+import org.springframework.extensions.webscripts.servlet.WebScriptServletResponse;
 
 /**
  * Generates HTTP response for "Range" scoped HTTP requests for content.
@@ -60,6 +63,7 @@ public class HttpRangeProcessor
     /** size of a multi-part byte range output buffer */
     private static final int CHUNKSIZE = 64*1024;
     private ContentService contentService;
+    private HttpServletRequest request;
     
     
     /**
@@ -68,8 +72,20 @@ public class HttpRangeProcessor
      * @param contentService ContentService
      */
     public HttpRangeProcessor(ContentService contentService)
+    {
+        this(contentService, null);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param contentService ContentService
+     * @param request the HTTP servlet request, so that a single range of a file can be sent by the servlet container (may be null)
+     */
+    public HttpRangeProcessor(ContentService contentService, HttpServletRequest request)
     {
         this.contentService = contentService;
+        this.request = request;
     }
 
     /**
@@ -220,6 +236,17 @@ public class HttpRangeProcessor
        InputStream is = null;
        try
        {
+          // hand plain files to the servlet container if it can send them itself
+          HttpServletResponse servletResponse = httpServletResponse;
+          if (webScriptResponse instanceof WebScriptServletResponse)
+          {
+             servletResponse = ((WebScriptServletResponse) webScriptResponse).getHttpServletResponse();
+          }
+          if (FileContentTransfer.sendFile(request, servletResponse, reader, r.start, r.end + 1L))
+          {
+             return true;
+          }
+          
           // output the binary data for the range
           OutputStream os = null;
           if (httpServletResponse != null)
@@ -40,6 +40,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.content.filestore.FileContentReader;
+import org.alfresco.repo.content.filestore.FileContentTransfer;
 import org.alfresco.repo.web.util.HttpRangeProcessor;
 import org.alfresco.service.cmr.model.FileFolderService;
 import org.alfresco.service.cmr.model.FileInfo;
@@ -323,7 +324,7 @@ public class GetMethod extends WebDAVMethod
     {
         if (byteRanges != null && byteRanges.startsWith(RANGE_HEADER_UNIT_SPECIFIER))
         {
-            HttpRangeProcessor rangeProcessor = new HttpRangeProcessor(getContentService());
+            HttpRangeProcessor rangeProcessor = new HttpRangeProcessor(getContentService(), m_request);
             String userAgent = m_request.getHeader(WebDAV.HEADER_USER_AGENT);
             
             if (m_returnContent)
@@ -347,8 +348,11 @@ public class GetMethod extends WebDAVMethod
                 m_response.setHeader(WebDAV.HEADER_CONTENT_LENGTH, Long.toString(reader.getSize()));
                 m_response.setHeader(WebDAV.HEADER_CONTENT_TYPE, reader.getMimetype());
                 m_davHelper.publishReadEvent(realNodeInfo, reader.getMimetype(), reader.getSize(), null, reader.getEncoding());
-                // copy the content to the response output stream
-                reader.getContent(m_response.getOutputStream());
+                // let the servlet container send plain files, or copy the content to the response output stream
+                if (!FileContentTransfer.sendFile(m_request, m_response, reader, 0L, reader.getSize()))
+                {
+                    reader.getContent(m_response.getOutputStream());
+                }
             }
         }
     }
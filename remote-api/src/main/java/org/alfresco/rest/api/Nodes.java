@@ -435,6 +435,7 @@ public interface Nodes
 
     String PARAM_RELATIVE_PATH = "relativePath";
     String PARAM_PERMANENT = "permanent";
+    String PARAM_CURSOR = "cursor";
 
     String PARAM_INCLUDE_PROPERTIES = "properties";
     String PARAM_INCLUDE_PATH = "path";
@@ -1319,6 +1319,17 @@ public class NodesImpl implements Nodes
 
         PagingRequest pagingRequest = Util.getPagingRequest(paging);
 
+        // keyset paging - an empty cursor requests the first page
+        String cursor = parameters.getParameter(PARAM_CURSOR);
+        if (cursor != null)
+        {
+            pagingRequest.setKeysetPaging(true);
+            if (!cursor.isEmpty())
+            {
+                pagingRequest.setAfterCursor(cursor);
+            }
+        }
+
         final PagingResults<FileInfo> pagingResults;
 
         Pair<Set<QName>, Set<QName>> pair = buildSearchTypesAndIgnoreAspects(parameters);
@@ -1409,7 +1420,8 @@ public class NodesImpl implements Nodes
             sourceEntity = getFolderOrDocumentFullInfo(parentNodeRef, null, null, null, mapUserInfo);
         }
  
-        return CollectionWithPagingInfo.asPaged(paging, nodes, pagingResults.hasMoreItems(), pagingResults.getTotalResultCount().getFirst(), sourceEntity);
+        return CollectionWithPagingInfo.asPaged(paging, nodes, pagingResults.hasMoreItems(), pagingResults.getTotalResultCount().getFirst(), sourceEntity)
+                .withNextCursor(pagingResults.getNextCursor());
     }
 
     /**
@@ -70,4 +70,12 @@ public interface SerializablePagedCollection<T>
      * The search context for the collection
      */
     SearchContext getContext();
+
+    /**
+     * The opaque cursor from which the next page can be requested, if keyset paging was requested
+     */
+    default String getNextCursor()
+    {
+        return null;
+    }
 }
@@ -52,6 +52,7 @@ public class CollectionWithPagingInfo<T> implements SerializablePagedCollection<
     private final Paging paging;
     private final Object sourceEntity;
     private final SearchContext context;
+    private final String nextCursor;
         
     /**
      * Constructs a new CollectionWithPagingInfo.
@@ -61,6 +62,19 @@ public class CollectionWithPagingInfo<T> implements SerializablePagedCollection<
      * @param totalItems - The total number of items available.
      */
     protected CollectionWithPagingInfo(Collection<T> collection, Paging paging, boolean hasMoreItems, Integer totalItems, Object sourceEntity, SearchContext context)
+    {
+        this(collection, paging, hasMoreItems, totalItems, sourceEntity, context, null);
+    }
+
+    /**
+     * Constructs a new CollectionWithPagingInfo.
+     * @param collection - the collection that needs to be paged.
+     * @param paging - Paging request info
+     * @param hasMoreItems - Are there more items after this Collection?
+     * @param totalItems - The total number of items available.
+     * @param nextCursor - The cursor for the next page, if keyset paging was requested.
+     */
+    protected CollectionWithPagingInfo(Collection<T> collection, Paging paging, boolean hasMoreItems, Integer totalItems, Object sourceEntity, SearchContext context, String nextCursor)
     {
         super();
         this.hasMoreItems = hasMoreItems;
@@ -78,6 +92,7 @@ public class CollectionWithPagingInfo<T> implements SerializablePagedCollection<
         }
         this.sourceEntity = sourceEntity;
         this.context = context;
+        this.nextCursor = nextCursor;
     }
 
     /**
@@ -89,7 +104,7 @@ public class CollectionWithPagingInfo<T> implements SerializablePagedCollection<
     public static <T> CollectionWithPagingInfo<T> from(SerializablePagedCollection<T> pagedCollection)
     {
         return new CollectionWithPagingInfo<>(pagedCollection.getCollection(), pagedCollection.getPaging(), pagedCollection.hasMoreItems(), pagedCollection.getTotalItems(),
-            pagedCollection.getSourceEntity(), pagedCollection.getContext());
+            pagedCollection.getSourceEntity(), pagedCollection.getContext(), pagedCollection.getNextCursor());
     }
 
     /**
@@ -221,4 +236,24 @@ public class CollectionWithPagingInfo<T> implements SerializablePagedCollection<
         return context;
     }
 
+    /**
+     * The cursor for the next page when keyset paging was requested (null otherwise, or if there are no more items)
+     */
+    @Override
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    /**
+     * Constructs a copy of this CollectionWithPagingInfo with the given cursor for the next page.
+     *
+     * @param nextCursor - The cursor for the next page (may be null)
+     * @return CollectionWithPagingInfo
+     */
+    public CollectionWithPagingInfo<T> withNextCursor(String nextCursor)
+    {
+        return new CollectionWithPagingInfo<T>(collection, paging, hasMoreItems, totalItems, sourceEntity, context, nextCursor);
+    }
+
 }
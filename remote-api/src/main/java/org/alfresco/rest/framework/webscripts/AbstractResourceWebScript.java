@@ -94,6 +94,7 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
     public void execute(final Api api, final WebScriptRequest req, final WebScriptResponse res) throws IOException
     {
         long startTime = System.currentTimeMillis();
+        boolean failed = false;
         
         try
         {
@@ -180,19 +181,22 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
         }
         catch (ContentIOException cioe)
         {
+            failed = true;
             handleContentIOException(res, req, cioe);
         }
         catch (AlfrescoRuntimeException | ApiException | WebScriptException xception )
         {
+            failed = true;
             renderException(xception, res, req, assistant);
         }
         catch (RuntimeException runtimeException)
         {
+            failed = true;
             renderException(runtimeException, res, req, assistant);
         }
         finally
         {
-            reportExecutionTimeMetric(startTime, req.getServicePath());
+            reportExecutionTimeMetric(startTime, req.getServicePath(), failed);
         }
     }
 
@@ -271,7 +275,7 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
 
     }
 
-    private void reportExecutionTimeMetric(final long startTime, final String servicePath)
+    private void reportExecutionTimeMetric(final long startTime, final String servicePath, final boolean failed)
     {
         try
         {
@@ -280,6 +284,10 @@ public abstract class AbstractResourceWebScript extends ApiWebScript implements
             {
                 long delta = System.currentTimeMillis() - startTime;
                 restMetricsReporter.reportRestRequestExecutionTime(delta, httpMethod.toString(), servicePath);
+                if (failed)
+                {
+                    restMetricsReporter.reportRestRequestError(httpMethod.toString(), servicePath);
+                }
             }
         }
         catch (Exception e)
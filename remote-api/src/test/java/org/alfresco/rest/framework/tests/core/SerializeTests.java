@@ -278,6 +278,11 @@ public class SerializeTests extends AbstractContextTest implements RecognizedPar
         paged = CollectionWithPagingInfo.asPaged(pageRequest,Arrays.asList(new Goat(), new Sheep("ABCD"), new Sheep("XYZ")),true,5000);
         out = writeResponse(helper.processAdditionsToTheResponse(mock(WebScriptResponse.class), api,null, Params.valueOf("notUsed", null, null), paged));
         assertTrue("There must be json output as List with pagination", StringUtils.startsWith(out, "{\"list\":{\"pagination\":{\"count\":3,\"hasMoreItems\":true,\"totalItems\":5000"));
+        assertFalse("No cursor unless keyset paging was used", StringUtils.contains(out, "nextCursor"));
+
+        paged = CollectionWithPagingInfo.asPaged(pageRequest,Arrays.asList(new Goat(), new Sheep("ABCD"), new Sheep("XYZ")),true,null).withNextCursor("AQAAAAAAAAAAZA");
+        out = writeResponse(helper.processAdditionsToTheResponse(mock(WebScriptResponse.class), api,null, Params.valueOf("notUsed", null, null), paged));
+        assertTrue("There must be json output as List with pagination", StringUtils.contains(out, "\"nextCursor\":\"AQAAAAAAAAAAZA\""));
        
     }
   
@@ -81,6 +81,21 @@ public class SqlSessionMetricsWrapper implements SqlSession
         }
     }
 
+    private void reportQueryFailed(final String queryTypeTag, final String statementID)
+    {
+        try
+        {
+            if (dbMetricsReporter != null && dbMetricsReporter.isQueryMetricsEnabled())
+            {
+                dbMetricsReporter.reportQueryError(queryTypeTag, statementID);
+            }
+        }
+        catch (Exception e)
+        {
+            logCouldNotReportDBQueryExecution(e);
+        }
+    }
+
     @Override
     public <T> T selectOne(String statement)
     {
@@ -89,6 +104,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectOne(statement);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -103,6 +123,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectOne(statement, parameter);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -117,6 +142,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectList(statement);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -131,6 +161,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectList(statement, parameter);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -145,6 +180,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectList(statement, parameter, rowBounds);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -159,6 +199,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectMap(statement, mapKey);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -173,6 +218,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectMap(statement, parameter, mapKey);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -187,6 +237,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectMap(statement, parameter, mapKey, rowBounds);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -202,6 +257,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             this.sqlSession.select(statement, parameter, passThroughHandler);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             if (!passThroughHandler.hasQueryExecutionTimeBeenReported())
@@ -220,6 +280,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             this.sqlSession.select(statement, passThroughHandler);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             if (!passThroughHandler.hasQueryExecutionTimeBeenReported())
@@ -238,6 +303,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             this.sqlSession.select(statement, parameter, rowBounds, passThroughHandler);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             if (!passThroughHandler.hasQueryExecutionTimeBeenReported())
@@ -255,6 +325,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectCursor(statement);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -269,6 +344,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectCursor(statement, parameter);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -283,6 +363,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.selectCursor(statement, parameter, rowBounds);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(SELECT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, SELECT_LABEL, statement);
@@ -297,6 +382,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.insert(statement);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(INSERT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, INSERT_LABEL, statement);
@@ -311,6 +401,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.insert(statement, parameter);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(INSERT_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, INSERT_LABEL, statement);
@@ -325,6 +420,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.update(statement);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(UPDATE_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, UPDATE_LABEL, statement);
@@ -339,6 +439,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.update(statement, parameter);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(UPDATE_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, UPDATE_LABEL, statement);
@@ -353,6 +458,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.delete(statement);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(DELETE_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, DELETE_LABEL, statement);
@@ -367,6 +477,11 @@ public class SqlSessionMetricsWrapper implements SqlSession
         {
             return this.sqlSession.delete(statement, parameter);
         }
+        catch (RuntimeException e)
+        {
+            reportQueryFailed(DELETE_LABEL, statement);
+            throw e;
+        }
         finally
         {
             reportQueryExecuted(startTime, DELETE_LABEL, statement);
@@ -0,0 +1,204 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.repo.management.DynamicMBeanExportOperations;
+import org.alfresco.util.PropertyCheck;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Base class for the built-in metrics reporters that keep per-label {@link LatencyHistograms latency histograms}
+ * in memory. The histograms are exposed over JMX, if an MBean exporter is configured, and can be written in the
+ * Prometheus text format.
+ */
+public abstract class AbstractLatencyMetricsReporter implements MetricsReporter, LatencyMetricsMBean, InitializingBean, DisposableBean
+{
+    private static final Log logger = LogFactory.getLog(AbstractLatencyMetricsReporter.class);
+
+    private final String metricName;
+    private final String help;
+    private final String[] labelNames;
+
+    private boolean enabled;
+    private int maxLabels = 500;
+    private DynamicMBeanExportOperations mbeanExporter;
+    private String objectName;
+
+    private ObjectName registeredObjectName;
+    private LatencyHistograms histograms;
+
+    /**
+     * @param metricName        the prefix of the metric names in the Prometheus output
+     * @param help              the help text of the latency metric in the Prometheus output
+     * @param labelNames        the label names, in the order that values are recorded
+     */
+    protected AbstractLatencyMetricsReporter(String metricName, String help, String... labelNames)
+    {
+        this.metricName = metricName;
+        this.help = help;
+        this.labelNames = labelNames;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param maxLabels         the maximum number of distinct label sets to track, after which values are
+     *                          recorded against a shared overflow label set
+     */
+    public void setMaxLabels(int maxLabels)
+    {
+        this.maxLabels = maxLabels;
+    }
+
+    /**
+     * @param mbeanExporter     optional exporter used to register this reporter as an MBean
+     */
+    public void setMbeanExporter(DynamicMBeanExportOperations mbeanExporter)
+    {
+        this.mbeanExporter = mbeanExporter;
+    }
+
+    /**
+     * @param objectName        the JMX object name to register under, e.g. <tt>Alfresco:Name=Metrics,Type=Database</tt>
+     */
+    public void setObjectName(String objectName)
+    {
+        this.objectName = objectName;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception
+    {
+        histograms = new LatencyHistograms(maxLabels, labelNames);
+        if (enabled && mbeanExporter != null)
+        {
+            PropertyCheck.mandatory(this, "objectName", objectName);
+            registerMBean();
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (registeredObjectName != null)
+        {
+            mbeanExporter.unregisterMBean(registeredObjectName);
+            registeredObjectName = null;
+        }
+    }
+
+    private void registerMBean()
+    {
+        try
+        {
+            // Wrap explicitly as the management interface is not named after the implementation class
+            StandardMBean mbean = new StandardMBean(this, LatencyMetricsMBean.class);
+            registeredObjectName = mbeanExporter.registerMBean(mbean, new ObjectName(objectName));
+        }
+        catch (MalformedObjectNameException | NotCompliantMBeanException e)
+        {
+            throw new AlfrescoRuntimeException("Failed to register metrics MBean " + objectName, e);
+        }
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Registered metrics MBean " + registeredObjectName);
+        }
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public int getMaxLabels()
+    {
+        return maxLabels;
+    }
+
+    @Override
+    public int getLabelCount()
+    {
+        return histograms.getLabelCount();
+    }
+
+    @Override
+    public long getOverflowCount()
+    {
+        return histograms.getOverflowCount();
+    }
+
+    @Override
+    public String[] getLatencySummary()
+    {
+        SortedMap<List<String>, LatencyHistograms.Snapshot> snapshots = histograms.getSnapshots();
+        String[] summary = new String[snapshots.size()];
+        int i = 0;
+        for (Map.Entry<List<String>, LatencyHistograms.Snapshot> entry : snapshots.entrySet())
+        {
+            summary[i++] = entry.getKey() + ": " + entry.getValue();
+        }
+        return summary;
+    }
+
+    @Override
+    public void reset()
+    {
+        histograms.reset();
+    }
+
+    /**
+     * Write the recorded values in the Prometheus text exposition format.
+     */
+    public void writePrometheusText(Writer out) throws IOException
+    {
+        histograms.writePrometheusText(out, metricName, help);
+    }
+
+    protected LatencyHistograms getHistograms()
+    {
+        return histograms;
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * A set of latency histograms keyed by label values, e.g. one histogram per query type and statement ID.
+ * <p/>
+ * Each label set records its latencies into an auto-resizing HdrHistogram, which gives accurate high
+ * percentiles (p99, p999) without keeping individual samples, plus a count of failed executions.
+ * <p/>
+ * The number of distinct label sets is capped: once {@link #getMaxLabels() maxLabels} histograms exist,
+ * values for new label sets are recorded against a single {@link #OVERFLOW_LABEL overflow} label set
+ * instead, so that unbounded label values (e.g. service paths containing node IDs) cannot exhaust memory.
+ */
+public class LatencyHistograms
+{
+    /** The label value used for every label of the overflow label set */
+    public static final String OVERFLOW_LABEL = "_other_";
+
+    private static final int SIGNIFICANT_VALUE_DIGITS = 2;
+    private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+
+    private final String[] labelNames;
+    private final int maxLabels;
+    private final List<String> overflowLabelValues;
+    private final ConcurrentMap<List<String>, LatencyStats> stats = new ConcurrentHashMap<>();
+    private final LongAdder overflowCount = new LongAdder();
+
+    /**
+     * @param maxLabels         the maximum number of distinct label sets to track (at least 1)
+     * @param labelNames        the names of the labels, in the order that values will be given
+     */
+    public LatencyHistograms(int maxLabels, String... labelNames)
+    {
+        if (maxLabels < 1)
+        {
+            throw new IllegalArgumentException("maxLabels must be at least 1: " + maxLabels);
+        }
+        if (labelNames.length == 0)
+        {
+            throw new IllegalArgumentException("At least one label name is required");
+        }
+        this.labelNames = labelNames.clone();
+        this.maxLabels = maxLabels;
+        String[] overflow = new String[labelNames.length];
+        Arrays.fill(overflow, OVERFLOW_LABEL);
+        this.overflowLabelValues = Collections.unmodifiableList(Arrays.asList(overflow));
+    }
+
+    public String[] getLabelNames()
+    {
+        return labelNames.clone();
+    }
+
+    public int getMaxLabels()
+    {
+        return maxLabels;
+    }
+
+    /**
+     * @return the number of label sets currently tracked, including the overflow label set if it is in use
+     */
+    public int getLabelCount()
+    {
+        return stats.size();
+    }
+
+    /**
+     * @return the number of values that were recorded against the overflow label set because the cap was reached
+     */
+    public long getOverflowCount()
+    {
+        return overflowCount.sum();
+    }
+
+    /**
+     * Record the execution time of a successful or failed execution.
+     *
+     * @param milliseconds      the time taken, negative values are recorded as zero
+     * @param labelValues       one value per label name, <tt>null</tt> values are recorded as empty strings
+     */
+    public void recordLatency(long milliseconds, String... labelValues)
+    {
+        getStats(labelValues).recordLatency(Math.max(0L, milliseconds));
+    }
+
+    /**
+     * Count a failed execution. The time taken should be recorded separately using {@link #recordLatency(long, String...)}.
+     *
+     * @param labelValues       one value per label name, <tt>null</tt> values are recorded as empty strings
+     */
+    public void recordError(String... labelValues)
+    {
+        getStats(labelValues).errors.increment();
+    }
+
+    /**
+     * @return a point-in-time view of every label set, ordered by label values
+     */
+    public SortedMap<List<String>, Snapshot> getSnapshots()
+    {
+        SortedMap<List<String>, Snapshot> snapshots = new TreeMap<>(LatencyHistograms::compareLabelValues);
+        for (Map.Entry<List<String>, LatencyStats> entry : stats.entrySet())
+        {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Discard all recorded values.
+     */
+    public void reset()
+    {
+        stats.clear();
+        overflowCount.reset();
+    }
+
+    /**
+     * Write the histograms in the Prometheus text exposition format, as a <tt>summary</tt> in seconds
+     * (<tt>{metricName}_seconds</tt>) and an error counter (<tt>{metricName}_errors_total</tt>).
+     *
+     * @param out               the writer to append to
+     * @param metricName        the metric name prefix, e.g. <tt>alfresco_db_query</tt>
+     * @param help              the help text for the metric
+     */
+    public void writePrometheusText(Writer out, String metricName, String help) throws IOException
+    {
+        SortedMap<List<String>, Snapshot> snapshots = getSnapshots();
+
+        String latencyName = metricName + "_seconds";
+        out.write("# HELP " + latencyName + " " + help + "\n");
+        out.write("# TYPE " + latencyName + " summary\n");
+        for (Map.Entry<List<String>, Snapshot> entry : snapshots.entrySet())
+        {
+            Snapshot snapshot = entry.getValue();
+            for (int i = 0; i < QUANTILES.length; i++)
+            {
+                String labels = formatLabels(entry.getKey(), "quantile", Double.toString(QUANTILES[i]));
+                out.write(latencyName + labels + " " + toSeconds(snapshot.getPercentiles()[i]) + "\n");
+            }
+            String labels = formatLabels(entry.getKey(), null, null);
+            out.write(latencyName + "_sum" + labels + " " + toSeconds(snapshot.getTotalMillis()) + "\n");
+            out.write(latencyName + "_count" + labels + " " + snapshot.getCount() + "\n");
+        }
+
+        String errorsName = metricName + "_errors_total";
+        out.write("# HELP " + errorsName + " Number of failed executions.\n");
+        out.write("# TYPE " + errorsName + " counter\n");
+        for (Map.Entry<List<String>, Snapshot> entry : snapshots.entrySet())
+        {
+            out.write(errorsName + formatLabels(entry.getKey(), null, null) + " " + entry.getValue().getErrorCount() + "\n");
+        }
+
+        String overflowName = metricName + "_label_overflow_total";
+        out.write("# HELP " + overflowName + " Number of values recorded against the overflow label set.\n");
+        out.write("# TYPE " + overflowName + " counter\n");
+        out.write(overflowName + " " + getOverflowCount() + "\n");
+    }
+
+    private LatencyStats getStats(String... labelValues)
+    {
+        if (labelValues.length != labelNames.length)
+        {
+            throw new IllegalArgumentException(
+                    "Expected values for labels " + Arrays.toString(labelNames) + " but got " + Arrays.toString(labelValues));
+        }
+        String[] values = new String[labelValues.length];
+        for (int i = 0; i < labelValues.length; i++)
+        {
+            values[i] = labelValues[i] == null ? "" : labelValues[i];
+        }
+        List<String> key = Arrays.asList(values);
+
+        LatencyStats latencyStats = stats.get(key);
+        if (latencyStats == null)
+        {
+            // The size check races with other threads adding label sets, so the cap may be exceeded by a few entries
+            if (stats.size() >= maxLabels)
+            {
+                overflowCount.increment();
+                key = overflowLabelValues;
+            }
+            latencyStats = stats.computeIfAbsent(key, k -> new LatencyStats());
+        }
+        return latencyStats;
+    }
+
+    private String formatLabels(List<String> labelValues, String extraName, String extraValue)
+    {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labelNames.length; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(',');
+            }
+            appendLabel(sb, labelNames[i], labelValues.get(i));
+        }
+        if (extraName != null)
+        {
+            sb.append(',');
+            appendLabel(sb, extraName, extraValue);
+        }
+        return sb.append('}').toString();
+    }
+
+    private static void appendLabel(StringBuilder sb, String name, String value)
+    {
+        sb.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static String toSeconds(long milliseconds)
+    {
+        return Double.toString(milliseconds / 1000.0);
+    }
+
+    private static int compareLabelValues(List<String> a, List<String> b)
+    {
+        for (int i = 0; i < a.size(); i++)
+        {
+            int result = a.get(i).compareTo(b.get(i));
+            if (result != 0)
+            {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Recorded values for a single label set
+     */
+    private static class LatencyStats
+    {
+        private final ConcurrentHistogram histogram = new ConcurrentHistogram(SIGNIFICANT_VALUE_DIGITS);
+        private final LongAdder totalMillis = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private void recordLatency(long milliseconds)
+        {
+            histogram.recordValue(milliseconds);
+            totalMillis.add(milliseconds);
+        }
+
+        private Snapshot snapshot()
+        {
+            // Copying takes a consistent view of the counts while recording continues
+            Histogram copy = histogram.copy();
+            long[] percentiles = new long[QUANTILES.length];
+            for (int i = 0; i < QUANTILES.length; i++)
+            {
+                percentiles[i] = copy.getValueAtPercentile(QUANTILES[i] * 100.0);
+            }
+            return new Snapshot(copy.getTotalCount(), errors.sum(), totalMillis.sum(), copy.getMaxValue(), percentiles);
+        }
+    }
+
+    /**
+     * A point-in-time view of the values recorded for a label set
+     */
+    public static class Snapshot
+    {
+        private final long count;
+        private final long errorCount;
+        private final long totalMillis;
+        private final long maxMillis;
+        private final long[] percentiles;
+
+        private Snapshot(long count, long errorCount, long totalMillis, long maxMillis, long[] percentiles)
+        {
+            this.count = count;
+            this.errorCount = errorCount;
+            this.totalMillis = totalMillis;
+            this.maxMillis = maxMillis;
+            this.percentiles = percentiles;
+        }
+
+        /**
+         * @return the number of recorded executions
+         */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * @return the number of recorded executions that failed
+         */
+        public long getErrorCount()
+        {
+            return errorCount;
+        }
+
+        public long getTotalMillis()
+        {
+            return totalMillis;
+        }
+
+        public long getMaxMillis()
+        {
+            return maxMillis;
+        }
+
+        public long getP50Millis()
+        {
+            return percentiles[0];
+        }
+
+        public long getP99Millis()
+        {
+            return percentiles[1];
+        }
+
+        public long getP999Millis()
+        {
+            return percentiles[2];
+        }
+
+        private long[] getPercentiles()
+        {
+            return percentiles;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "count=" + count + ", errors=" + errorCount + ", p50=" + getP50Millis() + "ms, p99=" + getP99Millis()
+                    + "ms, p999=" + getP999Millis() + "ms, max=" + maxMillis + "ms";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.metrics;
+
+/**
+ * Management interface of the built-in latency metrics reporters.
+ */
+public interface LatencyMetricsMBean
+{
+    /**
+     * @return <tt>true</tt> if values are being recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * @return the maximum number of distinct label sets that will be tracked
+     */
+    int getMaxLabels();
+
+    /**
+     * @return the number of label sets currently tracked
+     */
+    int getLabelCount();
+
+    /**
+     * @return the number of values recorded against the overflow label set because the label cap was reached
+     */
+    long getOverflowCount();
+
+    /**
+     * @return one line per label set giving the count, error count and p50/p99/p999 latencies
+     */
+    String[] getLatencySummary();
+
+    /**
+     * Discard all recorded values.
+     */
+    void reset();
+}
@@ -40,6 +40,17 @@ public interface DBMetricsReporter extends MetricsReporter
      */
     void reportQueryExecutionTime(final long milliseconds, final String queryTpe, final String statementID);
 
+    /**
+     * Report that a query failed. The execution time of the failed query is reported separately
+     * by {@link #reportQueryExecutionTime(long, String, String)}.
+     *
+     * @param queryTpe     mandatory, the type of query that failed
+     * @param statementID  optional, used only if "isQueryStatementsMetricsEnabled()" is true
+     */
+    default void reportQueryError(final String queryTpe, final String statementID)
+    {
+    }
+
     boolean isEnabled();
 
     boolean isQueryMetricsEnabled();
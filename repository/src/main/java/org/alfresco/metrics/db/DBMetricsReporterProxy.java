@@ -47,6 +47,15 @@ public class DBMetricsReporterProxy implements DBMetricsReporter, ApplicationCon
         }
     }
 
+    @Override
+    public void reportQueryError(String queryTpe, String statementID)
+    {
+        if (dbMetricsReporterImpl != null)
+        {
+            dbMetricsReporterImpl.reportQueryError(queryTpe, statementID);
+        }
+    }
+
     @Override
     public boolean isEnabled()
     {
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.metrics.db;
+
+import org.alfresco.metrics.AbstractLatencyMetricsReporter;
+
+/**
+ * A {@link DBMetricsReporter} that keeps in-memory latency histograms per query type and, optionally,
+ * per MyBatis statement ID.
+ */
+public class HistogramDBMetricsReporter extends AbstractLatencyMetricsReporter implements DBMetricsReporter
+{
+    private boolean queryMetricsEnabled = true;
+    private boolean queryStatementsMetricsEnabled;
+
+    public HistogramDBMetricsReporter()
+    {
+        super("alfresco_db_query", "Database query execution time.", "query_type", "statement");
+    }
+
+    public void setQueryMetricsEnabled(boolean queryMetricsEnabled)
+    {
+        this.queryMetricsEnabled = queryMetricsEnabled;
+    }
+
+    /**
+     * @param queryStatementsMetricsEnabled <tt>true</tt> to record a histogram per statement ID rather than only per query type
+     */
+    public void setQueryStatementsMetricsEnabled(boolean queryStatementsMetricsEnabled)
+    {
+        this.queryStatementsMetricsEnabled = queryStatementsMetricsEnabled;
+    }
+
+    @Override
+    public void reportQueryExecutionTime(long milliseconds, String queryTpe, String statementID)
+    {
+        if (isQueryMetricsEnabled())
+        {
+            getHistograms().recordLatency(milliseconds, queryTpe, getStatementLabel(statementID));
+        }
+    }
+
+    @Override
+    public void reportQueryError(String queryTpe, String statementID)
+    {
+        if (isQueryMetricsEnabled())
+        {
+            getHistograms().recordError(queryTpe, getStatementLabel(statementID));
+        }
+    }
+
+    @Override
+    public boolean isQueryMetricsEnabled()
+    {
+        return isEnabled() && queryMetricsEnabled;
+    }
+
+    @Override
+    public boolean isQueryStatementsMetricsEnabled()
+    {
+        return isQueryMetricsEnabled() && queryStatementsMetricsEnabled;
+    }
+
+    private String getStatementLabel(String statementID)
+    {
+        return isQueryStatementsMetricsEnabled() ? statementID : null;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.metrics.rest;
+
+import org.alfresco.metrics.AbstractLatencyMetricsReporter;
+
+/**
+ * A {@link RestMetricsReporter} that keeps in-memory latency histograms per HTTP method and, optionally,
+ * per service path.
+ */
+public class HistogramRestMetricsReporter extends AbstractLatencyMetricsReporter implements RestMetricsReporter
+{
+    private boolean restServicePathMetricsEnabled;
+
+    public HistogramRestMetricsReporter()
+    {
+        super("alfresco_rest_request", "REST API request execution time.", "method", "service_path");
+    }
+
+    /**
+     * @param restServicePathMetricsEnabled <tt>true</tt> to record a histogram per service path rather than only per HTTP method
+     */
+    public void setRestServicePathMetricsEnabled(boolean restServicePathMetricsEnabled)
+    {
+        this.restServicePathMetricsEnabled = restServicePathMetricsEnabled;
+    }
+
+    @Override
+    public void reportRestRequestExecutionTime(long milliseconds, String httpMethod, String requestServicePath)
+    {
+        if (isEnabled())
+        {
+            getHistograms().recordLatency(milliseconds, httpMethod, getServicePathLabel(requestServicePath));
+        }
+    }
+
+    @Override
+    public void reportRestRequestError(String httpMethod, String requestServicePath)
+    {
+        if (isEnabled())
+        {
+            getHistograms().recordError(httpMethod, getServicePathLabel(requestServicePath));
+        }
+    }
+
+    @Override
+    public boolean isRestServicePathMetricsEnabled()
+    {
+        return isEnabled() && restServicePathMetricsEnabled;
+    }
+
+    private String getServicePathLabel(String requestServicePath)
+    {
+        return isRestServicePathMetricsEnabled() ? requestServicePath : null;
+    }
+}
@@ -32,6 +32,14 @@ public interface RestMetricsReporter extends MetricsReporter
 
     void reportRestRequestExecutionTime(final long milliseconds, final String httpMethod, final String requestServicePath);
 
+    /**
+     * Report that a request failed. The execution time of the failed request is reported separately
+     * by {@link #reportRestRequestExecutionTime(long, String, String)}.
+     */
+    default void reportRestRequestError(final String httpMethod, final String requestServicePath)
+    {
+    }
+
     boolean isEnabled();
 
     boolean isRestServicePathMetricsEnabled();
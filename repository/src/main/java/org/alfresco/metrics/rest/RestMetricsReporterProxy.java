@@ -47,6 +47,15 @@ public class RestMetricsReporterProxy implements RestMetricsReporter, Applicatio
         }
     }
 
+    @Override
+    public void reportRestRequestError(String httpMethod, String requestServicePath)
+    {
+        if (restMetricsReporterImpl != null)
+        {
+            restMetricsReporterImpl.reportRestRequestError(httpMethod, requestServicePath);
+        }
+    }
+
     @Override
     public boolean isEnabled()
     {
@@ -0,0 +1,495 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.audit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.repo.domain.audit.AuditDAO;
+import org.alfresco.repo.domain.audit.AuditDAO.AuditEntryInfo;
+import org.alfresco.repo.domain.audit.AuditStorageFormat;
+import org.alfresco.repo.management.DynamicMBeanExportOperations;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport.TxnReadState;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
+import org.alfresco.repo.transaction.TransactionListenerAdapter;
+import org.alfresco.repo.transaction.TransactionalResourceHelper;
+import org.alfresco.service.transaction.TransactionService;
+import org.alfresco.util.PropertyCheck;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.extensions.surf.util.AbstractLifecycleBean;
+
+/**
+ * Writes audit entries to the database asynchronously, in batches.
+ * <p>
+ * Entries {@link #queueAuditEntry(Long, long, String, Map, AuditStorageFormat, Set) queued} within a transaction are
+ * appended to a local {@link AuditJournal journal} once that transaction commits; entries from
+ * transactions that roll back are discarded.  A background thread reads the journal and creates
+ * the entries using {@link AuditDAO#createAuditEntries(List)}, one transaction per batch.  A batch
+ * that fails is retried until it succeeds.
+ * <p>
+ * Entries are written at least once: the journal survives a restart and any entries not written
+ * before shutdown, or written but not yet checkpointed, are written when the server next starts.
+ * Until the writer has started, and whenever it is disabled, entries should be written directly.
+ */
+public class AsyncAuditEntryWriter extends AbstractLifecycleBean implements AsyncAuditEntryWriterMBean
+{
+    private static final String KEY_ENTRIES = AsyncAuditEntryWriter.class.getName() + ".entries";
+
+    private static Log logger = LogFactory.getLog(AsyncAuditEntryWriter.class);
+
+    private AuditDAO auditDAO;
+    private TransactionService transactionService;
+    private boolean enabled;
+    private String journalDir;
+    private int batchSize = 500;
+    private boolean syncOnAppend = true;
+    private long maxSegmentSize = 64L * 1024L * 1024L;
+    private long pollInterval = 1000L;
+    private long retryInterval = 5000L;
+    private DynamicMBeanExportOperations mbeanExporter;
+    private String objectName;
+
+    private final AfterCommitListener afterCommitListener = new AfterCommitListener();
+    private final Object signal = new Object();
+    private final AtomicLong entriesWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private volatile AuditJournal journal;
+    private volatile boolean running;
+    private volatile long oldestPendingTime = -1L;
+    private Thread writerThread;
+    private ObjectName registeredObjectName;
+
+    public void setAuditDAO(AuditDAO auditDAO)
+    {
+        this.auditDAO = auditDAO;
+    }
+
+    public void setTransactionService(TransactionService transactionService)
+    {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * @param enabled           <tt>true</tt> to write audit entries asynchronously
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param journalDir        the local directory holding entries waiting to be written
+     */
+    public void setJournalDir(String journalDir)
+    {
+        this.journalDir = journalDir;
+    }
+
+    /**
+     * @param batchSize         the maximum number of entries written in one transaction
+     */
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param syncOnAppend      <tt>true</tt> to force entries to disk as part of the commit of
+     *                          the recording transaction
+     */
+    public void setSyncOnAppend(boolean syncOnAppend)
+    {
+        this.syncOnAppend = syncOnAppend;
+    }
+
+    /**
+     * @param maxSegmentSize    the size (bytes) of each journal file
+     */
+    public void setMaxSegmentSize(long maxSegmentSize)
+    {
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    /**
+     * @param pollInterval      the time (ms) the writer waits for new entries when it is idle
+     */
+    public void setPollInterval(long pollInterval)
+    {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * @param retryInterval     the time (ms) the writer waits before retrying a failed batch
+     */
+    public void setRetryInterval(long retryInterval)
+    {
+        this.retryInterval = retryInterval;
+    }
+
+    /**
+     * @param mbeanExporter     optional exporter used to register the writer metrics
+     */
+    public void setMbeanExporter(DynamicMBeanExportOperations mbeanExporter)
+    {
+        this.mbeanExporter = mbeanExporter;
+    }
+
+    public void setObjectName(String objectName)
+    {
+        this.objectName = objectName;
+    }
+
+    /**
+     * @return                  <tt>true</tt> if the writer is enabled and has started
+     */
+    public boolean isEnabled()
+    {
+        return enabled && running;
+    }
+
+    /**
+     * Queue an audit entry to be written once the current transaction has committed.
+     * 
+     * @return                  <tt>true</tt> if the entry was queued or <tt>false</tt> if it must
+     *                          be written directly, e.g. because there is no read-write transaction
+     *                          or the values cannot be serialized
+     */
+    public boolean queueAuditEntry(
+            Long applicationId, long time, String username, Map<String, Serializable> values,
+            AuditStorageFormat storageFormat, Set<String> indexedKeys)
+    {
+        if (!isEnabled() || AlfrescoTransactionSupport.getTransactionReadState() != TxnReadState.TXN_READ_WRITE)
+        {
+            return false;
+        }
+        byte[] record;
+        try
+        {
+            record = serialize(new AuditEntryInfo(applicationId, time, username, values, storageFormat, indexedKeys));
+        }
+        catch (IOException e)
+        {
+            if (logger.isDebugEnabled())
+            {
+                logger.debug("Audit entry cannot be journaled and will be written directly: " + e.getMessage());
+            }
+            return false;
+        }
+        List<byte[]> records = TransactionalResourceHelper.getList(KEY_ENTRIES);
+        records.add(record);
+        AlfrescoTransactionSupport.bindListener(afterCommitListener);
+        return true;
+    }
+
+    @Override
+    protected void onBootstrap(ApplicationEvent event)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        PropertyCheck.mandatory(this, "auditDAO", auditDAO);
+        PropertyCheck.mandatory(this, "transactionService", transactionService);
+        PropertyCheck.mandatory(this, "journalDir", journalDir);
+
+        AuditJournal newJournal = new AuditJournal(new File(journalDir), maxSegmentSize, syncOnAppend);
+        try
+        {
+            newJournal.open();
+        }
+        catch (IOException e)
+        {
+            throw new AlfrescoRuntimeException("Failed to open the audit journal " + journalDir, e);
+        }
+        journal = newJournal;
+        running = true;
+        writerThread = new Thread(this::runWriter, "AuditEntryWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        if (mbeanExporter != null && objectName != null)
+        {
+            try
+            {
+                StandardMBean mbean = new StandardMBean(this, AsyncAuditEntryWriterMBean.class);
+                registeredObjectName = mbeanExporter.registerMBean(mbean, new ObjectName(objectName));
+            }
+            catch (JMException e)
+            {
+                throw new AlfrescoRuntimeException("Failed to register audit entry writer MBean " + objectName, e);
+            }
+        }
+        if (logger.isInfoEnabled())
+        {
+            logger.info("Writing audit entries asynchronously with " + newJournal.getPendingCount() + " entries pending");
+        }
+    }
+
+    @Override
+    protected void onShutdown(ApplicationEvent event)
+    {
+        if (!running)
+        {
+            return;
+        }
+        running = false;
+        synchronized (signal)
+        {
+            signal.notifyAll();
+        }
+        try
+        {
+            writerThread.join(retryInterval + pollInterval);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (registeredObjectName != null)
+        {
+            mbeanExporter.unregisterMBean(registeredObjectName);
+            registeredObjectName = null;
+        }
+        try
+        {
+            journal.close();
+        }
+        catch (IOException e)
+        {
+            logger.warn("Failed to close the audit journal " + journalDir, e);
+        }
+    }
+
+    /**
+     * Write journaled entries until shut down
+     */
+    private void runWriter()
+    {
+        while (running)
+        {
+            try
+            {
+                List<byte[]> records = journal.read(batchSize);
+                if (records.isEmpty())
+                {
+                    oldestPendingTime = -1L;
+                    await(pollInterval);
+                    continue;
+                }
+                List<AuditEntryInfo> entries = deserialize(records);
+                if (!entries.isEmpty())
+                {
+                    oldestPendingTime = entries.get(0).getTime();
+                    if (!writeWithRetry(entries))
+                    {
+                        // Shut down before the batch was written: it is read again on restart
+                        break;
+                    }
+                }
+                journal.commit();
+                entriesWritten.addAndGet(entries.size());
+                batchesWritten.incrementAndGet();
+            }
+            catch (IOException | RuntimeException e)
+            {
+                failureCount.incrementAndGet();
+                logger.error("Failed to process the audit journal " + journalDir, e);
+                await(retryInterval);
+            }
+        }
+    }
+
+    /**
+     * @return                  <tt>true</tt> if the entries were written or <tt>false</tt> if the
+     *                          writer was shut down first
+     */
+    private boolean writeWithRetry(List<AuditEntryInfo> entries)
+    {
+        while (running)
+        {
+            try
+            {
+                writeEntries(entries);
+                return true;
+            }
+            catch (RuntimeException e)
+            {
+                failureCount.incrementAndGet();
+                logger.error("Failed to write " + entries.size() + " audit entries, retrying in " + retryInterval + "ms", e);
+                await(retryInterval);
+            }
+        }
+        return false;
+    }
+
+    private void writeEntries(final List<AuditEntryInfo> entries)
+    {
+        final RetryingTransactionCallback<Integer> callback = new RetryingTransactionCallback<Integer>()
+        {
+            public Integer execute() throws Throwable
+            {
+                return auditDAO.createAuditEntries(entries);
+            }
+        };
+        AuthenticationUtil.runAsSystem(() -> transactionService.getRetryingTransactionHelper().doInTransaction(callback, false, true));
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Wrote " + entries.size() + " journaled audit entries");
+        }
+    }
+
+    private void await(long millis)
+    {
+        synchronized (signal)
+        {
+            if (!running)
+            {
+                return;
+            }
+            try
+            {
+                signal.wait(millis);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private static byte[] serialize(AuditEntryInfo entry) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(entry);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<AuditEntryInfo> deserialize(List<byte[]> records)
+    {
+        List<AuditEntryInfo> entries = new ArrayList<AuditEntryInfo>(records.size());
+        for (byte[] record : records)
+        {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(record)))
+            {
+                entries.add((AuditEntryInfo) in.readObject());
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException e)
+            {
+                // Retrying will not help, so the entry is skipped
+                failureCount.incrementAndGet();
+                logger.error("Discarding unreadable audit journal record", e);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public long getPendingEntries()
+    {
+        AuditJournal current = journal;
+        return current == null ? 0L : current.getPendingCount();
+    }
+
+    @Override
+    public long getLagMillis()
+    {
+        long oldest = oldestPendingTime;
+        return oldest < 0L ? 0L : Math.max(0L, System.currentTimeMillis() - oldest);
+    }
+
+    @Override
+    public long getEntriesWritten()
+    {
+        return entriesWritten.get();
+    }
+
+    @Override
+    public long getBatchesWritten()
+    {
+        return batchesWritten.get();
+    }
+
+    @Override
+    public long getFailureCount()
+    {
+        return failureCount.get();
+    }
+
+    /**
+     * Appends the entries of a committed transaction to the journal
+     */
+    private class AfterCommitListener extends TransactionListenerAdapter
+    {
+        @Override
+        public void afterCommit()
+        {
+            List<byte[]> records = TransactionalResourceHelper.getList(KEY_ENTRIES);
+            if (records.isEmpty())
+            {
+                return;
+            }
+            try
+            {
+                journal.append(records);
+            }
+            catch (IOException | IllegalStateException e)
+            {
+                // The transaction has committed, so do not lose the entries
+                logger.error("Failed to journal " + records.size() + " audit entries, writing them directly", e);
+                writeEntries(deserialize(records));
+                return;
+            }
+            synchronized (signal)
+            {
+                signal.notifyAll();
+            }
+        }
+    }
+}
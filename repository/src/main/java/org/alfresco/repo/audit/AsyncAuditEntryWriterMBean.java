@@ -0,0 +1,57 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.audit;
+
+/**
+ * Management interface of the {@link AsyncAuditEntryWriter}.
+ */
+public interface AsyncAuditEntryWriterMBean
+{
+    /**
+     * @return the number of journaled audit entries not yet written to the database
+     */
+    long getPendingEntries();
+
+    /**
+     * @return the age (ms) of the oldest audit entry being written, or zero if there is nothing to write
+     */
+    long getLagMillis();
+
+    /**
+     * @return the number of audit entries written to the database
+     */
+    long getEntriesWritten();
+
+    /**
+     * @return the number of batches written to the database
+     */
+    long getBatchesWritten();
+
+    /**
+     * @return the number of failed attempts to write a batch
+     */
+    long getFailureCount();
+}
@@ -81,6 +81,7 @@ public class AuditComponentImpl implements AuditComponent
     private TransactionService transactionService;
     private AuditFilter auditFilter;
     private UserAuditFilter userAuditFilter;
+    private AsyncAuditEntryWriter asyncAuditEntryWriter;
     
     /**
      * Default constructor
@@ -137,6 +138,16 @@ public class AuditComponentImpl implements AuditComponent
         this.userAuditFilter = userAuditFilter;
     }
 
+    /**
+     * Set the optional writer that persists audit entries asynchronously, after the
+     * recording transaction has committed.  If not set or not enabled, entries are
+     * written within the recording transaction.
+     */
+    public void setAsyncAuditEntryWriter(AsyncAuditEntryWriter asyncAuditEntryWriter)
+    {
+        this.asyncAuditEntryWriter = asyncAuditEntryWriter;
+    }
+
     /**
      * {@inheritDoc}
      * @since 3.2
@@ -749,7 +760,17 @@ public class AuditComponentImpl implements AuditComponent
             boolean justGatherPreCallData = application.isApplicationJustGeneratingPreCallData();
             if (!justGatherPreCallData)
             {
-                entryId = auditDAO.createAuditEntry(applicationId, time, username, auditData);
+                boolean queued = asyncAuditEntryWriter != null &&
+                        asyncAuditEntryWriter.isEnabled() &&
+                        asyncAuditEntryWriter.queueAuditEntry(
+                                applicationId, time, username, auditData,
+                                application.getStorageFormat(), application.getIndexedKeys());
+                if (!queued)
+                {
+                    entryId = auditDAO.createAuditEntry(
+                            applicationId, time, username, auditData,
+                            application.getStorageFormat(), application.getIndexedKeys());
+                }
             }
             // Done
             if (logger.isDebugEnabled())
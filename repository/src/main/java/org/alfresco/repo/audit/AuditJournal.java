@@ -0,0 +1,523 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.audit;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Durable, append-only journal of opaque records held in a local directory.
+ * <p>
+ * Records are appended to numbered segment files, each record being framed by its length and
+ * a CRC32 checksum of its payload.  Consumers {@link #read(int) read} records in the order they
+ * were appended and {@link #commit() commit} once the records have been processed; the committed
+ * position is held in a checkpoint file and fully-consumed segments are removed.  Records read
+ * but not committed are read again after a restart, i.e. delivery is at-least-once.
+ * <p>
+ * When opened, the journal discards any partially-written record at the end of a segment, as
+ * would be left by a crash during an append.  A damaged record elsewhere is skipped when it is
+ * read: reading resumes at the next valid record and the damaged bytes are moved aside to a
+ * <tt>.corrupt</tt> file in the journal directory.
+ */
+public class AuditJournal implements Closeable
+{
+    private static final Log logger = LogFactory.getLog(AuditJournal.class);
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_SIZE = 8;
+    /** Upper limit on a single record, anything larger is treated as corruption */
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private final Path dir;
+    private final long maxSegmentSize;
+    private final boolean sync;
+
+    /** Segment sequence numbers and their files */
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private FileChannel writeChannel;
+    private long writeSeq;
+    private long writePosition;
+
+    private FileChannel readChannel;
+    private long readSeq;
+    private long readPosition;
+
+    private long pendingCount;
+    private long uncommittedCount;
+    private boolean open;
+
+    /**
+     * @param dir               the directory holding the journal files, created if necessary
+     * @param maxSegmentSize    the size (bytes) after which a new segment file is started
+     * @param sync              <tt>true</tt> to force appended records to the storage device
+     *                          before {@link #append(List)} returns
+     */
+    public AuditJournal(File dir, long maxSegmentSize, boolean sync)
+    {
+        this.dir = dir.toPath();
+        this.maxSegmentSize = maxSegmentSize;
+        this.sync = sync;
+    }
+
+    /**
+     * Open the journal, recovering any records not yet committed
+     */
+    public synchronized void open() throws IOException
+    {
+        if (open)
+        {
+            return;
+        }
+        Files.createDirectories(dir);
+
+        long[] checkpoint = readCheckpoint();
+        try (var stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX))
+        {
+            for (Path segment : stream)
+            {
+                String name = segment.getFileName().toString();
+                String seq = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try
+                {
+                    segments.put(Long.parseLong(seq), segment);
+                }
+                catch (NumberFormatException e)
+                {
+                    logger.warn("Ignoring unexpected file in audit journal: " + segment);
+                }
+            }
+        }
+
+        readSeq = checkpoint[0];
+        readPosition = checkpoint[1];
+        // Remove anything already consumed
+        while (!segments.isEmpty() && segments.firstKey() < readSeq)
+        {
+            Files.deleteIfExists(segments.pollFirstEntry().getValue());
+        }
+        if (segments.isEmpty() || segments.firstKey() > readSeq)
+        {
+            // The checkpointed segment has gone, so start at the beginning of whatever is left
+            readSeq = segments.isEmpty() ? readSeq : segments.firstKey();
+            readPosition = 0L;
+        }
+
+        // Count the valid records, truncating any torn record found at the end of a segment
+        pendingCount = 0L;
+        for (var entry : segments.entrySet())
+        {
+            long start = entry.getKey() == readSeq ? readPosition : 0L;
+            pendingCount += recover(entry.getValue(), start);
+        }
+
+        writeSeq = segments.isEmpty() ? readSeq : segments.lastKey();
+        writeChannel = openSegment(writeSeq);
+        writePosition = writeChannel.size();
+        uncommittedCount = 0L;
+        open = true;
+
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Opened audit journal " + dir + " with " + pendingCount + " pending records");
+        }
+    }
+
+    /**
+     * Scan the segment from the given position, truncating it after the last valid record
+     * 
+     * @return                  the number of valid records found
+     */
+    private long recover(Path segment, long position) throws IOException
+    {
+        long count = 0L;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (position < size)
+            {
+                byte[] payload = readRecord(channel, position, size, header);
+                if (payload == null)
+                {
+                    long next = findRecord(channel, position + 1, size, header);
+                    if (next < size)
+                    {
+                        // Valid records follow, so leave the damage to be moved aside when it is read
+                        logger.warn("Found a corrupt record in audit journal segment " + segment + " at offset " + position);
+                        position = next;
+                        continue;
+                    }
+                    logger.warn("Truncating audit journal segment " + segment + " at offset " + position +
+                            ": found an incomplete or corrupt record");
+                    channel.truncate(position);
+                    channel.force(true);
+                    break;
+                }
+                position += HEADER_SIZE + payload.length;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Append records, in order, to the journal.  Records may not be empty, so that zero-filled
+     * space in a damaged segment is never taken for records.
+     */
+    public synchronized void append(List<byte[]> records) throws IOException
+    {
+        checkOpen();
+        if (records.isEmpty())
+        {
+            return;
+        }
+        int size = 0;
+        for (byte[] record : records)
+        {
+            if (record.length == 0)
+            {
+                throw new IllegalArgumentException("Empty records cannot be journaled");
+            }
+            size += HEADER_SIZE + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] record : records)
+        {
+            crc.reset();
+            crc.update(record);
+            buffer.putInt(record.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(record);
+        }
+        buffer.flip();
+
+        if (writePosition > 0 && writePosition + size > maxSegmentSize)
+        {
+            rollSegment();
+        }
+        while (buffer.hasRemaining())
+        {
+            writePosition += writeChannel.write(buffer, writePosition);
+        }
+        if (sync)
+        {
+            writeChannel.force(false);
+        }
+        pendingCount += records.size();
+    }
+
+    /**
+     * Read the next records that have not yet been read.  Records that are read but not
+     * {@link #commit() committed} are not returned again by this instance.
+     * 
+     * @param max               the maximum number of records to read
+     * @return                  the records, possibly empty
+     */
+    public synchronized List<byte[]> read(int max) throws IOException
+    {
+        checkOpen();
+        List<byte[]> records = new ArrayList<>(Math.min(max, 64));
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (records.size() < max)
+        {
+            if (readSeq == writeSeq && readPosition >= writePosition)
+            {
+                break;
+            }
+            if (readChannel == null)
+            {
+                Path segment = segments.get(readSeq);
+                if (segment == null)
+                {
+                    // Segments are numbered consecutively so this is only the (empty) write segment
+                    break;
+                }
+                readChannel = FileChannel.open(segment, StandardOpenOption.READ);
+            }
+            long limit = readSeq == writeSeq ? writePosition : readChannel.size();
+            if (readPosition >= limit)
+            {
+                // Move on to the next segment
+                readChannel.close();
+                readChannel = null;
+                readSeq++;
+                readPosition = 0L;
+                continue;
+            }
+            byte[] payload = readRecord(readChannel, readPosition, limit, header);
+            if (payload == null)
+            {
+                // Retrying cannot repair the record, so move it aside and carry on
+                readPosition = quarantine(readPosition, limit, header);
+                continue;
+            }
+            records.add(payload);
+            readPosition += HEADER_SIZE + payload.length;
+        }
+        uncommittedCount += records.size();
+        return records;
+    }
+
+    /**
+     * Mark all records {@link #read(int) read} so far as processed
+     */
+    public synchronized void commit() throws IOException
+    {
+        checkOpen();
+        writeCheckpoint(readSeq, readPosition);
+        pendingCount -= uncommittedCount;
+        uncommittedCount = 0L;
+        while (!segments.isEmpty() && segments.firstKey() < readSeq)
+        {
+            Files.deleteIfExists(segments.pollFirstEntry().getValue());
+        }
+    }
+
+    /**
+     * @return                  the number of records appended but not yet committed
+     */
+    public synchronized long getPendingCount()
+    {
+        return pendingCount;
+    }
+
+    /**
+     * @return                  the number of segment files currently held
+     */
+    public synchronized int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (!open)
+        {
+            return;
+        }
+        open = false;
+        try
+        {
+            if (readChannel != null)
+            {
+                readChannel.close();
+                readChannel = null;
+            }
+        }
+        finally
+        {
+            writeChannel.close();
+            writeChannel = null;
+            segments.clear();
+        }
+    }
+
+    private void checkOpen()
+    {
+        if (!open)
+        {
+            throw new IllegalStateException("The audit journal is not open: " + dir);
+        }
+    }
+
+    private void rollSegment() throws IOException
+    {
+        writeChannel.force(false);
+        writeChannel.close();
+        writeSeq++;
+        writeChannel = openSegment(writeSeq);
+        writePosition = 0L;
+    }
+
+    private FileChannel openSegment(long seq) throws IOException
+    {
+        Path segment = dir.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segments.put(seq, segment);
+        return channel;
+    }
+
+    /**
+     * Copy the damaged bytes from the position of the read segment up to the next valid record
+     * to a file of their own, for later inspection
+     * 
+     * @return                  the position of the next valid record, or the limit if there is none
+     */
+    private long quarantine(long position, long limit, ByteBuffer header) throws IOException
+    {
+        long next = findRecord(readChannel, position + 1, limit, header);
+        Path corrupt = dir.resolve(String.format("%s%019d-%019d%s", SEGMENT_PREFIX, readSeq, position, CORRUPT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(corrupt, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            long copied = 0L;
+            while (copied < next - position)
+            {
+                copied += readChannel.transferTo(position + copied, next - position - copied, channel);
+            }
+        }
+        logger.error("Skipped " + (next - position) + " corrupt bytes in audit journal segment " + segments.get(readSeq) +
+                " at offset " + position + ", moved to " + corrupt);
+        return next;
+    }
+
+    /**
+     * @return                  the position of the first valid record at or after the position,
+     *                          or the limit if there is none
+     */
+    private static long findRecord(FileChannel channel, long position, long limit, ByteBuffer header) throws IOException
+    {
+        for (; position < limit; position++)
+        {
+            if (readRecord(channel, position, limit, header) != null)
+            {
+                return position;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * @return                  the record payload or <tt>null</tt> if there is no complete,
+     *                          valid record at the position that ends by the limit
+     */
+    private static byte[] readRecord(FileChannel channel, long position, long limit, ByteBuffer header) throws IOException
+    {
+        header.clear();
+        if (position + HEADER_SIZE > limit || !readFully(channel, header, position))
+        {
+            return null;
+        }
+        header.flip();
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length <= 0 || length > MAX_RECORD_SIZE || length > limit - position - HEADER_SIZE)
+        {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, position + HEADER_SIZE))
+        {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        if ((int) crc.getValue() != checksum)
+        {
+            return null;
+        }
+        return payload.array();
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+            {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * @return                  the checkpointed segment sequence and offset
+     */
+    private long[] readCheckpoint() throws IOException
+    {
+        Path checkpoint = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint))
+        {
+            return new long[] {0L, 0L};
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (buffer.remaining() != 24)
+        {
+            throw new IOException("Invalid audit journal checkpoint: " + checkpoint);
+        }
+        long seq = buffer.getLong();
+        long position = buffer.getLong();
+        long check = buffer.getLong();
+        if (check != (seq ^ position ^ 0x5A5A5A5A5A5A5A5AL))
+        {
+            throw new IOException("Invalid audit journal checkpoint: " + checkpoint);
+        }
+        return new long[] {seq, position};
+    }
+
+    private void writeCheckpoint(long seq, long position) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(24);
+        buffer.putLong(seq);
+        buffer.putLong(position);
+        buffer.putLong(seq ^ position ^ 0x5A5A5A5A5A5A5A5AL);
+        buffer.flip();
+
+        Path checkpoint = dir.resolve(CHECKPOINT_FILE);
+        Path temp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try
+        {
+            Files.move(temp, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
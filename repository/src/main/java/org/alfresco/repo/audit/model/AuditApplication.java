@@ -40,6 +40,7 @@ import org.alfresco.repo.audit.model._3.Application;
 import org.alfresco.repo.audit.model._3.AuditPath;
 import org.alfresco.repo.audit.model._3.GenerateValue;
 import org.alfresco.repo.audit.model._3.RecordValue;
+import org.alfresco.repo.domain.audit.AuditStorageFormat;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -70,23 +71,28 @@ public class AuditApplication
     private final Application application;
     private final Long applicationId;
     private final Long disabledPathsId;
+    private final AuditStorageFormat storageFormat;
 
     /** Derived expaned map for fast lookup */
     private List<DataExtractorDefinition> dataExtractors = new ArrayList<DataExtractorDefinition>();
     /** Derived expaned map for fast lookup */
     private Map<String, Map<String, DataGenerator>> dataGenerators = new HashMap<String, Map<String, DataGenerator>>(11);
+    /** Paths of the values that are indexed for searching */
+    private Set<String> indexedKeys = new HashSet<String>(7);
     
     /**
      * @param application           the application that will be wrapped
      * @param dataExtractorsByName  data extractors to use
      * @param dataGeneratorsByName  data generators to use
+     * @param storageFormat         the format in which the application's entries are persisted
      */
     /* package */ AuditApplication(
             Map<String, DataExtractor> dataExtractorsByName,
             Map<String, DataGenerator> dataGeneratorsByName,
             Application application,
             Long applicationId,
-            Long disabledPathsId)
+            Long disabledPathsId,
+            AuditStorageFormat storageFormat)
     {
         this.dataExtractorsByName = dataExtractorsByName;
         this.dataGeneratorsByName = dataGeneratorsByName;
@@ -96,8 +102,10 @@ public class AuditApplication
         this.applicationKey = application.getKey();
         this.applicationId = applicationId;
         this.disabledPathsId = disabledPathsId;
+        this.storageFormat = storageFormat;
         
         buildAuditPaths(application);
+        indexedKeys = Collections.unmodifiableSet(indexedKeys);
     }
     
     @Override
@@ -132,6 +140,7 @@ public class AuditApplication
           .append("[ name=").append(applicationName)
           .append(", id=").append(applicationId)
           .append(", disabledPathsId=").append(disabledPathsId)
+          .append(", storageFormat=").append(storageFormat)
           .append("]");
         return sb.toString();
     }
@@ -170,6 +179,26 @@ public class AuditApplication
         return disabledPathsId;
     }
 
+    /**
+     * Get the format in which entries for the application are persisted
+     */
+    public AuditStorageFormat getStorageFormat()
+    {
+        return storageFormat;
+    }
+
+    /**
+     * Get the paths of the recorded or generated values that are marked as <b>indexed</b>.
+     * Only these values can be searched for when the entries are stored
+     * in the {@link AuditStorageFormat#COMPACT compact} format.
+     * 
+     * @return          Returns the (unmodifiable) set of indexed value paths
+     */
+    public Set<String> getIndexedKeys()
+    {
+        return indexedKeys;
+    }
+
     /**
      * Helper method to check that a path is correct for this application instance
      * 
@@ -470,6 +499,10 @@ public class AuditApplication
             // Store the extractor definition
             DataExtractorDefinition extractorDef = new DataExtractorDefinition(dataTrigger, sourcePath, extractorPath, extractor);
             dataExtractors.add(extractorDef);
+            if (element.isIndexed())
+            {
+                indexedKeys.add(extractorPath);
+            }
         }
 
         // Get the data generators declared for this key
@@ -490,6 +523,10 @@ public class AuditApplication
             }
             // All generators that occur earlier in the path will also be applicable here
             upperGeneratorsByPath.put(generatorPath, generator);
+            if (element.isIndexed())
+            {
+                indexedKeys.add(generatorPath);
+            }
         }
         // All the generators apply to the current path
         dataGenerators.put(currentPath, upperGeneratorsByPath);
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +59,7 @@ import org.alfresco.repo.audit.model._3.PathMap;
 import org.alfresco.repo.audit.model._3.PathMappings;
 import org.alfresco.repo.domain.audit.AuditDAO;
 import org.alfresco.repo.domain.audit.AuditDAO.AuditApplicationInfo;
+import org.alfresco.repo.domain.audit.AuditStorageFormat;
 import org.alfresco.repo.management.subsystems.AbstractPropertyBackedBean;
 import org.alfresco.repo.management.subsystems.PropertyBackedBeanState;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
@@ -287,6 +289,8 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
         private Map<String, AuditApplication> auditApplicationsByName;
         /** The exposed configuration properties. */
         private final Map<String, Boolean> properties;
+        /** The exposed storage format properties, see {@link AuditStorageFormat}. */
+        private final Map<String, String> storageFormats;
         
         /**
          * Instantiates a new audit model registry state.
@@ -295,6 +299,7 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
         {
             auditModels = new LinkedHashMap<URL, Audit>(7);
             properties = new HashMap<String, Boolean>(7);
+            storageFormats = new HashMap<String, String>(7);
             
             // Default value for global enabled property
             properties.put(AUDIT_PROPERTY_AUDIT_ENABLED, false);
@@ -338,6 +343,11 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
                 for (Application application : applications)
                 {
                     properties.put(getEnabledProperty(application.getKey()), true);
+                    // The model gives the default storage format, which can be overridden by the bean properties
+                    String storageFormat = application.getStorageFormat();
+                    storageFormats.put(
+                            getStorageFormatProperty(application.getKey()),
+                            storageFormat == null ? AuditStorageFormat.PROPERTIES.name().toLowerCase() : storageFormat);
                 }
             }
             catch (Throwable e)
@@ -358,6 +368,41 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
             return "audit." + key.toLowerCase() + ".enabled";
         }
         
+        /**
+         * Helper method to convert an application key into a <b>storage format</b> property.
+         * 
+         * @param key                   an application key
+         * @return                      the property name of the for "audit.myapp.storageFormat"
+         */
+        private String getStorageFormatProperty(String key)
+        {
+            return "audit." + key.toLowerCase() + ".storageFormat";
+        }
+        
+        /**
+         * Get the format in which the entries of an application are persisted.
+         * 
+         * @param key                   the application key
+         * @return                      the storage format, defaulting to {@link AuditStorageFormat#PROPERTIES}
+         */
+        private AuditStorageFormat getStorageFormat(String key)
+        {
+            String storageFormat = storageFormats.get(getStorageFormatProperty(key));
+            if (storageFormat == null || storageFormat.trim().length() == 0)
+            {
+                return AuditStorageFormat.PROPERTIES;
+            }
+            try
+            {
+                return AuditStorageFormat.valueOf(storageFormat.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new AuditModelException(
+                        "Unknown audit storage format '" + storageFormat + "' for application key: " + key);
+            }
+        }
+        
         /**
          * Checks if an application key is enabled.  Each application has a name and a root key
          * value.  It is the key (which will be used as the root of all logged paths) that is
@@ -377,6 +422,10 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
          */
         public String getProperty(String name)
         {
+            if (storageFormats.containsKey(name))
+            {
+                return storageFormats.get(name);
+            }
             return String.valueOf(properties.get(name));
         }
 
@@ -385,7 +434,9 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
          */
         public Set<String> getPropertyNames()
         {
-            return properties.keySet();
+            Set<String> names = new HashSet<String>(properties.keySet());
+            names.addAll(storageFormats.keySet());
+            return names;
         }
 
         /**
@@ -393,6 +444,11 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
          */
         public void setProperty(String name, String value)
         {
+            if (storageFormats.containsKey(name))
+            {
+                storageFormats.put(name, value);
+                return;
+            }
             properties.put(name, Boolean.parseBoolean(value));
         }
 
@@ -671,7 +727,8 @@ public class AuditModelRegistryImpl extends AbstractPropertyBackedBean implement
                         dataGeneratorsByName,
                         application,
                         appInfo.getId(),
-                        appInfo.getDisabledPathsId());
+                        appInfo.getDisabledPathsId(),
+                        getStorageFormat(key));
                 auditApplicationsByName.put(name, wrapperApp);
                 auditApplicationsByKey.put(key, wrapperApp);
             }
@@ -67,6 +67,8 @@ public class Application
     protected List<PathMappings> pathMappings;
     @XmlAttribute(required = true)
     protected String name;
+    @XmlAttribute
+    protected String storageFormat;
 
     /**
      * Gets the value of the pathMappings property.
@@ -121,4 +123,28 @@ public class Application
         this.name = value;
     }
 
+    /**
+     * Gets the value of the storageFormat property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getStorageFormat() {
+        return storageFormat;
+    }
+
+    /**
+     * Sets the value of the storageFormat property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setStorageFormat(String value) {
+        this.storageFormat = value;
+    }
+
 }
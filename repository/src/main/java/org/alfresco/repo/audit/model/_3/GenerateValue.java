@@ -57,6 +57,8 @@ public class GenerateValue
 
     @XmlAttribute(required = true)
     protected String dataGenerator;
+    @XmlAttribute
+    protected Boolean indexed;
 
     /**
      * Gets the value of the dataGenerator property.
@@ -82,4 +84,32 @@ public class GenerateValue
         this.dataGenerator = value;
     }
 
+    /**
+     * Gets the value of the indexed property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Boolean }
+     *     
+     */
+    public boolean isIndexed() {
+        if (indexed == null) {
+            return false;
+        } else {
+            return indexed;
+        }
+    }
+
+    /**
+     * Sets the value of the indexed property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Boolean }
+     *     
+     */
+    public void setIndexed(Boolean value) {
+        this.indexed = value;
+    }
+
 }
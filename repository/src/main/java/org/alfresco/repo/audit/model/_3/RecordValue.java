@@ -63,6 +63,8 @@ public class RecordValue
     protected String dataSource;
     @XmlAttribute
     protected String dataTrigger;
+    @XmlAttribute
+    protected Boolean indexed;
 
     /**
      * Gets the value of the dataExtractor property.
@@ -136,4 +138,32 @@ public class RecordValue
         this.dataTrigger = value;
     }
 
+    /**
+     * Gets the value of the indexed property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Boolean }
+     *     
+     */
+    public boolean isIndexed() {
+        if (indexed == null) {
+            return false;
+        } else {
+            return indexed;
+        }
+    }
+
+    /**
+     * Sets the value of the indexed property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Boolean }
+     *     
+     */
+    public void setIndexed(Boolean value) {
+        this.indexed = value;
+    }
+
 }
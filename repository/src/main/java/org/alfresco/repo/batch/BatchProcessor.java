@@ -52,8 +52,12 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A <code>BatchProcessor</code> manages the running and monitoring of a potentially long-running transactional batch
@@ -64,12 +68,32 @@ import java.util.concurrent.TimeUnit;
  * ERROR level. Each individual error is logged at WARN level and progress information is logged at INFO level. Through
  * the {@link BatchMonitor} interface, it also supports the real-time monitoring of batch metrics (e.g. over JMX in the
  * Enterprise Edition).
+ * <p>
+ * In the default {@link ExecutionMode#THREAD_POOL} mode the jobs are queued to a fixed pool of worker threads. In
+ * {@link ExecutionMode#WORK_STEALING} mode they are submitted to a work-stealing pool of that many threads, with the
+ * number of jobs in flight bounded rather than the length of a queue. The work provider is then read ahead of the
+ * running jobs by at most that many batches. The mode is set per processor, typically by a {@link BatchProcessorDefaults}
+ * injected into the component that creates it.
  * 
  * @author dward
  */
 @AlfrescoPublicApi
 public class BatchProcessor<T> implements BatchMonitor
 {
+    /**
+     * How the batches of a {@link BatchProcessor} are run in parallel.
+     */
+    public enum ExecutionMode
+    {
+        /** A fixed pool of worker threads fed from a bounded queue */
+        THREAD_POOL,
+        /** A work-stealing pool with a limit on the number of batches in flight */
+        WORK_STEALING
+    }
+
+    /** The number of batches in flight per worker thread when no in flight limit is set. */
+    private static final int DEFAULT_IN_FLIGHT_PER_THREAD = 2;
+
     /** The factory for all new threads */
     private TraceableThreadFactory threadFactory;
     
@@ -94,8 +118,14 @@ public class BatchProcessor<T> implements BatchMonitor
     /** The number of entries we process at a time in a transaction. */
     private final int batchSize;
     
+    /** How the batches are run in parallel. */
+    private ExecutionMode executionMode = ExecutionMode.THREAD_POOL;
+
+    /** The maximum number of batches in flight in work-stealing mode (0 to use a multiple of the worker threads). */
+    private int maxInFlight = 0;
+
     /** The current entry id. */
-    private String currentEntryId;
+    private volatile String currentEntryId;
 
     /** The number of batches currently executing. */
     private int executingCount;
@@ -104,22 +134,25 @@ public class BatchProcessor<T> implements BatchMonitor
     private SortedSet<Integer> retryTxns = new TreeSet<Integer>();
 
     /** The last error. */
-    private Throwable lastError;
+    private volatile Throwable lastError;
 
     /** The last error entry id. */
-    private String lastErrorEntryId;
+    private volatile String lastErrorEntryId;
 
     /** The total number of errors. */
-    private long totalErrors;
+    private final LongAdder totalErrors = new LongAdder();
 
     /** The number of successfully processed entries. */
-    private long successfullyProcessedEntries;
+    private final LongAdder successfullyProcessedEntries = new LongAdder();
+
+    /** The number of processed entries, successful or not, used to find the logging intervals crossed. */
+    private final AtomicLong processedEntries = new AtomicLong();
 
     /** The start time. */
-    private Date startTime;
+    private volatile Date startTime;
 
     /** The end time. */
-    private Date endTime;
+    private volatile Date endTime;
 
     /**
      * Instantiates a new batch processor.
@@ -244,10 +277,33 @@ public class BatchProcessor<T> implements BatchMonitor
         }
     }
 
+    /**
+     * Sets the execution mode of this processor (default {@link ExecutionMode#THREAD_POOL}).
+     * 
+     * @param executionMode
+     *            the execution mode
+     */
+    public void setExecutionMode(ExecutionMode executionMode)
+    {
+        this.executionMode = executionMode == null ? ExecutionMode.THREAD_POOL : executionMode;
+    }
+
+    /**
+     * Sets the in flight limit of this processor.
+     * 
+     * @param maxInFlight
+     *            the maximum number of batches in flight in {@link ExecutionMode#WORK_STEALING} mode, at least the
+     *            number of worker threads, or 0 (the default) to use twice the number of worker threads
+     */
+    public void setMaxInFlight(int maxInFlight)
+    {
+        this.maxInFlight = Math.max(0, maxInFlight);
+    }
+
     /**
      * {@inheritDoc}
      */
-    public synchronized String getCurrentEntryId()
+    public String getCurrentEntryId()
     {
         return this.currentEntryId;
     }
@@ -255,15 +311,16 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    public synchronized String getLastError()
+    public String getLastError()
     {
-        if (this.lastError == null)
+        Throwable lastError = this.lastError;
+        if (lastError == null)
         {
             return null;
         }
         Writer buff = new StringWriter(1024);
         PrintWriter out = new PrintWriter(buff);
-        this.lastError.printStackTrace(out);
+        lastError.printStackTrace(out);
         out.close();
         return buff.toString();
     }
@@ -271,7 +328,7 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    public synchronized String getLastErrorEntryId()
+    public String getLastErrorEntryId()
     {
         return this.lastErrorEntryId;
     }
@@ -279,7 +336,7 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    public synchronized String getProcessName()
+    public String getProcessName()
     {
         return this.processName;
     }
@@ -287,26 +344,26 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    @Deprecated public synchronized int getSuccessfullyProcessedEntries()
+    @Deprecated public int getSuccessfullyProcessedEntries()
     {
-        return Math.toIntExact(this.successfullyProcessedEntries);
+        return Math.toIntExact(this.successfullyProcessedEntries.sum());
     }
 
     /**
      * {@inheritDoc}
      */
-    public synchronized long getSuccessfullyProcessedEntriesLong()
+    public long getSuccessfullyProcessedEntriesLong()
     {
-        return this.successfullyProcessedEntries;
+        return this.successfullyProcessedEntries.sum();
     }
 
     /**
      * {@inheritDoc}
      */
-    public synchronized String getPercentComplete()
+    public String getPercentComplete()
     {
         long totalResults = this.workProvider.getTotalEstimatedWorkSizeLong();
-        long processed = this.successfullyProcessedEntries + this.totalErrors;
+        long processed = this.processedEntries.get();
         return processed <= totalResults ? NumberFormat.getPercentInstance().format(
                 totalResults == 0 ? 1.0F : (float) processed / totalResults) : "Unknown";
     }
@@ -314,9 +371,9 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    @Deprecated public synchronized int getTotalErrors()
+    @Deprecated public int getTotalErrors()
     {
-        return Math.toIntExact(this.totalErrors);
+        return Math.toIntExact(this.totalErrors.sum());
     }
 
     /**
@@ -330,9 +387,9 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    public synchronized long getTotalErrorsLong()
+    public long getTotalErrorsLong()
     {
-        return this.totalErrors;
+        return this.totalErrors.sum();
     }
 
     /**
@@ -346,7 +403,7 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    public synchronized Date getEndTime()
+    public Date getEndTime()
     {
         return this.endTime;
     }
@@ -354,7 +411,7 @@ public class BatchProcessor<T> implements BatchMonitor
     /**
      * {@inheritDoc}
      */
-    public synchronized Date getStartTime()
+    public Date getStartTime()
     {
         return this.startTime;
     }
@@ -407,25 +464,32 @@ public class BatchProcessor<T> implements BatchMonitor
 
     private long process(final BatchProcessWorker<T> worker, final boolean splitTxns, long count)
     {
-        synchronized (this)
+        this.startTime = new Date();
+        if (this.logger.isInfoEnabled())
         {
-            this.startTime = new Date();
-            if (this.logger.isInfoEnabled())
+            if (count >= 0)
             {
-                if (count >= 0)
-                {
-                    this.logger.info(getProcessName() + ": Commencing batch of " + count + " entries");
-                }
-                else
-                {
-                    this.logger.info(getProcessName() + ": Commencing batch");
+                this.logger.info(getProcessName() + ": Commencing batch of " + count + " entries");
+            }
+            else
+            {
+                this.logger.info(getProcessName() + ": Commencing batch");
 
-                }
             }
         }
 
+        // In work-stealing mode, bound the batches in flight rather than the queue, allowing some to wait for the
+        // worker threads so that none is idle while the next batch is read (processes asking for a single worker
+        // thread stay serial)
+        int inFlightLimit = this.maxInFlight > 0 ? Math.max(this.maxInFlight, this.workerThreads) :
+                    this.workerThreads * DEFAULT_IN_FLIGHT_PER_THREAD;
+        final Semaphore inFlight = splitTxns && this.workerThreads > 1 && this.executionMode == ExecutionMode.WORK_STEALING ?
+                    new Semaphore(inFlightLimit) : null;
+
         // Create a thread pool executor with the specified number of threads and a finite blocking queue of jobs
-        ExecutorService executorService = splitTxns && this.workerThreads > 1 ?
+        ExecutorService executorService = inFlight != null ?
+                    new ForkJoinPool(this.workerThreads, this.threadFactory, null, true) :
+                    splitTxns && this.workerThreads > 1 ?
                     new ThreadPoolExecutor(
                                 this.workerThreads, this.workerThreads, 0L, TimeUnit.MILLISECONDS,
                                 new ArrayBlockingQueue<Runnable>(this.workerThreads * this.batchSize * 10)
@@ -455,25 +519,18 @@ public class BatchProcessor<T> implements BatchMonitor
             while (iterator.hasNext())
             {
                 batch.add(iterator.next());
-                boolean hasNext = iterator.hasNext();
-                if (batch.size() >= this.batchSize || !hasNext)
+                // Hand a full batch over before asking the work provider for more, as the provider may block
+                // waiting on work that the batch itself produces
+                if (batch.size() >= this.batchSize)
                 {
-                    final TxnCallback callback = new TxnCallback(id++, worker, batch, splitTxns);
-                    if (hasNext)
-                    {
-                        batch = new ArrayList<T>(this.batchSize);
-                    }
-
-                    if (executorService == null)
-                    {
-                        callback.run();
-                    }
-                    else
-                    {
-                        executorService.execute(callback);
-                    }
+                    submitBatch(new TxnCallback(id++, worker, batch, splitTxns), executorService, inFlight);
+                    batch = new ArrayList<T>(this.batchSize);
                 }
             }
+            if (!batch.isEmpty())
+            {
+                submitBatch(new TxnCallback(id++, worker, batch, splitTxns), executorService, inFlight);
+            }
             return count;
         }
         finally
@@ -489,42 +546,81 @@ public class BatchProcessor<T> implements BatchMonitor
                 {
                 }
             }
-            synchronized (this)
+            reportProgress(this.processedEntries.get(), true);
+            this.endTime = new Date();
+            if (this.logger.isInfoEnabled())
             {
-                reportProgress(true);
-                this.endTime = new Date();
-                if (this.logger.isInfoEnabled())
+                if (count >= 0)
                 {
-                    if (count >= 0)
-                    {
-                        this.logger.info(getProcessName() + ": Completed batch of " + count + " entries");
-                    }
-                    else
-                    {
-                        this.logger.info(getProcessName() + ": Completed batch");
-
-                    }
+                    this.logger.info(getProcessName() + ": Completed batch of " + count + " entries");
                 }
-                if (this.totalErrors > 0 && this.logger.isErrorEnabled())
+                else
                 {
-                    this.logger.error(getProcessName() + ": " + this.totalErrors
-                                            + " error(s) detected. Last error from entry \"" + this.lastErrorEntryId + "\"",
-                                this.lastError);
+                    this.logger.info(getProcessName() + ": Completed batch");
+
                 }
             }
+            long totalErrors = this.totalErrors.sum();
+            if (totalErrors > 0 && this.logger.isErrorEnabled())
+            {
+                this.logger.error(getProcessName() + ": " + totalErrors
+                                        + " error(s) detected. Last error from entry \"" + this.lastErrorEntryId + "\"",
+                            this.lastError);
+            }
+        }
+    }
+
+    /**
+     * Runs a batch on the calling thread, or hands it to the executor, throttled by the in flight limit if there is one.
+     */
+    private void submitBatch(final TxnCallback callback, ExecutorService executorService, final Semaphore inFlight)
+    {
+        if (executorService == null)
+        {
+            callback.run();
+        }
+        else if (inFlight != null)
+        {
+            // Read ahead of the running batches by no more than the in flight limit
+            try
+            {
+                inFlight.acquire();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new AlfrescoRuntimeException("Interrupted while queueing batches of " + getProcessName(), e);
+            }
+            executorService.execute(() ->
+            {
+                try
+                {
+                    callback.run();
+                }
+                finally
+                {
+                    inFlight.release();
+                }
+            });
+        }
+        else
+        {
+            executorService.execute(callback);
         }
     }
+
     /**
      * Reports the current progress.
      * 
+     * @param processed
+     *            the number of entries processed
      * @param last
      *            Have all jobs been processed? If <code>false</code> then progress is only reported after the number of
      *            entries indicated by {@link #loggingInterval}. If <code>true</code> then progress is reported if this
      *            is not one of the entries indicated by {@link #loggingInterval}.
      */
-    private synchronized void reportProgress(boolean last)
+    private void reportProgress(long processed, boolean last)
     {
-        long processed = this.successfullyProcessedEntries + this.totalErrors;
         if (processed % this.loggingInterval == 0 ^ last)
         {
             StringBuilder message = new StringBuilder(100).append(getProcessName()).append(": Processed ").append(
@@ -549,7 +645,7 @@ public class BatchProcessor<T> implements BatchMonitor
             {
                 message.append(". Rate: ").append(processed * 1000L / duration).append(" per second");
             }
-            message.append(". " + this.totalErrors + " failures detected.");
+            message.append(". " + this.totalErrors.sum() + " failures detected.");
             this.logger.info(message);
         }
     }
@@ -894,49 +990,22 @@ public class BatchProcessor<T> implements BatchMonitor
          */
         private void commitProgress()
         {
-            synchronized (BatchProcessor.this)
+            BatchProcessor.this.totalErrors.add(this.txnErrors);
+            BatchProcessor.this.successfullyProcessedEntries.add(this.txnSuccesses);
+            long txnProcessed = this.txnErrors + this.txnSuccesses;
+            if (txnProcessed > 0)
             {
-                if (this.txnErrors > 0)
+                long loggingInterval = BatchProcessor.this.loggingInterval;
+                long processed = BatchProcessor.this.processedEntries.addAndGet(txnProcessed);
+                // Work out the logging intervals we crossed and report them
+                for (long interval = (processed - txnProcessed) / loggingInterval + 1; interval <= processed / loggingInterval; interval++)
                 {
-                    long processed = BatchProcessor.this.successfullyProcessedEntries + BatchProcessor.this.totalErrors;
-                    long currentIncrement = processed % BatchProcessor.this.loggingInterval;
-                    long newErrors = BatchProcessor.this.totalErrors + this.txnErrors;
-                    // Work out the number of logging intervals we will cross and report them
-                    long intervals = (this.txnErrors + currentIncrement) / BatchProcessor.this.loggingInterval;
-                    if (intervals > 0)
-                    {
-                        BatchProcessor.this.totalErrors += BatchProcessor.this.loggingInterval - currentIncrement;
-                        reportProgress(false);
-                        while (--intervals > 0)
-                        {
-                            BatchProcessor.this.totalErrors += BatchProcessor.this.loggingInterval;
-                            reportProgress(false);
-                        }
-                    }
-                    BatchProcessor.this.totalErrors = newErrors;
-                }
-
-                if (this.txnSuccesses > 0)
-                {
-                    long processed = BatchProcessor.this.successfullyProcessedEntries + BatchProcessor.this.totalErrors;
-                    long currentIncrement = processed % BatchProcessor.this.loggingInterval;
-                    long newSuccess = BatchProcessor.this.successfullyProcessedEntries + this.txnSuccesses;
-                    // Work out the number of logging intervals we will cross and report them
-                    long intervals = (this.txnSuccesses + currentIncrement) / BatchProcessor.this.loggingInterval;
-                    if (intervals > 0)
-                    {
-                        BatchProcessor.this.successfullyProcessedEntries += BatchProcessor.this.loggingInterval
-                                - currentIncrement;
-                        reportProgress(false);
-                        while (--intervals > 0)
-                        {
-                            BatchProcessor.this.successfullyProcessedEntries += BatchProcessor.this.loggingInterval;
-                            reportProgress(false);
-                        }
-                    }
-                    BatchProcessor.this.successfullyProcessedEntries = newSuccess;
+                    reportProgress(interval * loggingInterval, false);
                 }
+            }
 
+            synchronized (BatchProcessor.this)
+            {
                 if (this.txnLastError != null)
                 {
                     BatchProcessor.this.lastError = this.txnLastError;
@@ -0,0 +1,79 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.batch;
+
+import org.alfresco.repo.batch.BatchProcessor.ExecutionMode;
+
+/**
+ * The execution settings for {@link BatchProcessor batch processors}, injected into the components that create them
+ * and applied to each new processor with {@link #configure(BatchProcessor)}.
+ */
+public class BatchProcessorDefaults
+{
+    private ExecutionMode executionMode = ExecutionMode.THREAD_POOL;
+    private int maxInFlight = 0;
+
+    /**
+     * @param executionMode
+     *            how the batches of the processors are run in parallel (default {@link ExecutionMode#THREAD_POOL})
+     */
+    public void setExecutionMode(ExecutionMode executionMode)
+    {
+        this.executionMode = executionMode == null ? ExecutionMode.THREAD_POOL : executionMode;
+    }
+
+    public ExecutionMode getExecutionMode()
+    {
+        return this.executionMode;
+    }
+
+    /**
+     * @param maxInFlight
+     *            the maximum number of batches in flight in {@link ExecutionMode#WORK_STEALING} mode, or 0 to use twice
+     *            the number of worker threads of each processor
+     */
+    public void setMaxInFlight(int maxInFlight)
+    {
+        this.maxInFlight = Math.max(0, maxInFlight);
+    }
+
+    public int getMaxInFlight()
+    {
+        return this.maxInFlight;
+    }
+
+    /**
+     * Applies these settings to a processor before it is run.
+     * 
+     * @param batchProcessor
+     *            the processor
+     */
+    public void configure(BatchProcessor<?> batchProcessor)
+    {
+        batchProcessor.setExecutionMode(this.executionMode);
+        batchProcessor.setMaxInFlight(this.maxInFlight);
+    }
+}
@@ -87,10 +87,19 @@ public interface BulkImportStatus
     long getNumberOfContentVersionBytesWritten();
     long getNumberOfContentVersionPropertiesWritten();
     
+    // Pipeline information (only maintained when directories are analysed ahead of the import)
+    long getNumberOfDirectoriesAnalysed();
+    long getNumberOfBatchesQueued();
+    long getNumberOfItemsQueued();
+    long getWalkerWaitTimeInNs();    // Time the directory walkers spent blocked on a full queue
+    long getImporterWaitTimeInNs();  // Time the importer spent waiting for the walkers to queue work
+    
     // Throughput
     public Long getFilesReadPerSecond();
     public Long getBytesReadPerSecond();
     public Long getEntriesScannedPerSecond();
     public Long getBytesWrittenPerSecond();
     public Long getNodesCreatedPerSecond();
+    public Long getDirectoriesAnalysedPerSecond();
+    public Long getItemsQueuedPerSecond();
 }
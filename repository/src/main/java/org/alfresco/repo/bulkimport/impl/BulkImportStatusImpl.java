@@ -100,6 +100,13 @@ public class BulkImportStatusImpl implements BulkImportStatus
     private AtomicLong    numberOfContentVersionBytesWritten      = new AtomicLong();
     private AtomicLong    numberOfContentVersionPropertiesWritten = new AtomicLong();
 
+    // Pipeline information
+    private AtomicLong    numberOfDirectoriesAnalysed             = new AtomicLong();
+    private AtomicLong    numberOfBatchesQueued                   = new AtomicLong();
+    private AtomicLong    numberOfItemsQueued                     = new AtomicLong();
+    private AtomicLong    walkerWaitTimeInNs                      = new AtomicLong();
+    private AtomicLong    importerWaitTimeInNs                    = new AtomicLong();
+
     private ReadLock readLock;
     private WriteLock writeLock;
 
@@ -258,6 +265,13 @@ public class BulkImportStatusImpl implements BulkImportStatus
         this.numberOfContentVersionBytesWritten.set(0);
         this.numberOfContentVersionPropertiesWritten.set(0);
         
+        // Pipeline information
+        this.numberOfDirectoriesAnalysed.set(0);
+        this.numberOfBatchesQueued.set(0);
+        this.numberOfItemsQueued.set(0);
+        this.walkerWaitTimeInNs.set(0);
+        this.importerWaitTimeInNs.set(0);
+        
         this.startNs = System.nanoTime();
         this.endNs   = null;
     }
@@ -471,6 +485,34 @@ public class BulkImportStatusImpl implements BulkImportStatus
         }
     }
     
+    // Pipeline information
+    public long getNumberOfDirectoriesAnalysed() { return(numberOfDirectoriesAnalysed.longValue()); }
+    public long getNumberOfBatchesQueued()       { return(numberOfBatchesQueued.longValue()); }
+    public long getNumberOfItemsQueued()         { return(numberOfItemsQueued.longValue()); }
+    public long getWalkerWaitTimeInNs()          { return(walkerWaitTimeInNs.longValue()); }
+    public long getImporterWaitTimeInNs()        { return(importerWaitTimeInNs.longValue()); }
+
+    public void incrementNumberOfDirectoriesAnalysed()
+    {
+        numberOfDirectoriesAnalysed.incrementAndGet();
+    }
+
+    public void incrementBatchesQueued(final int numberOfItems)
+    {
+        numberOfBatchesQueued.incrementAndGet();
+        numberOfItemsQueued.addAndGet(numberOfItems);
+    }
+
+    public void addWalkerWaitTime(final long waitTimeInNs)
+    {
+        walkerWaitTimeInNs.addAndGet(waitTimeInNs);
+    }
+
+    public void addImporterWaitTime(final long waitTimeInNs)
+    {
+        importerWaitTimeInNs.addAndGet(waitTimeInNs);
+    }
+
     public Long getFilesReadPerSecond()
     {
     	Long duration = getDuration();
@@ -549,6 +591,32 @@ public class BulkImportStatusImpl implements BulkImportStatus
 		}
     }
 
+    public Long getDirectoriesAnalysedPerSecond()
+    {
+        Long duration = getDuration();
+        if (duration != null)
+        {
+            return numberOfDirectoriesAnalysed.longValue() / duration;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    public Long getItemsQueuedPerSecond()
+    {
+        Long duration = getDuration();
+        if (duration != null)
+        {
+            return numberOfItemsQueued.longValue() / duration;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
     // Private helper methods
     private final Date copyDate(final Date date)
     {
@@ -670,6 +738,21 @@ public class BulkImportStatusImpl implements BulkImportStatus
     	sb.append("\nNumber of batches completed : ");
     	sb.append(getNumberOfBatchesCompleted());
 
+    	sb.append("\nNumber of directories analysed : ");
+    	sb.append(getNumberOfDirectoriesAnalysed());
+    	sb.append("\nNumber of batches queued : ");
+    	sb.append(getNumberOfBatchesQueued());
+    	sb.append("\nNumber of items queued : ");
+    	sb.append(getNumberOfItemsQueued());
+    	sb.append("\nDirectories analysed/sec : ");
+    	sb.append(getDirectoriesAnalysedPerSecond());
+    	sb.append("\nItems queued/sec : ");
+    	sb.append(getItemsQueuedPerSecond());
+    	sb.append("\nWalker wait time (ns) : ");
+    	sb.append(getWalkerWaitTimeInNs());
+    	sb.append("\nImporter wait time (ns) : ");
+    	sb.append(getImporterWaitTimeInNs());
+
     	sb.append("\nNumber of bytes written : ");
     	sb.append(getNumberOfContentBytesWritten());
     	sb.append("\nNumber of content version bytes written : ");
@@ -28,6 +28,7 @@ package org.alfresco.repo.bulkimport.impl;
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.batch.BatchProcessWorkProvider;
 import org.alfresco.repo.batch.BatchProcessor;
+import org.alfresco.repo.batch.BatchProcessorDefaults;
 import org.alfresco.repo.bulkimport.BulkFilesystemImporter;
 import org.alfresco.repo.bulkimport.BulkImportParameters;
 import org.alfresco.repo.bulkimport.FilesystemTracker;
@@ -54,6 +55,7 @@ public abstract class MultiThreadedBulkFilesystemImporter extends AbstractBulkFi
     protected int defaultBatchSize;
     protected int defaultNumThreads;
     protected int defaultLoggingInterval = 100;
+    protected BatchProcessorDefaults batchProcessorDefaults;
 
     protected int getLoggingInterval(BulkImportParameters bulkImportParameters)
     {
@@ -159,6 +161,10 @@ public abstract class MultiThreadedBulkFilesystemImporter extends AbstractBulkFi
                 numThreads, batchSize,
                 applicationContext,
                 logger, loggingInterval);
+		if (batchProcessorDefaults != null)
+		{
+			batchProcessorDefaults.configure(batchProcessor);
+		}
 		
 		return batchProcessor;
     }
@@ -173,6 +179,11 @@ public abstract class MultiThreadedBulkFilesystemImporter extends AbstractBulkFi
 		this.defaultBatchSize = defaultBatchSize;
 	}
 
+	public void setBatchProcessorDefaults(BatchProcessorDefaults batchProcessorDefaults)
+	{
+		this.batchProcessorDefaults = batchProcessorDefaults;
+	}
+
 	public int getDefaultNumThreads()
 	{
 		return defaultNumThreads;
@@ -0,0 +1,331 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.bulkimport.impl;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.repo.batch.BatchProcessWorkProvider;
+import org.alfresco.repo.bulkimport.AnalysedDirectory;
+import org.alfresco.repo.bulkimport.DirectoryAnalyser;
+import org.alfresco.repo.bulkimport.ImportableItem;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.tenant.TenantUtil;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.util.TraceableThreadFactory;
+import org.alfresco.util.transaction.TransactionListenerAdapter;
+
+/**
+ * A filesystem tracker that analyses directories on a pool of walker threads, ahead of and concurrently with the import.
+ * <p>
+ * Each analysed directory is split into batches of importable items that are put onto a bounded queue, from which the
+ * work provider feeds the {@link org.alfresco.repo.batch.BatchProcessor}. A directory is only handed to the walkers once
+ * the transaction that imported it has committed, so that its children always find the node of their parent. When the
+ * queue is full the walkers block until the import catches up.
+ * <p>
+ * The work provider stops (returns no more work) once nothing is queued, being analysed or waiting on a commit. Directories
+ * imported by batches still running at that point are picked up by another run of the batch processor, see
+ * {@link #moreWork()}.
+ */
+public class PipelinedFilesystemTracker extends AbstractFilesystemTracker
+{
+    private static final long POLL_INTERVAL_MS = 100L;
+
+    private final BulkImportStatusImpl importStatus;
+    private final int batchSize;
+    private final String currentUser;
+    private final String currentDomain;
+    private final String txnResourceKey = PipelinedFilesystemTracker.class.getName() + "." + System.identityHashCode(this);
+
+    private final ExecutorService walkers;
+    private final BlockingQueue<List<ImportableItem>> queue;
+    /** Directories imported by transactions that have not yet completed */
+    private final AtomicInteger directoriesAwaitingCommit = new AtomicInteger();
+    /** Directories handed to the walkers and not yet fully queued */
+    private final AtomicInteger directoriesPending = new AtomicInteger();
+    private final AtomicReference<Throwable> walkError = new AtomicReference<Throwable>();
+
+    public PipelinedFilesystemTracker(DirectoryAnalyser directoryAnalyser, BulkImportStatusImpl importStatus, NodeRef target,
+            File sourceFolder, int batchSize, int walkerThreads, int queueCapacity)
+    {
+        this.directoryAnalyser = directoryAnalyser;
+        this.importStatus = importStatus;
+        this.batchSize = batchSize;
+        this.currentUser = AuthenticationUtil.getFullyAuthenticatedUser();
+        this.currentDomain = TenantUtil.getCurrentDomain();
+        this.queue = new ArrayBlockingQueue<List<ImportableItem>>(queueCapacity);
+
+        TraceableThreadFactory threadFactory = new TraceableThreadFactory();
+        threadFactory.setNamePrefix("BulkImportWalker");
+        threadFactory.setThreadDaemon(true);
+        this.walkers = new ThreadPoolExecutor(walkerThreads, walkerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+
+        // not really an importable item but the interface requires it to be in this form
+        ImportableItem rootFolder = new ImportableItem();
+        rootFolder.getHeadRevision().setContentFile(sourceFolder.toPath());
+        rootFolder.setNodeRef(target);
+
+        submitDirectory(rootFolder);
+    }
+
+    public int count()
+    {
+        // Note: this is an estimate of the number of directories and files queued for import
+        return queue.size() * batchSize;
+    }
+
+    /**
+     * Remembers imported directories against the transaction, they are analysed once it commits.
+     */
+    public void itemImported(NodeRef nodeRef, ImportableItem importableItem)
+    {
+        if (!importableItem.getHeadRevision().contentFileExists() ||
+                !ImportableItem.FileType.DIRECTORY.equals(importableItem.getHeadRevision().getContentFileType()))
+        {
+            return;
+        }
+
+        DirectoryCommitListener listener = AlfrescoTransactionSupport.getResource(txnResourceKey);
+        if (listener == null)
+        {
+            listener = new DirectoryCommitListener();
+            AlfrescoTransactionSupport.bindListener(listener);
+            AlfrescoTransactionSupport.bindResource(txnResourceKey, listener);
+        }
+        directoriesAwaitingCommit.incrementAndGet();
+        listener.directories.add(importableItem);
+    }
+
+    /**
+     * @return <tt>true</tt> if there is work that the last run of the work provider did not pick up
+     */
+    public boolean moreWork()
+    {
+        checkWalkError();
+        // Directories are counted as pending until all of their batches are queued, so check the queue last
+        return directoriesPending.get() > 0 || !queue.isEmpty();
+    }
+
+    /**
+     * Stops the walkers, abandoning any directories that have not been analysed.
+     */
+    public void close()
+    {
+        walkers.shutdownNow();
+        queue.clear();
+    }
+
+    protected void submitDirectory(final ImportableItem directory)
+    {
+        directoriesPending.incrementAndGet();
+        try
+        {
+            walkers.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    walk(directory);
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The tracker has been closed
+            directoriesPending.decrementAndGet();
+        }
+    }
+
+    private void walk(final ImportableItem directory)
+    {
+        try
+        {
+            AnalysedDirectory analysedDirectory = TenantUtil.runAsUserTenant(new TenantUtil.TenantRunAsWork<AnalysedDirectory>()
+            {
+                @Override
+                public AnalysedDirectory doWork() throws Exception
+                {
+                    return getImportableItemsInDirectory(directory);
+                }
+            }, currentUser, currentDomain);
+            importStatus.incrementNumberOfDirectoriesAnalysed();
+
+            List<ImportableItem> items = new ArrayList<ImportableItem>(analysedDirectory.getImportableDirectories());
+            items.addAll(analysedDirectory.getImportableItems());
+            queueItems(items);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (Throwable e)
+        {
+            logger.error("Failed to analyse directory " + directory, e);
+            walkError.compareAndSet(null, e);
+        }
+        finally
+        {
+            directoriesPending.decrementAndGet();
+        }
+    }
+
+    private void queueItems(Collection<ImportableItem> items) throws InterruptedException
+    {
+        Iterator<ImportableItem> iterator = items.iterator();
+        while (iterator.hasNext())
+        {
+            List<ImportableItem> batch = new ArrayList<ImportableItem>(Math.min(batchSize, items.size()));
+            while (iterator.hasNext() && batch.size() < batchSize)
+            {
+                batch.add(iterator.next());
+            }
+
+            if (!queue.offer(batch))
+            {
+                long start = System.nanoTime();
+                queue.put(batch);
+                importStatus.addWalkerWaitTime(System.nanoTime() - start);
+            }
+            importStatus.incrementBatchesQueued(batch.size());
+        }
+    }
+
+    private void checkWalkError()
+    {
+        Throwable error = walkError.get();
+        if (error != null)
+        {
+            throw new AlfrescoRuntimeException("Bulk import failed while analysing the source directories", error);
+        }
+    }
+
+    protected List<ImportableItem> getImportableItems()
+    {
+        List<ImportableItem> batch = queue.poll();
+        if (batch != null)
+        {
+            return batch;
+        }
+
+        long start = System.nanoTime();
+        try
+        {
+            while (true)
+            {
+                checkWalkError();
+                batch = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (batch != null)
+                {
+                    return batch;
+                }
+                // Directories move from awaiting a commit, to pending, to the queue, so check them in that order
+                if (directoriesAwaitingCommit.get() == 0 && directoriesPending.get() == 0 && queue.isEmpty())
+                {
+                    // A walker that failed is no longer pending
+                    checkWalkError();
+                    return Collections.emptyList();
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new AlfrescoRuntimeException("Interrupted while waiting for the source directories to be analysed", e);
+        }
+        finally
+        {
+            importStatus.addImporterWaitTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public BatchProcessWorkProvider<ImportableItem> getWorkProvider()
+    {
+        BatchProcessWorkProvider<ImportableItem> provider = new BatchProcessWorkProvider<ImportableItem>()
+        {
+            @Override
+            public int getTotalEstimatedWorkSize()
+            {
+                return count();
+            }
+
+            @Override
+            public long getTotalEstimatedWorkSizeLong()
+            {
+                return getTotalEstimatedWorkSize();
+            }
+
+            @Override
+            public Collection<ImportableItem> getNextWork()
+            {
+                return getImportableItems();
+            }
+        };
+
+        return provider;
+    }
+
+    /**
+     * Hands the directories imported by a transaction to the walkers once it commits.
+     */
+    private class DirectoryCommitListener extends TransactionListenerAdapter
+    {
+        private final List<ImportableItem> directories = new ArrayList<ImportableItem>();
+
+        @Override
+        public void afterCommit()
+        {
+            for (ImportableItem directory : directories)
+            {
+                // Count the directory as pending before it stops awaiting the commit
+                submitDirectory(directory);
+                directoriesAwaitingCommit.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void afterRollback()
+        {
+            directoriesAwaitingCommit.addAndGet(-directories.size());
+        }
+    }
+}
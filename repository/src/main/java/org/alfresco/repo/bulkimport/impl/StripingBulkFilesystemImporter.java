@@ -34,13 +34,48 @@ import org.alfresco.repo.bulkimport.ImportableItem;
 import org.alfresco.repo.bulkimport.NodeImporter;
 
 /**
- * A multi threaded bulk importer that imports by striping across filesystem levels.
+ * A multi threaded bulk importer that imports by striping across filesystem levels, or when pipelined, by importing
+ * directories as soon as the {@link PipelinedFilesystemTracker} has analysed them.
  * 
  * @since 4.0
  *
  */
 public class StripingBulkFilesystemImporter extends MultiThreadedBulkFilesystemImporter
 {
+    private boolean pipelined = false;
+    private int walkerThreads = 2;
+    private int queueCapacity = 100;
+
+    /**
+     * @param pipelined <tt>true</tt> to analyse directories on separate threads while the import runs, rather than
+     *                  striping the filesystem level by level
+     */
+    public void setPipelined(boolean pipelined)
+    {
+        this.pipelined = pipelined;
+    }
+
+    public boolean isPipelined()
+    {
+        return pipelined;
+    }
+
+    /**
+     * @param walkerThreads the number of threads analysing directories when pipelined
+     */
+    public void setWalkerThreads(int walkerThreads)
+    {
+        this.walkerThreads = walkerThreads;
+    }
+
+    /**
+     * @param queueCapacity the number of analysed batches that may wait for the import when pipelined
+     */
+    public void setQueueCapacity(int queueCapacity)
+    {
+        this.queueCapacity = queueCapacity;
+    }
+
 	/**
      * Method that does the work of importing a filesystem using the BatchProcessor.
      * 
@@ -56,6 +91,12 @@ public class StripingBulkFilesystemImporter extends MultiThreadedBulkFilesystemI
     	final File sourceFolder = nodeImporter.getSourceFolder();
         final int batchSize = getBatchSize(bulkImportParameters);
         final int loggingInterval = getLoggingInterval(bulkImportParameters);
+        if (pipelined)
+        {
+            pipelinedBulkImport(bulkImportParameters, nodeImporter, lockToken, sourceFolder, batchSize, loggingInterval);
+            return;
+        }
+
     	final StripingFilesystemTracker tracker = new StripingFilesystemTracker(directoryAnalyser, bulkImportParameters.getTarget(), sourceFolder, batchSize);
         final BatchProcessor<ImportableItem> batchProcessor = getBatchProcessor(bulkImportParameters, tracker.getWorkProvider(), loggingInterval);
         final BatchProcessor.BatchProcessWorker<ImportableItem> worker = getWorker(bulkImportParameters, lockToken, nodeImporter, tracker);
@@ -70,4 +111,30 @@ public class StripingBulkFilesystemImporter extends MultiThreadedBulkFilesystemI
 		}
 		while(tracker.moreLevels());
     }
+
+    private void pipelinedBulkImport(final BulkImportParameters bulkImportParameters, final NodeImporter nodeImporter, final String lockToken,
+            final File sourceFolder, final int batchSize, final int loggingInterval)
+    {
+        final PipelinedFilesystemTracker tracker = new PipelinedFilesystemTracker(directoryAnalyser, importStatus, bulkImportParameters.getTarget(),
+                sourceFolder, batchSize, walkerThreads, queueCapacity);
+        try
+        {
+            final BatchProcessor<ImportableItem> batchProcessor = getBatchProcessor(bulkImportParameters, tracker.getWorkProvider(), loggingInterval);
+            final BatchProcessor.BatchProcessWorker<ImportableItem> worker = getWorker(bulkImportParameters, lockToken, nodeImporter, tracker);
+
+            do
+            {
+                batchProcessor.process(worker, true);
+                if (batchProcessor.getLastError() != null)
+                {
+                    throw new AlfrescoRuntimeException(batchProcessor.getLastError());
+                }
+            }
+            while (tracker.moreWork());
+        }
+        finally
+        {
+            tracker.close();
+        }
+    }
 }
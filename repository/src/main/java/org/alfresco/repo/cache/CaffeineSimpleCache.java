@@ -0,0 +1,405 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.cache;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.BeanNameAware;
+
+/**
+ * {@link SimpleCache} implementation backed by a Caffeine {@link Cache}.
+ * <p>
+ * Caffeine uses the W-TinyLFU admission policy: a new entry only displaces an existing one if it has been
+ * requested more frequently, so one-off scans (bulk exports, index tracking) do not flush the hot working set
+ * as they do with the LRU-like eviction of {@link DefaultSimpleCache}.
+ * <p>
+ * The cache may be bounded either by item count or, when <tt>maxWeightBytes</tt> is positive, by the approximate
+ * size of the cached entries in bytes. Removals are reported to a listener that runs asynchronously on Caffeine's
+ * maintenance executor, so eviction never adds latency to the caller of {@link #put(Serializable, Object)}.
+ *
+ * @see DefaultCacheFactory
+ */
+public final class CaffeineSimpleCache<K extends Serializable, V extends Object>
+    implements SimpleCache<K, V>, BeanNameAware
+{
+    private static final Log log = LogFactory.getLog(CaffeineSimpleCache.class);
+
+    private static final int DEFAULT_CAPACITY = Integer.MAX_VALUE;
+    /** Fixed cost of a cache entry: the key/value holder, the map node and the policy bookkeeping */
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    /** Assumed size of a value that the estimator can't look inside */
+    private static final int DEFAULT_OBJECT_BYTES = 64;
+    /** How deep the estimator will descend into collections and maps */
+    private static final int MAX_ESTIMATE_DEPTH = 3;
+
+    private final Cache<K, AbstractMap.SimpleImmutableEntry<K, V>> cache;
+    private String cacheName;
+    private final int maxItems;
+    private final boolean useMaxItems;
+    private final long maxWeightBytes;
+    private final int ttlSecs;
+    private final int maxIdleSecs;
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Construct a cache using the specified capacity and name.
+     *
+     * @param maxItems The cache capacity. 0 = use {@link #DEFAULT_CAPACITY}
+     * @param useMaxItems Whether the maxItems value should be applied as a size-cap for the cache.
+     * @param maxWeightBytes When positive the cache is capped by the approximate size of its entries
+     *                       instead of by <tt>maxItems</tt>.
+     * @param ttlSecs Time-to-live of entries in seconds, 0 = no expiry.
+     * @param maxIdleSecs Time-to-idle of entries in seconds, 0 = no expiry.
+     * @param cacheName An arbitrary cache name.
+     */
+    public CaffeineSimpleCache(int maxItems, boolean useMaxItems, long maxWeightBytes, int ttlSecs, int maxIdleSecs, String cacheName)
+    {
+        if (maxItems == 0)
+        {
+            maxItems = DEFAULT_CAPACITY;
+        }
+        else if (maxItems < 0)
+        {
+            throw new IllegalArgumentException("maxItems may not be negative, but was " + maxItems);
+        }
+        if (maxWeightBytes < 0)
+        {
+            throw new IllegalArgumentException("maxWeightBytes may not be negative, but was " + maxWeightBytes);
+        }
+        this.maxItems = maxItems;
+        this.useMaxItems = useMaxItems;
+        this.maxWeightBytes = maxWeightBytes;
+        this.ttlSecs = ttlSecs;
+        this.maxIdleSecs = maxIdleSecs;
+        setBeanName(cacheName);
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+
+        // Caffeine does not allow both a size and a weight bound, the weight takes precedence
+        if (maxWeightBytes > 0)
+        {
+            builder.maximumWeight(maxWeightBytes)
+                   .weigher((Object key, Object value) -> approximateEntryBytes(key, value));
+        }
+        else if (useMaxItems)
+        {
+            builder.maximumSize(maxItems);
+        }
+        if (ttlSecs > 0)
+        {
+            builder.expireAfterWrite(ttlSecs, TimeUnit.SECONDS);
+        }
+        if (maxIdleSecs > 0)
+        {
+            builder.expireAfterAccess(maxIdleSecs, TimeUnit.SECONDS);
+        }
+        // Runs on the builder's executor (ForkJoinPool.commonPool()), i.e. off the calling thread
+        builder.removalListener((Object key, Object value, RemovalCause cause) -> onRemoval(key, cause));
+
+        cache = builder.build();
+    }
+
+    /**
+     * Construct a cache capped by item count rather than by weight.
+     */
+    public CaffeineSimpleCache(int maxItems, boolean useMaxItems, int ttlSecs, int maxIdleSecs, String cacheName)
+    {
+        this(maxItems, useMaxItems, 0L, ttlSecs, maxIdleSecs, cacheName);
+    }
+
+    /**
+     * Create a size limited, named cache with no other features enabled.
+     *
+     * @param maxItems int
+     * @param cacheName String
+     */
+    public CaffeineSimpleCache(int maxItems, String cacheName)
+    {
+        this(maxItems, true, 0L, 0, 0, cacheName);
+    }
+
+    private void onRemoval(Object key, RemovalCause cause)
+    {
+        switch (cause)
+        {
+            case SIZE:
+            case COLLECTED:
+                evictions.increment();
+                break;
+            case EXPIRED:
+                expirations.increment();
+                break;
+            default:
+                // Explicit removals and replacements are not interesting
+                return;
+        }
+        if (log.isTraceEnabled())
+        {
+            log.trace("Cache " + cacheName + " dropped key " + key + " (" + cause + ")");
+        }
+    }
+
+    @Override
+    public boolean contains(K key)
+    {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public Collection<K> getKeys()
+    {
+        return cache.asMap().keySet();
+    }
+
+    @Override
+    public V get(K key)
+    {
+        AbstractMap.SimpleImmutableEntry<K, V> kvp = cache.getIfPresent(key);
+        if (kvp == null)
+        {
+            return null;
+        }
+        return kvp.getValue();
+    }
+
+    @Override
+    public void put(K key, V value)
+    {
+        putAndCheckUpdate(key, value);
+    }
+
+    /**
+     * <code>put</code> method that may be used to check for updates in a thread-safe manner.
+     *
+     * @return <code>true</code> if the put resulted in a change in value, <code>false</code> otherwise.
+     */
+    public boolean putAndCheckUpdate(K key, V value)
+    {
+        AbstractMap.SimpleImmutableEntry<K, V> kvp = new AbstractMap.SimpleImmutableEntry<K, V>(key, value);
+        AbstractMap.SimpleImmutableEntry<K, V> priorKVP = cache.asMap().put(key, kvp);
+        return (priorKVP != null && (!priorKVP.equals(kvp)));
+    }
+
+    @Override
+    public void remove(K key)
+    {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear()
+    {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Perform any pending maintenance work (evictions, expirations) immediately.
+     * Mainly of use to tests, which would otherwise see eviction happen asynchronously.
+     */
+    public void cleanUp()
+    {
+        cache.cleanUp();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CaffeineSimpleCache[maxItems=" + maxItems + ", useMaxItems=" + useMaxItems +
+                    ", maxWeightBytes=" + maxWeightBytes + ", cacheName=" + cacheName + "]";
+    }
+
+    /**
+     * Work out a rough size in bytes of a cache entry.  This is not meant to be exact: it only
+     * has to rank large entries (property maps, long strings) above small ones (ids, short keys).
+     */
+    static int approximateEntryBytes(Object key, Object value)
+    {
+        Object actualValue = value;
+        if (value instanceof AbstractMap.SimpleImmutableEntry)
+        {
+            actualValue = ((AbstractMap.SimpleImmutableEntry<?, ?>) value).getValue();
+        }
+        long bytes = ENTRY_OVERHEAD_BYTES + approximateBytes(key, 0) + approximateBytes(actualValue, 0);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long approximateBytes(Object obj, int depth)
+    {
+        if (obj == null)
+        {
+            return 0;
+        }
+        else if (obj instanceof String)
+        {
+            return 40 + 2L * ((String) obj).length();
+        }
+        else if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character || obj instanceof Enum)
+        {
+            return 16;
+        }
+        else if (obj instanceof Date)
+        {
+            return 24;
+        }
+        else if (obj instanceof byte[])
+        {
+            return 16 + ((byte[]) obj).length;
+        }
+        else if (depth < MAX_ESTIMATE_DEPTH && obj instanceof Collection)
+        {
+            long bytes = 48;
+            for (Object element : (Collection<?>) obj)
+            {
+                bytes += 16 + approximateBytes(element, depth + 1);
+            }
+            return bytes;
+        }
+        else if (depth < MAX_ESTIMATE_DEPTH && obj instanceof Map)
+        {
+            long bytes = 64;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet())
+            {
+                bytes += 32 + approximateBytes(entry.getKey(), depth + 1) + approximateBytes(entry.getValue(), depth + 1);
+            }
+            return bytes;
+        }
+        return DEFAULT_OBJECT_BYTES;
+    }
+
+    /**
+     * Gets the maximum number of items that the cache will hold.
+     *
+     * @return maxItems
+     */
+    public int getMaxItems()
+    {
+        return maxItems;
+    }
+
+    /**
+     * Is a size-cap in use?
+     *
+     * @return useMaxItems
+     */
+    public boolean isUseMaxItems()
+    {
+        return this.useMaxItems;
+    }
+
+    /**
+     * Get the cap on the approximate size of the cache contents.
+     *
+     * @return maxWeightBytes, 0 if the cache is not bounded by weight
+     */
+    public long getMaxWeightBytes()
+    {
+        return this.maxWeightBytes;
+    }
+
+    /**
+     * Get the time-to-live setting in seconds.
+     *
+     * @return ttlSecs
+     */
+    public int getTTLSecs()
+    {
+        return this.ttlSecs;
+    }
+
+    /**
+     * Get the time-to-idle setting in seconds.
+     *
+     * @return maxIdleSecs
+     */
+    public int getMaxIdleSecs()
+    {
+        return this.maxIdleSecs;
+    }
+
+    /**
+     * @return the number of entries dropped to respect the size or weight cap
+     */
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of entries dropped because their time-to-live or time-to-idle passed
+     */
+    public long getExpirationCount()
+    {
+        return expirations.sum();
+    }
+
+    /**
+     * Retrieve the name of this cache.
+     *
+     * @see #setCacheName(String)
+     * @return the cacheName
+     */
+    public String getCacheName()
+    {
+        return this.cacheName;
+    }
+
+    /**
+     * Since there are many cache instances, it is useful to be able to associate
+     * a name with each one.
+     *
+     * @see #setBeanName(String)
+     * @param cacheName String
+     */
+    public void setCacheName(String cacheName)
+    {
+        this.cacheName = cacheName;
+    }
+
+    /**
+     * Since there are many cache instances, it is useful to be able to associate
+     * a name with each one.
+     *
+     * @param cacheName Set automatically by Spring, but can be set manually if required.
+     */
+    @Override
+    public void setBeanName(String cacheName)
+    {
+        this.cacheName = cacheName;
+    }
+}
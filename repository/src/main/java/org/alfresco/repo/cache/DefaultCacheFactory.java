@@ -35,6 +35,9 @@ import org.apache.commons.logging.LogFactory;
  * The caches are created with a capacity specified by the property {name}.maxItems.
  * For example, a cache named <tt>cache.ticketsCache</tt> would have a capacity specified
  * by the property <tt>cache.ticketsCache.maxItems</tt>
+ * <p>
+ * Setting {name}.implementation to <tt>caffeine</tt> creates a {@link CaffeineSimpleCache}
+ * instead, which may additionally be capped by approximate size using {name}.maxWeightBytes.
  * 
  * @author Matt Ward
  */
@@ -42,6 +45,8 @@ public class DefaultCacheFactory<K extends Serializable, V> extends AbstractCach
 {
     private static final Log log = LogFactory.getLog(DefaultCacheFactory.class);
     private static final String EVICT_NONE = "NONE";
+    public static final String IMPL_GUAVA = "guava";
+    public static final String IMPL_CAFFEINE = "caffeine";
     
     
     @Override
@@ -56,7 +61,22 @@ public class DefaultCacheFactory<K extends Serializable, V> extends AbstractCach
         boolean useMaxItems = useMaxItems(cacheName);
         int ttlSecs = ttlSeconds(cacheName);
         int maxIdleSeconds = maxIdleSeconds(cacheName);
-        DefaultSimpleCache<K, V> cache = new DefaultSimpleCache<K, V>(maxItems, useMaxItems, ttlSecs, maxIdleSeconds, cacheName);
+        String implementation = implementation(cacheName);
+        SimpleCache<K, V> cache;
+        if (IMPL_CAFFEINE.equals(implementation))
+        {
+            long maxWeightBytes = maxWeightBytes(cacheName);
+            cache = new CaffeineSimpleCache<K, V>(maxItems, useMaxItems, maxWeightBytes, ttlSecs, maxIdleSeconds, cacheName);
+        }
+        else if (IMPL_GUAVA.equals(implementation))
+        {
+            cache = new DefaultSimpleCache<K, V>(maxItems, useMaxItems, ttlSecs, maxIdleSeconds, cacheName);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown implementation '" + implementation + "' for cache " + cacheName +
+                        ", expected one of: " + IMPL_GUAVA + ", " + IMPL_CAFFEINE);
+        }
         if (log.isDebugEnabled())
         {
             log.debug("Creating cache: " + cache);
@@ -90,4 +110,16 @@ public class DefaultCacheFactory<K extends Serializable, V> extends AbstractCach
         Integer maxIdleSecs = Integer.parseInt(maxIdleSecsStr);
         return maxIdleSecs;
     }
+    
+    private String implementation(String cacheName)
+    {
+        return getProperty(cacheName, "implementation", IMPL_GUAVA).toLowerCase();
+    }
+    
+    private long maxWeightBytes(String cacheName)
+    {
+        String maxWeightBytesStr = getProperty(cacheName, "maxWeightBytes", "0");
+        Long maxWeightBytes = Long.parseLong(maxWeightBytesStr);
+        return maxWeightBytes;
+    }
 }
@@ -27,6 +27,14 @@ package org.alfresco.repo.cache.lookup;
 
 import java.io.Serializable;
 import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.alfresco.repo.cache.SimpleCache;
 import org.alfresco.repo.domain.control.ControlDAO;
@@ -111,6 +119,59 @@ public class EntityLookupCache<K extends Serializable, V extends Object, VK exte
          */
         Pair<K1, V1> findByValue(V1 value);
         
+        /**
+         * Find the entities for a batch of keys.  Implementations backed by a database should override
+         * this to use a single query (e.g. an IN-list select); the default falls back to calling
+         * {@link #findByKey(Serializable)} for each key.
+         * <p/>
+         * Keys that do not reference an entity are simply absent from the results.
+         * 
+         * @param keys          the keys (IDs) used to identify the entities (never <tt>null</tt> and
+         *                      not containing <tt>null</tt>)
+         * @return              Returns the entities that were found, in any order
+         * 
+         * @see EntityLookupCache#getByKeys(Collection)
+         */
+        default List<Pair<K1, V1>> findByKeys(List<K1> keys)
+        {
+            List<Pair<K1, V1>> results = new ArrayList<Pair<K1, V1>>(keys.size());
+            for (K1 key : keys)
+            {
+                Pair<K1, V1> entityPair = findByKey(key);
+                if (entityPair != null)
+                {
+                    results.add(entityPair);
+                }
+            }
+            return results;
+        }
+        
+        /**
+         * Find the entities for a batch of values.  As with {@link #findByKeys(List)}, implementations
+         * backed by a database should override this to use a single query; the default falls back to
+         * calling {@link #findByValue(Object)} for each value.
+         * <p/>
+         * Only values that have a {@link #getValueKey(Object) value key} will be passed in.
+         * 
+         * @param values        the values used to identify the entities (<tt>null</tt> is allowed as an element)
+         * @return              Returns the entities that were found, in any order
+         * 
+         * @see EntityLookupCache#getByValues(Collection)
+         */
+        default List<Pair<K1, V1>> findByValues(List<V1> values)
+        {
+            List<Pair<K1, V1>> results = new ArrayList<Pair<K1, V1>>(values.size());
+            for (V1 value : values)
+            {
+                Pair<K1, V1> entityPair = findByValue(value);
+                if (entityPair != null)
+                {
+                    results.add(entityPair);
+                }
+            }
+            return results;
+        }
+        
         /**
          * Create an entity using the given values.  It is valid to assume that the entity does not exist
          * within the current transaction at least.
@@ -234,6 +295,11 @@ public class EntityLookupCache<K extends Serializable, V extends Object, VK exte
      * The cache region that will be used (see {@link CacheRegionKey}) in all the cache keys
      */
     private static final String CACHE_REGION_DEFAULT = "DEFAULT";
+    /**
+     * The largest number of keys or values passed to the DAO in one batched lookup.
+     * This keeps the IN-lists generated by the DAOs well within database limits.
+     */
+    public static final int MAX_BATCH_LOOKUP_SIZE = 500;
     
     private final SimpleCache<Serializable, Object> cache;
     private final EntityLookupCallbackDAO<K, V, VK> entityLookup;
@@ -421,6 +487,259 @@ public class EntityLookupCache<K extends Serializable, V extends Object, VK exte
         return entityPair;
     }
     
+    /**
+     * Find the entities associated with the given keys.  Keys that are not in the cache are resolved
+     * together using the {@link EntityLookupCallbackDAO#findByKeys(List) batched entity callback} and the
+     * results, including misses, are cached in the same way as for {@link #getByKey(Serializable)}.
+     * 
+     * @param keys                  The entity keys, which may be valid or invalid (<tt>null</tt> not allowed)
+     * @return                      Returns the key-value pairs of the entities that exist, in the iteration
+     *                              order of the given keys; duplicate keys are only returned once
+     */
+    @SuppressWarnings("unchecked")
+    public List<Pair<K, V>> getByKeys(Collection<K> keys)
+    {
+        if (keys == null)
+        {
+            throw new IllegalArgumentException("Entity lookup keys may not be null");
+        }
+        Set<K> uniqueKeys = new LinkedHashSet<K>(keys);
+        if (uniqueKeys.contains(null))
+        {
+            throw new IllegalArgumentException("An entity lookup key may not be null");
+        }
+        Map<K, Pair<K, V>> found = new HashMap<K, Pair<K, V>>(uniqueKeys.size() * 2);
+        List<K> misses = new ArrayList<K>(uniqueKeys.size());
+        
+        for (K key : uniqueKeys)
+        {
+            if (cache == null)
+            {
+                misses.add(key);
+                continue;
+            }
+            // Look in the cache
+            V value = (V) cache.get(new CacheRegionKey(cacheRegion, key));
+            if (value == null)
+            {
+                misses.add(key);
+            }
+            else if (value.equals(VALUE_NOT_FOUND))
+            {
+                // We checked before
+            }
+            else if (value.equals(VALUE_NULL))
+            {
+                found.put(key, new Pair<K, V>(key, null));
+            }
+            else
+            {
+                found.put(key, new Pair<K, V>(key, value));
+            }
+        }
+        
+        // Resolve the misses in batches
+        for (List<K> batch : batches(misses))
+        {
+            List<Pair<K, V>> entityPairs = entityLookup.findByKeys(batch);
+            for (Pair<K, V> entityPair : entityPairs)
+            {
+                found.put(entityPair.getFirst(), entityPair);
+            }
+            if (cache == null)
+            {
+                continue;
+            }
+            for (K key : batch)
+            {
+                Pair<K, V> entityPair = found.get(key);
+                if (entityPair == null)
+                {
+                    // Cache "not found"
+                    cache.put(new CacheRegionKey(cacheRegion, key), VALUE_NOT_FOUND);
+                }
+                else
+                {
+                    cacheEntity(key, entityPair.getSecond());
+                }
+            }
+        }
+        
+        // Put the results back into the order requested
+        List<Pair<K, V>> results = new ArrayList<Pair<K, V>>(found.size());
+        for (K key : uniqueKeys)
+        {
+            Pair<K, V> entityPair = found.get(key);
+            if (entityPair != null)
+            {
+                results.add(entityPair);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Find the entities associated with the given values.  Values that are not in the cache are resolved
+     * together using the {@link EntityLookupCallbackDAO#findByValues(List) batched entity callback} and the
+     * results, including misses, are cached in the same way as for {@link #getByValue(Object)}.
+     * <p/>
+     * Values for which the DAO cannot generate a {@link EntityLookupCallbackDAO#getValueKey(Object) value key}
+     * are looked up one at a time, as for {@link #getByValue(Object)}.
+     * 
+     * @param values                The entity values, which may be valid or invalid (<tt>null</tt> is allowed)
+     * @return                      Returns the key-value pairs of the entities that exist, in the iteration
+     *                              order of the given values; duplicate values are only returned once
+     */
+    @SuppressWarnings("unchecked")
+    public List<Pair<K, V>> getByValues(Collection<V> values)
+    {
+        if (values == null)
+        {
+            throw new IllegalArgumentException("Entity lookup values may not be null");
+        }
+        // Handle missing cache
+        if (cache == null)
+        {
+            List<V> uniqueValues = new ArrayList<V>(new LinkedHashSet<V>(values));
+            List<Pair<K, V>> results = new ArrayList<Pair<K, V>>(uniqueValues.size());
+            for (List<V> batch : batches(uniqueValues))
+            {
+                results.addAll(entityLookup.findByValues(batch));
+            }
+            return results;
+        }
+        
+        // Value keys in the order given, mapped to the values that generated them
+        Map<VK, V> valuesByValueKey = new LinkedHashMap<VK, V>(values.size() * 2);
+        // Results by value key, or by the value itself if there is no value key
+        Map<Object, Pair<K, V>> found = new HashMap<Object, Pair<K, V>>(values.size() * 2);
+        List<Object> order = new ArrayList<Object>(values.size());
+        Map<K, VK> cachedKeys = new LinkedHashMap<K, VK>(values.size() * 2);
+        List<V> misses = new ArrayList<V>(values.size());
+        
+        for (V value : values)
+        {
+            // The cast to (VK) is counter-intuitive, but works because they're all just Serializable
+            VK valueKey = (value == null) ? (VK)VALUE_NULL : entityLookup.getValueKey(value);
+            if (valueKey == null)
+            {
+                // No good key, so there's nothing cached and nothing to batch
+                Pair<K, V> entityPair = entityLookup.findByValue(value);
+                if (entityPair != null && !found.containsKey(value))
+                {
+                    found.put(value, entityPair);
+                    order.add(value);
+                }
+                continue;
+            }
+            if (valuesByValueKey.containsKey(valueKey))
+            {
+                // Duplicate
+                continue;
+            }
+            valuesByValueKey.put(valueKey, value);
+            order.add(valueKey);
+            // Look in the cache
+            K key = (K) cache.get(new CacheRegionValueKey(cacheRegion, valueKey));
+            if (key == null)
+            {
+                misses.add(value);
+            }
+            else if (!key.equals(VALUE_NOT_FOUND))
+            {
+                cachedKeys.put(key, valueKey);
+            }
+        }
+        
+        // The key-value mappings in the cache still need the full value
+        if (!cachedKeys.isEmpty())
+        {
+            for (Pair<K, V> entityPair : getByKeys(cachedKeys.keySet()))
+            {
+                found.put(cachedKeys.get(entityPair.getFirst()), entityPair);
+            }
+        }
+        
+        // Resolve the misses in batches
+        for (List<V> batch : batches(misses))
+        {
+            List<Pair<K, V>> entityPairs = entityLookup.findByValues(batch);
+            Set<VK> batchFound = new LinkedHashSet<VK>(entityPairs.size() * 2);
+            for (Pair<K, V> entityPair : entityPairs)
+            {
+                V value = entityPair.getSecond();
+                VK valueKey = (value == null) ? (VK)VALUE_NULL : entityLookup.getValueKey(value);
+                if (valueKey == null || !valuesByValueKey.containsKey(valueKey))
+                {
+                    // Not something we asked for
+                    continue;
+                }
+                found.put(valueKey, entityPair);
+                batchFound.add(valueKey);
+                // Cache the key and value
+                K key = entityPair.getFirst();
+                cache.put(new CacheRegionValueKey(cacheRegion, valueKey), key);
+                cache.put(
+                        new CacheRegionKey(cacheRegion, key),
+                        (value == null ? VALUE_NULL : value));
+            }
+            for (V value : batch)
+            {
+                VK valueKey = (value == null) ? (VK)VALUE_NULL : entityLookup.getValueKey(value);
+                if (!batchFound.contains(valueKey))
+                {
+                    // Cache "not found"
+                    cache.put(new CacheRegionValueKey(cacheRegion, valueKey), VALUE_NOT_FOUND);
+                }
+            }
+        }
+        
+        // Put the results back into the order requested
+        List<Pair<K, V>> results = new ArrayList<Pair<K, V>>(found.size());
+        for (Object orderKey : order)
+        {
+            Pair<K, V> entityPair = found.get(orderKey);
+            if (entityPair != null)
+            {
+                results.add(entityPair);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Cache an entity that has just been found by key, along with the value key mapping if possible.
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheEntity(K key, V value)
+    {
+        // Get the value key
+        VK valueKey = (value == null) ? (VK)VALUE_NULL : entityLookup.getValueKey(value);
+        // Check if the value has a good key
+        if (valueKey != null)
+        {
+            CacheRegionValueKey valueCacheKey = new CacheRegionValueKey(cacheRegion, valueKey);
+            // The key is good, so we can cache the value
+            cache.put(valueCacheKey, key);
+        }
+        cache.put(
+                new CacheRegionKey(cacheRegion, key),
+                (value == null ? VALUE_NULL : value));
+    }
+    
+    /**
+     * Split a list into sublists no larger than {@link #MAX_BATCH_LOOKUP_SIZE}
+     */
+    private static <T> List<List<T>> batches(List<T> list)
+    {
+        List<List<T>> batches = new ArrayList<List<T>>(list.size() / MAX_BATCH_LOOKUP_SIZE + 1);
+        for (int i = 0; i < list.size(); i += MAX_BATCH_LOOKUP_SIZE)
+        {
+            batches.add(list.subList(i, Math.min(i + MAX_BATCH_LOOKUP_SIZE, list.size())));
+        }
+        return batches;
+    }
+    
     /**
      * Attempt to create the entity and, failing that, look it up.<br/>
      * This method takes the opposite approach to {@link #getOrCreateByValue(Object)}, which assumes the entity's
@@ -26,12 +26,16 @@
 package org.alfresco.repo.content;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.repo.cache.SimpleCache;
@@ -46,6 +50,11 @@ import org.apache.commons.logging.LogFactory;
 /**
  * A store providing support for content store implementations that provide
  * routing of content read and write requests based on context.
+ * <p>
+ * The store holding a content URL is found by probing each store with {@link ContentStore#exists(String)}
+ * and the result is cached. Concurrent reads of a URL that is not cached share a single probe. URLs
+ * starting with one of the {@link #setUrlPrefixRoutes(Map) URL prefix routes} name their store and
+ * are not probed at all.
  * 
  * @see ContentContext
  * 
@@ -58,14 +67,17 @@ public abstract class AbstractRoutingContentStore implements ContentStore
     
     private String instanceKey = GUID.generate();
     private SimpleCache<Pair<String, String>, ContentStore> storesByContentUrl;
-    private ReadLock storesCacheReadLock;
-    private WriteLock storesCacheWriteLock;
+    /** Probes in progress, by content URL */
+    private final ConcurrentMap<String, CompletableFuture<ContentStore>> storeResolutions = new ConcurrentHashMap<>();
+    /** Stores by URL prefix, longest prefix first */
+    private volatile List<Pair<String, ContentStore>> urlPrefixRoutes = Collections.emptyList();
+    private final LongAdder probeCount = new LongAdder();
+    private final LongAdder resolutionCount = new LongAdder();
+    private final LongAdder sharedResolutionCount = new LongAdder();
+    private final LongAdder routedCount = new LongAdder();
     
     protected AbstractRoutingContentStore()
     {
-        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-        storesCacheReadLock = lock.readLock();
-        storesCacheWriteLock = lock.writeLock();
     }
 
     /**
@@ -76,6 +88,57 @@ public abstract class AbstractRoutingContentStore implements ContentStore
         this.storesByContentUrl = storesCache;
     }
 
+    /**
+     * Set stores that hold all the content URLs starting with a given prefix, e.g. a protocol such as
+     * <tt>s3://</tt>. Reads of these URLs go straight to the store without probing any store for the
+     * content. The longest matching prefix is used.
+     * 
+     * @param routes            stores by content URL prefix
+     */
+    public void setUrlPrefixRoutes(Map<String, ContentStore> routes)
+    {
+        List<Pair<String, ContentStore>> prefixRoutes = new ArrayList<Pair<String, ContentStore>>(routes.size());
+        for (Map.Entry<String, ContentStore> route : routes.entrySet())
+        {
+            prefixRoutes.add(new Pair<String, ContentStore>(route.getKey(), route.getValue()));
+        }
+        prefixRoutes.sort(Comparator.comparingInt((Pair<String, ContentStore> route) -> route.getFirst().length()).reversed());
+        this.urlPrefixRoutes = prefixRoutes;
+    }
+
+    /**
+     * @return          Returns the number of times a store has been checked for a content URL
+     */
+    public long getProbeCount()
+    {
+        return probeCount.sum();
+    }
+
+    /**
+     * @return          Returns the number of reads that had to search the stores for a content URL
+     */
+    public long getResolutionCount()
+    {
+        return resolutionCount.sum();
+    }
+
+    /**
+     * @return          Returns the number of reads that waited for another read's search of the stores
+     *                  rather than searching themselves
+     */
+    public long getSharedResolutionCount()
+    {
+        return sharedResolutionCount.sum();
+    }
+
+    /**
+     * @return          Returns the number of reads routed by a {@link #setUrlPrefixRoutes(Map) URL prefix}
+     */
+    public long getRoutedCount()
+    {
+        return routedCount.sum();
+    }
+
     /**
      * @return          Returns a list of all possible stores available for reading or writing
      */
@@ -93,117 +156,176 @@ public abstract class AbstractRoutingContentStore implements ContentStore
      */
     protected abstract ContentStore selectWriteStore(ContentContext ctx);
     
+    /**
+     * @return              Returns the store routed to by the longest matching URL prefix, or <tt>null</tt>
+     */
+    private ContentStore getRoutedStore(String contentUrl)
+    {
+        for (Pair<String, ContentStore> route : urlPrefixRoutes)
+        {
+            if (contentUrl.startsWith(route.getFirst()))
+            {
+                routedCount.increment();
+                return route.getSecond();
+            }
+        }
+        return null;
+    }
+
     /**
      * Checks the cache for the store and ensures that the URL is in the store.
+     * <p>
+     * URLs with a {@link #setUrlPrefixRoutes(Map) routed prefix} are not checked.
      * 
      * @param contentUrl    the content URL to search for
      * @return              Returns the store matching the content URL
      */
     private ContentStore selectReadStore(String contentUrl)
     {
+        ContentStore routedStore = getRoutedStore(contentUrl);
+        if (routedStore != null)
+        {
+            return routedStore;
+        }
+        
         Pair<String, String> cacheKey = new Pair<String, String>(instanceKey, contentUrl);
-        storesCacheReadLock.lock();
-        try
+        // Check if the store is in the cache
+        ContentStore store = storesByContentUrl.get(cacheKey);
+        if (store != null)
         {
-            // Check if the store is in the cache
-            ContentStore store = storesByContentUrl.get(cacheKey);
-            if (store != null)
+            // We found a store that was previously used
+            try
             {
-                // We found a store that was previously used
-                try
-                {
-                    // It is possible for content to be removed from a store and
-                    // it might have moved into another store.
-                    if (store.exists(contentUrl))
-                    {
-                        // We found a store and can use it
-                        return store;
-                    }
-                }
-                catch (UnsupportedContentUrlException e)
+                // It is possible for content to be removed from a store and
+                // it might have moved into another store.
+                probeCount.increment();
+                if (store.exists(contentUrl))
                 {
-                    // This is odd.  The store that previously supported the content URL
-                    // no longer does so.  I can't think of a reason why that would be.
-                    throw new AlfrescoRuntimeException(
-                            "Found a content store that previously supported a URL, but no longer does: \n" +
-                            "   Store:       " + store + "\n" +
-                            "   Content URL: " + contentUrl);
+                    // We found a store and can use it
+                    return store;
                 }
             }
-        }
-        finally
-        {
-            storesCacheReadLock.unlock();
-        }
-        // Get the write lock and double check
-        storesCacheWriteLock.lock();
-        try
-        {
-            // Double check
-            ContentStore store = storesByContentUrl.get(cacheKey);
-            if (store != null && store.exists(contentUrl))
+            catch (UnsupportedContentUrlException e)
             {
-                // We found a store and can use it
-                if (logger.isDebugEnabled())
-                {
-                    logger.debug(
-                            "Found mapped store for content URL: \n" +
-                            "   Content URL: " + contentUrl + "\n" +
-                            "   Store:       " + store);
-                }
-                return store;
+                // This is odd.  The store that previously supported the content URL
+                // no longer does so.  I can't think of a reason why that would be.
+                throw new AlfrescoRuntimeException(
+                        "Found a content store that previously supported a URL, but no longer does: \n" +
+                        "   Store:       " + store + "\n" +
+                        "   Content URL: " + contentUrl);
             }
-            else
+        }
+        
+        // Search the stores, unless another thread is already doing so
+        CompletableFuture<ContentStore> resolution = new CompletableFuture<ContentStore>();
+        CompletableFuture<ContentStore> resolutionInProgress = storeResolutions.putIfAbsent(contentUrl, resolution);
+        if (resolutionInProgress != null)
+        {
+            sharedResolutionCount.increment();
+            try
             {
-                store = null;
+                return resolutionInProgress.join();
             }
-            // It isn't, so search all the stores
-            List<ContentStore> stores = getAllStores();
-            // Keep track of the unsupported state of the content URL - it might be a rubbish URL
-            boolean contentUrlSupported = false;
-            for (ContentStore storeInList : stores)
+            catch (CompletionException e)
             {
-                boolean exists = false;
-                try
-                {
-                    exists = storeInList.exists(contentUrl);
-                    // At least the content URL was supported
-                    contentUrlSupported = true;
-                }
-                catch (UnsupportedContentUrlException e)
+                if (e.getCause() instanceof RuntimeException)
                 {
-                    // The store can't handle the content URL
+                    throw (RuntimeException) e.getCause();
                 }
-                if (!exists)
-                {
-                    // It is not in the store
-                    continue;
-                }
-                // We found one
-                store = storeInList;
-                // Put the value in the cache
-                storesByContentUrl.put(cacheKey, store);
-                break;
-            }
-            // Check if the content URL was supported
-            if (!contentUrlSupported)
-            {
-                throw new UnsupportedContentUrlException(this, contentUrl);
+                throw new AlfrescoRuntimeException("Failed to find the store for content URL: " + contentUrl, e.getCause());
             }
-            // Done
+        }
+        try
+        {
+            store = resolveReadStore(contentUrl, cacheKey);
+            resolution.complete(store);
+            return store;
+        }
+        catch (Throwable e)
+        {
+            resolution.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            storeResolutions.remove(contentUrl, resolution);
+        }
+    }
+
+    /**
+     * Search all the stores for the content URL and cache the store holding it.
+     * 
+     * @return              Returns the store holding the content URL, or <tt>null</tt>
+     */
+    private ContentStore resolveReadStore(String contentUrl, Pair<String, String> cacheKey)
+    {
+        resolutionCount.increment();
+        // Double check
+        ContentStore store = storesByContentUrl.get(cacheKey);
+        if (store != null && probe(store, contentUrl))
+        {
+            // We found a store and can use it
             if (logger.isDebugEnabled())
             {
                 logger.debug(
-                        "Mapped content URL to store for reading: \n" +
+                        "Found mapped store for content URL: \n" +
                         "   Content URL: " + contentUrl + "\n" +
                         "   Store:       " + store);
             }
             return store;
         }
-        finally
+        else
         {
-            storesCacheWriteLock.unlock();
+            store = null;
         }
+        // It isn't, so search all the stores
+        List<ContentStore> stores = getAllStores();
+        // Keep track of the unsupported state of the content URL - it might be a rubbish URL
+        boolean contentUrlSupported = false;
+        for (ContentStore storeInList : stores)
+        {
+            boolean exists = false;
+            try
+            {
+                exists = probe(storeInList, contentUrl);
+                // At least the content URL was supported
+                contentUrlSupported = true;
+            }
+            catch (UnsupportedContentUrlException e)
+            {
+                // The store can't handle the content URL
+            }
+            if (!exists)
+            {
+                // It is not in the store
+                continue;
+            }
+            // We found one
+            store = storeInList;
+            // Put the value in the cache
+            storesByContentUrl.put(cacheKey, store);
+            break;
+        }
+        // Check if the content URL was supported
+        if (!contentUrlSupported)
+        {
+            throw new UnsupportedContentUrlException(this, contentUrl);
+        }
+        // Done
+        if (logger.isDebugEnabled())
+        {
+            logger.debug(
+                    "Mapped content URL to store for reading: \n" +
+                    "   Content URL: " + contentUrl + "\n" +
+                    "   Store:       " + store);
+        }
+        return store;
+    }
+
+    private boolean probe(ContentStore store, String contentUrl)
+    {
+        probeCount.increment();
+        return store.exists(contentUrl);
     }
 
     /**
@@ -283,6 +405,11 @@ public abstract class AbstractRoutingContentStore implements ContentStore
      */
     public boolean exists(String contentUrl) throws ContentIOException
     {
+        ContentStore routedStore = getRoutedStore(contentUrl);
+        if (routedStore != null)
+        {
+            return routedStore.exists(contentUrl);
+        }
         ContentStore store = selectReadStore(contentUrl);
         return (store != null);
     }
@@ -325,28 +452,19 @@ public abstract class AbstractRoutingContentStore implements ContentStore
         Pair<String, String> cacheKey = new Pair<String, String>(instanceKey, contentUrl);
         if (contentUrl != null)
         {
-            // Check to see if it is in the cache
-            storesCacheReadLock.lock();
-            try
-            {
-                // Check if the store is in the cache
-                ContentStore store = storesByContentUrl.get(cacheKey);
-                if (store != null)
-                {
-                    throw new ContentExistsException(this, contentUrl);
-                }
-                /*
-                 * We could go further and check each store for the existence of the URL,
-                 * but that would be overkill.  The main problem we need to prevent is
-                 * the simultaneous access of the same store.  The router represents
-                 * a single store and therefore if the URL is present in any of the stores,
-                 * it is effectively present in all of them.
-                 */
-            }
-            finally
+            // Check if the store is in the cache
+            ContentStore store = storesByContentUrl.get(cacheKey);
+            if (store != null)
             {
-                storesCacheReadLock.unlock();
+                throw new ContentExistsException(this, contentUrl);
             }
+            /*
+             * We could go further and check each store for the existence of the URL,
+             * but that would be overkill.  The main problem we need to prevent is
+             * the simultaneous access of the same store.  The router represents
+             * a single store and therefore if the URL is present in any of the stores,
+             * it is effectively present in all of them.
+             */
         }
         // Select the store for writing
         ContentStore store = selectWriteStore(context);
@@ -369,15 +487,7 @@ public abstract class AbstractRoutingContentStore implements ContentStore
         String newContentUrl = writer.getContentUrl();
         Pair<String, String> newCacheKey = new Pair<String, String>(instanceKey, newContentUrl);
         // Cache the store against the URL
-        storesCacheWriteLock.lock();
-        try
-        {
-            storesByContentUrl.put(newCacheKey, store);
-        }
-        finally
-        {
-            storesCacheWriteLock.unlock();
-        }
+        storesByContentUrl.put(newCacheKey, store);
         // Done
         if (logger.isDebugEnabled())
         {
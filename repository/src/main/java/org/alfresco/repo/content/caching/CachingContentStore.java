@@ -25,12 +25,19 @@
  */
 package org.alfresco.repo.content.caching;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 
+import org.alfresco.repo.cache.SimpleCache;
 import org.alfresco.repo.content.ContentContext;
 import org.alfresco.repo.content.ContentStore;
 import org.alfresco.repo.content.caching.quota.QuotaManagerStrategy;
@@ -59,6 +66,11 @@ import org.springframework.context.ApplicationEventPublisherAware;
  * <p>
  * This store handles the {@link FileContentStore#SPOOF_PROTOCOL} and can be used to wrap stores
  * that do not handle the protocol out of the box e.g. the S3 connector's store.
+ * <p>
+ * In {@link #setReadThrough(boolean) read-through} mode a cache miss is served while the content is
+ * being copied into the cache, rather than once the copy is complete. The same background copy is
+ * used to {@link #prefetch(String) prefetch} content that is likely to be read soon. Small content
+ * items, such as thumbnails, may also be kept in memory by a {@link #setHotContentCache(SimpleCache) hot tier}.
  * 
  * @author Matt Ward
  */
@@ -75,6 +87,11 @@ public class CachingContentStore implements ContentStore, ApplicationEventPublis
     private int maxCacheTries = 2;
     private ApplicationEventPublisher eventPublisher;
     private String beanName;
+    private Executor cacheFillExecutor;
+    private boolean readThrough;
+    private final ConcurrentMap<String, ReadThroughCacheFill> fills = new ConcurrentHashMap<>();
+    private SimpleCache<String, byte[]> hotContentCache;
+    private long hotContentMaxSize;
     
     static
     {
@@ -167,6 +184,15 @@ public class CachingContentStore implements ContentStore, ApplicationEventPublis
             return new SpoofedTextContentReader(contentUrl);
         }
 
+        if (isHotContentEnabled())
+        {
+            byte[] content = hotContentCache.get(contentUrl);
+            if (content != null)
+            {
+                return new InMemoryContentReader(contentUrl, content);
+            }
+        }
+
         // Use pool of locks - which one is determined by a hash of the URL.
         // This will stop the content from being read/cached multiple times from the backing store
         // when it should only be read once - cached versions should be returned after that.
@@ -176,7 +202,7 @@ public class CachingContentStore implements ContentStore, ApplicationEventPublis
         {
             if (cache.contains(contentUrl))
             {
-                return cache.getReader(contentUrl);
+                return keepInMemory(contentUrl, cache.getReader(contentUrl));
             }
         }
         catch(CacheMissException e)
@@ -188,10 +214,197 @@ public class CachingContentStore implements ContentStore, ApplicationEventPublis
             readLock.unlock();
         }
         
-        return cacheAndRead(contentUrl);
+        if (readThrough && cacheFillExecutor != null)
+        {
+            ContentReader reader = readThrough(contentUrl);
+            if (reader != null)
+            {
+                return reader;
+            }
+        }
+        return keepInMemory(contentUrl, cacheAndRead(contentUrl));
     }    
     
     
+    /**
+     * Start copying the content into the cache in the background, or join a copy that is already
+     * in progress, and return a reader that follows the copy.
+     * 
+     * @param url URL to cache.
+     * @return A reader onto the content or null if the content has been cached in the meantime.
+     */
+    private ContentReader readThrough(String url)
+    {
+        WriteLock writeLock = readWriteLock(url).writeLock();
+        writeLock.lock();
+        try
+        {
+            ReadThroughCacheFill fill = fills.get(url);
+            if (fill != null)
+            {
+                return fill.getReader();
+            }
+            if (cache.contains(url))
+            {
+                return null;
+            }
+            
+            ContentReader backingStoreReader = backingStore.getReader(url);
+            long contentSize = backingStoreReader.getSize();
+            if (contentSize <= 0L || !quota.beforeWritingCacheFile(contentSize))
+            {
+                return backingStoreReader;
+            }
+            
+            fill = new ReadThroughCacheFill(url, backingStoreReader, cache.createTempFile(), cache, quota, backingStore);
+            if (isHotContentEnabled() && contentSize <= hotContentMaxSize)
+            {
+                // Not worth following, it will be read into memory
+                fill.run();
+                return keepInMemory(url, fill.getReader());
+            }
+            if (!startFill(url, fill))
+            {
+                fill.run();
+            }
+            return fill.getReader();
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Run the copy on the {@link #setCacheFillExecutor(Executor) executor}. Must be called with the write lock for the URL held.
+     * 
+     * @return true if the copy was started, false if the executor rejected it
+     */
+    private boolean startFill(final String url, final ReadThroughCacheFill fill)
+    {
+        fills.put(url, fill);
+        try
+        {
+            cacheFillExecutor.execute(() -> runFill(url, fill));
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            fills.remove(url, fill);
+            return false;
+        }
+    }
+    
+    private void runFill(String url, ReadThroughCacheFill fill)
+    {
+        try
+        {
+            fill.run();
+        }
+        finally
+        {
+            fills.remove(url, fill);
+        }
+    }
+    
+    /**
+     * Copy content into the cache in the background, if it is not already cached, so that it is ready
+     * when it is read. Nothing is done unless a {@link #setCacheFillExecutor(Executor) cache fill executor}
+     * has been set, and prefetching is abandoned if the executor is busy.
+     * 
+     * @param contentUrl URL of the content to cache.
+     */
+    public void prefetch(final String contentUrl)
+    {
+        if (cacheFillExecutor == null || contentUrl.startsWith(FileContentStore.SPOOF_PROTOCOL)
+                    || fills.containsKey(contentUrl) || cache.contains(contentUrl))
+        {
+            return;
+        }
+        try
+        {
+            cacheFillExecutor.execute(() -> prefetchNow(contentUrl));
+        }
+        catch (RejectedExecutionException e)
+        {
+            if (log.isDebugEnabled())
+            {
+                log.debug("Too busy to prefetch content item [url=" + contentUrl + "]");
+            }
+        }
+    }
+    
+    private void prefetchNow(String url)
+    {
+        ReadThroughCacheFill fill;
+        WriteLock writeLock = readWriteLock(url).writeLock();
+        writeLock.lock();
+        try
+        {
+            if (fills.containsKey(url) || cache.contains(url))
+            {
+                return;
+            }
+            ContentReader backingStoreReader = backingStore.getReader(url);
+            long contentSize = backingStoreReader.getSize();
+            if (contentSize <= 0L || !quota.beforeWritingCacheFile(contentSize))
+            {
+                return;
+            }
+            fill = new ReadThroughCacheFill(url, backingStoreReader, cache.createTempFile(), cache, quota, backingStore);
+            fills.put(url, fill);
+        }
+        catch (RuntimeException e)
+        {
+            if (log.isDebugEnabled())
+            {
+                log.debug("Unable to prefetch content item [url=" + url + "]", e);
+            }
+            return;
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+        // Already running on the executor
+        runFill(url, fill);
+    }
+    
+    private boolean isHotContentEnabled()
+    {
+        return hotContentCache != null && hotContentMaxSize > 0L;
+    }
+    
+    /**
+     * Keep small content items in memory, if the hot tier is enabled.
+     * 
+     * @return A reader onto the content in memory, or the given reader if the content is not kept in memory.
+     */
+    private ContentReader keepInMemory(String url, ContentReader reader)
+    {
+        if (!isHotContentEnabled())
+        {
+            return reader;
+        }
+        long contentSize = reader.getSize();
+        if (contentSize <= 0L || contentSize > hotContentMaxSize)
+        {
+            return reader;
+        }
+        byte[] content;
+        try (InputStream is = reader.getContentInputStream())
+        {
+            content = is.readAllBytes();
+        }
+        catch (IOException e)
+        {
+            throw new ContentIOException("Failed to read content item into memory: " + reader, e);
+        }
+        hotContentCache.put(url, content);
+        return new InMemoryContentReader(url, content);
+    }
+    
+    
     private ContentReader cacheAndRead(String url)
     {
         WriteLock writeLock = readWriteLock(url).writeLock();
@@ -344,13 +557,17 @@ public class CachingContentStore implements ContentStore, ApplicationEventPublis
             // This is not a failure but the content can never actually be deleted
             return false;
         }
+        if (hotContentCache != null)
+        {
+            hotContentCache.remove(contentUrl);
+        }
 
         ReentrantReadWriteLock readWriteLock = readWriteLock(contentUrl);
         ReadLock readLock = readWriteLock.readLock();
         readLock.lock();
         try
         {
-            if (!cache.contains(contentUrl))
+            if (!cache.contains(contentUrl) && !fills.containsKey(contentUrl))
             {
                 // The item isn't in the cache, so simply delete from the backing store
                 return backingStore.delete(contentUrl);
@@ -365,6 +582,12 @@ public class CachingContentStore implements ContentStore, ApplicationEventPublis
         writeLock.lock();
         try
         {
+            // Stop any copy in progress from adding the content to the cache
+            ReadThroughCacheFill fill = fills.remove(contentUrl);
+            if (fill != null)
+            {
+                fill.cancel();
+            }
             // Double check the content still exists in the cache
             if (cache.contains(contentUrl))
             {
@@ -485,6 +708,60 @@ public class CachingContentStore implements ContentStore, ApplicationEventPublis
         return this.quota;
     }
 
+    /**
+     * Sets the executor that copies content into the cache in the background, for
+     * {@link #setReadThrough(boolean) read-through} and {@link #prefetch(String) prefetching}.
+     * 
+     * @param cacheFillExecutor Executor
+     */
+    public void setCacheFillExecutor(Executor cacheFillExecutor)
+    {
+        this.cacheFillExecutor = cacheFillExecutor;
+    }
+
+    /**
+     * When true, and a {@link #setCacheFillExecutor(Executor) cache fill executor} is set, content that is
+     * not in the cache is returned while it is being copied into the cache. Readers wait only for the bytes
+     * they need rather than for the whole content item.
+     * 
+     * @param readThrough boolean
+     */
+    public void setReadThrough(boolean readThrough)
+    {
+        this.readThrough = readThrough;
+    }
+
+    public boolean isReadThrough()
+    {
+        return this.readThrough;
+    }
+
+    /**
+     * Sets the in-memory cache of small content items, keyed by content URL.
+     * 
+     * @param hotContentCache SimpleCache
+     * @see #setHotContentMaxSize(long)
+     */
+    public void setHotContentCache(SimpleCache<String, byte[]> hotContentCache)
+    {
+        this.hotContentCache = hotContentCache;
+    }
+
+    /**
+     * Sets the size in bytes of the largest content item that is kept in memory, or 0 (the default) to keep nothing in memory.
+     * 
+     * @param hotContentMaxSize long
+     */
+    public void setHotContentMaxSize(long hotContentMaxSize)
+    {
+        this.hotContentMaxSize = hotContentMaxSize;
+    }
+
+    public long getHotContentMaxSize()
+    {
+        return this.hotContentMaxSize;
+    }
+
     @Override
     public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher)
     {
@@ -106,4 +106,24 @@ public interface ContentCache
      * @return ContentWriter
      */
     ContentWriter getWriter(String url);
+
+    /**
+     * Create a new, empty temporary file in the cache. Content written to it is not part of the
+     * cache until the file is added with {@link #putTempFile(String, File)}.
+     * 
+     * @return the temporary file
+     */
+    File createTempFile();
+
+    /**
+     * Add a temporary file created by {@link #createTempFile()} to the cache once it has been filled.
+     * This will make the file an active cache file and populate the in-memory lookup table.
+     * <p>
+     * Empty files will NOT be cached - in which case the file is deleted and null is returned.
+     * 
+     * @param contentUrl String
+     * @param tempFile the filled temporary file
+     * @return the cache file now holding the content, or null if the content was not cached.
+     */
+    File putTempFile(String contentUrl, File tempFile);
 }
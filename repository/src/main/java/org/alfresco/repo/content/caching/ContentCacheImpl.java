@@ -217,6 +217,25 @@ public class ContentCacheImpl implements ContentCache
         
         return writer;
     }
+
+    @Override
+    public File createTempFile()
+    {
+        return createCacheFile();
+    }
+
+    @Override
+    public File putTempFile(String contentUrl, File tempFile)
+    {
+        if (tempFile.length() > 0L)
+        {
+            File cacheFile = renameTempToActive(tempFile);
+            recordCacheEntries(contentUrl, cacheFile);
+            return cacheFile;
+        }
+        tempFile.delete();
+        return null;
+    }
     
     
     private File renameTempToActive(File tempFile)
@@ -0,0 +1,80 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.content.caching;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import org.alfresco.repo.content.AbstractContentReader;
+import org.alfresco.service.cmr.repository.ContentIOException;
+import org.alfresco.service.cmr.repository.ContentReader;
+
+/**
+ * Reader of small content items held in memory by the
+ * {@link CachingContentStore#setHotContentCache(org.alfresco.repo.cache.SimpleCache) hot tier}.
+ */
+class InMemoryContentReader extends AbstractContentReader
+{
+    private final byte[] content;
+
+    InMemoryContentReader(String contentUrl, byte[] content)
+    {
+        super(contentUrl);
+        this.content = content;
+    }
+
+    @Override
+    protected ContentReader createReader() throws ContentIOException
+    {
+        return new InMemoryContentReader(getContentUrl(), content);
+    }
+
+    @Override
+    protected ReadableByteChannel getDirectReadableChannel() throws ContentIOException
+    {
+        return Channels.newChannel(new ByteArrayInputStream(content));
+    }
+
+    @Override
+    public boolean exists()
+    {
+        return true;
+    }
+
+    @Override
+    public long getLastModified()
+    {
+        // Not kept with the content
+        return 0L;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return content.length;
+    }
+}
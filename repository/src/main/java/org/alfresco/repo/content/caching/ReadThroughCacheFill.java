@@ -0,0 +1,338 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.content.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.alfresco.repo.content.AbstractContentReader;
+import org.alfresco.repo.content.ContentStore;
+import org.alfresco.repo.content.caching.quota.QuotaManagerStrategy;
+import org.alfresco.service.cmr.repository.ContentIOException;
+import org.alfresco.service.cmr.repository.ContentReader;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Copies content from the backing store into a new cache file while readers of the content follow behind.
+ * Readers are served the bytes already in the file and wait for the copy to move past their position,
+ * so that a cache miss does not have to wait for the whole content to be copied.
+ * <p>
+ * Once the copy is complete the file is added to the cache. Readers that start after the file has been
+ * discarded, by the quota strategy or because the copy failed, read from the backing store instead.
+ */
+class ReadThroughCacheFill implements Runnable
+{
+    private static final Log log = LogFactory.getLog(ReadThroughCacheFill.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String url;
+    private final ContentReader source;
+    private final long size;
+    private final long lastModified;
+    private final ContentCache cache;
+    private final QuotaManagerStrategy quota;
+    private final ContentStore backingStore;
+
+    // The remaining fields are guarded by this
+    /** The file being filled, then the cache file; null once the file has been discarded */
+    private File file;
+    /** The number of bytes copied into the file so far */
+    private long filled;
+    private boolean complete;
+    private boolean cancelled;
+    private Throwable failure;
+
+    /**
+     * @param url the content URL
+     * @param source a reader onto the content in the backing store
+     * @param tempFile an empty file {@link ContentCache#createTempFile() created} by the cache
+     * @param cache the cache to add the file to
+     * @param quota the quota strategy, which has already allowed the file to be written
+     * @param backingStore the store to read from if the file is discarded
+     */
+    ReadThroughCacheFill(String url, ContentReader source, File tempFile, ContentCache cache,
+                QuotaManagerStrategy quota, ContentStore backingStore)
+    {
+        this.url = url;
+        this.source = source;
+        this.size = source.getSize();
+        this.lastModified = source.getLastModified();
+        this.file = tempFile;
+        this.cache = cache;
+        this.quota = quota;
+        this.backingStore = backingStore;
+    }
+
+    /**
+     * Copy the content into the file.
+     */
+    @Override
+    public void run()
+    {
+        File tempFile;
+        synchronized (this)
+        {
+            tempFile = file;
+        }
+        try (InputStream is = source.getContentInputStream();
+             FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE))
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = is.read(buffer)) != -1)
+            {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining())
+                {
+                    out.write(bytes);
+                }
+                filled(read);
+            }
+        }
+        catch (Throwable e)
+        {
+            failed(tempFile, e);
+            return;
+        }
+        completed(tempFile);
+    }
+
+    private synchronized void filled(int count)
+    {
+        filled += count;
+        notifyAll();
+    }
+
+    private synchronized void completed(File tempFile)
+    {
+        if (cancelled)
+        {
+            tempFile.delete();
+            file = null;
+        }
+        else
+        {
+            file = cache.putTempFile(url, tempFile);
+            if (file != null && !quota.afterWritingCacheFile(filled))
+            {
+                // Quota strategy has requested cache file not to be kept.
+                cache.deleteFile(url);
+                cache.remove(url);
+                file = null;
+            }
+        }
+        complete = true;
+        notifyAll();
+    }
+
+    private void failed(File tempFile, Throwable e)
+    {
+        synchronized (this)
+        {
+            failure = e;
+            file = null;
+            complete = true;
+            notifyAll();
+        }
+        tempFile.delete();
+        if (log.isWarnEnabled())
+        {
+            log.warn("Failed to copy content item into the cache [url=" + url + "]", e);
+        }
+    }
+
+    /**
+     * Stop the file from being added to the cache, e.g. because the content is being deleted.
+     * Readers already following the copy are not affected.
+     */
+    public synchronized void cancel()
+    {
+        cancelled = true;
+    }
+
+    /**
+     * @return a new reader of the content, which follows the copy
+     */
+    public ContentReader getReader()
+    {
+        return new FillReader();
+    }
+
+    /**
+     * Wait until the copy has moved past the given position.
+     * 
+     * @return the number of bytes in the file, which is no more than the position if the copy is complete
+     */
+    private synchronized long awaitFilled(long position) throws IOException
+    {
+        while (filled <= position && !complete)
+        {
+            try
+            {
+                wait();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for content to be cached: " + url);
+            }
+        }
+        if (failure != null)
+        {
+            throw new IOException("Failed to copy content item into the cache: " + url, failure);
+        }
+        return filled;
+    }
+
+    private ReadableByteChannel openChannel()
+    {
+        synchronized (this)
+        {
+            if (file != null)
+            {
+                try
+                {
+                    return new FillChannel(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+                }
+                catch (IOException e)
+                {
+                    // The cleaner may have removed the file
+                    if (log.isDebugEnabled())
+                    {
+                        log.debug("Unable to open cache file, reading from backing store instead [url=" + url + "]", e);
+                    }
+                }
+            }
+        }
+        return backingStore.getReader(url).getReadableChannel();
+    }
+
+    /**
+     * Reads the file, up to the number of bytes copied so far.
+     */
+    private class FillChannel implements ReadableByteChannel
+    {
+        private final FileChannel channel;
+        private long position;
+
+        private FillChannel(FileChannel channel)
+        {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException
+        {
+            if (!dst.hasRemaining())
+            {
+                return 0;
+            }
+            long available = awaitFilled(position) - position;
+            if (available <= 0L)
+            {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > available)
+            {
+                dst.limit(dst.position() + (int) available);
+            }
+            try
+            {
+                int read = channel.read(dst, position);
+                if (read > 0)
+                {
+                    position += read;
+                }
+                return read;
+            }
+            finally
+            {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reader that follows the copy.
+     */
+    private class FillReader extends AbstractContentReader
+    {
+        private FillReader()
+        {
+            super(url);
+        }
+
+        @Override
+        protected ContentReader createReader() throws ContentIOException
+        {
+            return new FillReader();
+        }
+
+        @Override
+        protected ReadableByteChannel getDirectReadableChannel() throws ContentIOException
+        {
+            return openChannel();
+        }
+
+        @Override
+        public boolean exists()
+        {
+            return true;
+        }
+
+        @Override
+        public long getLastModified()
+        {
+            return lastModified;
+        }
+
+        @Override
+        public long getSize()
+        {
+            return size;
+        }
+    }
+}
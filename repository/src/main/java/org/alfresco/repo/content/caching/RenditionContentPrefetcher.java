@@ -0,0 +1,93 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.content.caching;
+
+import java.io.Serializable;
+
+import org.alfresco.model.ContentModel;
+import org.alfresco.model.RenditionModel;
+import org.alfresco.repo.content.ContentServicePolicies.OnContentReadPolicy;
+import org.alfresco.repo.policy.JavaBehaviour;
+import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.ContentData;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.NodeService;
+import org.alfresco.service.namespace.RegexQNamePattern;
+import org.alfresco.util.PropertyCheck;
+
+/**
+ * Prefetches the renditions of content into a {@link CachingContentStore} when the content is read,
+ * on the basis that previews and thumbnails are usually requested soon after the content itself.
+ * The renditions are copied into the cache in the background.
+ */
+public class RenditionContentPrefetcher implements OnContentReadPolicy
+{
+    private PolicyComponent policyComponent;
+    private NodeService nodeService;
+    private CachingContentStore cachingContentStore;
+
+    public void setPolicyComponent(PolicyComponent policyComponent)
+    {
+        this.policyComponent = policyComponent;
+    }
+
+    public void setNodeService(NodeService nodeService)
+    {
+        this.nodeService = nodeService;
+    }
+
+    /**
+     * @param cachingContentStore the store holding the renditions, which must have a cache fill executor
+     */
+    public void setCachingContentStore(CachingContentStore cachingContentStore)
+    {
+        this.cachingContentStore = cachingContentStore;
+    }
+
+    public void init()
+    {
+        PropertyCheck.mandatory(this, "policyComponent", policyComponent);
+        PropertyCheck.mandatory(this, "nodeService", nodeService);
+        PropertyCheck.mandatory(this, "cachingContentStore", cachingContentStore);
+
+        policyComponent.bindClassBehaviour(OnContentReadPolicy.QNAME, ContentModel.TYPE_CONTENT,
+                    new JavaBehaviour(this, "onContentRead"));
+    }
+
+    @Override
+    public void onContentRead(NodeRef nodeRef)
+    {
+        for (ChildAssociationRef rendition : nodeService.getChildAssocs(nodeRef, RenditionModel.ASSOC_RENDITION, RegexQNamePattern.MATCH_ALL))
+        {
+            Serializable value = nodeService.getProperty(rendition.getChildRef(), ContentModel.PROP_CONTENT);
+            if (value instanceof ContentData && ((ContentData) value).getContentUrl() != null)
+            {
+                cachingContentStore.prefetch(((ContentData) value).getContentUrl());
+            }
+        }
+    }
+}
@@ -26,12 +26,19 @@
 package org.alfresco.repo.content.cleanup;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.repo.batch.BatchMonitor;
+import org.alfresco.repo.batch.BatchProcessWorkProvider;
+import org.alfresco.repo.batch.BatchProcessor;
+import org.alfresco.repo.batch.BatchProcessor.BatchProcessWorkerAdaptor;
+import org.alfresco.repo.batch.BatchProcessorDefaults;
 import org.alfresco.repo.domain.contentdata.ContentDataDAO;
 import org.alfresco.repo.domain.contentdata.ContentDataDAO.ContentUrlHandler;
 import org.alfresco.repo.lock.JobLockService;
@@ -43,11 +50,14 @@ import org.alfresco.service.cmr.repository.ContentService;
 import org.alfresco.service.namespace.NamespaceService;
 import org.alfresco.service.namespace.QName;
 import org.alfresco.service.transaction.TransactionService;
+import org.alfresco.util.Pair;
 import org.alfresco.util.PropertyCheck;
 import org.alfresco.util.VmShutdownListener;
 import org.alfresco.util.VmShutdownListener.VmShutdownException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 
 /**
  * This component is responsible cleaning up orphaned content.
@@ -77,10 +87,18 @@ import org.apache.commons.logging.LogFactory;
  * Lazy cleanup protects the content for a given period (e.g. 7 days) giving plenty of
  * time for a backup to be taken; this allows hot backup without needing metadata-content
  * consistency to be enforced.
+ * <p/>
+ * <u><b>Parallel cleanup:</b></u><p/>
+ * If more than one {@link #setWorkerThreads(int) worker thread} is configured, the range of
+ * orphaned content URL IDs is split into partitions of {@link #setBatchSize(int) batch size}
+ * IDs.  The partitions are cleaned concurrently by a {@link BatchProcessor}, which reports
+ * progress as a {@link BatchMonitor}; each partition's URLs are deleted from the database in
+ * one statement before the binaries are deleted from the stores.  Use
+ * {@link EagerContentStoreCleaner#setMaxConcurrentDeletesPerStore(int)} to protect the stores.
  * 
  * @author Derek Hulley
  */
-public class ContentStoreCleaner
+public class ContentStoreCleaner implements ApplicationEventPublisherAware
 {
     /*
      * TODO: Use the ScheduledJobLockExecuter, which borrows (and fixes) some of the code use here
@@ -112,6 +130,8 @@ public class ContentStoreCleaner
     
     private static final QName LOCK_QNAME = QName.createQName(NamespaceService.SYSTEM_MODEL_1_0_URI, "ContentStoreCleaner"); 
     private static final long LOCK_TTL = 30000L;
+    /** The number of ID partitions handed to the batch processor at a time */
+    private static final int PARTITIONS_PER_WORK_LOAD = 100;
     
     private static Log logger = LogFactory.getLog(ContentStoreCleaner.class);
     
@@ -127,10 +147,15 @@ public class ContentStoreCleaner
     private int protectDays;
     private int batchSize;
     private DeleteFailureAction deletionFailureAction;
+    private int workerThreads;
+    private BatchProcessorDefaults batchProcessorDefaults;
+    private ApplicationEventPublisher applicationEventPublisher;
+    private volatile BatchMonitor batchMonitor;
     
     public ContentStoreCleaner()
     {
         this.batchSize = 1000;
+        this.workerThreads = 1;
         this.protectDays = 7;
         this.deletionFailureAction = DeleteFailureAction.IGNORE;
     }
@@ -215,6 +240,44 @@ public class ContentStoreCleaner
         this.deletionFailureAction = deletionFailureAction;
     }
 
+    /**
+     * Set the number of threads that clean up orphaned content.  With more than one thread,
+     * the orphans are partitioned by ID and cleaned up in parallel.  The default is 1.
+     * 
+     * @param workerThreads     the number of threads to use
+     */
+    public void setWorkerThreads(int workerThreads)
+    {
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * @param batchProcessorDefaults        the execution settings of parallel cleanup runs (optional)
+     */
+    public void setBatchProcessorDefaults(BatchProcessorDefaults batchProcessorDefaults)
+    {
+        this.batchProcessorDefaults = batchProcessorDefaults;
+    }
+
+    /**
+     * @param applicationEventPublisher     used to publish the progress of parallel cleanup runs
+     */
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher)
+    {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    /**
+     * Get the progress of the current or last parallel cleanup run
+     * 
+     * @return                  the monitor or <tt>null</tt> if no parallel cleanup has been run
+     */
+    public BatchMonitor getBatchMonitor()
+    {
+        return batchMonitor;
+    }
+
     /**
      * Initializes the cleaner.
      */
@@ -304,7 +367,14 @@ public class ContentStoreCleaner
         {
             logger.debug("Content store cleanup started.");
             lockToken = acquireLock(lockCallback);
-            executeInternal();
+            if (workerThreads > 1)
+            {
+                executeParallel(lockCallback);
+            }
+            else
+            {
+                executeInternal();
+            }
             // Done
             if (logger.isDebugEnabled())
             {
@@ -341,7 +411,7 @@ public class ContentStoreCleaner
         {
             public Long execute() throws Exception
             {
-                return cleanBatch(maxOrphanTime, batchSize);
+                return cleanBatch(maxOrphanTime, null, null, batchSize);
             };
         };
         while (true)
@@ -365,6 +435,108 @@ public class ContentStoreCleaner
         // Done
     }
     
+    /**
+     * Clean up the orphans in partitions of IDs, using multiple threads
+     */
+    private void executeParallel(final LockCallback lockCallback)
+    {
+        final long maxOrphanTime = System.currentTimeMillis() - (protectDays * 24 * 3600 * 1000L);
+        Pair<Long, Long> idRange = transactionService.getRetryingTransactionHelper().doInTransaction(
+                new RetryingTransactionCallback<Pair<Long, Long>>()
+                {
+                    public Pair<Long, Long> execute() throws Exception
+                    {
+                        return contentDataDAO.getContentUrlsOrphanedIdRange(maxOrphanTime);
+                    }
+                }, true);
+        if (idRange == null)
+        {
+            // Nothing to do
+            return;
+        }
+        
+        BatchProcessor<Pair<Long, Long>> batchProcessor = new BatchProcessor<Pair<Long, Long>>(
+                "ContentStoreCleaner",
+                transactionService.getRetryingTransactionHelper(),
+                new OrphanIdRangeWorkProvider(idRange.getFirst(), idRange.getSecond(), lockCallback),
+                workerThreads, 1,
+                applicationEventPublisher,
+                logger, 100);
+        if (batchProcessorDefaults != null)
+        {
+            batchProcessorDefaults.configure(batchProcessor);
+        }
+        batchMonitor = batchProcessor;
+        batchProcessor.processLong(new BatchProcessWorkerAdaptor<Pair<Long, Long>>()
+        {
+            @Override
+            public String getIdentifier(Pair<Long, Long> entry)
+            {
+                return "orphan IDs [" + entry.getFirst() + ", " + entry.getSecond() + ")";
+            }
+            
+            @Override
+            public void process(Pair<Long, Long> entry) throws Throwable
+            {
+                cleanBatch(maxOrphanTime, entry.getFirst(), entry.getSecond(), batchSize);
+            }
+        }, true);
+        if (vmShutdownListener.isVmShuttingDown())
+        {
+            throw new VmShutdownException();
+        }
+    }
+    
+    /**
+     * Provides partitions of {@link ContentStoreCleaner#setBatchSize(int) batch size} orphan IDs,
+     * as <tt>[minInclusive, maxExclusive)</tt> pairs, until the work runs out or the cleanup must stop.
+     * As no partition holds more IDs than the batch size, each is cleaned up with a single query.
+     */
+    private class OrphanIdRangeWorkProvider implements BatchProcessWorkProvider<Pair<Long, Long>>
+    {
+        private final long minId;
+        private final long maxId;
+        private final LockCallback lockCallback;
+        private long nextId;
+        
+        private OrphanIdRangeWorkProvider(long minId, long maxId, LockCallback lockCallback)
+        {
+            this.minId = minId;
+            this.maxId = maxId;
+            this.lockCallback = lockCallback;
+            this.nextId = minId;
+        }
+        
+        @Override
+        public int getTotalEstimatedWorkSize()
+        {
+            return (int) getTotalEstimatedWorkSizeLong();
+        }
+        
+        @Override
+        public long getTotalEstimatedWorkSizeLong()
+        {
+            return (maxId - minId) / batchSize + 1;
+        }
+        
+        @Override
+        public Collection<Pair<Long, Long>> getNextWork()
+        {
+            if (nextId > maxId || !lockCallback.running.get() || vmShutdownListener.isVmShuttingDown())
+            {
+                return Collections.emptyList();
+            }
+            List<Pair<Long, Long>> ranges = new ArrayList<Pair<Long, Long>>(PARTITIONS_PER_WORK_LOAD);
+            while (nextId <= maxId && ranges.size() < PARTITIONS_PER_WORK_LOAD)
+            {
+                long rangeEnd = Math.min(nextId + batchSize, maxId + 1);
+                ranges.add(new Pair<Long, Long>(nextId, rangeEnd));
+                nextId = rangeEnd;
+            }
+            return ranges;
+        }
+    }
+    
     private class LockCallback implements JobLockRefreshCallback
     {
         final AtomicBoolean running = new AtomicBoolean(true);
@@ -389,10 +561,12 @@ public class ContentStoreCleaner
     /**
      * 
      * @param maxTimeExclusive      the max orphan time (exclusive)
+     * @param minIdInclusive        the lowest orphan ID to process (inclusive) or <tt>null</tt>
+     * @param maxIdExclusive        the highest orphan ID to process (exclusive) or <tt>null</tt>
      * @param batchSize             the maximum number of orphans to process
      * @return                      Returns the last processed orphan ID or <tt>null</tt> if nothing was processed
      */
-    private Long cleanBatch(final long maxTimeExclusive, final int batchSize)
+    private Long cleanBatch(final long maxTimeExclusive, Long minIdInclusive, Long maxIdExclusive, final int batchSize)
     {
         // Get a bunch of cleanable URLs
         final TreeMap<Long, String> urlsById = new TreeMap<Long, String>();
@@ -405,7 +579,7 @@ public class ContentStoreCleaner
             }
         };
         // Get a bunch of cleanable URLs
-        contentDataDAO.getContentUrlsOrphaned(contentUrlHandler, maxTimeExclusive, batchSize);
+        contentDataDAO.getContentUrlsOrphaned(contentUrlHandler, maxTimeExclusive, minIdInclusive, maxIdExclusive, batchSize);
         
         // Shortcut, if necessary
         if (urlsById.size() == 0)
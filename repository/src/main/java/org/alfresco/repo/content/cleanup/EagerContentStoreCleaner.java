@@ -28,6 +28,9 @@ package org.alfresco.repo.content.cleanup;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
 
 import org.alfresco.repo.content.ContentStore;
 import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
@@ -87,6 +90,9 @@ public class EagerContentStoreCleaner extends TransactionListenerAdapter
     private boolean eagerOrphanCleanup;
     private List<ContentStore> stores;
     private List<ContentStoreCleanerListener> listeners;
+    private int maxConcurrentDeletesPerStore;
+    /** Limits the concurrent deletes against each store, if required */
+    private final ConcurrentMap<ContentStore, Semaphore> storeDeletePermits = new ConcurrentHashMap<ContentStore, Semaphore>(5);
     
     public EagerContentStoreCleaner()
     {
@@ -118,6 +124,18 @@ public class EagerContentStoreCleaner extends TransactionListenerAdapter
         this.listeners = listeners;
     }
 
+    /**
+     * Limit the number of threads that can delete from any one store at the same time.
+     * This protects stores from being flooded when orphans are cleaned up in parallel.
+     * The default is 0 (no limit).
+     * 
+     * @param maxConcurrentDeletesPerStore  the maximum concurrent deletes per store or 0 for no limit
+     */
+    public void setMaxConcurrentDeletesPerStore(int maxConcurrentDeletesPerStore)
+    {
+        this.maxConcurrentDeletesPerStore = maxConcurrentDeletesPerStore;
+    }
+
     /**
      * Initializes the cleaner based on the {@link #setEagerOrphanCleanup(boolean) eagerCleanup} flag.
      */
@@ -305,7 +323,7 @@ public class EagerContentStoreCleaner extends TransactionListenerAdapter
                 }
             }
             // Delete
-            if (deleteFromStore(contentUrl, store))
+            if (deleteFromStoreWithinLimit(contentUrl, store))
             {
                 deleted++;
             }
@@ -314,6 +332,27 @@ public class EagerContentStoreCleaner extends TransactionListenerAdapter
         return deleted == stores.size();
     }
     
+    /**
+     * Deletes the URL from the store, waiting if the store's concurrent delete limit has been reached.
+     */
+    private boolean deleteFromStoreWithinLimit(String contentUrl, ContentStore store)
+    {
+        if (maxConcurrentDeletesPerStore <= 0)
+        {
+            return deleteFromStore(contentUrl, store);
+        }
+        Semaphore permits = storeDeletePermits.computeIfAbsent(store, s -> new Semaphore(maxConcurrentDeletesPerStore));
+        permits.acquireUninterruptibly();
+        try
+        {
+            return deleteFromStore(contentUrl, store);
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+    
     /**
      * Attempts to delete the URL from the store, catching and reporing errors.
      */
@@ -149,6 +149,11 @@ public class FileContentReader extends AbstractContentReader
         this.allowRandomAccess = allow;
     }
     
+    /* package */ boolean isAllowRandomAccess()
+    {
+        return allowRandomAccess;
+    }
+    
     /**
      * @return Returns the file that this reader accesses
      */
@@ -0,0 +1,198 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.content.filestore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+
+import org.alfresco.service.cmr.repository.ContentReader;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Copies content held in local files to other files using {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * so that the operating system can copy the bytes without them passing through the JVM. Ranges are read directly from
+ * their position in the file.
+ * <p>
+ * The target must be a real file channel: the servlet API does not expose the socket of an HTTP response, so the JDK
+ * would copy through its own buffers. Instead, {@link #sendFile(ServletRequest, ServletResponse, ContentReader, long, long)}
+ * hands the file to the servlet container, if it supports sending files itself (e.g. Tomcat's NIO connectors), and the
+ * content must otherwise be copied as normal with {@link ContentReader#getContent(OutputStream)}.
+ * <p>
+ * Only readers that are exactly {@link FileContentReader} qualify, i.e. plain, unencrypted content in a local file, with
+ * random access and no read limits. Readers of subclasses, and readers of other stores (remote, encrypting or
+ * transforming stores, or content that a caching store reads from its backing store) should be copied as normal. The
+ * content is read through the reader's own channel, so its {@link org.alfresco.service.cmr.repository.ContentStreamListener
+ * listeners} are called as usual once the transfer is done.
+ */
+public final class FileContentTransfer
+{
+    private static final Log logger = LogFactory.getLog(FileContentTransfer.class);
+
+    /** Request attribute set by the servlet container if it can send files itself */
+    public static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    /** Request attribute with the path of the file for the servlet container to send */
+    public static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    /** Request attribute with the position (a <tt>Long</tt>) of the first byte to send */
+    public static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    /** Request attribute with the position (a <tt>Long</tt>) after the last byte to send */
+    public static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    /**
+     * Smallest number of bytes handed to the servlet container, as for Tomcat's own default servlet: smaller
+     * content is copied faster than the container can set up the transfer
+     */
+    public static final long SENDFILE_MIN_SIZE = 48L * 1024L;
+
+    private FileContentTransfer()
+    {
+    }
+
+    /**
+     * Get the reader as a plain file reader, if its content can be transferred directly from the file.
+     * 
+     * @param reader            the reader of the content (may be <tt>null</tt>)
+     * @return                  the file reader or <tt>null</tt> if the content must be read as normal
+     */
+    public static FileContentReader getTransferableReader(ContentReader reader)
+    {
+        if (reader == null || reader.getClass() != FileContentReader.class || reader.isChannelOpen())
+        {
+            return null;
+        }
+        FileContentReader fileReader = (FileContentReader) reader;
+        if (!fileReader.isAllowRandomAccess() || fileReader.getLimits() != null)
+        {
+            return null;
+        }
+        File file = fileReader.getFile();
+        return file != null && file.isFile() ? fileReader : null;
+    }
+
+    /**
+     * Get the file channel of an output stream, if content can be transferred to it directly.
+     * 
+     * @param os                the stream to write to
+     * @return                  the channel or <tt>null</tt> if the content must be copied as normal
+     */
+    public static FileChannel getTargetChannel(OutputStream os)
+    {
+        return os instanceof FileOutputStream ? ((FileOutputStream) os).getChannel() : null;
+    }
+
+    /**
+     * Hand a range of the content to the servlet container to send as the body of the response, if the container
+     * supports it.  The caller must have set the status and headers of the response, including the
+     * <tt>Content-Length</tt>, and must not write to the response if the content was handed over.
+     * <p>
+     * Content is only handed over for {@link #getTransferableReader(ContentReader) suitable} readers of at least
+     * {@link #SENDFILE_MIN_SIZE} bytes, and only if the response has not been committed or wrapped, e.g. to buffer or
+     * compress its output.  The reader is then used up and its listeners are called, as by any other read.
+     * 
+     * @param request           the servlet request (may be <tt>null</tt>)
+     * @param response          the servlet response (may be <tt>null</tt>)
+     * @param reader            the reader of the content
+     * @param start             the position in the file of the first byte to send
+     * @param end               the position in the file after the last byte to send
+     * @return                  <tt>true</tt> if the content was handed over, or <tt>false</tt> if it must be copied as normal
+     */
+    public static boolean sendFile(ServletRequest request, ServletResponse response, ContentReader reader, long start, long end) throws IOException
+    {
+        if (request == null || response == null || response instanceof ServletResponseWrapper || response.isCommitted()
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                || start < 0L || end - start < SENDFILE_MIN_SIZE)
+        {
+            return false;
+        }
+        FileContentReader fileReader = getTransferableReader(reader);
+        if (fileReader == null || end > fileReader.getFile().length())
+        {
+            return false;
+        }
+        String fileName = fileReader.getFile().getCanonicalPath();
+        // note: the container sends the file later, but the content is now considered read, so listeners are called
+        fileReader.getFileChannel().close();
+        request.setAttribute(SENDFILE_FILENAME_ATTR, fileName);
+        request.setAttribute(SENDFILE_START_ATTR, Long.valueOf(start));
+        request.setAttribute(SENDFILE_END_ATTR, Long.valueOf(end));
+        if (logger.isTraceEnabled())
+        {
+            logger.trace("Handed bytes " + start + " to " + end + " of " + fileName + " to the servlet container");
+        }
+        return true;
+    }
+
+    /**
+     * Transfer the whole content of the file to the target.  The target is not closed.
+     * 
+     * @see #transfer(FileContentReader, long, long, FileChannel)
+     */
+    public static long transfer(FileContentReader reader, FileChannel target) throws IOException
+    {
+        return transfer(reader, 0L, Long.MAX_VALUE, target);
+    }
+
+    /**
+     * Transfer a range of the file to the target.  The target is not closed.  The reader is used up, as by any other read.
+     * 
+     * @param reader            a reader {@link #getTransferableReader(ContentReader) suitable} for transfer
+     * @param position          the position in the file of the first byte to transfer
+     * @param count             the maximum number of bytes to transfer
+     * @param target            the channel to write to, e.g. from {@link #getTargetChannel(OutputStream)}
+     * @return                  the number of bytes transferred, which is less than the count if the end of the file is reached
+     */
+    public static long transfer(FileContentReader reader, long position, long count, FileChannel target) throws IOException
+    {
+        long transferred = 0L;
+        // note: closing the reader's channel calls its listeners
+        try (FileChannel channel = reader.getFileChannel())
+        {
+            long end = Math.min(channel.size(), count > Long.MAX_VALUE - position ? Long.MAX_VALUE : position + count);
+            while (position + transferred < end)
+            {
+                long written = channel.transferTo(position + transferred, end - position - transferred, target);
+                if (written <= 0L)
+                {
+                    // The file was truncated under us
+                    break;
+                }
+                transferred += written;
+            }
+        }
+        if (logger.isTraceEnabled())
+        {
+            logger.trace("Transferred " + transferred + " bytes from position " + position + " of " + reader.getFile());
+        }
+        return transferred;
+    }
+}
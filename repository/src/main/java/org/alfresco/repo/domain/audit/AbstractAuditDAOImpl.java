@@ -30,7 +30,9 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -283,6 +285,13 @@ public abstract class AbstractAuditDAOImpl implements AuditDAO
      */
 
     public Long createAuditEntry(Long applicationId, long time, String username, Map<String, Serializable> values)
+    {
+        return createAuditEntry(applicationId, time, username, values, AuditStorageFormat.PROPERTIES, null);
+    }
+
+    public Long createAuditEntry(
+            Long applicationId, long time, String username, Map<String, Serializable> values,
+            AuditStorageFormat storageFormat, Set<String> indexedKeys)
     {
         final Long usernameId;
         if (username != null)
@@ -295,13 +304,29 @@ public abstract class AbstractAuditDAOImpl implements AuditDAO
         }
         // Now persist the data values
         Long valuesId = null;
+        byte[] valuesData = null;
         if (values != null && values.size() > 0)
         {
-            valuesId = propertyValueDAO.createProperty((Serializable)values);
+            if (storageFormat == AuditStorageFormat.COMPACT)
+            {
+                valuesData = CompactAuditValues.encode(values);
+            }
+            else
+            {
+                valuesId = propertyValueDAO.createProperty((Serializable)values);
+            }
         }
 
         // Create the audit entry
-        AuditEntryEntity entity = createAuditEntry(applicationId, time, usernameId, valuesId);
+        AuditEntryEntity entity = createAuditEntry(applicationId, time, usernameId, valuesId, valuesData);
+        if (valuesData != null)
+        {
+            List<AuditEntryKeyEntity> keys = getAuditEntryKeys(entity.getId(), values, indexedKeys);
+            if (keys.size() > 0)
+            {
+                createAuditEntryKeysImpl(keys);
+            }
+        }
 
         // Done
         if (logger.isDebugEnabled())
@@ -316,6 +341,97 @@ public abstract class AbstractAuditDAOImpl implements AuditDAO
         return entity.getId();
     }
     
+    public int createAuditEntries(List<AuditEntryInfo> entries)
+    {
+        Map<String, Long> usernameIds = new HashMap<String, Long>(17);
+        List<AuditEntryEntity> batch = new ArrayList<AuditEntryEntity>(entries.size() > 512 ? 512 : entries.size());
+        List<AuditEntryKeyEntity> keyBatch = new ArrayList<AuditEntryKeyEntity>(512);
+        for (AuditEntryInfo entry : entries)
+        {
+            String username = entry.getUsername();
+            Long usernameId = null;
+            if (username != null)
+            {
+                usernameId = usernameIds.get(username);
+                if (usernameId == null)
+                {
+                    usernameId = propertyValueDAO.getOrCreatePropertyValue(username).getFirst();
+                    usernameIds.put(username, usernameId);
+                }
+            }
+            Map<String, Serializable> values = entry.getValues();
+            if (entry.getStorageFormat() == AuditStorageFormat.COMPACT && values != null && values.size() > 0)
+            {
+                // The entry ID is needed for the keys, so these rows are inserted individually
+                AuditEntryEntity entity = createAuditEntry(
+                        entry.getApplicationId(),
+                        entry.getTime(),
+                        usernameId,
+                        null,
+                        CompactAuditValues.encode(values));
+                keyBatch.addAll(getAuditEntryKeys(entity.getId(), values, entry.getIndexedKeys()));
+                if (keyBatch.size() >= 512)
+                {
+                    createAuditEntryKeysImpl(keyBatch);
+                    keyBatch.clear();
+                }
+                continue;
+            }
+            // Now persist the data values
+            Long valuesId = null;
+            if (values != null && values.size() > 0)
+            {
+                valuesId = propertyValueDAO.createProperty((Serializable)values);
+            }
+            
+            AuditEntryEntity entity = new AuditEntryEntity();
+            entity.setAuditApplicationId(entry.getApplicationId());
+            entity.setAuditTime(entry.getTime());
+            entity.setAuditUserId(usernameId);
+            entity.setAuditValuesId(valuesId);
+            batch.add(entity);
+            if (batch.size() >= 512)
+            {
+                createAuditEntriesImpl(batch);
+                batch.clear();
+            }
+        }
+        // Process remaining
+        if (batch.size() > 0)
+        {
+            createAuditEntriesImpl(batch);
+        }
+        if (keyBatch.size() > 0)
+        {
+            createAuditEntryKeysImpl(keyBatch);
+        }
+        
+        // Done
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Created " + entries.size() + " new audit entries");
+        }
+        return entries.size();
+    }
+    
+    /**
+     * Build the search keys for a {@link AuditStorageFormat#COMPACT compact} entry
+     */
+    private List<AuditEntryKeyEntity> getAuditEntryKeys(Long entryId, Map<String, Serializable> values, Set<String> indexedKeys)
+    {
+        if (indexedKeys == null || indexedKeys.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        Set<Long> searchHashes = CompactAuditValues.getSearchHashes(values, indexedKeys);
+        List<AuditEntryKeyEntity> keys = new ArrayList<AuditEntryKeyEntity>(searchHashes.size());
+        for (Long searchHash : searchHashes)
+        {
+            keys.add(new AuditEntryKeyEntity(entryId, searchHash));
+        }
+        return keys;
+    }
+    
     public int deleteAuditEntries(List<Long> auditEntryIds)
     {
         // Ensure that we don't have duplicates
@@ -347,7 +463,15 @@ public abstract class AbstractAuditDAOImpl implements AuditDAO
         return deleted;
     }
 
-    protected abstract AuditEntryEntity createAuditEntry(Long applicationId, long time, Long usernameId, Long valuesId);
+    protected abstract AuditEntryEntity createAuditEntry(Long applicationId, long time, Long usernameId, Long valuesId, byte[] valuesData);
+    /**
+     * Insert the given audit entry rows, ignoring the entity IDs
+     */
+    protected abstract void createAuditEntriesImpl(List<AuditEntryEntity> entities);
+    /**
+     * Insert the given search keys of compact audit entries
+     */
+    protected abstract void createAuditEntryKeysImpl(List<AuditEntryKeyEntity> keys);
     protected abstract int deleteAuditEntriesImpl(List<Long> auditEntryIds);
     
     /*
@@ -385,7 +509,21 @@ public abstract class AbstractAuditDAOImpl implements AuditDAO
             if (valuesRequired())
             {
                 auditValues = row.getAuditValue();
-                if (auditValues == null)
+                if (auditValues == null && row.getAuditValuesData() != null)
+                {
+                    // The values are held by the entry itself
+                    try
+                    {
+                        auditValues = CompactAuditValues.decode(row.getAuditValuesData());
+                    }
+                    catch (Throwable e)
+                    {
+                        more = callback.handleAuditEntryError(row.getAuditEntryId(),
+                                "Audit entry unable to decode audited values: " + row, e);
+                        return;
+                    }
+                }
+                else if (auditValues == null)
                 {
                     List<PropertyIdSearchRow> propMapRows = row.getAuditValueRows();
                     if (propMapRows == null)
@@ -464,41 +602,21 @@ public abstract class AbstractAuditDAOImpl implements AuditDAO
             int maxResults,
             org.alfresco.service.cmr.audit.AuditQueryParameters restParameters);
 
+    /**
+     * Convert the query parameters for searching entries stored in the
+     * {@link AuditStorageFormat#PROPERTIES properties} format or for any query that does
+     * not search by key or value.
+     * 
+     * @return              the database query parameters or <tt>null</tt> if nothing can match
+     */
     protected AuditQueryParameters convertFromRestAuditQueryParameters(org.alfresco.service.cmr.audit.AuditQueryParameters restParameters)
     {
-        AuditQueryParameters dbParameters = new AuditQueryParameters();
-
-        String appName = restParameters.getApplicationName();
-        if (appName != null)
+        AuditQueryParameters dbParameters = convertCommonAuditQueryParameters(restParameters);
+        if (dbParameters == null)
         {
-            // Look up the application's ID (this is unique)
-            Pair<Long, Serializable> appNamePair = propertyValueDAO.getPropertyValue(appName);
-            if (appNamePair == null)
-            {
-                // No such value
-                return null;
-            }
-            dbParameters.setAuditAppNameId(appNamePair.getFirst());
-        }
-
-        String user = restParameters.getUser();
-        if (user != null)
-        {
-            // Look up the application's ID (this is unique)
-            Pair<Long, Serializable> userPair = propertyValueDAO.getPropertyValue(user);
-            if (userPair == null)
-            {
-                // No such value
-                return null;
-            }
-            dbParameters.setAuditUserId(userPair.getFirst());
+            return null;
         }
 
-        dbParameters.setAuditFromId(restParameters.getFromId());
-        dbParameters.setAuditToId(restParameters.getToId());
-        dbParameters.setAuditFromTime(restParameters.getFromTime());
-        dbParameters.setAuditToTime(restParameters.getToTime());
-
         String searchKey = null;
         Serializable searchValue = null;
         if (restParameters.getSearchKeyValues().size() > 0)
@@ -530,6 +648,73 @@ public abstract class AbstractAuditDAOImpl implements AuditDAO
             }
             dbParameters.setSearchValueId(searchValuePair.getFirst());
         }
+
+        return dbParameters;
+    }
+
+    /**
+     * Convert the query parameters for searching entries stored in the
+     * {@link AuditStorageFormat#COMPACT compact} format by key or value.
+     * 
+     * @return              the database query parameters or <tt>null</tt> if the query does not
+     *                      search by key or value or if nothing can match
+     */
+    protected AuditQueryParameters convertFromRestAuditQueryParametersForCompactSearch(org.alfresco.service.cmr.audit.AuditQueryParameters restParameters)
+    {
+        if (restParameters.getSearchKeyValues().isEmpty())
+        {
+            return null;
+        }
+        // Only handle one pair for now
+        Pair<String, Serializable> searchKeyValue = restParameters.getSearchKeyValues().get(0);
+        Long searchHash = CompactAuditValues.getSearchHash(searchKeyValue.getFirst(), searchKeyValue.getSecond());
+        if (searchHash == null)
+        {
+            return null;
+        }
+        AuditQueryParameters dbParameters = convertCommonAuditQueryParameters(restParameters);
+        if (dbParameters == null)
+        {
+            return null;
+        }
+        dbParameters.setSearchHash(searchHash);
+        return dbParameters;
+    }
+
+    private AuditQueryParameters convertCommonAuditQueryParameters(org.alfresco.service.cmr.audit.AuditQueryParameters restParameters)
+    {
+        AuditQueryParameters dbParameters = new AuditQueryParameters();
+
+        String appName = restParameters.getApplicationName();
+        if (appName != null)
+        {
+            // Look up the application's ID (this is unique)
+            Pair<Long, Serializable> appNamePair = propertyValueDAO.getPropertyValue(appName);
+            if (appNamePair == null)
+            {
+                // No such value
+                return null;
+            }
+            dbParameters.setAuditAppNameId(appNamePair.getFirst());
+        }
+
+        String user = restParameters.getUser();
+        if (user != null)
+        {
+            // Look up the application's ID (this is unique)
+            Pair<Long, Serializable> userPair = propertyValueDAO.getPropertyValue(user);
+            if (userPair == null)
+            {
+                // No such value
+                return null;
+            }
+            dbParameters.setAuditUserId(userPair.getFirst());
+        }
+
+        dbParameters.setAuditFromId(restParameters.getFromId());
+        dbParameters.setAuditToId(restParameters.getToId());
+        dbParameters.setAuditFromTime(restParameters.getFromTime());
+        dbParameters.setAuditToTime(restParameters.getToTime());
         dbParameters.setForward(restParameters.isForward());
 
         return dbParameters;
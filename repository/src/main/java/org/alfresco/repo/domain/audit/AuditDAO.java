@@ -111,6 +111,92 @@ public interface AuditDAO
         }
     }
     
+    /**
+     * An audit entry waiting to be created, see {@link AuditDAO#createAuditEntries(List)}.
+     */
+    public static class AuditEntryInfo implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final Long applicationId;
+        private final long time;
+        private final String username;
+        private final Map<String, Serializable> values;
+        private final AuditStorageFormat storageFormat;
+        private final Set<String> indexedKeys;
+        
+        /**
+         * @param applicationId     an existing audit application ID
+         * @param time              the time (ms since epoch) to log the entry against
+         * @param username          the authenticated user (<tt>null</tt> if not present)
+         * @param values            the values to record
+         */
+        public AuditEntryInfo(Long applicationId, long time, String username, Map<String, Serializable> values)
+        {
+            this(applicationId, time, username, values, AuditStorageFormat.PROPERTIES, null);
+        }
+        
+        /**
+         * @param applicationId     an existing audit application ID
+         * @param time              the time (ms since epoch) to log the entry against
+         * @param username          the authenticated user (<tt>null</tt> if not present)
+         * @param values            the values to record
+         * @param storageFormat     how to persist the values
+         * @param indexedKeys       the keys of {@link AuditStorageFormat#COMPACT compact} values
+         *                          that can be searched for (may be <tt>null</tt>)
+         */
+        public AuditEntryInfo(
+                Long applicationId, long time, String username, Map<String, Serializable> values,
+                AuditStorageFormat storageFormat, Set<String> indexedKeys)
+        {
+            this.applicationId = applicationId;
+            this.time = time;
+            this.username = username;
+            this.values = values;
+            this.storageFormat = storageFormat;
+            this.indexedKeys = indexedKeys;
+        }
+        
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append("AuditEntryInfo ")
+              .append("[ applicationId=").append(applicationId)
+              .append(", time=").append(time)
+              .append(", username=").append(username)
+              .append(", values=").append(values)
+              .append(", storageFormat=").append(storageFormat)
+              .append("]");
+            return sb.toString();
+        }
+        
+        public Long getApplicationId()
+        {
+            return applicationId;
+        }
+        public long getTime()
+        {
+            return time;
+        }
+        public String getUsername()
+        {
+            return username;
+        }
+        public Map<String, Serializable> getValues()
+        {
+            return values;
+        }
+        public AuditStorageFormat getStorageFormat()
+        {
+            return storageFormat;
+        }
+        public Set<String> getIndexedKeys()
+        {
+            return indexedKeys;
+        }
+    }
+    
     /**
      * Creates a new audit model entry or finds an existing one
      * 
@@ -211,6 +297,32 @@ public interface AuditDAO
      */
     Long createAuditEntry(Long applicationId, long time, String username, Map<String, Serializable> values);
     
+    /**
+     * Create a new audit entry with the given map of values, persisted in the given format.
+     * 
+     * @param applicationId     an existing audit application ID
+     * @param time              the time (ms since epoch) to log the entry against
+     * @param username          the authenticated user (<tt>null</tt> if not present)
+     * @param values            the values to record
+     * @param storageFormat     how to persist the values
+     * @param indexedKeys       the keys of {@link AuditStorageFormat#COMPACT compact} values
+     *                          that can be searched for (may be <tt>null</tt>)
+     * @return                  Returns the unique entry ID
+     */
+    Long createAuditEntry(
+            Long applicationId, long time, String username, Map<String, Serializable> values,
+            AuditStorageFormat storageFormat, Set<String> indexedKeys);
+    
+    /**
+     * Create new audit entries.  The values of each entry are persisted as for
+     * {@link #createAuditEntry(Long, long, String, Map)} but the entry rows are inserted
+     * together, many rows per statement.
+     * 
+     * @param entries           the entries to create
+     * @return                  Returns the number of entries created
+     */
+    int createAuditEntries(List<AuditEntryInfo> entries);
+    
     /**
      * Find audit entries using the given parameters, any of which may be null
      * 
@@ -40,6 +40,7 @@ public class AuditEntryEntity
     private Long auditUserId;
     private long auditTime;
     private Long auditValuesId;
+    private byte[] auditValuesData;
     
     public AuditEntryEntity()
     {
@@ -54,6 +55,7 @@ public class AuditEntryEntity
           .append(", auditApplicationId=").append(auditApplicationId)
           .append(", auditTime").append(new Date(auditTime))
           .append(", auditValuesId=").append(auditValuesId)
+          .append(", auditValuesData=").append(auditValuesData == null ? null : auditValuesData.length)
           .append("]");
         return sb.toString();
     }
@@ -107,4 +109,17 @@ public class AuditEntryEntity
     {
         this.auditValuesId = auditValuesId;
     }
+
+    /**
+     * @return          the values of a {@link AuditStorageFormat#COMPACT compact} entry
+     */
+    public byte[] getAuditValuesData()
+    {
+        return auditValuesData;
+    }
+
+    public void setAuditValuesData(byte[] auditValuesData)
+    {
+        this.auditValuesData = auditValuesData;
+    }
 }
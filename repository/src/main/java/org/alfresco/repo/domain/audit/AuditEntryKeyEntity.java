@@ -0,0 +1,77 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.domain.audit;
+
+/**
+ * Entity bean for <b>alf_audit_entry_key</b> table, which indexes the values of
+ * {@link AuditStorageFormat#COMPACT compact} audit entries.
+ */
+public class AuditEntryKeyEntity
+{
+    private Long auditEntryId;
+    private long searchHash;
+
+    public AuditEntryKeyEntity()
+    {
+    }
+
+    public AuditEntryKeyEntity(Long auditEntryId, long searchHash)
+    {
+        this.auditEntryId = auditEntryId;
+        this.searchHash = searchHash;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("AuditEntryKeyEntity")
+          .append("[ auditEntryId=").append(auditEntryId)
+          .append(", searchHash=").append(searchHash)
+          .append("]");
+        return sb.toString();
+    }
+
+    public Long getAuditEntryId()
+    {
+        return auditEntryId;
+    }
+
+    public void setAuditEntryId(Long auditEntryId)
+    {
+        this.auditEntryId = auditEntryId;
+    }
+
+    public long getSearchHash()
+    {
+        return searchHash;
+    }
+
+    public void setSearchHash(long searchHash)
+    {
+        this.searchHash = searchHash;
+    }
+}
@@ -44,11 +44,29 @@ public class AuditQueryParameters
     private Long auditToTime;
     private Long searchKeyId;
     private Long searchValueId;
+    private Long searchHash;
     
     public AuditQueryParameters()
     {
     }
     
+    /**
+     * Copy constructor
+     */
+    public AuditQueryParameters(AuditQueryParameters other)
+    {
+        this.forward = other.forward;
+        this.auditAppNameId = other.auditAppNameId;
+        this.auditUserId = other.auditUserId;
+        this.auditFromId = other.auditFromId;
+        this.auditToId = other.auditToId;
+        this.auditFromTime = other.auditFromTime;
+        this.auditToTime = other.auditToTime;
+        this.searchKeyId = other.searchKeyId;
+        this.searchValueId = other.searchValueId;
+        this.searchHash = other.searchHash;
+    }
+    
     @Override
     public String toString()
     {
@@ -63,6 +81,7 @@ public class AuditQueryParameters
           .append(", auditToTime=").append(auditToTime == null ? null : new Date(auditToTime))
           .append(", searchKeyId=").append(searchKeyId)
           .append(", searchValueId=").append(searchValueId)
+          .append(", searchHash=").append(searchHash)
           .append("]");
         return sb.toString();
     }
@@ -162,6 +181,19 @@ public class AuditQueryParameters
         this.searchValueId = searchValueId;
     }
     
+    /**
+     * @return              the search hash of {@link AuditStorageFormat#COMPACT compact} entries to find
+     */
+    public Long getSearchHash()
+    {
+        return searchHash;
+    }
+
+    public void setSearchHash(Long searchHash)
+    {
+        this.searchHash = searchHash;
+    }
+    
     /**
      * @return              Returns <tt>true</tt> if this object includes a key- or value-based search
      */
@@ -0,0 +1,480 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.domain.audit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.namespace.QName;
+
+/**
+ * Binary encoding of audit values for {@link AuditStorageFormat#COMPACT compact} audit entries.
+ * <p>
+ * The values map is written as a single blob: keys are sorted and written with the prefix they
+ * share with the previous key removed, and common value types are written with a one-byte tag
+ * rather than as serialized Java objects.  Large blobs are deflated.
+ * <p>
+ * Values cannot be searched for within the blob.  Instead, selected keys of each entry are
+ * indexed by {@link #getSearchHashes(Map, Set) search hashes}, which are matched against the
+ * {@link #getSearchHash(String, Serializable) hash} of a query's key and/or value.
+ */
+public final class CompactAuditValues
+{
+    private static final int VERSION = 1;
+    private static final int FLAG_DEFLATED = 0x01;
+    /** Blobs larger than this (bytes) are deflated */
+    private static final int DEFLATE_THRESHOLD = 512;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_LONG = 2;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_TRUE = 4;
+    private static final int TAG_FALSE = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_FLOAT = 7;
+    private static final int TAG_DATE = 8;
+    private static final int TAG_NODEREF = 9;
+    private static final int TAG_QNAME = 10;
+    private static final int TAG_SERIALIZED = 11;
+
+    private CompactAuditValues()
+    {
+    }
+
+    /**
+     * Encode audit values
+     * 
+     * @param values            the values to encode
+     * @return                  the encoded values
+     */
+    public static byte[] encode(Map<String, Serializable> values)
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeVarInt(out, values.size());
+            String previousKey = "";
+            for (Map.Entry<String, Serializable> entry : new TreeMap<String, Serializable>(values).entrySet())
+            {
+                String key = entry.getKey();
+                int shared = commonPrefixLength(previousKey, key);
+                writeVarInt(out, shared);
+                writeString(out, key.substring(shared));
+                writeValue(out, entry.getValue());
+                previousKey = key;
+            }
+            out.flush();
+
+            byte[] body = bytes.toByteArray();
+            int flags = 0;
+            if (body.length > DEFLATE_THRESHOLD)
+            {
+                ByteArrayOutputStream deflated = new ByteArrayOutputStream(body.length / 2);
+                try (DeflaterOutputStream deflater = new DeflaterOutputStream(deflated))
+                {
+                    deflater.write(body);
+                }
+                if (deflated.size() < body.length)
+                {
+                    body = deflated.toByteArray();
+                    flags |= FLAG_DEFLATED;
+                }
+            }
+            byte[] data = new byte[body.length + 2];
+            data[0] = (byte) VERSION;
+            data[1] = (byte) flags;
+            System.arraycopy(body, 0, data, 2, body.length);
+            return data;
+        }
+        catch (IOException e)
+        {
+            throw new AlfrescoRuntimeException("Failed to encode audit values: " + values, e);
+        }
+    }
+
+    /**
+     * Decode audit values
+     * 
+     * @param data              values encoded by {@link #encode(Map)}
+     * @return                  the decoded values
+     */
+    public static Map<String, Serializable> decode(byte[] data)
+    {
+        if (data.length < 2 || data[0] != VERSION)
+        {
+            throw new AlfrescoRuntimeException("Unsupported audit values encoding");
+        }
+        InputStream body = new ByteArrayInputStream(data, 2, data.length - 2);
+        if ((data[1] & FLAG_DEFLATED) != 0)
+        {
+            body = new InflaterInputStream(body);
+        }
+        try (DataInputStream in = new DataInputStream(body))
+        {
+            int size = readVarInt(in);
+            Map<String, Serializable> values = new HashMap<String, Serializable>(size * 2);
+            String previousKey = "";
+            for (int i = 0; i < size; i++)
+            {
+                int shared = readVarInt(in);
+                String key = previousKey.substring(0, shared) + readString(in);
+                values.put(key, readValue(in));
+                previousKey = key;
+            }
+            return values;
+        }
+        catch (IOException | ClassNotFoundException e)
+        {
+            throw new AlfrescoRuntimeException("Failed to decode audit values", e);
+        }
+    }
+
+    /**
+     * Get the hashes by which an entry's values can be found.  For each indexed key present,
+     * the entry can be found by the key alone and, for values of simple types, by the value
+     * alone and by the key and value together.
+     * 
+     * @param values            the entry's values
+     * @param indexedKeys       the keys to index
+     * @return                  the search hashes for the entry
+     */
+    public static Set<Long> getSearchHashes(Map<String, Serializable> values, Set<String> indexedKeys)
+    {
+        Set<Long> hashes = new HashSet<Long>(indexedKeys.size() * 6);
+        for (String key : indexedKeys)
+        {
+            if (!values.containsKey(key))
+            {
+                continue;
+            }
+            hashes.add(getSearchHash(key, null));
+            Serializable value = values.get(key);
+            if (isIndexable(value))
+            {
+                hashes.add(getSearchHash(null, value));
+                hashes.add(getSearchHash(key, value));
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Get the hash to search for entries with a given key and/or value
+     * 
+     * @param key               the key or <tt>null</tt> to match any key
+     * @param value             the value or <tt>null</tt> to match any value
+     * @return                  the search hash or <tt>null</tt> if neither was given or if the
+     *                          value is not of a type that is indexed
+     */
+    public static Long getSearchHash(String key, Serializable value)
+    {
+        boolean hasValue = isIndexable(value);
+        if (value != null && !hasValue)
+        {
+            return null;
+        }
+        String text;
+        if (key != null && hasValue)
+        {
+            text = "KV\u0000" + key + "\u0000" + getCanonicalValue(value);
+        }
+        else if (key != null)
+        {
+            text = "K\u0000" + key;
+        }
+        else if (hasValue)
+        {
+            text = "V\u0000" + getCanonicalValue(value);
+        }
+        else
+        {
+            return null;
+        }
+        byte[] digest = getDigest().digest(text.getBytes(StandardCharsets.UTF_8));
+        long hash = 0L;
+        for (int i = 0; i < 8; i++)
+        {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    /**
+     * @return                  <tt>true</tt> if the value is of a type that is written with its
+     *                          own tag, i.e. it has a stable string form
+     */
+    private static boolean isIndexable(Serializable value)
+    {
+        return value != null && getTag(value) != TAG_SERIALIZED;
+    }
+
+    private static String getCanonicalValue(Serializable value)
+    {
+        String text = value instanceof Date ? Long.toString(((Date) value).getTime()) : value.toString();
+        return value.getClass().getName() + "\u0000" + text;
+    }
+
+    private static MessageDigest getDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("MD5");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new AlfrescoRuntimeException("MD5 digest is not available", e);
+        }
+    }
+
+    private static int getTag(Serializable value)
+    {
+        if (value == null)
+        {
+            return TAG_NULL;
+        }
+        Class<?> clazz = value.getClass();
+        if (clazz == String.class)
+        {
+            return TAG_STRING;
+        }
+        else if (clazz == Long.class)
+        {
+            return TAG_LONG;
+        }
+        else if (clazz == Integer.class)
+        {
+            return TAG_INTEGER;
+        }
+        else if (clazz == Boolean.class)
+        {
+            return ((Boolean) value) ? TAG_TRUE : TAG_FALSE;
+        }
+        else if (clazz == Double.class)
+        {
+            return TAG_DOUBLE;
+        }
+        else if (clazz == Float.class)
+        {
+            return TAG_FLOAT;
+        }
+        else if (clazz == Date.class)
+        {
+            return TAG_DATE;
+        }
+        else if (clazz == NodeRef.class)
+        {
+            return TAG_NODEREF;
+        }
+        else if (clazz == QName.class)
+        {
+            return TAG_QNAME;
+        }
+        return TAG_SERIALIZED;
+    }
+
+    private static void writeValue(DataOutputStream out, Serializable value) throws IOException
+    {
+        int tag = getTag(value);
+        out.writeByte(tag);
+        switch (tag)
+        {
+        case TAG_STRING:
+            writeString(out, (String) value);
+            break;
+        case TAG_LONG:
+            writeVarLong(out, zigZag((Long) value));
+            break;
+        case TAG_INTEGER:
+            writeVarLong(out, zigZag((Integer) value));
+            break;
+        case TAG_DOUBLE:
+            out.writeDouble((Double) value);
+            break;
+        case TAG_FLOAT:
+            out.writeFloat((Float) value);
+            break;
+        case TAG_DATE:
+            writeVarLong(out, zigZag(((Date) value).getTime()));
+            break;
+        case TAG_NODEREF:
+        case TAG_QNAME:
+            writeString(out, value.toString());
+            break;
+        case TAG_SERIALIZED:
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes))
+            {
+                oos.writeObject(value);
+            }
+            writeVarInt(out, bytes.size());
+            bytes.writeTo(out);
+            break;
+        default:
+            // The tag is the value
+        }
+    }
+
+    private static Serializable readValue(DataInputStream in) throws IOException, ClassNotFoundException
+    {
+        int tag = in.readUnsignedByte();
+        switch (tag)
+        {
+        case TAG_NULL:
+            return null;
+        case TAG_STRING:
+            return readString(in);
+        case TAG_LONG:
+            return unZigZag(readVarLong(in));
+        case TAG_INTEGER:
+            return (int) unZigZag(readVarLong(in));
+        case TAG_TRUE:
+            return Boolean.TRUE;
+        case TAG_FALSE:
+            return Boolean.FALSE;
+        case TAG_DOUBLE:
+            return in.readDouble();
+        case TAG_FLOAT:
+            return in.readFloat();
+        case TAG_DATE:
+            return new Date(unZigZag(readVarLong(in)));
+        case TAG_NODEREF:
+            return new NodeRef(readString(in));
+        case TAG_QNAME:
+            return QName.createQName(readString(in));
+        case TAG_SERIALIZED:
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+            {
+                return (Serializable) ois.readObject();
+            }
+        default:
+            throw new IOException("Unknown audit value tag: " + tag);
+        }
+    }
+
+    private static int commonPrefixLength(String a, String b)
+    {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i))
+        {
+            i++;
+        }
+        // Do not split a surrogate pair
+        if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1)))
+        {
+            i--;
+        }
+        return i;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException
+    {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException
+    {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE)
+        {
+            throw new IOException("Invalid length in audit values: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException
+    {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number in audit values");
+    }
+}
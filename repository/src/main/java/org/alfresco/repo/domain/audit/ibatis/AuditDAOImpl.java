@@ -27,6 +27,7 @@ package org.alfresco.repo.domain.audit.ibatis;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,7 @@ import org.alfresco.repo.domain.audit.AbstractAuditDAOImpl;
 import org.alfresco.repo.domain.audit.AuditApplicationEntity;
 import org.alfresco.repo.domain.audit.AuditDeleteParameters;
 import org.alfresco.repo.domain.audit.AuditEntryEntity;
+import org.alfresco.repo.domain.audit.AuditEntryKeyEntity;
 import org.alfresco.repo.domain.audit.AuditModelEntity;
 import org.alfresco.repo.domain.audit.AuditQueryParameters;
 import org.alfresco.repo.domain.audit.AuditQueryResult;
@@ -64,6 +66,8 @@ public class AuditDAOImpl extends AbstractAuditDAOImpl
     private static final String DELETE_ENTRIES = "alfresco.audit.delete_AuditEntries";
     private static final String DELETE_ENTRIES_BY_ID = "alfresco.audit.delete_AuditEntriesById";
     private static final String INSERT_ENTRY = "alfresco.audit.insert.insert_AuditEntry";
+    private static final String INSERT_ENTRIES = "alfresco.audit.insert.insert_AuditEntries";
+    private static final String INSERT_ENTRY_KEYS = "alfresco.audit.insert.insert_AuditEntryKeys";
     private static final String SELECT_MINMAX_ENTRY_FOR_APP = "alfresco.audit.select_MinMaxAuditEntryId";
     private static final String SELECT_COUNT_ENTRIES_FOR_APP = "alfresco.audit.select_CountAuditEntryId";
     private static final String SELECT_COUNT_ENTRIES_FOR_APP_WITH_PROPERTIES = "select_CountAuditEntryIdWithWhereClause";
@@ -203,17 +207,30 @@ public class AuditDAOImpl extends AbstractAuditDAOImpl
     }
 
     @Override
-    protected AuditEntryEntity createAuditEntry(Long applicationId, long time, Long usernameId, Long valuesId)
+    protected AuditEntryEntity createAuditEntry(Long applicationId, long time, Long usernameId, Long valuesId, byte[] valuesData)
     {
         AuditEntryEntity entity = new AuditEntryEntity();
         entity.setAuditApplicationId(applicationId);
         entity.setAuditTime(time);
         entity.setAuditUserId(usernameId);
         entity.setAuditValuesId(valuesId);
+        entity.setAuditValuesData(valuesData);
         template.insert(INSERT_ENTRY, entity);
         return entity;
     }
 
+    @Override
+    protected void createAuditEntriesImpl(List<AuditEntryEntity> entities)
+    {
+        template.insert(INSERT_ENTRIES, entities);
+    }
+
+    @Override
+    protected void createAuditEntryKeysImpl(List<AuditEntryKeyEntity> keys)
+    {
+        template.insert(INSERT_ENTRY_KEYS, keys);
+    }
+
     public HashMap<String, Long> getAuditMinMaxByApp(long appId, List<String> extremes)
     {
         // Build parameters to be used in the query. Filter the duplicates when inserting into map
@@ -240,8 +257,18 @@ public class AuditDAOImpl extends AbstractAuditDAOImpl
     public int getAuditEntriesCountByAppAndProperties(org.alfresco.service.cmr.audit.AuditQueryParameters parameters)
     {
         AuditQueryParameters dbParameters = convertFromRestAuditQueryParameters(parameters);
+        AuditQueryParameters compactParameters = convertFromRestAuditQueryParametersForCompactSearch(parameters);
 
-        int result = template.selectOne(SELECT_COUNT_ENTRIES_FOR_APP_WITH_PROPERTIES, dbParameters);
+        int result = 0;
+        if (dbParameters != null)
+        {
+            result += (Integer) template.selectOne(SELECT_COUNT_ENTRIES_FOR_APP_WITH_PROPERTIES, dbParameters);
+        }
+        // Compact entries are not linked to properties, so they are counted separately
+        if (compactParameters != null)
+        {
+            result += (Integer) template.selectOne(SELECT_COUNT_ENTRIES_FOR_APP_WITH_PROPERTIES, compactParameters);
+        }
 
         return result;
     }
@@ -254,7 +281,8 @@ public class AuditDAOImpl extends AbstractAuditDAOImpl
             org.alfresco.service.cmr.audit.AuditQueryParameters restParameters)
     {
         AuditQueryParameters params = convertFromRestAuditQueryParameters(restParameters);
-        if (params==null)
+        AuditQueryParameters compactParams = convertFromRestAuditQueryParametersForCompactSearch(restParameters);
+        if (params==null && compactParams==null)
         {
             return;
         }
@@ -281,9 +309,22 @@ public class AuditDAOImpl extends AbstractAuditDAOImpl
                 }
             };
             
-            List<AuditQueryResult> rows = template.selectList(SELECT_ENTRIES_WITHOUT_VALUES, params, new RowBounds(0, maxResults));
+            List<AuditQueryResult> rows = params == null
+                    ? Collections.<AuditQueryResult>emptyList()
+                    : template.<AuditQueryResult>selectList(SELECT_ENTRIES_WITHOUT_VALUES, params, new RowBounds(0, maxResults));
+            if (compactParams != null)
+            {
+                // Compact entries are found by their search keys rather than their properties
+                List<AuditQueryResult> compactRows = template.selectList(SELECT_ENTRIES_WITHOUT_VALUES, compactParams, new RowBounds(0, maxResults));
+                rows = mergeRows(rows, compactRows, restParameters.isForward(), maxResults);
+            }
             for (AuditQueryResult row : rows)
             {
+                if (row.getAuditValuesId() == null)
+                {
+                    // Compact entries hold their own values
+                    continue;
+                }
                 resultsByValueId.put(row.getAuditValuesId(), row);
                 if (resultsByValueId.size() >= 100)
                 {
@@ -312,5 +353,47 @@ public class AuditDAOImpl extends AbstractAuditDAOImpl
             throw new IllegalArgumentException("maxResults must be greater than 0");
         }
     }
-}
 
+    /**
+     * Merge two lists of entries, each already ordered by entry ID, preserving the query order.
+     */
+    private static List<AuditQueryResult> mergeRows(
+            List<AuditQueryResult> rows,
+            List<AuditQueryResult> otherRows,
+            boolean forward,
+            int maxResults)
+    {
+        List<AuditQueryResult> merged = new ArrayList<AuditQueryResult>(Math.min(maxResults, rows.size() + otherRows.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < maxResults && (i < rows.size() || j < otherRows.size()))
+        {
+            if (j >= otherRows.size())
+            {
+                merged.add(rows.get(i++));
+            }
+            else if (i >= rows.size())
+            {
+                merged.add(otherRows.get(j++));
+            }
+            else
+            {
+                int cmp = rows.get(i).getAuditEntryId().compareTo(otherRows.get(j).getAuditEntryId());
+                if (cmp == 0)
+                {
+                    merged.add(rows.get(i++));
+                    j++;
+                }
+                else if ((cmp < 0) == forward)
+                {
+                    merged.add(rows.get(i++));
+                }
+                else
+                {
+                    merged.add(otherRows.get(j++));
+                }
+            }
+        }
+        return merged;
+    }
+}
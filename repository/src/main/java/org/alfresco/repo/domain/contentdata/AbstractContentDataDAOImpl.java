@@ -26,7 +26,10 @@
 package org.alfresco.repo.domain.contentdata;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -194,6 +197,26 @@ public abstract class AbstractContentDataDAOImpl implements ContentDataDAO
         return entityPair;
     }
 
+    @Override
+    public List<Pair<Long, ContentData>> getContentData(Collection<Long> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Cannot look up ContentData by null IDs.");
+        }
+        List<Pair<Long, ContentData>> entityPairs = contentDataCache.getByKeys(ids);
+        if (entityPairs.size() < new LinkedHashSet<Long>(ids).size())
+        {
+            Set<Long> missingIds = new LinkedHashSet<Long>(ids);
+            for (Pair<Long, ContentData> entityPair : entityPairs)
+            {
+                missingIds.remove(entityPair.getFirst());
+            }
+            throw new DataIntegrityViolationException("No ContentData value exists for IDs " + missingIds);
+        }
+        return entityPairs;
+    }
+
     /**
      * Internally update a URL or create a new one if it does not exist
      */
@@ -319,6 +342,33 @@ public abstract class AbstractContentDataDAOImpl implements ContentDataDAO
             return new Pair<Long, ContentData>(key, contentData);
         }
 
+        /**
+         * Loads the <b>alf_content_data</b> rows and then their content URLs using one query each.
+         */
+        @Override
+        public List<Pair<Long, ContentData>> findByKeys(List<Long> keys)
+        {
+            List<ContentDataEntity> contentDataEntities = getContentDataEntities(keys);
+            // Pull all the content URLs into the cache in one go
+            Set<Long> contentUrlIds = new LinkedHashSet<Long>(contentDataEntities.size() * 2);
+            for (ContentDataEntity contentDataEntity : contentDataEntities)
+            {
+                if (contentDataEntity.getContentUrlId() != null)
+                {
+                    contentUrlIds.add(contentDataEntity.getContentUrlId());
+                }
+            }
+            contentUrlCache.getByKeys(contentUrlIds);
+            
+            List<Pair<Long, ContentData>> results = new ArrayList<Pair<Long, ContentData>>(contentDataEntities.size());
+            for (ContentDataEntity contentDataEntity : contentDataEntities)
+            {
+                ContentData contentData = makeContentData(contentDataEntity);
+                results.add(new Pair<Long, ContentData>(contentDataEntity.getId(), contentData));
+            }
+            return results;
+        }
+
         @Override
         public int updateValue(Long key, ContentData value)
         {
@@ -387,6 +437,18 @@ public abstract class AbstractContentDataDAOImpl implements ContentDataDAO
             return new Pair<Long, ContentUrlEntity>(contentUrlEntity.getId(), contentUrlEntity);
         }
 
+        @Override
+        public List<Pair<Long, ContentUrlEntity>> findByKeys(List<Long> ids)
+        {
+            List<ContentUrlEntity> contentUrlEntities = getContentUrlEntities(ids);
+            List<Pair<Long, ContentUrlEntity>> results = new ArrayList<Pair<Long, ContentUrlEntity>>(contentUrlEntities.size());
+            for (ContentUrlEntity contentUrlEntity : contentUrlEntities)
+            {
+                results.add(new Pair<Long, ContentUrlEntity>(contentUrlEntity.getId(), contentUrlEntity));
+            }
+            return results;
+        }
+
         @Override
         public int updateValue(Long id, ContentUrlEntity value)
         {
@@ -648,6 +710,12 @@ public abstract class AbstractContentDataDAOImpl implements ContentDataDAO
      */
     protected abstract ContentUrlEntity getContentUrlEntity(Long id);
 
+    /**
+     * @param ids           the IDs of the <b>content url</b> entities
+     * @return              Return the entities that exist, in any order
+     */
+    protected abstract List<ContentUrlEntity> getContentUrlEntities(List<Long> ids);
+
     protected abstract ContentUrlEntity getContentUrlEntity(String contentUrl);
 
     
@@ -683,6 +751,12 @@ public abstract class AbstractContentDataDAOImpl implements ContentDataDAO
      */
     protected abstract ContentDataEntity getContentDataEntity(Long id);
 
+    /**
+     * @param ids           the entity IDs
+     * @return              Returns the entities that exist, in any order
+     */
+    protected abstract List<ContentDataEntity> getContentDataEntities(List<Long> ids);
+
     /**
      * @param nodeIds       the node ID
      * @return              Returns the associated entities or <tt>null</tt> if none exist
@@ -25,6 +25,7 @@
  */
 package org.alfresco.repo.domain.contentdata;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +79,16 @@ public interface ContentDataDAO
      */
     Pair<Long, ContentData> getContentData(Long id);
     
+    /**
+     * Look up several ContentData instances at once.  IDs that are not yet cached are
+     * fetched from the database together.
+     * 
+     * @param ids           the unique IDs of the entities
+     * @return              the ContentData pairs (id, ContentData) in the order of the given IDs
+     * @throws              DataIntegrityViolationException if any of the IDs doesn't exist
+     */
+    List<Pair<Long, ContentData>> getContentData(Collection<Long> ids);
+    
     /**
      * @param nodeIds       the nodeIds
      * @throws              AlfrescoRuntimeException if an ID provided is invalid
@@ -122,6 +133,32 @@ public interface ContentDataDAO
             Long maxOrphanTimeExclusive,
             int maxResults);
     
+    /**
+     * Enumerate the content URLs within a range of IDs that were orphaned on or before the given time
+     * 
+     * @param contentUrlHandler         the callback object to process the rows
+     * @param maxOrphanTimeExclusive    the maximum orphan time (exclusive)
+     * @param minIdInclusive            the minimum content URL ID (inclusive) or <tt>null</tt> for no lower bound
+     * @param maxIdExclusive            the maximum content URL ID (exclusive) or <tt>null</tt> for no upper bound
+     * @param maxResults                the maximum number of results (1 or greater)
+     */
+    void getContentUrlsOrphaned(
+            ContentUrlHandler contentUrlHandler,
+            Long maxOrphanTimeExclusive,
+            Long minIdInclusive,
+            Long maxIdExclusive,
+            int maxResults);
+    
+    /**
+     * Get the range of IDs of content URLs that were orphaned on or before the given time.
+     * The range may include content URLs that are no longer orphaned.
+     * 
+     * @param maxOrphanTimeExclusive    the maximum orphan time (exclusive)
+     * @return                          the minimum and maximum IDs (both inclusive) or <tt>null</tt>
+     *                                  if there are no orphaned content URLs
+     */
+    Pair<Long, Long> getContentUrlsOrphanedIdRange(Long maxOrphanTimeExclusive);
+    
     /**
      * Enumerate all available content URLs that were orphaned and cleanup for these urls failed
      * 
@@ -34,7 +34,9 @@ package org.alfresco.repo.domain.contentdata;
 public class ContentUrlOrphanQuery
 {
     private Long maxOrphanTimeExclusive;
-    private Long maxRecords;
+    private Long minIdInclusive;
+    private Long maxIdExclusive;
+    private Long maxRecords;
     
     @Override
     public String toString()
@@ -42,6 +44,8 @@ public class ContentUrlOrphanQuery
         StringBuilder sb = new StringBuilder(512);
         sb.append("ContentUrlOrphanQuery")
           .append("[ maxOrphanTimeExclusive=").append(maxOrphanTimeExclusive)
+          .append(", minIdInclusive=").append(minIdInclusive)
+          .append(", maxIdExclusive=").append(maxIdExclusive)
           .append(", maxRecords=").append(maxRecords)
           .append("]");
         return sb.toString();
@@ -57,6 +61,26 @@ public class ContentUrlOrphanQuery
         this.maxOrphanTimeExclusive = maxOrphanTimeExclusive;
     }
 
+    public Long getMinIdInclusive()
+    {
+        return minIdInclusive;
+    }
+
+    public void setMinIdInclusive(Long minIdInclusive)
+    {
+        this.minIdInclusive = minIdInclusive;
+    }
+
+    public Long getMaxIdExclusive()
+    {
+        return maxIdExclusive;
+    }
+
+    public void setMaxIdExclusive(Long maxIdExclusive)
+    {
+        this.maxIdExclusive = maxIdExclusive;
+    }
+
     public Long getMaxRecords()
     {
         return maxRecords;
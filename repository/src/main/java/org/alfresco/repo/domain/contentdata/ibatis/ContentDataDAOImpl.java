@@ -61,11 +61,14 @@ import org.springframework.dao.DataIntegrityViolationException;
 public class ContentDataDAOImpl extends AbstractContentDataDAOImpl
 {
     private static final String SELECT_CONTENT_URL_BY_ID = "alfresco.content.select_ContentUrlById";
+    private static final String SELECT_CONTENT_URLS_BY_IDS = "alfresco.content.select_ContentUrlsByIds";
     private static final String SELECT_CONTENT_URL_BY_KEY = "alfresco.content.select_ContentUrlByKey";
     private static final String SELECT_CONTENT_URL_BY_KEY_UNREFERENCED = "alfresco.content.select_ContentUrlByKeyUnreferenced";
     private static final String SELECT_CONTENT_URLS_ORPHANED = "alfresco.content.select.select_ContentUrlsOrphaned";
+    private static final String SELECT_CONTENT_URLS_ORPHANED_ID_RANGE = "alfresco.content.select_ContentUrlsOrphanedIdRange";
     private static final String SELECT_CONTENT_URLS_KEEP_ORPHANED = "alfresco.content.select_ContentUrlsKeepOrphaned";
     private static final String SELECT_CONTENT_DATA_BY_ID = "alfresco.content.select_ContentDataById";
+    private static final String SELECT_CONTENT_DATA_BY_IDS = "alfresco.content.select_ContentDataByIds";
     private static final String SELECT_CONTENT_DATA_BY_NODE_AND_QNAME = "alfresco.content.select_ContentDataByNodeAndQName";
     private static final String SELECT_CONTENT_DATA_BY_NODE_IDS = "alfresco.content.select_ContentDataByNodeIds";
     private static final String INSERT_CONTENT_URL = "alfresco.content.insert.insert_ContentUrl";
@@ -131,6 +134,19 @@ public class ContentDataDAOImpl extends AbstractContentDataDAOImpl
         return contentUrlEntity;
     }
 
+    @Override
+    protected List<ContentUrlEntity> getContentUrlEntities(List<Long> ids)
+    {
+        if (ids.size() == 0)
+        {
+            // There will be no results
+            return Collections.emptyList();
+        }
+        IdsEntity idsEntity = new IdsEntity();
+        idsEntity.setIds(ids);
+        return template.selectList(SELECT_CONTENT_URLS_BY_IDS, idsEntity);
+    }
+
     @Override
     public ContentUrlEntity getContentUrlEntity(String contentUrl)
     {
@@ -150,11 +166,24 @@ public class ContentDataDAOImpl extends AbstractContentDataDAOImpl
             final ContentUrlHandler contentUrlHandler,
             final Long maxOrphanTimeExclusive,
             final int maxResults)
+    {
+        getContentUrlsOrphaned(contentUrlHandler, maxOrphanTimeExclusive, null, null, maxResults);
+    }
+    
+    @Override
+    public void getContentUrlsOrphaned(
+            final ContentUrlHandler contentUrlHandler,
+            final Long maxOrphanTimeExclusive,
+            final Long minIdInclusive,
+            final Long maxIdExclusive,
+            final int maxResults)
     {
         ParameterCheck.mandatory("maxOrphanTimeExclusive", maxOrphanTimeExclusive);
         
         ContentUrlOrphanQuery query = new ContentUrlOrphanQuery();
         query.setMaxOrphanTimeExclusive(maxOrphanTimeExclusive);
+        query.setMinIdInclusive(minIdInclusive);
+        query.setMaxIdExclusive(maxIdExclusive);
         query.setMaxRecords((long) maxResults);
         List<ContentUrlEntity> results = template.selectList(SELECT_CONTENT_URLS_ORPHANED, 
                                                                                       query, 
@@ -169,6 +198,21 @@ public class ContentDataDAOImpl extends AbstractContentDataDAOImpl
         }
     }
     
+    @Override
+    public Pair<Long, Long> getContentUrlsOrphanedIdRange(Long maxOrphanTimeExclusive)
+    {
+        ParameterCheck.mandatory("maxOrphanTimeExclusive", maxOrphanTimeExclusive);
+        
+        ContentUrlOrphanQuery query = new ContentUrlOrphanQuery();
+        query.setMaxOrphanTimeExclusive(maxOrphanTimeExclusive);
+        Map<String, Long> result = template.selectOne(SELECT_CONTENT_URLS_ORPHANED_ID_RANGE, query);
+        if (result == null || result.get("minId") == null || result.get("maxId") == null)
+        {
+            return null;
+        }
+        return new Pair<Long, Long>(result.get("minId"), result.get("maxId"));
+    }
+    
     @Override
     public void getContentUrlsKeepOrphaned(
             final ContentUrlHandler contentUrlHandler,
@@ -255,6 +299,19 @@ public class ContentDataDAOImpl extends AbstractContentDataDAOImpl
         return contentDataEntity;
     }
 
+    @Override
+    protected List<ContentDataEntity> getContentDataEntities(List<Long> ids)
+    {
+        if (ids.size() == 0)
+        {
+            // There will be no results
+            return Collections.emptyList();
+        }
+        IdsEntity idsEntity = new IdsEntity();
+        idsEntity.setIds(ids);
+        return template.selectList(SELECT_CONTENT_DATA_BY_IDS, idsEntity);
+    }
+
     @Override
     protected List<ContentDataEntity> getContentDataEntitiesForNodes(Set<Long> nodeIds)
     {
@@ -25,6 +25,8 @@
  */
 package org.alfresco.repo.domain.locale;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import org.alfresco.repo.cache.SimpleCache;
@@ -253,6 +255,18 @@ public abstract class AbstractLocaleDAOImpl implements LocaleDAO
             }
         }
         
+        @Override
+        public List<Pair<Long, String>> findByKeys(List<Long> ids)
+        {
+            List<LocaleEntity> entities = getLocaleEntities(ids);
+            List<Pair<Long, String>> results = new ArrayList<Pair<Long, String>>(entities.size());
+            for (LocaleEntity entity : entities)
+            {
+                results.add(new Pair<Long, String>(entity.getId(), entity.getLocaleStr()));
+            }
+            return results;
+        }
+        
         public Pair<Long, String> createValue(String localeStr)
         {
             LocaleEntity entity = createLocaleEntity(localeStr);
@@ -261,6 +275,7 @@ public abstract class AbstractLocaleDAOImpl implements LocaleDAO
     }
     
     protected abstract LocaleEntity getLocaleEntity(Long id);
+    protected abstract List<LocaleEntity> getLocaleEntities(List<Long> ids);
     protected abstract LocaleEntity getLocaleEntity(String locale);
     protected abstract LocaleEntity createLocaleEntity(String locale);
 }
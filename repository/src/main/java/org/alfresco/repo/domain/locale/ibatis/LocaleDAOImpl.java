@@ -26,8 +26,10 @@
 package org.alfresco.repo.domain.locale.ibatis;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.alfresco.ibatis.IdsEntity;
 import org.alfresco.repo.domain.locale.AbstractLocaleDAOImpl;
 import org.alfresco.repo.domain.locale.LocaleEntity;
 import org.mybatis.spring.SqlSessionTemplate;
@@ -41,6 +43,7 @@ import org.mybatis.spring.SqlSessionTemplate;
 public class LocaleDAOImpl extends AbstractLocaleDAOImpl
 {
     private static final String SELECT_LOCALE_BY_ID = "alfresco.locale.select_LocaleById";
+    private static final String SELECT_LOCALES_BY_IDS = "alfresco.locale.select_LocalesByIds";
     private static final String SELECT_LOCALE_BY_NAME = "alfresco.locale.select_LocaleByName";
     private static final String INSERT_LOCALE = "alfresco.locale.insert.insert_Locale";
     
@@ -62,6 +65,15 @@ public class LocaleDAOImpl extends AbstractLocaleDAOImpl
         return template.selectOne(SELECT_LOCALE_BY_ID, params);
     }
 
+    @Override
+    protected List<LocaleEntity> getLocaleEntities(List<Long> ids)
+    {
+        IdsEntity idsEntity = new IdsEntity();
+        idsEntity.setIds(ids);
+        
+        return template.selectList(SELECT_LOCALES_BY_IDS, idsEntity);
+    }
+
     @Override
     protected LocaleEntity getLocaleEntity(String localeStr)
     {
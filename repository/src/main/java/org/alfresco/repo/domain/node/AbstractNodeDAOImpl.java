@@ -36,6 +36,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -195,6 +196,9 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
     private ParentAssocsCache parentAssocsCache;
     private int parentAssocsCacheSize;
     private int parentAssocsCacheLimitFactor = 8;
+    private NodePathsCache nodePathsCache;
+    private int nodePathsCacheSize;
+    private int nodePathsCacheLimitFactor = 16;
         
     /**
      * Cache for fast lookups of child nodes by <b>cm:name</b>. 
@@ -393,6 +397,30 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
         this.parentAssocsCacheLimitFactor = parentAssocsCacheLimitFactor;
     }
 
+    /**
+     * Sets the number of nodes whose resolved paths are cached.  Zero disables the cache, in which case
+     * paths are rebuilt from the parent associations on every call.
+     * 
+     * @param nodePathsCacheSize        the cache size
+     */
+    public void setNodePathsCacheSize(int nodePathsCacheSize)
+    {
+        this.nodePathsCacheSize = nodePathsCacheSize;
+    }
+
+    /**
+     * Sets the average number of path elements and parent associations expected per node in the paths cache. This
+     * parameter is multiplied by the {@link #setNodePathsCacheSize(int)} parameter to compute a limit on the total
+     * number of cached path elements and parent associations.
+     * 
+     * @param nodePathsCacheLimitFactor
+     *            the nodePathsCacheLimitFactor to set
+     */
+    public void setNodePathsCacheLimitFactor(int nodePathsCacheLimitFactor)
+    {
+        this.nodePathsCacheLimitFactor = nodePathsCacheLimitFactor;
+    }
+
     /**
      * Set the cache that maintains lookups by child <b>cm:name</b>
      * 
@@ -420,6 +448,10 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
 
         this.nodePropertyHelper = new NodePropertyHelper(dictionaryService, qnameDAO, localeDAO, contentDataDAO);
         this.parentAssocsCache = new ParentAssocsCache(this.parentAssocsCacheSize, this.parentAssocsCacheLimitFactor);
+        if (this.nodePathsCacheSize > 0)
+        {
+            this.nodePathsCache = new NodePathsCache(this.nodePathsCacheSize, this.nodePathsCacheLimitFactor);
+        }
     }
     
     /*
@@ -432,6 +464,10 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
         aspectsCache.clear();
         propertiesCache.clear();
         parentAssocsCache.clear();
+        if (nodePathsCache != null)
+        {
+            nodePathsCache.clear();
+        }
     }
     
     /**
@@ -1954,6 +1990,22 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
         invalidateNodeChildrenCaches(primaryParentNodeId, true, false);
     }
     
+    @Override
+    public int setNodesSharedAclId(List<Long> nodeIds, Long oldSharedAclId, Long newSharedAclId)
+    {
+        if (nodeIds.isEmpty())
+        {
+            return 0;
+        }
+        Long txnId = getCurrentTransaction().getId();
+        int count = updateNodesSharedAclId(txnId, nodeIds, oldSharedAclId, newSharedAclId);
+        for (Long nodeId : nodeIds)
+        {
+            invalidateNodeCaches(nodeId);
+        }
+        return count;
+    }
+    
     @Override
     public void deleteNode(Long nodeId)
     {
@@ -2802,6 +2854,18 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
         selectNodesWithAspects(qnameIds, minNodeId, maxNodeId, ordered, maxResults, resultsCallback);
     }
 
+    @Override
+    public Set<Long> getNodeIdsWithAspect(QName aspectQName, List<Long> nodeIds)
+    {
+        Pair<Long, QName> aspectQNamePair = qnameDAO.getQName(aspectQName);
+        if (aspectQNamePair == null || nodeIds.isEmpty())
+        {
+            // No point running a query
+            return Collections.emptySet();
+        }
+        return new HashSet<Long>(selectNodeIdsWithAspect(aspectQNamePair.getFirst(), nodeIds));
+    }
+
     /**
      * @return              Returns a writable copy of the cached aspects set
      */
@@ -3397,6 +3461,22 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
     {
         return selectPrimaryChildAcls(nodeId);
     }
+
+    @Override
+    public Map<Long, List<NodeIdAndAclId>> getPrimaryChildrenAcls(List<Long> nodeIds)
+    {
+        Map<Long, List<NodeIdAndAclId>> childrenAcls = new LinkedHashMap<Long, List<NodeIdAndAclId>>(nodeIds.size() * 2);
+        if (nodeIds.isEmpty())
+        {
+            return childrenAcls;
+        }
+        for (ChildAssocEntity childAssoc : selectPrimaryChildAcls(nodeIds))
+        {
+            childrenAcls.computeIfAbsent(childAssoc.getParentNode().getId(), parentNodeId -> new ArrayList<NodeIdAndAclId>())
+                    .add(childAssoc.getChildNode());
+        }
+        return childrenAcls;
+    }
     
     @Override
     public Pair<Long, ChildAssociationRef> getChildAssoc(
@@ -3846,13 +3926,22 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
     {
         // create storage for the paths - only need 1 bucket if we are looking for the primary path
         List<Path> paths = new ArrayList<Path>(primaryOnly ? 1 : 10);
-        // create an empty current path to start from
-        Path currentPath = new Path();
-        // create storage for touched associations
-        Stack<Long> assocIdStack = new Stack<Long>();
-        
-        // call recursive method to sort it out
-        prependPaths(nodePair, null, currentPath, paths, assocIdStack, primaryOnly);
+        if (nodePathsCache != null)
+        {
+            // build on the cached paths of the ancestors
+            NodePathsCache.Entry entry = resolvePaths(nodePair, primaryOnly, new HashMap<Long, NodePathsCache.Entry>(), new HashSet<Long>());
+            copyPaths(entry, paths);
+        }
+        else
+        {
+            // create an empty current path to start from
+            Path currentPath = new Path();
+            // create storage for touched associations
+            Stack<Long> assocIdStack = new Stack<Long>();
+
+            // call recursive method to sort it out
+            prependPaths(nodePair, null, currentPath, paths, assocIdStack, primaryOnly);
+        }
         
         // check that for the primary only case we have exactly one path
         if (primaryOnly && paths.size() != 1)
@@ -3882,6 +3971,184 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
         return paths;
     }
     
+    @Override
+    public Map<Long, List<Path>> getPaths(Collection<Long> nodeIds, boolean primaryOnly)
+    {
+        List<Long> nodeIdsToLoad = new ArrayList<Long>(nodeIds);
+        cacheNodesById(nodeIdsToLoad);
+
+        // ancestors shared by the nodes are only resolved once
+        Map<Long, NodePathsCache.Entry> resolved = new HashMap<Long, NodePathsCache.Entry>();
+        Map<Long, List<Path>> pathsByNodeId = new LinkedHashMap<Long, List<Path>>(nodeIds.size() * 2);
+        for (Long nodeId : nodeIdsToLoad)
+        {
+            Pair<Long, NodeRef> nodePair = getNodePair(nodeId);
+            if (nodePair == null)
+            {
+                // Deleted or purged
+                continue;
+            }
+            NodePathsCache.Entry entry = resolvePaths(nodePair, primaryOnly, resolved, new HashSet<Long>());
+            List<Path> paths = new ArrayList<Path>(entry.getPaths().size());
+            copyPaths(entry, paths);
+            if (primaryOnly && paths.size() != 1)
+            {
+                throw new RuntimeException("Node has " + paths.size() + " primary paths: " + nodePair);
+            }
+            pathsByNodeId.put(nodeId, paths);
+        }
+        return pathsByNodeId;
+    }
+
+    /**
+     * Copy the shared paths of a cache entry for a caller that may modify them
+     */
+    private void copyPaths(NodePathsCache.Entry entry, List<Path> paths)
+    {
+        for (Path path : entry.getPaths())
+        {
+            paths.add(new Path().append(path));
+        }
+    }
+
+    /**
+     * Resolve the paths of a node from the resolved paths of its parents.  The cached paths of a node are
+     * reused if they were built from the node's current parent associations and its parents' current paths.
+     * 
+     * @param nodePair              the node to resolve
+     * @param primaryOnly           <tt>true</tt> to follow only primary parent associations
+     * @param resolved              the nodes already resolved by this call
+     * @param resolving             the nodes whose parents are being resolved, to detect cyclic relationships
+     * @throws CyclicChildRelationshipException
+     */
+    private NodePathsCache.Entry resolvePaths(
+            Pair<Long, NodeRef> nodePair,
+            boolean primaryOnly,
+            Map<Long, NodePathsCache.Entry> resolved,
+            Set<Long> resolving) throws CyclicChildRelationshipException
+    {
+        Long nodeId = nodePair.getFirst();
+        NodePathsCache.Entry entry = resolved.get(nodeId);
+        if (entry != null)
+        {
+            return entry;
+        }
+
+        // get the parent associations of the given node
+        ParentAssocsInfo parentAssocInfo = getParentAssocsCached(nodeId); // note: currently may throw NotLiveNodeException
+        int parentCount = parentAssocInfo.getParentAssocs().size();
+        List<ChildAssociationRef> assocRefs = new ArrayList<ChildAssociationRef>(parentCount);
+        List<Long> parentNodeIds = new ArrayList<Long>(parentCount);
+        for (ChildAssocEntity assoc : parentAssocInfo.getParentAssocs().values())
+        {
+            ChildAssociationRef assocRef = assoc.getRef(qnameDAO);
+            if (primaryOnly && !assocRef.isPrimary())
+            {
+                continue;
+            }
+            assocRefs.add(assocRef);
+            parentNodeIds.add(assoc.getParentNode().getId());
+        }
+        // bulk load parents as we are certain to hit them next
+        cacheNodesById(parentNodeIds);
+
+        resolving.add(nodeId);
+        NodePathsCache.Entry[] parentEntries = new NodePathsCache.Entry[assocRefs.size()];
+        for (int i = 0; i < parentEntries.length; i++)
+        {
+            Long parentNodeId = parentNodeIds.get(i);
+            ChildAssociationRef assocRef = assocRefs.get(i);
+            if (resolving.contains(parentNodeId))
+            {
+                logger.error(
+                        "Cyclic parent-child relationship detected: \n" +
+                        "   current node: " + nodeId + "\n" +
+                        "   next assoc: " + assocRef);
+                throw new CyclicChildRelationshipException("Node has been pasted into its own tree.", assocRef);
+            }
+            Pair<Long, NodeRef> parentNodePair = new Pair<Long, NodeRef>(parentNodeId, assocRef.getParentRef());
+            parentEntries[i] = resolvePaths(parentNodePair, primaryOnly, resolved, resolving);
+        }
+        resolving.remove(nodeId);
+
+        NodePathsCache.Entry cachedEntry = (nodePathsCache == null) ? null : nodePathsCache.get(nodeId, primaryOnly);
+        if (cachedEntry != null && cachedEntry.isBuiltFrom(parentAssocInfo, parentEntries))
+        {
+            entry = cachedEntry;
+        }
+        else
+        {
+            List<Path> paths = buildPaths(nodePair, parentAssocInfo, assocRefs, parentEntries, primaryOnly);
+            entry = new NodePathsCache.Entry(parentAssocInfo, parentEntries, paths);
+            if (nodePathsCache != null)
+            {
+                nodePathsCache.put(nodeId, primaryOnly, entry);
+            }
+        }
+        resolved.put(nodeId, entry);
+        return entry;
+    }
+
+    /**
+     * Build the paths of a node by extending the paths of its parents.  The result is the same as that of
+     * {@link #prependPaths(Pair, Pair, Path, Collection, Stack, boolean)}.
+     */
+    private List<Path> buildPaths(
+            Pair<Long, NodeRef> nodePair,
+            ParentAssocsInfo parentAssocInfo,
+            List<ChildAssociationRef> assocRefs,
+            NodePathsCache.Entry[] parentEntries,
+            boolean primaryOnly)
+    {
+        List<Path> paths = new ArrayList<Path>(primaryOnly ? 1 : parentEntries.length + 1);
+
+        // look for a root. If we only want the primary root, then ignore all but the top-level root.
+        boolean hasParents = parentAssocInfo.getParentAssocs().size() > 0;
+        if (!(primaryOnly && hasParents) && parentAssocInfo.isRoot())
+        {
+            // the path of a root is a one-sided assoc ref for the root node of its store
+            NodeRef rootNodeRef = getRootNode(nodePair.getSecond().getStoreRef()).getSecond();
+            Path path = new Path();
+            path.append(new Path.ChildAssocElement(new ChildAssociationRef(null, null, null, rootNodeRef)));
+            paths.add(path);
+        }
+
+        for (int i = 0; i < parentEntries.length; i++)
+        {
+            ChildAssociationRef assocRef = assocRefs.get(i);
+            // Ordering is meaningless here as we are constructing a path upwards
+            // and have no idea where the node comes in the sibling order or even
+            // if there are like-pathed siblings.
+            assocRef.setNthSibling(-1);
+            Path.Element element = new Path.ChildAssocElement(assocRef);
+            NodePathsCache.Entry parentEntry = parentEntries[i];
+            for (Path parentPath : parentEntry.getPaths())
+            {
+                Path path = new Path();
+                if (parentPath.size() == 1)
+                {
+                    // the parent is a root: mimic an association that would appear if the current node was below the
+                    // root node or if first beneath the root node it will make the real thing
+                    Path.ChildAssocElement rootElement = (Path.ChildAssocElement) parentPath.first();
+                    ChildAssociationRef updateAssocRef = new ChildAssociationRef(
+                            parentEntry.getParentAssocsInfo().isStoreRoot() ? ContentModel.ASSOC_CHILDREN : assocRef.getTypeQName(),
+                            rootElement.getRef().getChildRef(),
+                            assocRef.getQName(),
+                            assocRef.getChildRef());
+                    path.append(rootElement);
+                    path.append(new Path.ChildAssocElement(updateAssocRef));
+                }
+                else
+                {
+                    path.append(parentPath);
+                    path.append(element);
+                }
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
     private void bindFixAssocAndCollectLostAndFound(final Pair<Long, NodeRef> lostNodePair, final String lostName, final Long assocId, final boolean orphanChild)
     {
         // Remember the items already deleted in inner transactions
@@ -4391,6 +4658,10 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
         Node node = getNodeNotNull(nodeId, false);
         Pair<Long, String> cacheKey = new Pair<Long, String>(nodeId, node.getTransaction().getChangeTxnId());
         parentAssocsCache.put(cacheKey, parentAssocs);
+        if (nodePathsCache != null)
+        {
+            nodePathsCache.remove(nodeId);
+        }
     }
     
     /**
@@ -4430,6 +4701,10 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
                 parentAssocsCache.remove(new Pair<Long, String>(nodeId, currentTransactionId));
             }
         }                        
+        if (nodePathsCache != null)
+        {
+            nodePathsCache.remove(nodeId);
+        }
     }
     
     private ParentAssocsInfo loadParentAssocs(NodeVersionKey nodeVersionKey)
@@ -4610,6 +4885,79 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
         }
     }
 
+    @Override
+    public void cacheParentAssocs(List<Long> nodeIds)
+    {
+        int batchSize = 256;
+        Map<Long, Node> batch = new HashMap<Long, Node>(batchSize * 2);
+        for (Long nodeId : nodeIds)
+        {
+            // Only cached, live nodes without cached parent associations are loaded
+            Node node = nodesCache.getValue(nodeId);
+            if (node == null || node.getDeleted(qnameDAO))
+            {
+                continue;
+            }
+            Pair<Long, String> cacheKey = new Pair<Long, String>(nodeId, node.getTransaction().getChangeTxnId());
+            if (parentAssocsCache.get(cacheKey) != null)
+            {
+                continue;
+            }
+            batch.put(nodeId, node);
+            if (batch.size() >= batchSize)
+            {
+                cacheParentAssocsBatch(batch);
+                batch.clear();
+            }
+        }
+        // Load any remaining parent associations
+        if (batch.size() > 0)
+        {
+            cacheParentAssocsBatch(batch);
+        }
+    }
+
+    /**
+     * Bulk-fetch the parent associations of the given nodes.  Nodes without parents, or whose parent associations
+     * were selected against a different version of the node, are left for {@link #getParentAssocsCached(Long)} to
+     * load and check.
+     */
+    private void cacheParentAssocsBatch(Map<Long, Node> nodes)
+    {
+        List<ChildAssocEntity> assocs = selectParentAssocs(new TreeSet<Long>(nodes.keySet()));
+        Map<Long, List<ChildAssocEntity>> assocsByChildNodeId = new HashMap<Long, List<ChildAssocEntity>>(nodes.size() * 2);
+        for (ChildAssocEntity assoc : assocs)
+        {
+            Long childNodeId = assoc.getChildNode().getId();
+            List<ChildAssocEntity> childNodeAssocs = assocsByChildNodeId.get(childNodeId);
+            if (childNodeAssocs == null)
+            {
+                childNodeAssocs = new ArrayList<ChildAssocEntity>(2);
+                assocsByChildNodeId.put(childNodeId, childNodeAssocs);
+            }
+            childNodeAssocs.add(assoc);
+        }
+        for (Map.Entry<Long, List<ChildAssocEntity>> entry : assocsByChildNodeId.entrySet())
+        {
+            Long nodeId = entry.getKey();
+            List<ChildAssocEntity> childNodeAssocs = entry.getValue();
+            Node node = nodes.get(nodeId);
+            NodeVersionKey childNodeVersionKeyFromDb = childNodeAssocs.get(0).getChildNode().getNodeVersionKey();
+            if (!childNodeVersionKeyFromDb.equals(node.getNodeVersionKey()))
+            {
+                continue;
+            }
+            boolean isRoot = hasNodeAspect(nodeId, ContentModel.ASPECT_ROOT);
+            boolean isStoreRoot = getNodeType(nodeId).equals(ContentModel.TYPE_STOREROOT);
+            Pair<Long, String> cacheKey = new Pair<Long, String>(nodeId, node.getTransaction().getChangeTxnId());
+            parentAssocsCache.put(cacheKey, new ParentAssocsInfo(isRoot, isStoreRoot, childNodeAssocs));
+        }
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Pre-loaded parent associations of " + assocsByChildNodeId.size() + " nodes.");
+        }
+    }
+
 	/**
      * {@inheritDoc}
      * <p/>
@@ -4954,6 +5302,11 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
             Long primaryParentNodeId,
             Long optionalOldSharedAlcIdInAdditionToNull,
             Long newSharedAlcId);
+    protected abstract int updateNodesSharedAclId(
+            Long txnId,
+            List<Long> nodeIds,
+            Long oldSharedAclId,
+            Long newSharedAclId);
     protected abstract int deleteNodeById(Long nodeId);
     protected abstract int deleteNodesByCommitTime(long fromTxnCommitTimeMs, long toTxnCommitTimeMs);
     protected abstract NodeEntity selectNodeById(Long id);
@@ -4981,6 +5334,7 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
             List<Long> qnameIds,
             Long minNodeId, Long maxNodeId, boolean ordered, int maxResults,
             NodeRefQueryCallback resultsCallback);
+    protected abstract List<Long> selectNodeIdsWithAspect(Long qnameId, List<Long> nodeIds);
     protected abstract Long insertNodeAssoc(Long sourceNodeId, Long targetNodeId, Long assocTypeQNameId, int assocIndex);
     protected abstract int updateNodeAssoc(Long id, int assocIndex);
     protected abstract int deleteNodeAssoc(Long sourceNodeId, Long targetNodeId, Long assocTypeQNameId);
@@ -5008,6 +5362,7 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
             Long minAssocIdInclusive,
             int maxResults);
     protected abstract List<NodeIdAndAclId> selectPrimaryChildAcls(Long nodeId);
+    protected abstract List<ChildAssocEntity> selectPrimaryChildAcls(List<Long> nodeIds);
     protected abstract List<ChildAssocEntity> selectChildAssoc(
             Long parentNodeId,
             Long childNodeId,
@@ -5066,6 +5421,7 @@ public abstract class AbstractNodeDAOImpl implements NodeDAO, BatchingDAO
             Boolean isPrimary,
             ChildAssocRefQueryCallback resultsCallback);
     protected abstract List<ChildAssocEntity> selectParentAssocs(Long childNodeId);
+    protected abstract List<ChildAssocEntity> selectParentAssocs(SortedSet<Long> childNodeIds);
     /**
      * No DB constraint, so multiple returned
      */
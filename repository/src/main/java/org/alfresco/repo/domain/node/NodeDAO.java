@@ -265,6 +265,17 @@ public interface NodeDAO extends NodeBulkLoader
             Long optionalOldSharedAlcIdInAdditionToNull,
             Long newSharedAclId);
     
+    /**
+     * Replace the shared ACL of a set of nodes in a single statement.  Nodes that no longer carry
+     * the old ACL are left untouched.
+     * 
+     * @param nodeIds               the nodes to update
+     * @param oldSharedAclId        the ACL the nodes must still have or <tt>null</tt> for nodes without an ACL
+     * @param newSharedAclId        the new ACL
+     * @return                      the number of nodes updated
+     */
+    public int setNodesSharedAclId(List<Long> nodeIds, Long oldSharedAclId, Long newSharedAclId);
+    
     /**
      * An object that contains data giving a 'view' of the node to be deleted.
      * It is used for ensuring that node cleanup is only done for node-related
@@ -443,6 +454,15 @@ public interface NodeDAO extends NodeBulkLoader
             Long minNodeId, Long maxNodeId, boolean ordered, int maxResults,
             NodeRefQueryCallback resultsCallback);
 
+    /**
+     * Find which of the given nodes have an aspect
+     * 
+     * @param aspectQName               the aspect that must be on the nodes
+     * @param nodeIds                   the nodes to check
+     * @return                          Returns the IDs of the given nodes that have the aspect
+     */
+    public Set<Long> getNodeIdsWithAspect(QName aspectQName, List<Long> nodeIds);
+
     /*
      * Node Assocs
      */
@@ -789,6 +809,14 @@ public interface NodeDAO extends NodeBulkLoader
      */
     public List<NodeIdAndAclId> getPrimaryChildrenAcls(Long nodeId);
     
+    /**
+     * Fetch the <i>primary</i> child node IDs and corresponding ACL IDs of several parents in one query.
+     * 
+     * @param nodeIds               the parent node IDs
+     * @return                      Returns the Node ID - ACL ID pairs of the children, keyed by parent node ID
+     */
+    public Map<Long, List<NodeIdAndAclId>> getPrimaryChildrenAcls(List<Long> nodeIds);
+    
     /**
      * Build the paths for a node.
      * 
@@ -799,6 +827,18 @@ public interface NodeDAO extends NodeBulkLoader
      * @param primaryOnly           <tt>true</tt> to follow only primary parent associations
      */
     public List<Path> getPaths(Pair<Long, NodeRef> nodePair, boolean primaryOnly) throws InvalidNodeRefException;
+
+    /**
+     * Build the paths for several nodes at once.  Ancestors shared by the nodes are only resolved once.
+     * 
+     * When searching for <code>primaryOnly == true</code>, checks that each node has exactly
+     * one path.
+     * 
+     * @param nodeIds               the nodes to build the paths for
+     * @param primaryOnly           <tt>true</tt> to follow only primary parent associations
+     * @return                      the paths by node ID, in the order given, leaving out nodes that no longer exist
+     */
+    public Map<Long, List<Path>> getPaths(Collection<Long> nodeIds, boolean primaryOnly);
     
     /**
      * Perform a check for cyclic relationships
@@ -0,0 +1,159 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.domain.node;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.alfresco.service.cmr.repository.Path;
+import org.alfresco.util.Pair;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Holds the resolved paths of nodes for {@link AbstractNodeDAOImpl#getPaths(Pair, boolean)}.
+ * <p>
+ * An entry remembers the parent associations and the stamps of the parent entries that its paths were built from. It
+ * is reused only while the node's current parent associations are the very same instance and its parents' current
+ * entries carry the same stamps. Parent associations are cached per node version and replaced whenever they change,
+ * so a move or rename of any ancestor causes every entry below it to be rebuilt the next time it is used, without the
+ * subtree having to be visited up front.
+ * <p>
+ * Entries do not refer to the entries of their parents, so an evicted or replaced entry is not kept alive by the
+ * entries below it. The cache is bounded by the total number of path elements and parent associations it holds.
+ */
+class NodePathsCache
+{
+    private static final AtomicLong nextStamp = new AtomicLong();
+
+    /**
+     * The paths of a node and what they were built from. Instances are never modified.
+     */
+    static class Entry
+    {
+        private final long stamp;
+        private final ParentAssocsInfo parentAssocsInfo;
+        private final long[] parentStamps;
+        private final List<Path> paths;
+        private final int weight;
+
+        Entry(ParentAssocsInfo parentAssocsInfo, Entry[] parentEntries, List<Path> paths)
+        {
+            this.stamp = nextStamp.incrementAndGet();
+            this.parentAssocsInfo = parentAssocsInfo;
+            this.parentStamps = new long[parentEntries.length];
+            for (int i = 0; i < parentEntries.length; i++)
+            {
+                this.parentStamps[i] = parentEntries[i].stamp;
+            }
+            this.paths = paths;
+            // the retained parent associations count towards the weight as well as the path elements
+            int elements = 1 + parentAssocsInfo.getParentAssocs().size();
+            for (Path path : paths)
+            {
+                elements += path.size();
+            }
+            this.weight = elements;
+        }
+
+        ParentAssocsInfo getParentAssocsInfo()
+        {
+            return parentAssocsInfo;
+        }
+
+        /**
+         * @return the paths of the node; these are shared and must be copied before being handed out
+         */
+        List<Path> getPaths()
+        {
+            return paths;
+        }
+
+        int getWeight()
+        {
+            return weight;
+        }
+
+        /**
+         * @return <tt>true</tt> if the entry was built from exactly these parent associations and parent entries
+         */
+        boolean isBuiltFrom(ParentAssocsInfo parentAssocsInfo, Entry[] parentEntries)
+        {
+            if (this.parentAssocsInfo != parentAssocsInfo || this.parentStamps.length != parentEntries.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < parentEntries.length; i++)
+            {
+                if (this.parentStamps[i] != parentEntries[i].stamp)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Cache<Pair<Long, Boolean>, Entry> cache;
+
+    /**
+     * @param size          the expected number of nodes whose paths are cached
+     * @param limitFactor   the expected number of path elements and parent associations per node; multiplied by the
+     *                      size to give the limit on the total number of cached path elements and parent associations
+     */
+    NodePathsCache(int size, int limitFactor)
+    {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight((long) size * limitFactor)
+                .weigher((Pair<Long, Boolean> key, Entry entry) -> entry.getWeight())
+                .build();
+    }
+
+    Entry get(Long nodeId, boolean primaryOnly)
+    {
+        return cache.getIfPresent(new Pair<Long, Boolean>(nodeId, primaryOnly));
+    }
+
+    void put(Long nodeId, boolean primaryOnly, Entry entry)
+    {
+        cache.put(new Pair<Long, Boolean>(nodeId, primaryOnly), entry);
+    }
+
+    /**
+     * Drop the entries of a node whose parent associations changed. Entries below it are rebuilt when next used.
+     */
+    void remove(Long nodeId)
+    {
+        cache.invalidate(new Pair<Long, Boolean>(nodeId, Boolean.TRUE));
+        cache.invalidate(new Pair<Long, Boolean>(nodeId, Boolean.FALSE));
+    }
+
+    void clear()
+    {
+        cache.invalidateAll();
+    }
+}
@@ -25,6 +25,8 @@
  */
 package org.alfresco.repo.domain.node;
 
+import java.util.List;
+
 /**
  * Carry bulk acl update info.
  * 
@@ -38,6 +40,9 @@ public class PrimaryChildrenAclUpdateEntity
     Long primaryParentNodeId; 
     Long optionalOldSharedAclIdInAdditionToNull;
     Long newSharedAclId;
+    List<Long> primaryParentNodeIds;
+    List<Long> nodeIds;
+    Long oldSharedAclId;
     
     public PrimaryChildrenAclUpdateEntity()
     {
@@ -83,6 +88,45 @@ public class PrimaryChildrenAclUpdateEntity
         this.newSharedAclId = newSharedAclId;
     }
     
+    /**
+     * @return the parent nodes whose primary children are selected together
+     */
+    public List<Long> getPrimaryParentNodeIds()
+    {
+        return primaryParentNodeIds;
+    }
+
+    public void setPrimaryParentNodeIds(List<Long> primaryParentNodeIds)
+    {
+        this.primaryParentNodeIds = primaryParentNodeIds;
+    }
+
+    /**
+     * @return the nodes updated together
+     */
+    public List<Long> getNodeIds()
+    {
+        return nodeIds;
+    }
+
+    public void setNodeIds(List<Long> nodeIds)
+    {
+        this.nodeIds = nodeIds;
+    }
+
+    /**
+     * @return the ACL the updated nodes must still have, <tt>null</tt> for nodes without an ACL
+     */
+    public Long getOldSharedAclId()
+    {
+        return oldSharedAclId;
+    }
+
+    public void setOldSharedAclId(Long oldSharedAclId)
+    {
+        this.oldSharedAclId = oldSharedAclId;
+    }
+
     public boolean getIsPrimary()
     {
         return true;
@@ -109,6 +109,7 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
     private static final String SELECT_NODE_ASPECTS = "alfresco.node.select_NodeAspects";
     private static final String INSERT_NODE_PROPERTY = "alfresco.node.insert_NodeProperty";
     private static final String UPDATE_PRIMARY_CHILDREN_SHARED_ACL = "alfresco.node.update.update_PrimaryChildrenSharedAcl";
+    private static final String UPDATE_NODES_SHARED_ACL = "alfresco.node.update_NodesSharedAcl";
     private static final String INSERT_NODE_ASPECT = "alfresco.node.insert_NodeAspect";
     private static final String DELETE_NODE_ASPECTS = "alfresco.node.delete_NodeAspects";
     private static final String DELETE_NODE_PROPERTIES = "alfresco.node.delete_NodeProperties";
@@ -117,6 +118,7 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
     private static final String SELECT_NODE_INTERVAL_BY_TYPE = "alfresco.node.select_MinMaxNodeIdForNodeType";
     private static final String SELECT_NODES_WITH_ASPECT_IDS = "alfresco.node.select_NodesWithAspectIds";
     private static final String SELECT_NODES_WITH_ASPECT_IDS_LIMITED = "alfresco.node.select_NodesWithAspectIds_Limited";
+    private static final String SELECT_NODE_IDS_WITH_ASPECT_ID = "alfresco.node.select_NodeIdsWithAspectId";
     private static final String INSERT_NODE_ASSOC = "alfresco.node.insert.insert_NodeAssoc";
     private static final String UPDATE_NODE_ASSOC = "alfresco.node.update_NodeAssoc";
     private static final String DELETE_NODE_ASSOC = "alfresco.node.delete_NodeAssoc";
@@ -128,6 +130,7 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
     private static final String SELECT_NODE_ASSOCS_MAX_INDEX = "alfresco.node.select_NodeAssocsMaxId";
     private static final String SELECT_CHILD_NODE_IDS = "alfresco.node.select.children.select_ChildNodeIds_Limited";
     private static final String SELECT_NODE_PRIMARY_CHILD_ACLS = "alfresco.node.select_NodePrimaryChildAcls";
+    private static final String SELECT_NODES_PRIMARY_CHILD_ACLS = "alfresco.node.select_NodesPrimaryChildAcls";
     private static final String INSERT_CHILD_ASSOC = "alfresco.node.insert.insert_ChildAssoc";
     private static final String DELETE_CHILD_ASSOCS = "alfresco.node.delete_ChildAssocs";
     private static final String UPDATE_CHILD_ASSOCS_INDEX = "alfresco.node.update_ChildAssocsIndex";
@@ -145,6 +148,7 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
     private static final String SELECT_CHILD_ASSOCS_OF_PARENT_WITHOUT_NODE_ASSOCS_OF_TYPE =
             "alfresco.node.select_ChildAssocsOfParentWithoutNodeAssocsOfType";
     private static final String SELECT_PARENT_ASSOCS_OF_CHILD = "alfresco.node.select_ParentAssocsOfChild";
+    private static final String SELECT_PARENT_ASSOCS_OF_CHILDREN = "alfresco.node.select_ParentAssocsOfChildren";
     private static final String UPDATE_PARENT_ASSOCS_OF_CHILD = "alfresco.node.update_ParentAssocsOfChild";
     private static final String DELETE_SUBSCRIPTIONS = "alfresco.node.delete_NodeSubscriptions";
     
@@ -403,6 +407,22 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
         template.update(UPDATE_PRIMARY_CHILDREN_SHARED_ACL, primaryChildrenAclUpdateEntity);
     }
 
+    @Override
+    protected int updateNodesSharedAclId(
+            Long txnId,
+            List<Long> nodeIds,
+            Long oldSharedAclId,
+            Long newSharedAclId)
+    {
+        PrimaryChildrenAclUpdateEntity nodesAclUpdateEntity = new PrimaryChildrenAclUpdateEntity();
+        nodesAclUpdateEntity.setTxnId(txnId);
+        nodesAclUpdateEntity.setNodeIds(nodeIds);
+        nodesAclUpdateEntity.setOldSharedAclId(oldSharedAclId);
+        nodesAclUpdateEntity.setNewSharedAclId(newSharedAclId);
+
+        return template.update(UPDATE_NODES_SHARED_ACL, nodesAclUpdateEntity);
+    }
+
     @Override
     protected int deleteNodeById(Long nodeId)
     {
@@ -827,6 +847,15 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
         template.select(SELECT_NODES_WITH_ASPECT_IDS_LIMITED, parameters, resultHandler);
     }
 
+    @Override
+    protected List<Long> selectNodeIdsWithAspect(Long qnameId, List<Long> nodeIds)
+    {
+        IdsEntity parameters = new IdsEntity();
+        parameters.setIdOne(qnameId);
+        parameters.setIds(nodeIds);
+        return template.selectList(SELECT_NODE_IDS_WITH_ASPECT_ID, parameters);
+    }
+
     @Override
     protected Long insertNodeAssoc(Long sourceNodeId, Long targetNodeId, Long assocTypeQNameId, int assocIndex)
     {
@@ -1053,6 +1082,15 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
         return template.selectList(SELECT_NODE_PRIMARY_CHILD_ACLS, assoc);
     }
 
+    @Override
+    public List<ChildAssocEntity> selectPrimaryChildAcls(List<Long> nodeIds)
+    {
+        PrimaryChildrenAclUpdateEntity childrenAclQuery = new PrimaryChildrenAclUpdateEntity();
+        childrenAclQuery.setPrimaryParentNodeIds(nodeIds);
+
+        return template.selectList(SELECT_NODES_PRIMARY_CHILD_ACLS, childrenAclQuery);
+    }
+
     @Override
     protected List<ChildAssocEntity> selectChildAssoc(
             Long parentNodeId,
@@ -1556,6 +1594,16 @@ public class NodeDAOImpl extends AbstractNodeDAOImpl
         return template.selectList(SELECT_PARENT_ASSOCS_OF_CHILD, assoc);
     }
 
+    @Override
+    protected List<ChildAssocEntity> selectParentAssocs(SortedSet<Long> childNodeIds)
+    {
+        NodeBatchLoadEntity nodeBatchLoadEntity = new NodeBatchLoadEntity();
+        // IDs
+        nodeBatchLoadEntity.setIds(new ArrayList<Long>(childNodeIds));
+        
+        return template.selectList(SELECT_PARENT_ASSOCS_OF_CHILDREN, nodeBatchLoadEntity);
+    }
+
     @Override
     protected int updatePrimaryParentAssocs(
             Long childNodeId,
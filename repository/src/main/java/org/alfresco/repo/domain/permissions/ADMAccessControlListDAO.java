@@ -26,7 +26,10 @@
 package org.alfresco.repo.domain.permissions;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -75,6 +78,9 @@ public class ADMAccessControlListDAO implements AccessControlListDAO
     /**maxim transaction time allowed for {@link #setFixedAcls(Long, Long, Long, Long, List, boolean, AsyncCallParameters, boolean)} */
     private long fixedAclMaxTransactionTime = 10 * 1000;
 
+    /** number of nodes per statement when propagating shared ACLs in batches, 0 to propagate node by node */
+    private int propagationBatchSize = 0;
+
     public void setNodeDAO(NodeDAO nodeDAO)
     {
         this.nodeDAO = nodeDAO;
@@ -90,6 +96,16 @@ public class ADMAccessControlListDAO implements AccessControlListDAO
         this.fixedAclMaxTransactionTime = fixedAclMaxTransactionTime;
     }
     
+    /**
+     * @param propagationBatchSize
+     *            the number of nodes moved to a new shared ACL by a single statement, or 0 to keep propagating shared
+     *            ACLs node by node
+     */
+    public void setPropagationBatchSize(int propagationBatchSize)
+    {
+        this.propagationBatchSize = propagationBatchSize;
+    }
+    
     public void setBehaviourFilter(BehaviourFilter behaviourFilter)
     {
         this.behaviourFilter = behaviourFilter;
@@ -424,7 +440,11 @@ public class ADMAccessControlListDAO implements AccessControlListDAO
         {
             return;
         }
-        else
+        else if (propagateOnChildren && propagationBatchSize > 0)
+        {
+            setFixedAclsInBatches(nodeId, inheritFrom, mergeFrom, sharedAclToReplace, set, forceSharedACL);
+        }
+        else
         {
             // When node is copied when the aspect is applied, the sharedACLtoReplace will not match the children's ACLS
             // to replace, we need to use the current one.
@@ -554,15 +574,27 @@ public class ADMAccessControlListDAO implements AccessControlListDAO
             List<AclChange> changes, boolean set, boolean asyncCall, boolean propagateOnChildren, boolean forceSharedACL)
     {
         // check transaction time
-        long transactionStartTime = AlfrescoTransactionSupport.getTransactionStartTime();
-        long transactionTime = System.currentTimeMillis() - transactionStartTime;
-        if (transactionTime < fixedAclMaxTransactionTime)
+        if (!isFixedAclTransactionTimeExceeded())
         {
             // make regular method call if time is under max transaction configured time
             setFixedAcls(nodeId, inheritFrom, mergeFrom, sharedAclToReplace, changes, set, asyncCall, propagateOnChildren, forceSharedACL);
             return true;
         }
 
+        markFixedAclPending(nodeId, inheritFrom, mergeFrom, sharedAclToReplace);
+        // stop propagating on children nodes
+        return false;
+    }
+
+    private boolean isFixedAclTransactionTimeExceeded()
+    {
+        long transactionStartTime = AlfrescoTransactionSupport.getTransactionStartTime();
+        long transactionTime = System.currentTimeMillis() - transactionStartTime;
+        return transactionTime >= fixedAclMaxTransactionTime;
+    }
+
+    private void markFixedAclPending(Long nodeId, Long inheritFrom, Long mergeFrom, Long sharedAclToReplace)
+    {
         // If flag is still unset or false, the call until now has been sync and will turn async, we should throw a
         // warning
         if (log.isWarnEnabled() && (AlfrescoTransactionSupport.getResource(FixedAclUpdater.FIXED_ACL_ASYNC_REQUIRED_KEY) == null
@@ -576,10 +608,182 @@ public class ADMAccessControlListDAO implements AccessControlListDAO
         // FIXED_ACL_ASYNC_REQUIRED_KEY
         addFixedAclPendingAspect(nodeId, sharedAclToReplace, inheritFrom, mergeFrom);
         AlfrescoTransactionSupport.bindResource(FixedAclUpdater.FIXED_ACL_ASYNC_REQUIRED_KEY, true);
-        // stop propagating on children nodes
-        return false;
     }
-
+
+    /**
+     * A node whose own shared ACL has been set and whose primary children still have to be visited
+     */
+    private static class SharedAclParent
+    {
+        private final Long nodeId;
+        private final Long sharedAclToReplace;
+        private final Long previousAcl;
+
+        SharedAclParent(Long nodeId, Long sharedAclToReplace, Long previousAcl)
+        {
+            this.nodeId = nodeId;
+            this.sharedAclToReplace = sharedAclToReplace;
+            this.previousAcl = previousAcl;
+        }
+    }
+
+    /**
+     * Set-based equivalent of the recursion in
+     * {@link #setFixedAcls(Long, Long, Long, Long, List, boolean, boolean, boolean, boolean)}. The primary children of
+     * up to <code>propagationBatchSize</code> parents are read with one query and the children without an ACL or still
+     * carrying the replaced shared ACL are moved to the new one with one statement per old ACL. The subtree is walked
+     * depth first, a batch at a time, and when the transaction time runs out the parents not yet visited are left to
+     * the {@link FixedAclUpdater}, as the recursion does.
+     */
+    private void setFixedAclsInBatches(Long nodeId, Long inheritFrom, Long mergeFrom, Long sharedAclToReplace, boolean set,
+            boolean forceSharedACL)
+    {
+        Long currentAcl = nodeDAO.getNodeAclId(nodeId);
+
+        // Lazily retrieve/create the shared ACL
+        if (mergeFrom == null)
+        {
+            mergeFrom = aclDaoComponent.getInheritedAccessControlList(inheritFrom);
+        }
+
+        if (set)
+        {
+            nodeDAO.setNodeAclId(nodeId, mergeFrom);
+        }
+
+        Deque<List<SharedAclParent>> parentBatches = new ArrayDeque<>();
+        parentBatches.push(Collections.singletonList(new SharedAclParent(nodeId, sharedAclToReplace, currentAcl)));
+        // The children of the starting node are always done, so that each call makes progress
+        boolean first = true;
+        while (!parentBatches.isEmpty())
+        {
+            List<SharedAclParent> parents = parentBatches.pop();
+            if (!first && isFixedAclTransactionTimeExceeded())
+            {
+                parentBatches.push(parents);
+                for (List<SharedAclParent> pendingParents : parentBatches)
+                {
+                    // Nodes without children are already done
+                    List<Long> pendingParentIds = new ArrayList<>(pendingParents.size());
+                    for (SharedAclParent pendingParent : pendingParents)
+                    {
+                        pendingParentIds.add(pendingParent.nodeId);
+                    }
+                    Set<Long> parentIdsWithChildren = nodeDAO.getPrimaryChildrenAcls(pendingParentIds).keySet();
+                    for (SharedAclParent pendingParent : pendingParents)
+                    {
+                        if (parentIdsWithChildren.contains(pendingParent.nodeId))
+                        {
+                            markFixedAclPending(pendingParent.nodeId, inheritFrom, mergeFrom, pendingParent.sharedAclToReplace);
+                        }
+                    }
+                }
+                return;
+            }
+            first = false;
+
+            List<SharedAclParent> children = setFixedAclsOnChildren(parents, mergeFrom, forceSharedACL);
+            // Push the batches in reverse so that they are visited in order
+            for (int end = children.size(); end > 0; end -= propagationBatchSize)
+            {
+                parentBatches.push(children.subList(Math.max(0, end - propagationBatchSize), end));
+            }
+        }
+    }
+
+    /**
+     * Moves the primary children of the given parents to the new shared ACL.
+     * 
+     * @return the children to visit next
+     */
+    private List<SharedAclParent> setFixedAclsOnChildren(List<SharedAclParent> parents, Long mergeFrom, boolean forceSharedACL)
+    {
+        List<Long> parentIds = new ArrayList<>(parents.size());
+        for (SharedAclParent parent : parents)
+        {
+            parentIds.add(parent.nodeId);
+        }
+        Set<Long> pendingParentIds = nodeDAO.getNodeIdsWithAspect(ContentModel.ASPECT_PENDING_FIX_ACL, parentIds);
+        Map<Long, List<NodeIdAndAclId>> childrenAcls = nodeDAO.getPrimaryChildrenAcls(parentIds);
+
+        List<SharedAclParent> children = new ArrayList<>();
+        Map<Long, List<Long>> childIdsByAcl = new HashMap<>();
+        for (SharedAclParent parent : parents)
+        {
+            Long sharedAclToReplace = parent.sharedAclToReplace;
+            if (pendingParentIds.contains(parent.nodeId))
+            {
+                // The pending node knows which shared ACL its children still have
+                sharedAclToReplace = (Long) nodeDAO.getNodeProperty(parent.nodeId, ContentModel.PROP_SHARED_ACL_TO_REPLACE);
+            }
+
+            List<NodeIdAndAclId> parentChildren = childrenAcls.getOrDefault(parent.nodeId, Collections.emptyList());
+            for (NodeIdAndAclId child : parentChildren)
+            {
+                Long acl = child.getAclId();
+                if (acl != null && !acl.equals(sharedAclToReplace) && !acl.equals(mergeFrom) && !acl.equals(parent.previousAcl))
+                {
+                    Acl dbAcl = aclDaoComponent.getAcl(acl);
+                    if (dbAcl.getAclType() == ACLType.LAYERED)
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                    else if (dbAcl.getAclType() == ACLType.SHARED && forceSharedACL)
+                    {
+                        log.warn("Forcing shared ACL on node: " + child.getId() + " ( "
+                                + nodeDAO.getNodePair(child.getId()).getSecond() + ") - " + dbAcl);
+                        // As in the recursion, the forced ACL is the one replaced from here on
+                        sharedAclToReplace = acl;
+                    }
+                    else if (dbAcl.getAclType() == ACLType.SHARED)
+                    {
+                        throw new ConcurrencyFailureException(
+                                "setFixedAcls: unexpected shared acl: " + dbAcl + " on node " + child.getId() + " ( "
+                                        + nodeDAO.getNodePair(child.getId()).getSecond() + ")");
+                    }
+                    else
+                    {
+                        if (dbAcl.getAclType() == ACLType.DEFINING && dbAcl.getInherits())
+                        {
+                            aclDaoComponent.mergeInheritedAccessControlList(mergeFrom, acl);
+                        }
+                        continue;
+                    }
+                }
+                children.add(new SharedAclParent(child.getId(), sharedAclToReplace, acl));
+            }
+
+            // Only the children without an ACL or with the replaced shared ACL move, as with
+            // NodeDAO.setPrimaryChildrenSharedAclId. Children that already had the parent's previous ACL are visited
+            // but keep their ACL.
+            for (NodeIdAndAclId child : parentChildren)
+            {
+                Long acl = child.getAclId();
+                if (acl == null || (acl.equals(sharedAclToReplace) && !acl.equals(mergeFrom)))
+                {
+                    childIdsByAcl.computeIfAbsent(acl, key -> new ArrayList<>()).add(child.getId());
+                }
+            }
+        }
+
+        for (Map.Entry<Long, List<Long>> entry : childIdsByAcl.entrySet())
+        {
+            List<Long> childIds = entry.getValue();
+            for (int start = 0; start < childIds.size(); start += propagationBatchSize)
+            {
+                // Children given another ACL since they were read are left alone, as with the recursion
+                List<Long> batch = childIds.subList(start, Math.min(start + propagationBatchSize, childIds.size()));
+                nodeDAO.setNodesSharedAclId(batch, entry.getKey(), mergeFrom);
+            }
+        }
+
+        for (Long pendingParentId : pendingParentIds)
+        {
+            removePendingAclAspect(pendingParentId);
+        }
+        return children;
+    }
+
     private void addFixedAclPendingAspect(Long nodeId, Long sharedAclToReplace, Long inheritFrom, Long mergeFrom)
     {
         Pair<Long, NodeRef> nodePair = nodeDAO.getNodePair(nodeId);
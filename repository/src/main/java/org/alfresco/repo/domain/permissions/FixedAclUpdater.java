@@ -27,25 +27,47 @@ package org.alfresco.repo.domain.permissions;
 
 import static org.apache.commons.lang3.BooleanUtils.toBoolean;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import com.google.common.collect.Sets;
 
+import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.model.ContentModel;
 import org.alfresco.repo.batch.BatchProcessWorkProvider;
 import org.alfresco.repo.batch.BatchProcessor;
 import org.alfresco.repo.batch.BatchProcessor.BatchProcessWorker;
+import org.alfresco.repo.batch.BatchProcessorDefaults;
 import org.alfresco.repo.domain.node.NodeDAO;
 import org.alfresco.repo.domain.node.NodeDAO.NodeRefQueryCallback;
 import org.alfresco.repo.lock.JobLockService;
 import org.alfresco.repo.lock.JobLockService.JobLockRefreshCallback;
 import org.alfresco.repo.lock.LockAcquisitionException;
+import org.alfresco.repo.management.DynamicMBeanExportOperations;
 import org.alfresco.repo.policy.ClassPolicyDelegate;
 import org.alfresco.repo.policy.PolicyComponent;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
@@ -56,6 +78,7 @@ import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
 import org.alfresco.repo.transaction.RetryingTransactionHelper;
 import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
 import org.alfresco.repo.transaction.TransactionListenerAdapter;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.repository.StoreRef;
 import org.alfresco.service.namespace.NamespaceService;
@@ -63,6 +86,7 @@ import org.alfresco.service.namespace.QName;
 import org.alfresco.service.transaction.TransactionService;
 import org.alfresco.util.Pair;
 import org.alfresco.util.PolicyIgnoreUtil;
+import org.alfresco.util.TraceableThreadFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeansException;
@@ -73,12 +97,17 @@ import org.springframework.dao.ConcurrencyFailureException;
 
 /**
  * Finds nodes with ASPECT_PENDING_FIX_ACL aspect and sets fixed ACLs for them
+ * <p>
+ * In partitioned mode the pending nodes are grouped into disjoint subtrees, each headed by a pending node with no
+ * pending ancestor. The subtrees are processed concurrently, top down, so that nodes fixed by the propagation from
+ * the head of their subtree are skipped. Nodes left pending when a propagation reaches the transaction time limit
+ * are partitioned again in the next round.
  * 
  * @author Andreea Dragoi
  * @author sglover
  * @since 4.2.7
  */
-public class FixedAclUpdater extends TransactionListenerAdapter implements ApplicationContextAware
+public class FixedAclUpdater extends TransactionListenerAdapter implements ApplicationContextAware, FixedAclUpdaterMBean
 {
     private static final Log log = LogFactory.getLog(FixedAclUpdater.class);
     private static final Set<QName> PENDING_FIX_ACL_ASPECT_PROPS = pendingFixAclAspectProps();
@@ -106,6 +135,17 @@ public class FixedAclUpdater extends TransactionListenerAdapter implements Appli
     private boolean forceSharedACL = false;
     private int maxItems = DEFAULT_MAX_ITEMS;
     private boolean orderNodes = true;
+    private boolean partitioned = false;
+    private BatchProcessorDefaults batchProcessorDefaults;
+
+    private DynamicMBeanExportOperations mbeanExporter;
+    private String objectName;
+    private ObjectName registeredObjectName;
+
+    private volatile boolean running;
+    private volatile int round;
+    private volatile List<AclPartition> partitions = Collections.emptyList();
+    private final AtomicLong processedCount = new AtomicLong();
 
     private ClassPolicyDelegate<OnInheritPermissionsDisabled> onInheritPermissionsDisabledDelegate;
     private PolicyComponent policyComponent;
@@ -157,6 +197,34 @@ public class FixedAclUpdater extends TransactionListenerAdapter implements Appli
         this.orderNodes = orderNodes;
     }
 
+    /**
+     * @param partitioned
+     *            <tt>true</tt> to split the pending nodes into disjoint subtrees that are processed concurrently
+     */
+    public void setPartitioned(boolean partitioned)
+    {
+        this.partitioned = partitioned;
+    }
+
+    /**
+     * @param batchProcessorDefaults
+     *            the execution settings of the batch processor (optional)
+     */
+    public void setBatchProcessorDefaults(BatchProcessorDefaults batchProcessorDefaults)
+    {
+        this.batchProcessorDefaults = batchProcessorDefaults;
+    }
+
+    public void setMbeanExporter(DynamicMBeanExportOperations mbeanExporter)
+    {
+        this.mbeanExporter = mbeanExporter;
+    }
+
+    public void setObjectName(String objectName)
+    {
+        this.objectName = objectName;
+    }
+
     public void setLockTimeToLive(long lockTimeToLive)
     {
         this.lockTimeToLive = lockTimeToLive;
@@ -194,6 +262,84 @@ public class FixedAclUpdater extends TransactionListenerAdapter implements Appli
     {
         onInheritPermissionsDisabledDelegate = policyComponent
                 .registerClassPolicy(PermissionServicePolicies.OnInheritPermissionsDisabled.class);
+
+        if (mbeanExporter != null && objectName != null)
+        {
+            try
+            {
+                StandardMBean mbean = new StandardMBean(this, FixedAclUpdaterMBean.class);
+                registeredObjectName = mbeanExporter.registerMBean(mbean, new ObjectName(objectName));
+            }
+            catch (JMException e)
+            {
+                throw new AlfrescoRuntimeException("Failed to register fixed ACL updater MBean " + objectName, e);
+            }
+        }
+    }
+
+    public void destroy()
+    {
+        if (registeredObjectName != null)
+        {
+            mbeanExporter.unregisterMBean(registeredObjectName);
+            registeredObjectName = null;
+        }
+    }
+
+    @Override
+    public boolean isPartitioned()
+    {
+        return partitioned;
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    @Override
+    public int getRound()
+    {
+        return round;
+    }
+
+    @Override
+    public int getPartitionCount()
+    {
+        return partitions.size();
+    }
+
+    @Override
+    public int getActivePartitionCount()
+    {
+        int count = 0;
+        for (AclPartition partition : partitions)
+        {
+            if (partition.state == PartitionState.QUEUED || partition.state == PartitionState.RUNNING)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long getProcessedCount()
+    {
+        return processedCount.get();
+    }
+
+    @Override
+    public String[] getPartitionProgress()
+    {
+        List<AclPartition> current = partitions;
+        String[] progress = new String[current.size()];
+        for (int i = 0; i < progress.length; i++)
+        {
+            progress[i] = current.get(i).toString();
+        }
+        return progress;
     }
 
     private class GetNodesWithAspects
@@ -412,6 +558,270 @@ public class FixedAclUpdater extends TransactionListenerAdapter implements Appli
         return new AclWorker();
     }
 
+    private enum PartitionState
+    {
+        QUEUED, RUNNING, DONE, ABORTED, FAILED
+    }
+
+    /**
+     * A disjoint subtree of the pending nodes: the pending node heading the subtree followed by the pending nodes
+     * below it, ordered by depth.
+     */
+    private static class AclPartition
+    {
+        private final NodeRef root;
+        private final List<Pair<Long, NodeRef>> nodes = new ArrayList<>();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private volatile PartitionState state = PartitionState.QUEUED;
+
+        AclPartition(NodeRef root)
+        {
+            this.root = root;
+        }
+
+        @Override
+        public String toString()
+        {
+            return root + " " + state + " processed=" + processed + " skipped=" + skipped + " total=" + nodes.size();
+        }
+    }
+
+    private int executePartitioned(AclWorker worker, FixedAclUpdaterJobLockRefreshCallback jobLockRefreshCallback)
+    {
+        processedCount.set(0);
+        round = 0;
+        partitions = Collections.emptyList();
+
+        TraceableThreadFactory threadFactory = new TraceableThreadFactory();
+        threadFactory.setNamePrefix("FixedAclUpdater");
+        threadFactory.setThreadDaemon(true);
+        ExecutorService executor = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+        try
+        {
+            Set<Long> lastPendingNodeIds = Collections.emptySet();
+            while (jobLockRefreshCallback.isActive() && processedCount.get() < maxItems && !Thread.currentThread().isInterrupted())
+            {
+                List<Pair<Long, NodeRef>> pendingNodes = getPendingNodes(maxItems - processedCount.get());
+                Set<Long> pendingNodeIds = pendingNodes.stream().map(Pair::getFirst).collect(Collectors.toSet());
+                if (pendingNodes.isEmpty() || pendingNodeIds.equals(lastPendingNodeIds))
+                {
+                    // Nothing left, or the last round could not clear any of the pending nodes
+                    break;
+                }
+                lastPendingNodeIds = pendingNodeIds;
+
+                List<AclPartition> roundPartitions = partitionPendingNodes(pendingNodes);
+                partitions = roundPartitions;
+                round++;
+                if (log.isDebugEnabled())
+                {
+                    log.debug("Round " + round + ": " + pendingNodes.size() + " pending nodes in " + roundPartitions.size() + " partitions");
+                }
+                processPartitions(roundPartitions, worker, jobLockRefreshCallback, executor);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return (int) processedCount.get();
+    }
+
+    private List<Pair<Long, NodeRef>> getPendingNodes(long limit)
+    {
+        final Set<QName> aspects = Collections.singleton(ContentModel.ASPECT_PENDING_FIX_ACL);
+        List<Pair<Long, NodeRef>> pendingNodes = new ArrayList<>();
+        long minNodeId = 0L;
+        while (pendingNodes.size() < limit)
+        {
+            final long fromNodeId = minNodeId;
+            final int pageSize = (int) Math.min(maxItemBatchSize, limit - pendingNodes.size());
+            List<Pair<Long, NodeRef>> page = transactionService.getRetryingTransactionHelper().doInTransaction(() ->
+            {
+                List<Pair<Long, NodeRef>> results = new ArrayList<>(pageSize);
+                nodeDAO.getNodesWithAspects(aspects, fromNodeId, null, orderNodes, pageSize, nodePair ->
+                {
+                    results.add(nodePair);
+                    return results.size() < pageSize;
+                });
+                return results;
+            }, true, true);
+
+            for (Pair<Long, NodeRef> nodePair : page)
+            {
+                pendingNodes.add(nodePair);
+                minNodeId = Math.max(minNodeId, nodePair.getFirst() + 1);
+            }
+            if (page.size() < pageSize)
+            {
+                break;
+            }
+        }
+        return pendingNodes;
+    }
+
+    /**
+     * Groups the pending nodes by the top-most pending node found on their primary path.
+     * 
+     * @return the partitions, largest first
+     */
+    private List<AclPartition> partitionPendingNodes(List<Pair<Long, NodeRef>> pendingNodes)
+    {
+        Map<Long, NodeRef> pendingById = new HashMap<>();
+        for (Pair<Long, NodeRef> pendingNode : pendingNodes)
+        {
+            pendingById.put(pendingNode.getFirst(), pendingNode.getSecond());
+        }
+
+        // The top-most pending node at or above each visited node, and the depth of the visited node
+        Map<Long, Pair<Long, Integer>> resolved = new HashMap<>();
+        for (int i = 0; i < pendingNodes.size(); i += maxItemBatchSize)
+        {
+            List<Pair<Long, NodeRef>> chunk = pendingNodes.subList(i, Math.min(i + maxItemBatchSize, pendingNodes.size()));
+            transactionService.getRetryingTransactionHelper().doInTransaction(() ->
+            {
+                for (Pair<Long, NodeRef> pendingNode : chunk)
+                {
+                    resolvePartitionRoot(pendingNode.getFirst(), pendingById, resolved);
+                }
+                return null;
+            }, true, true);
+        }
+
+        Map<Long, AclPartition> partitionsByRoot = new LinkedHashMap<>();
+        for (Pair<Long, NodeRef> pendingNode : pendingNodes)
+        {
+            Long rootId = resolved.get(pendingNode.getFirst()).getFirst();
+            partitionsByRoot.computeIfAbsent(rootId, id -> new AclPartition(pendingById.get(id))).nodes.add(pendingNode);
+        }
+
+        List<AclPartition> result = new ArrayList<>(partitionsByRoot.values());
+        for (AclPartition partition : result)
+        {
+            partition.nodes.sort(Comparator.comparing(pendingNode -> resolved.get(pendingNode.getFirst()).getSecond()));
+        }
+        // Start with the largest subtrees so that they do not end up running alone at the end of the round
+        result.sort(Comparator.comparingInt((AclPartition partition) -> partition.nodes.size()).reversed());
+        return result;
+    }
+
+    private Pair<Long, Integer> resolvePartitionRoot(Long nodeId, Map<Long, NodeRef> pendingById,
+            Map<Long, Pair<Long, Integer>> resolved)
+    {
+        Deque<Long> path = new ArrayDeque<>();
+        Set<Long> visited = new HashSet<>();
+        Pair<Long, Integer> ancestor = null;
+        Long currentId = nodeId;
+        while (currentId != null && visited.add(currentId))
+        {
+            ancestor = resolved.get(currentId);
+            if (ancestor != null)
+            {
+                break;
+            }
+            path.push(currentId);
+            currentId = nodeDAO.exists(currentId) ? getPrimaryParentId(currentId) : null;
+        }
+
+        Long rootId = ancestor == null ? null : ancestor.getFirst();
+        int depth = ancestor == null ? -1 : ancestor.getSecond();
+        while (!path.isEmpty())
+        {
+            Long pathId = path.pop();
+            depth++;
+            if (rootId == null && pendingById.containsKey(pathId))
+            {
+                rootId = pathId;
+            }
+            resolved.put(pathId, new Pair<>(rootId, depth));
+        }
+        return resolved.get(nodeId);
+    }
+
+    private Long getPrimaryParentId(Long nodeId)
+    {
+        Pair<Long, ChildAssociationRef> parentAssoc = nodeDAO.getPrimaryParentAssoc(nodeId);
+        if (parentAssoc == null || parentAssoc.getSecond().getParentRef() == null)
+        {
+            return null;
+        }
+        Pair<Long, NodeRef> parentPair = nodeDAO.getNodePair(parentAssoc.getSecond().getParentRef());
+        return parentPair == null ? null : parentPair.getFirst();
+    }
+
+    private void processPartitions(List<AclPartition> roundPartitions, AclWorker worker,
+            FixedAclUpdaterJobLockRefreshCallback jobLockRefreshCallback, ExecutorService executor)
+    {
+        List<Future<?>> futures = new ArrayList<>(roundPartitions.size());
+        for (AclPartition partition : roundPartitions)
+        {
+            futures.add(executor.submit(() -> processPartition(partition, worker, jobLockRefreshCallback)));
+        }
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException e)
+            {
+                futures.forEach(remaining -> remaining.cancel(true));
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (ExecutionException e)
+            {
+                log.error("FixedAclUpdater partition failed", e.getCause());
+            }
+        }
+    }
+
+    private void processPartition(AclPartition partition, AclWorker worker, FixedAclUpdaterJobLockRefreshCallback jobLockRefreshCallback)
+    {
+        partition.state = PartitionState.RUNNING;
+        RetryingTransactionHelper txnHelper = transactionService.getRetryingTransactionHelper();
+        try
+        {
+            for (Pair<Long, NodeRef> pendingNode : partition.nodes)
+            {
+                if (!jobLockRefreshCallback.isActive() || processedCount.get() >= maxItems)
+                {
+                    partition.state = PartitionState.ABORTED;
+                    return;
+                }
+                // Nodes below the head of the subtree are usually fixed by the propagation from above
+                boolean processed = txnHelper.doInTransaction(() ->
+                {
+                    Long nodeId = pendingNode.getFirst();
+                    if (!nodeDAO.exists(nodeId) || !nodeDAO.hasNodeAspect(nodeId, ContentModel.ASPECT_PENDING_FIX_ACL))
+                    {
+                        return false;
+                    }
+                    worker.process(pendingNode.getSecond());
+                    return true;
+                }, false, true);
+
+                if (processed)
+                {
+                    partition.processed.incrementAndGet();
+                    processedCount.incrementAndGet();
+                }
+                else
+                {
+                    partition.skipped.incrementAndGet();
+                }
+            }
+            partition.state = PartitionState.DONE;
+        }
+        catch (RuntimeException e)
+        {
+            partition.state = PartitionState.FAILED;
+            throw e;
+        }
+    }
+
     class GetNodesWithAspectCallback implements NodeRefQueryCallback
     {
         private List<NodeRef> nodes = new ArrayList<>();
@@ -503,15 +913,27 @@ public class FixedAclUpdater extends TransactionListenerAdapter implements Appli
 
         try
         {
-            log.info("Running FixedAclUpdater. Max Items: " + maxItems + ", Impose order: " + orderNodes);
+            log.info("Running FixedAclUpdater. Max Items: " + maxItems + ", Impose order: " + orderNodes + ", Partitioned: " + partitioned);
             lockToken = jobLockService.getLock(LOCK_Q_NAME, lockTimeToLive, 0, 1);
             jobLockService.refreshLock(lockToken, LOCK_Q_NAME, lockRefreshTime, jobLockRefreshCallback);
+            running = true;
 
-            AclWorkProvider provider = new AclWorkProvider();
             AclWorker worker = createAclWorker();
+            if (partitioned)
+            {
+                int count = executePartitioned(worker, jobLockRefreshCallback);
+                log.info("FixedAclUpdater updated " + count + " in " + round + " rounds");
+                return count;
+            }
+
+            AclWorkProvider provider = new AclWorkProvider();
             BatchProcessor<NodeRef> bp = new BatchProcessor<>("FixedAclUpdater",
                     transactionService.getRetryingTransactionHelper(), provider, numThreads, maxItemBatchSize, applicationContext,
                     log, 100);
+            if (batchProcessorDefaults != null)
+            {
+                batchProcessorDefaults.configure(bp);
+            }
             int count = bp.process(worker, true);
             log.info("FixedAclUpdater updated " + count + ". Average query time " + provider.getAverageQueryExecutionTime() + " ms");
             return count;
@@ -526,6 +948,7 @@ public class FixedAclUpdater extends TransactionListenerAdapter implements Appli
             jobLockRefreshCallback.isActive.set(false);
             if (lockToken != null)
             {
+                running = false;
                 jobLockService.releaseLock(lockToken, LOCK_Q_NAME);
             }
         }
@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.domain.permissions;
+
+/**
+ * Management interface of the {@link FixedAclUpdater}, reporting the progress of the current or last partitioned run.
+ */
+public interface FixedAclUpdaterMBean
+{
+    /**
+     * @return <tt>true</tt> if pending nodes are split into disjoint subtrees that are processed concurrently
+     */
+    boolean isPartitioned();
+
+    /**
+     * @return <tt>true</tt> while the updater holds its job lock and is processing pending nodes
+     */
+    boolean isRunning();
+
+    /**
+     * @return the number of partitioning rounds done by the current or last run
+     */
+    int getRound();
+
+    /**
+     * @return the number of partitions in the current or last round
+     */
+    int getPartitionCount();
+
+    /**
+     * @return the number of partitions of the current round that are still being processed
+     */
+    int getActivePartitionCount();
+
+    /**
+     * @return the number of pending nodes processed by the current or last run
+     */
+    long getProcessedCount();
+
+    /**
+     * @return one line per partition of the current or last round giving its root node, state and progress
+     */
+    String[] getPartitionProgress();
+}
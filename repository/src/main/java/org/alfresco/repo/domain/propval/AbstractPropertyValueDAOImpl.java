@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -552,6 +553,18 @@ public abstract class AbstractPropertyValueDAOImpl implements PropertyValueDAO
             }
         }
 
+        @Override
+        public List<Pair<Long, String>> findByKeys(List<Long> keys)
+        {
+            List<PropertyStringValueEntity> entities = findStringValuesByIds(keys);
+            List<Pair<Long, String>> results = new ArrayList<Pair<Long, String>>(entities.size());
+            for (PropertyStringValueEntity entity : entities)
+            {
+                results.add(new Pair<Long, String>(entity.getId(), entity.getStringValue()));
+            }
+            return results;
+        }
+
         public Pair<Long, String> findByValue(String value)
         {
             Long key = findStringValueByValue(value);
@@ -567,6 +580,7 @@ public abstract class AbstractPropertyValueDAOImpl implements PropertyValueDAO
     }
     
     protected abstract String findStringValueById(Long id);
+    protected abstract List<PropertyStringValueEntity> findStringValuesByIds(List<Long> ids);
     protected abstract Long findStringValueByValue(String value);
     protected abstract Long createStringValue(String value);
 
@@ -732,6 +746,25 @@ public abstract class AbstractPropertyValueDAOImpl implements PropertyValueDAO
         return entityPair;
     }
 
+    public List<Pair<Long, Serializable>> getPropertyValuesByIds(Collection<Long> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Cannot look up entities by null IDs.");
+        }
+        List<Pair<Long, Serializable>> entityPairs = propertyValueCache.getByKeys(ids);
+        Set<Long> missingIds = new LinkedHashSet<Long>(ids);
+        if (entityPairs.size() < missingIds.size())
+        {
+            for (Pair<Long, Serializable> entityPair : entityPairs)
+            {
+                missingIds.remove(entityPair.getFirst());
+            }
+            throw new DataIntegrityViolationException("No property values exist for IDs " + missingIds);
+        }
+        return entityPairs;
+    }
+
     public Pair<Long, Serializable> getPropertyValue(Serializable value)
     {
         Pair<Long, Serializable> entityPair = propertyValueCache.getByValue(value);
@@ -814,6 +847,23 @@ public abstract class AbstractPropertyValueDAOImpl implements PropertyValueDAO
             return convertEntityToPair(entity);
         }
 
+        @Override
+        public List<Pair<Long, Serializable>> findByKeys(List<Long> keys)
+        {
+            List<PropertyValueEntity> entities = findPropertyValuesByIds(keys);
+            List<Pair<Long, Serializable>> results = new ArrayList<Pair<Long, Serializable>>(entities.size());
+            Set<Long> foundIds = new HashSet<Long>(entities.size() * 2);
+            for (PropertyValueEntity entity : entities)
+            {
+                // At most one of the results for each ID represents a real value
+                if (foundIds.add(entity.getId()))
+                {
+                    results.add(convertEntityToPair(entity));
+                }
+            }
+            return results;
+        }
+
         public Pair<Long, Serializable> findByValue(Serializable value)
         {
             PropertyValueEntity entity = findPropertyValueByValue(value);
@@ -832,6 +882,7 @@ public abstract class AbstractPropertyValueDAOImpl implements PropertyValueDAO
     }
     
     protected abstract PropertyValueEntity findPropertyValueById(Long id);
+    protected abstract List<PropertyValueEntity> findPropertyValuesByIds(List<Long> ids);
     protected abstract PropertyValueEntity findPropertyValueByValue(Serializable value);
     protected abstract PropertyValueEntity createPropertyValue(Serializable value);
 
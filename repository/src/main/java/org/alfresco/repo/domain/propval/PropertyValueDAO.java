@@ -26,6 +26,7 @@
 package org.alfresco.repo.domain.propval;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -189,6 +190,16 @@ public interface PropertyValueDAO
      * @param id                the ID (may not be <tt>null</tt>)
      */
     Pair<Long, Serializable> getPropertyValueById(Long id);
+    /**
+     * Use for accessing unique properties; see interface comments.
+     * <p/>
+     * <b>alf_prop_value</b> accessor: get properties based on their database IDs.
+     * Uncached values are fetched in batches rather than one query per ID.
+     * 
+     * @param ids               the IDs (may not be <tt>null</tt> or contain <tt>null</tt>)
+     * @return                  the ID-value pairs in the order of the given IDs, without duplicates
+     */
+    List<Pair<Long, Serializable>> getPropertyValuesByIds(Collection<Long> ids);
     /**
      * Use for accessing unique properties; see interface comments.
      * <p/>
@@ -29,6 +29,7 @@ import java.io.Serializable;
 import java.util.Date;
 import java.util.List;
 
+import org.alfresco.ibatis.IdsEntity;
 import org.alfresco.ibatis.RollupResultHandler;
 import org.alfresco.repo.domain.propval.AbstractPropertyValueDAOImpl;
 import org.alfresco.repo.domain.propval.PropertyClassEntity;
@@ -72,6 +73,7 @@ public class PropertyValueDAOImpl extends AbstractPropertyValueDAOImpl
     private static final String INSERT_PROPERTY_DATE_VALUE = "alfresco.propval.insert_PropertyDateValue";
     
     private static final String SELECT_PROPERTY_STRING_VALUE_BY_ID = "alfresco.propval.select_PropertyStringValueByID";
+    private static final String SELECT_PROPERTY_STRING_VALUES_BY_IDS = "alfresco.propval.select_PropertyStringValuesByIds";
     private static final String SELECT_PROPERTY_STRING_VALUE_BY_VALUE = "alfresco.propval.select_PropertyStringValueByValue";
     private static final String INSERT_PROPERTY_STRING_VALUE = "alfresco.propval.insert.insert_PropertyStringValue";
     
@@ -83,6 +85,7 @@ public class PropertyValueDAOImpl extends AbstractPropertyValueDAOImpl
     private static final String INSERT_PROPERTY_SERIALIZABLE_VALUE = "alfresco.propval.insert.insert_PropertySerializableValue";
     
     private static final String SELECT_PROPERTY_VALUE_BY_ID = "alfresco.propval.select_PropertyValueById";
+    private static final String SELECT_PROPERTY_VALUES_BY_IDS = "alfresco.propval.select_PropertyValuesByIds";
     private static final String SELECT_PROPERTY_VALUE_BY_LOCAL_VALUE = "alfresco.propval.select_PropertyValueByLocalValue";
     private static final String SELECT_PROPERTY_VALUE_BY_DOUBLE_VALUE = "alfresco.propval.select_PropertyValueByDoubleValue";
     private static final String SELECT_PROPERTY_VALUE_BY_STRING_VALUE = "alfresco.propval.select_PropertyValueByStringValue";
@@ -209,6 +212,14 @@ public class PropertyValueDAOImpl extends AbstractPropertyValueDAOImpl
         return value;
     }
 
+    @Override
+    protected List<PropertyStringValueEntity> findStringValuesByIds(List<Long> ids)
+    {
+        IdsEntity idsEntity = new IdsEntity();
+        idsEntity.setIds(ids);
+        return template.selectList(SELECT_PROPERTY_STRING_VALUES_BY_IDS, idsEntity);
+    }
+
     @Override
     protected Long findStringValueByValue(String value)
     {
@@ -342,6 +353,14 @@ public class PropertyValueDAOImpl extends AbstractPropertyValueDAOImpl
         }
     }
 
+    @Override
+    protected List<PropertyValueEntity> findPropertyValuesByIds(List<Long> ids)
+    {
+        IdsEntity idsEntity = new IdsEntity();
+        idsEntity.setIds(ids);
+        return template.selectList(SELECT_PROPERTY_VALUES_BY_IDS, idsEntity);
+    }
+
     @Override
     protected PropertyValueEntity findPropertyValueByValue(Serializable value)
     {
@@ -25,8 +25,10 @@
  */
 package org.alfresco.repo.domain.qname;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -346,6 +348,25 @@ public abstract class AbstractQNameDAOImpl implements QNameDAO
             }
         }
 
+        /**
+         * Looks up all the QNames in a single query; the namespaces are few and are always cached.
+         */
+        @Override
+        public List<Pair<Long, QName>> findByKeys(List<Long> ids)
+        {
+            List<QNameEntity> entities = findQNameEntitiesByIds(ids);
+            List<Pair<Long, QName>> results = new ArrayList<Pair<Long, QName>>(entities.size());
+            for (QNameEntity entity : entities)
+            {
+                Long namespaceId = entity.getNamespaceId();
+                String uri = getNamespace(namespaceId).getSecond();
+                String localName = entity.getLocalNameSafe();
+                QName qname = QName.createQName(uri, localName);
+                results.add(new Pair<Long, QName>(entity.getId(), qname));
+            }
+            return results;
+        }
+
         @Override
         public Pair<Long, QName> findByValue(QName qname)
         {
@@ -414,6 +435,7 @@ public abstract class AbstractQNameDAOImpl implements QNameDAO
     }
     
     protected abstract QNameEntity findQNameEntityById(Long id);
+    protected abstract List<QNameEntity> findQNameEntitiesByIds(List<Long> ids);
     protected abstract QNameEntity findQNameEntityByNamespaceAndLocalName(Long nsId, String localName);
     protected abstract QNameEntity createQNameEntity(Long nsId, String localName);
     protected abstract int updateQNameEntity(QNameEntity entity, Long nsId, String localName);
@@ -426,25 +448,46 @@ public abstract class AbstractQNameDAOImpl implements QNameDAO
 
     public Set<QName> convertIdsToQNames(Set<Long> ids)
     {
-        Set<QName> qnames = new HashSet<QName>(ids.size() * 2 + 1);
-        for (Long id : ids)
-        {
-            QName qname = getQName(id).getSecond();                     // getQName(id) is never null
-            qnames.add(qname);
-        }
-        return qnames;
+        Map<Long, QName> qnamesById = getQNamesByIds(ids);
+        return new HashSet<QName>(qnamesById.values());
     }
     
     public Map<QName, ? extends Object> convertIdMapToQNameMap(Map<Long, ? extends Object> idMap)
     {
+        Map<Long, QName> qnamesById = getQNamesByIds(idMap.keySet());
         Map<QName, Object> qnameMap = new HashMap<QName, Object>(idMap.size() + 3);
         for (Map.Entry<Long, ? extends Object> entry : idMap.entrySet())
         {
-            QName qname = getQName(entry.getKey()).getSecond();         // getQName(id) is never null
+            QName qname = qnamesById.get(entry.getKey());
             qnameMap.put(qname, entry.getValue());
         }
         return qnameMap;
     }
+    
+    /**
+     * Resolve a set of QName IDs, going to the database at most once for all the cache misses.
+     * 
+     * @throws DataIntegrityViolationException if any of the IDs doesn't reference a QName
+     */
+    private Map<Long, QName> getQNamesByIds(Set<Long> ids)
+    {
+        Map<Long, QName> qnamesById = new HashMap<Long, QName>(ids.size() * 2 + 1);
+        for (Pair<Long, QName> entityPair : qnameCache.getByKeys(ids))
+        {
+            qnamesById.put(entityPair.getFirst(), entityPair.getSecond());
+        }
+        if (qnamesById.size() < ids.size())
+        {
+            for (Long id : ids)
+            {
+                if (!qnamesById.containsKey(id))
+                {
+                    throw new DataIntegrityViolationException("No qname exists for ID " + id);
+                }
+            }
+        }
+        return qnamesById;
+    }
 
     /**
      * @return      Returns a set of IDs mapping to the QNames provided.  If create is <tt>false</tt>
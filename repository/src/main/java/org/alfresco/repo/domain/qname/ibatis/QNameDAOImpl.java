@@ -25,6 +25,9 @@
  */
 package org.alfresco.repo.domain.qname.ibatis;
 
+import java.util.List;
+
+import org.alfresco.ibatis.IdsEntity;
 import org.alfresco.repo.domain.qname.AbstractQNameDAOImpl;
 import org.alfresco.repo.domain.qname.NamespaceEntity;
 import org.alfresco.repo.domain.qname.QNameEntity;
@@ -43,6 +46,7 @@ public class QNameDAOImpl extends AbstractQNameDAOImpl
     private static final String INSERT_NS = "alfresco.qname.insert.insert_Namespace";
     private static final String UPDATE_NS = "alfresco.qname.update_Namespace";
     private static final String SELECT_QNAME_BY_ID = "alfresco.qname.select_QNameById";
+    private static final String SELECT_QNAMES_BY_IDS = "alfresco.qname.select_QNamesByIds";
     private static final String SELECT_QNAME_BY_NS_AND_LOCALNAME = "alfresco.qname.select_QNameByNsAndLocalName";
     private static final String INSERT_QNAME = "alfresco.qname.insert.insert_QName";
     private static final String UPDATE_QNAME = "alfresco.qname.update_QName";
@@ -100,6 +104,14 @@ public class QNameDAOImpl extends AbstractQNameDAOImpl
         return entity;
     }
     
+    @Override
+    protected List<QNameEntity> findQNameEntitiesByIds(List<Long> ids)
+    {
+        IdsEntity idsEntity = new IdsEntity();
+        idsEntity.setIds(ids);
+        return template.selectList(SELECT_QNAMES_BY_IDS, idsEntity);
+    }
+    
     @Override
     protected QNameEntity findQNameEntityByNamespaceAndLocalName(Long nsId, String localName)
     {
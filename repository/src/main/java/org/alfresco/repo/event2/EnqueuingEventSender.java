@@ -25,32 +25,90 @@
  */
 package org.alfresco.repo.event2;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.alfresco.metrics.LatencyHistograms;
 import org.alfresco.repo.event.v1.model.RepoEvent;
 import org.alfresco.util.PropertyCheck;
+import org.alfresco.util.TempFileProvider;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 /**
  * Enqueuing event sender allows to create asynchronously the RepoEvent offloading the work to a ThreadPool but
  * at the same time it preserves the order of the events.
+ * <p>
+ * The events in making are held in a bounded ring buffer. When it is full the {@link OverflowStrategy} decides
+ * whether the caller blocks, the event is dropped or it is made in the caller thread and spilled to a local file
+ * that is replayed once the buffer has drained. Spilled events are still sent in order: while anything is
+ * spilled or being made to spill, new events are spilled behind it. The listener drains ready events in batches of up to
+ * {@link #setSendBatchSize(int) sendBatchSize}.
  */
-public class EnqueuingEventSender extends DirectEventSender
+public class EnqueuingEventSender extends DirectEventSender implements EnqueuingEventSenderMBean
 {
     protected static final Log LOGGER = LogFactory.getLog(EnqueuingEventSender.class);
 
+    /**
+     * What to do with a new event when the queue of events in making is full
+     */
+    public enum OverflowStrategy
+    {
+        /** Block the caller until there is room in the queue */
+        BLOCK,
+        /** Drop the event, counting it in {@link EnqueuingEventSender#getDroppedCount()} */
+        DROP,
+        /** Make the event in the caller thread and write it to a local spill file */
+        SPILL
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    public static final int DEFAULT_SEND_BATCH_SIZE = 100;
+
+    private static final String STAGE_MAKE = "make";
+    private static final String STAGE_SEND = "send";
+    private static final long SPILL_WAIT_MILLIS = 100;
+
     protected final Executor enqueueThreadPoolExecutor;
     protected final Executor dequeueThreadPoolExecutor;
-    protected BlockingQueue<EventInMaking> queue = new LinkedBlockingQueue<>();
+    protected BlockingQueue<EventInMaking> queue;
     protected Runnable listener = createListener();
 
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+    private int sendBatchSize = DEFAULT_SEND_BATCH_SIZE;
+    private File spillDirectory;
+
+    /** Events taken from the queue but not yet sent, only used by the listener */
+    private final Deque<EventInMaking> pending = new ArrayDeque<>();
+
+    private final Object spillLock = new Object();
+    private volatile SpillFile spill;
+    /** Events being made to spill, in the order they were accepted, guarded by the spill lock */
+    private final Deque<SpilledEvent> spilling = new ArrayDeque<>();
+
+    private final LatencyHistograms histograms = new LatencyHistograms(2, "stage");
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+
     public EnqueuingEventSender(Event2MessageProducer event2MessageProducer, Executor enqueueThreadPoolExecutor, Executor dequeueThreadPoolExecutor)
     {
         super(event2MessageProducer);
@@ -60,6 +118,38 @@ public class EnqueuingEventSender extends DirectEventSender
         this.dequeueThreadPoolExecutor = dequeueThreadPoolExecutor;
     }
 
+    /**
+     * @param queueCapacity the maximum number of events in making, before the overflow strategy applies
+     */
+    public void setQueueCapacity(int queueCapacity)
+    {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @param overflowStrategy what to do with new events when the queue is full
+     */
+    public void setOverflowStrategy(OverflowStrategy overflowStrategy)
+    {
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * @param sendBatchSize the maximum number of events the listener takes from the queue at once
+     */
+    public void setSendBatchSize(int sendBatchSize)
+    {
+        this.sendBatchSize = sendBatchSize;
+    }
+
+    /**
+     * @param spillDirectory the directory of the spill file (the temporary directory if <tt>null</tt>)
+     */
+    public void setSpillDirectory(File spillDirectory)
+    {
+        this.spillDirectory = spillDirectory;
+    }
+
     /**
      * Procedure to enqueue the callback functions that creates an event.
      * @param eventProducer Callback function that creates an event.
@@ -68,25 +158,177 @@ public class EnqueuingEventSender extends DirectEventSender
     public void accept(Callable<Optional<RepoEvent<?>>> eventProducer)
     {
         EventInMaking eventInMaking = new EventInMaking(eventProducer);
-        queue.offer(eventInMaking);
+        if (!enqueue(eventInMaking))
+        {
+            return;
+        }
         enqueueThreadPoolExecutor.execute(() -> {
+            long start = System.nanoTime();
             try
             {
                 eventInMaking.make();
             }
             catch (Exception e)
             {
+                histograms.recordError(STAGE_MAKE);
                 LOGGER.error("Unexpected error while enqueuing maker function for repository event" + e);
             }
+            finally
+            {
+                histograms.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), STAGE_MAKE);
+            }
         });
     }
 
     @Override
     public void initialize()
     {
+        PropertyCheck.mandatory(this, "overflowStrategy", overflowStrategy);
+        if (queueCapacity < 1 || sendBatchSize < 1)
+        {
+            throw new IllegalArgumentException("The queue capacity and send batch size must be positive: " + queueCapacity + ", " + sendBatchSize);
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
         dequeueThreadPoolExecutor.execute(listener);
     }
 
+    /**
+     * Puts the event into the queue, applying the overflow strategy if it is full.
+     * @return <tt>true</tt> if the event was queued and still has to be made
+     */
+    private boolean enqueue(EventInMaking eventInMaking)
+    {
+        switch (overflowStrategy)
+        {
+            case BLOCK:
+                try
+                {
+                    queue.put(eventInMaking);
+                    return true;
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    drop(eventInMaking);
+                    return false;
+                }
+            case SPILL:
+                SpilledEvent spilled;
+                synchronized (spillLock)
+                {
+                    // Anything after a spilled event has to be spilled too, to keep the order, so the spill
+                    // starts before the event is made
+                    if (spill == null && queue.offer(eventInMaking))
+                    {
+                        return true;
+                    }
+                    spilled = startSpill(eventInMaking);
+                }
+                if (spilled != null)
+                {
+                    spill(spilled);
+                }
+                return false;
+            default:
+                if (queue.offer(eventInMaking))
+                {
+                    return true;
+                }
+                drop(eventInMaking);
+                return false;
+        }
+    }
+
+    private void drop(EventInMaking eventInMaking)
+    {
+        droppedCount.increment();
+        long dropped = droppedCount.sum();
+        if (dropped == 1 || dropped % 1000 == 0)
+        {
+            LOGGER.warn("Event queue is full, dropped " + dropped + " repository event(s) so far, the latest being " + eventInMaking);
+        }
+    }
+
+    /**
+     * Takes the place of the event among the spilled events, opening the spill file if needed.
+     * Must be called holding the spill lock.
+     * @return the spilled event to make, or <tt>null</tt> if it was dropped
+     */
+    private SpilledEvent startSpill(EventInMaking eventInMaking)
+    {
+        if (spill == null)
+        {
+            try
+            {
+                spill = new SpillFile(spillDirectory == null ?
+                        TempFileProvider.createTempFile("event2-spill-", ".jsonl") :
+                        TempFileProvider.createTempFile("event2-spill-", ".jsonl", spillDirectory));
+            }
+            catch (IOException e)
+            {
+                LOGGER.error("Failed to create spill file for repository event " + eventInMaking + ": " + e);
+                drop(eventInMaking);
+                return null;
+            }
+            LOGGER.warn("Event queue is full, spilling repository events to " + spill.file);
+        }
+        SpilledEvent spilled = new SpilledEvent(eventInMaking);
+        spilling.add(spilled);
+        return spilled;
+    }
+
+    /**
+     * Makes the spilled event in the caller thread and writes it, along with any events after it that are already
+     * made, once the events before it have been written.
+     */
+    private void spill(SpilledEvent spilled)
+    {
+        String json = null;
+        long start = System.nanoTime();
+        try
+        {
+            Optional<RepoEvent<?>> event = spilled.eventInMaking.maker.call();
+            if (event != null && event.isPresent())
+            {
+                json = event2MessageProducer.toJson(event.get());
+            }
+        }
+        catch (Exception e)
+        {
+            histograms.recordError(STAGE_MAKE);
+            LOGGER.error("Unexpected error while making repository event to spill " + e);
+        }
+        finally
+        {
+            histograms.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), STAGE_MAKE);
+        }
+
+        synchronized (spillLock)
+        {
+            spilled.json = json;
+            spilled.made = true;
+            while (!spilling.isEmpty() && spilling.peek().made)
+            {
+                SpilledEvent next = spilling.poll();
+                if (next.json == null)
+                {
+                    continue;
+                }
+                try
+                {
+                    spill.append(next.json);
+                    spilledCount.increment();
+                }
+                catch (IOException e)
+                {
+                    LOGGER.error("Failed to spill repository event " + next.eventInMaking + ": " + e);
+                    drop(next.eventInMaking);
+                }
+            }
+            spillLock.notifyAll();
+        }
+    }
+
     /**
      * Create listener task in charge of dequeuing and sending events ready to be sent.
      * @return The task in charge of dequeuing and sending events ready to be sent.
@@ -100,7 +342,20 @@ public class EnqueuingEventSender extends DirectEventSender
                 {
                     try
                     {
-                        queue.take().getEventWhenReady().ifPresent(event -> event2MessageProducer.send(event));
+                        if (pending.isEmpty())
+                        {
+                            EventInMaking first = spill == null ? queue.take() : queue.poll();
+                            if (first == null)
+                            {
+                                // The queue has drained, so the spilled events are next
+                                sendSpilled();
+                                continue;
+                            }
+                            pending.add(first);
+                            queue.drainTo(pending, sendBatchSize - 1);
+                        }
+                        // Remove before sending, so that a failing event is not retried by a rescheduled listener
+                        pending.poll().getEventWhenReady().ifPresent(event -> send(event));
                     }
                     catch (Exception e)
                     {
@@ -117,6 +372,124 @@ public class EnqueuingEventSender extends DirectEventSender
 
     }
 
+    private void send(Object event)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            event2MessageProducer.send(event);
+        }
+        catch (RuntimeException | Error e)
+        {
+            histograms.recordError(STAGE_SEND);
+            throw e;
+        }
+        finally
+        {
+            histograms.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), STAGE_SEND);
+        }
+    }
+
+    /**
+     * Sends the next batch of spilled events, closing the spill file once they have all been made and sent.
+     */
+    private void sendSpilled() throws IOException, InterruptedException
+    {
+        List<String> batch = new ArrayList<>(sendBatchSize);
+        synchronized (spillLock)
+        {
+            while (batch.size() < sendBatchSize)
+            {
+                String json = spill.poll();
+                if (json == null)
+                {
+                    break;
+                }
+                batch.add(json);
+            }
+            if (batch.isEmpty())
+            {
+                if (!spilling.isEmpty())
+                {
+                    // Nothing can be sent before the events still being made to spill
+                    spillLock.wait(SPILL_WAIT_MILLIS);
+                    return;
+                }
+                spill.delete();
+                spill = null;
+                LOGGER.info("Sent all spilled repository events");
+                return;
+            }
+        }
+        for (String json : batch)
+        {
+            try
+            {
+                send(json);
+            }
+            catch (Exception e)
+            {
+                LOGGER.error("Unexpected error while sending spilled repository event " + e);
+            }
+        }
+    }
+
+    @Override
+    public String getOverflowStrategy()
+    {
+        return overflowStrategy.name();
+    }
+
+    @Override
+    public int getQueueCapacity()
+    {
+        return queueCapacity;
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public long getSpillDepth()
+    {
+        synchronized (spillLock)
+        {
+            return spill == null ? 0 : spill.size() + spilling.size();
+        }
+    }
+
+    @Override
+    public long getDroppedCount()
+    {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public long getSpilledCount()
+    {
+        return spilledCount.sum();
+    }
+
+    @Override
+    public String[] getLatencySummary()
+    {
+        List<String> summary = new ArrayList<>(2);
+        for (Map.Entry<List<String>, LatencyHistograms.Snapshot> entry : histograms.getSnapshots().entrySet())
+        {
+            summary.add(entry.getKey().get(0) + ": " + entry.getValue());
+        }
+        return summary.toArray(new String[0]);
+    }
+
+    @Override
+    public void resetLatencies()
+    {
+        histograms.reset();
+    }
+
     /**
      * Simple class that makes events and allows to retrieve them when ready
      */
@@ -156,4 +529,80 @@ public class EnqueuingEventSender extends DirectEventSender
             return maker.toString();
         }
     }
+
+    /**
+     * Event made in the caller thread to be spilled, guarded by the sender's spill lock
+     */
+    private static class SpilledEvent
+    {
+        private final EventInMaking eventInMaking;
+        private boolean made;
+        private String json;
+
+        private SpilledEvent(EventInMaking eventInMaking)
+        {
+            this.eventInMaking = eventInMaking;
+        }
+    }
+
+    /**
+     * Append-only file of events in JSON, one per line, read back in order by the listener.
+     * Access is guarded by the sender's spill lock.
+     */
+    private static class SpillFile
+    {
+        private final File file;
+        private final Writer writer;
+        private final BufferedReader reader;
+        private long written;
+        private long read;
+
+        private SpillFile(File file) throws IOException
+        {
+            this.file = file;
+            this.writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            this.reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+        }
+
+        private void append(String json) throws IOException
+        {
+            writer.write(json);
+            writer.write('\n');
+            // Flush whole lines only, so the reader never sees part of an event
+            writer.flush();
+            written++;
+        }
+
+        private String poll() throws IOException
+        {
+            if (read == written)
+            {
+                return null;
+            }
+            read++;
+            return reader.readLine();
+        }
+
+        private long size()
+        {
+            return written - read;
+        }
+
+        private void delete()
+        {
+            try
+            {
+                writer.close();
+                reader.close();
+            }
+            catch (IOException e)
+            {
+                LOGGER.warn("Failed to close spill file " + file + ": " + e);
+            }
+            if (!file.delete())
+            {
+                LOGGER.warn("Failed to delete spill file " + file);
+            }
+        }
+    }
 }
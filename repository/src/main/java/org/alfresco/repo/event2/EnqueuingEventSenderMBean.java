@@ -0,0 +1,72 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.event2;
+
+/**
+ * Management interface of the {@link EnqueuingEventSender} pipeline.
+ */
+public interface EnqueuingEventSenderMBean
+{
+    /**
+     * @return what happens to new events when the queue is full: BLOCK, DROP or SPILL
+     */
+    String getOverflowStrategy();
+
+    /**
+     * @return the maximum number of events in making
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return the number of events currently in making or waiting to be sent
+     */
+    int getQueueDepth();
+
+    /**
+     * @return the number of spilled events waiting to be sent
+     */
+    long getSpillDepth();
+
+    /**
+     * @return the number of events dropped because the queue was full
+     */
+    long getDroppedCount();
+
+    /**
+     * @return the number of events spilled because the queue was full
+     */
+    long getSpilledCount();
+
+    /**
+     * @return one line each for the event make and send stages giving the count, error count and p50/p99/p999 latencies
+     */
+    String[] getLatencySummary();
+
+    /**
+     * Discard the recorded latencies.
+     */
+    void resetLatencies();
+}
@@ -55,6 +55,22 @@ public class Event2MessageProducer extends AbstractEventProducer implements Init
         }
     }
 
+    /**
+     * Serializes an event as it would be sent, e.g. to hold it outside the heap. The result can be passed to
+     * {@link #send(Object)}, which sends strings as they are.
+     */
+    public String toJson(Object event)
+    {
+        try
+        {
+            return this.objectMapper.writeValueAsString(event);
+        }
+        catch (Exception e)
+        {
+            throw new AlfrescoRuntimeException(ERROR_SENDING, e);
+        }
+    }
+
     public void send(Object event)
     {
         send(this.endpoint, null, event, null);
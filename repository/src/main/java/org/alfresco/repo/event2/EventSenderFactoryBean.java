@@ -26,15 +26,23 @@
 package org.alfresco.repo.event2;
 
 import jakarta.annotation.Nonnull;
+import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.repo.event2.EnqueuingEventSender.OverflowStrategy;
+import org.alfresco.repo.management.DynamicMBeanExportOperations;
 import org.alfresco.util.PropertyCheck;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.AbstractFactoryBean;
 import org.springframework.core.env.PropertyResolver;
 
+import java.io.File;
 import java.util.Optional;
 import java.util.concurrent.Executor;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
 public class EventSenderFactoryBean extends AbstractFactoryBean<EventSender>
 {
     static final String LEGACY_SKIP_QUEUE_PROPERTY = "repo.event2.queue.skip";
@@ -50,6 +58,14 @@ public class EventSenderFactoryBean extends AbstractFactoryBean<EventSender>
     private String configuredSenderName;
     private boolean legacySkipQueueConfig;
 
+    private int queueCapacity = EnqueuingEventSender.DEFAULT_QUEUE_CAPACITY;
+    private OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+    private int sendBatchSize = EnqueuingEventSender.DEFAULT_SEND_BATCH_SIZE;
+    private String spillDirectory;
+    private DynamicMBeanExportOperations mbeanExporter;
+    private String objectName;
+    private ObjectName registeredObjectName;
+
     public EventSenderFactoryBean(@Autowired PropertyResolver propertyResolver, Event2MessageProducer event2MessageProducer,
                                   Executor enqueueThreadPoolExecutor, Executor dequeueThreadPoolExecutor)
     {
@@ -76,6 +92,43 @@ public class EventSenderFactoryBean extends AbstractFactoryBean<EventSender>
         this.configuredSenderName = configuredSenderName;
     }
 
+    @Value("${repo.event2.queue.capacity}")
+    public void setQueueCapacity(int queueCapacity)
+    {
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Value("${repo.event2.queue.overflow}")
+    public void setOverflowStrategy(OverflowStrategy overflowStrategy)
+    {
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    @Value("${repo.event2.queue.sendBatchSize}")
+    public void setSendBatchSize(int sendBatchSize)
+    {
+        this.sendBatchSize = sendBatchSize;
+    }
+
+    @Value("${repo.event2.queue.spillDirectory}")
+    public void setSpillDirectory(String spillDirectory)
+    {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * @param mbeanExporter optional exporter used to register the metrics of an asynchronous sender
+     */
+    public void setMbeanExporter(DynamicMBeanExportOperations mbeanExporter)
+    {
+        this.mbeanExporter = mbeanExporter;
+    }
+
+    public void setObjectName(String objectName)
+    {
+        this.objectName = objectName;
+    }
+
     @Override
     public Class<?> getObjectType()
     {
@@ -90,9 +143,32 @@ public class EventSenderFactoryBean extends AbstractFactoryBean<EventSender>
 
         sender.initialize();
 
+        if (sender instanceof EnqueuingEventSender && mbeanExporter != null && objectName != null)
+        {
+            try
+            {
+                StandardMBean mbean = new StandardMBean((EnqueuingEventSender) sender, EnqueuingEventSenderMBean.class);
+                registeredObjectName = mbeanExporter.registerMBean(mbean, new ObjectName(objectName));
+            }
+            catch (JMException e)
+            {
+                throw new AlfrescoRuntimeException("Failed to register event sender MBean " + objectName, e);
+            }
+        }
+
         return sender;
     }
 
+    @Override
+    protected void destroyInstance(EventSender instance) throws Exception
+    {
+        if (registeredObjectName != null)
+        {
+            mbeanExporter.unregisterMBean(registeredObjectName);
+            registeredObjectName = null;
+        }
+    }
+
     private EventSender instantiateConfiguredSender()
     {
         if (isSenderNameConfigured())
@@ -124,7 +200,15 @@ public class EventSenderFactoryBean extends AbstractFactoryBean<EventSender>
 
     private EnqueuingEventSender instantiateAsyncSender()
     {
-        return new EnqueuingEventSender(getEvent2MessageProducer(), enqueueThreadPoolExecutor, dequeueThreadPoolExecutor);
+        EnqueuingEventSender sender = new EnqueuingEventSender(getEvent2MessageProducer(), enqueueThreadPoolExecutor, dequeueThreadPoolExecutor);
+        sender.setQueueCapacity(queueCapacity);
+        sender.setOverflowStrategy(overflowStrategy);
+        sender.setSendBatchSize(sendBatchSize);
+        if (spillDirectory != null && !spillDirectory.isBlank())
+        {
+            sender.setSpillDirectory(new File(spillDirectory));
+        }
+        return sender;
     }
 
     private boolean isSenderNameConfigured()
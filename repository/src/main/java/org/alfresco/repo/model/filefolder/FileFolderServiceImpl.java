@@ -41,6 +41,7 @@ import java.util.Set;
 import java.util.Stack;
 
 import org.alfresco.model.ContentModel;
+import org.alfresco.query.CannedQuery;
 import org.alfresco.query.CannedQueryFactory;
 import org.alfresco.query.CannedQueryResults;
 import org.alfresco.query.PagingRequest;
@@ -414,6 +415,8 @@ public class FileFolderServiceImpl extends AbstractBaseCopyService implements Fi
         }
         PermissionCheckedCollectionMixin.create(nodeInfos, nodeRefs);
         
+        final String nextCursor = getNextCursor(pagingRequest, results, nodeRefs);
+        
         return new PagingResults<FileInfo>()
         {
             @Override
@@ -436,8 +439,28 @@ public class FileFolderServiceImpl extends AbstractBaseCopyService implements Fi
             {
                 return totalCount;
             }
+            @Override
+            public String getNextCursor()
+            {
+                return nextCursor;
+            }
         };        
     }
+    
+    private String getNextCursor(PagingRequest pagingRequest, CannedQueryResults<NodeRef> results, List<NodeRef> nodeRefs)
+    {
+        if (!pagingRequest.isKeysetPaging() || !results.hasMoreItems() || nodeRefs.isEmpty())
+        {
+            return null;
+        }
+        
+        CannedQuery<NodeRef> query = results.getOriginatingQuery();
+        if (query instanceof GetChildrenCannedQuery)
+        {
+            return ((GetChildrenCannedQuery)query).getCursorAfter(nodeRefs.get(nodeRefs.size() - 1));
+        }
+        return null;
+    }
 
     /* (non-Javadoc)
      * @see org.alfresco.service.cmr.model.FileFolderService#list(org.alfresco.service.cmr.repository.NodeRef, boolean, boolean, java.util.Set, org.alfresco.service.cmr.model.PagingSortRequest)
@@ -27,6 +27,7 @@ package org.alfresco.repo.model.filefolder;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -108,6 +109,15 @@ public class GetChildrenCannedQuery extends org.alfresco.repo.node.getchildren.G
         FilterSortChildQueryCallback callback = new FileFolderFilterSortChildQueryCallback(children, filterProps);
         return callback;
     }
+    
+    @Override
+    protected Set<QName> getFolderTypeQNames()
+    {
+        // note: as per IS_FOLDER (see FileFolderFilterSortChildQueryCallback)
+        Set<QName> folderTypeQNames = new HashSet<QName>(dictionaryService.getSubTypes(ContentModel.TYPE_FOLDER, true));
+        folderTypeQNames.add(ContentModel.TYPE_FOLDER);
+        return folderTypeQNames;
+    }
 
     private class FileFolderFilterSortChildQueryCallback extends DefaultFilterSortChildQueryCallback
     {
@@ -73,6 +73,15 @@ public interface NodeBulkLoader
      */
     public void cacheNodesById(List<Long> nodeIds);
     
+    /**
+     * Pre-cache the parent associations of the given nodes.  Only nodes that are already
+     * cached are considered, and it is up to the implementations to ensure that batching
+     * is done where necessary.
+     * 
+     * @param nodeIds           the nodes whose parent associations will be cached.
+     */
+    public void cacheParentAssocs(List<Long> nodeIds);
+    
     /**
      * <b>FOR TESTING ONLY: </b>Clears out node cache data
      */
@@ -62,6 +62,20 @@ public class FilterSortNodeEntity
 
     private Boolean isPrimary;
     
+    // keyset paging - order by child node id and seek past the given id
+    private boolean keysetOrder;
+    private Long afterChildNodeId;
+    
+    // keyset paging by name - order by (folders first or last, then) name and node id and seek past the given child
+    private boolean nameKeysetOrder;
+    private boolean nameAscending;
+    private List<Long> folderTypeQNameIds;
+    private boolean foldersFirst;
+    private String afterName;
+    private Long afterNameChildNodeId;
+    private Boolean afterIsFolder;
+    private boolean afterInFirstFolderGroup;
+    
     /**
      * Default constructor
      */
@@ -258,4 +272,104 @@ public class FilterSortNodeEntity
     {
         this.isPrimary = isPrimary;
     }
+
+    public boolean isKeysetOrder()
+    {
+        return keysetOrder;
+    }
+
+    public void setKeysetOrder(boolean keysetOrder)
+    {
+        this.keysetOrder = keysetOrder;
+    }
+
+    public Long getAfterChildNodeId()
+    {
+        return afterChildNodeId;
+    }
+
+    public void setAfterChildNodeId(Long afterChildNodeId)
+    {
+        this.afterChildNodeId = afterChildNodeId;
+    }
+
+    public boolean isNameKeysetOrder()
+    {
+        return nameKeysetOrder;
+    }
+
+    public void setNameKeysetOrder(boolean nameKeysetOrder)
+    {
+        this.nameKeysetOrder = nameKeysetOrder;
+    }
+
+    public boolean isNameAscending()
+    {
+        return nameAscending;
+    }
+
+    public void setNameAscending(boolean nameAscending)
+    {
+        this.nameAscending = nameAscending;
+    }
+
+    public List<Long> getFolderTypeQNameIds()
+    {
+        return folderTypeQNameIds;
+    }
+
+    public void setFolderTypeQNameIds(List<Long> folderTypeQNameIds)
+    {
+        this.folderTypeQNameIds = folderTypeQNameIds;
+    }
+
+    public boolean isFoldersFirst()
+    {
+        return foldersFirst;
+    }
+
+    public void setFoldersFirst(boolean foldersFirst)
+    {
+        this.foldersFirst = foldersFirst;
+    }
+
+    public String getAfterName()
+    {
+        return afterName;
+    }
+
+    public void setAfterName(String afterName)
+    {
+        this.afterName = afterName;
+    }
+
+    public Long getAfterNameChildNodeId()
+    {
+        return afterNameChildNodeId;
+    }
+
+    public void setAfterNameChildNodeId(Long afterNameChildNodeId)
+    {
+        this.afterNameChildNodeId = afterNameChildNodeId;
+    }
+
+    public Boolean getAfterIsFolder()
+    {
+        return afterIsFolder;
+    }
+
+    public void setAfterIsFolder(Boolean afterIsFolder)
+    {
+        this.afterIsFolder = afterIsFolder;
+    }
+
+    public boolean isAfterInFirstFolderGroup()
+    {
+        return afterInFirstFolderGroup;
+    }
+
+    public void setAfterInFirstFolderGroup(boolean afterInFirstFolderGroup)
+    {
+        this.afterInFirstFolderGroup = afterInFirstFolderGroup;
+    }
 }
\ No newline at end of file
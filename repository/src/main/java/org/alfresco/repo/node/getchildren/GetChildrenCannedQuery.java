@@ -110,6 +110,11 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
     
     private boolean applyPostQueryPermissions = false; // if true, the permissions will be applied post-query (else should be applied as part of the "queryAndFilter")
     
+    // keyset paging - set by "queryAndFilter" (null if keyset paging was not requested)
+    private List<QName> keysetSortProps;
+    private Comparator<FilterSortNode> keysetComparator;
+    private Map<NodeRef, FilterSortNode> keysetNodes;
+    
     public GetChildrenCannedQuery(
             NodeDAO nodeDAO,
             QNameDAO qnameDAO,
@@ -246,6 +251,45 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
         
         filterSortPropCnt = setFilterSortParams(sortFilterProps, params);
         
+        GetChildrenCursor afterCursor = paramBean.getAfterCursor();
+        boolean nameKeysetOrder = false;
+        if (paramBean.isKeysetPaging())
+        {
+            // note: if sorted then the children are still sorted post-query (by collation) and the cursor is applied as they are handled,
+            //       unless sorted by name (see setNameKeysetOrder), else they are listed in child node id order and the cursor is
+            //       applied by the query itself
+            boolean sorted = (filterSortPropCnt > 0) && (sortPairs.size() > 0);
+            
+            keysetSortProps = new ArrayList<QName>(sortPairs.size());
+            if (sorted)
+            {
+                for (Pair<QName, SortOrder> sort : sortPairs)
+                {
+                    keysetSortProps.add(sort.getFirst());
+                }
+            }
+            
+            if ((afterCursor != null) && (afterCursor.getSortValues().size() != keysetSortProps.size()))
+            {
+                throw new IllegalArgumentException("GetChildren: cursor does not match the requested sort: "+afterCursor);
+            }
+            
+            Comparator<FilterSortNode> byNodeId = Comparator.comparing(FilterSortNode::getNodeId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            keysetComparator = (sorted ? new PropComparatorAsc(sortPairs).thenComparing(byNodeId) : byNodeId);
+            
+            if (! sorted)
+            {
+                params.setKeysetOrder(true);
+                if (afterCursor != null)
+                {
+                    params.setAfterChildNodeId(afterCursor.getNodeId());
+                }
+            }
+            else
+            {
+                nameKeysetOrder = setNameKeysetOrder(sortPairs, afterCursor, params);
+            }
+        }
         
         List<NodeRef> result = new ArrayList<>(0);
         
@@ -298,17 +342,26 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
 	        {
 	            // filtered and/or sorted - note: permissions will be applied post query
 	            final List<FilterSortNode> children = new ArrayList<FilterSortNode>(100);
-	            final FilterSortChildQueryCallback c = getFilterSortChildQuery(children, filterProps, paramBean);
+	            FilterSortChildQueryCallback c = getFilterSortChildQuery(children, filterProps, paramBean);
+	            if (nameKeysetOrder)
+	            {
+	                // already in keyset order and past the cursor - note: permissions are applied during result handling to allow early cutoff
+	                c = new PermittedFilterSortChildQueryCallback(c, children, parameters.getResultsRequired());
+	            }
+	            else if ((keysetComparator != null) && (afterCursor != null))
+	            {
+	                c = new AfterCursorFilterSortChildQueryCallback(c, children, afterCursor);
+	            }
 	            FilterSortResultHandler resultHandler = new FilterSortResultHandler(c);
 	            cannedQueryDAO.executeQuery(QUERY_NAMESPACE, QUERY_SELECT_GET_CHILDREN_WITH_PROPS, params, 0, Integer.MAX_VALUE, resultHandler);
 	            resultHandler.done();
 	            
-	            if (sortPairs.size() > 0)
+	            if ((! nameKeysetOrder) && ((sortPairs.size() > 0) || (keysetComparator != null)))
 	            {
 	            	Long startSort = (logger.isDebugEnabled() ? System.currentTimeMillis() : null);
 	            	
 	                // sort
-	                Collections.sort(children, new PropComparatorAsc(sortPairs));
+	                Collections.sort(children, (keysetComparator != null ? keysetComparator : new PropComparatorAsc(sortPairs)));
 	                
 	                if (startSort != null)
 	                {
@@ -317,9 +370,25 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
 	            }
 	            
 	            result = new ArrayList<NodeRef>(children.size());
+	            if (keysetComparator != null)
+	            {
+	                keysetNodes = new HashMap<NodeRef, FilterSortNode>(children.size());
+	            }
 	            for (FilterSortNode child : children)
 	            {
-	                result.add(tenantService.getBaseName(child.getNodeRef()));
+	                NodeRef childRef = tenantService.getBaseName(child.getNodeRef());
+	                result.add(childRef);
+	                if (keysetNodes != null)
+	                {
+	                    keysetNodes.put(childRef, child);
+	                }
+	            }
+	            
+	            if (nameKeysetOrder)
+	            {
+	                // permissions have been applied
+	                applyPostQueryPermissions = false;
+	                result = PermissionCheckedValueMixin.create(result);
 	            }
 	        }
 	        else
@@ -349,6 +418,119 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
         return result;
     }
     
+    /**
+     * Get the cursor positioned at the given child of a keyset paged listing, from which the listing can be continued
+     * (see {@link GetChildrenCannedQueryParams#isKeysetPaging()}). Only available once the query has been executed.
+     * 
+     * @param nodeRef       a child returned by this query - typically the last child of a page
+     * @return              the opaque cursor or null if this is not a keyset paged listing (or the child is not known) - also null
+     *                      if a sort value cannot be held by a cursor, in which case the listing can only be continued by skip count
+     */
+    public String getCursorAfter(NodeRef nodeRef)
+    {
+        if (keysetSortProps == null)
+        {
+            return null;
+        }
+        
+        if (keysetNodes != null)
+        {
+            FilterSortNode node = keysetNodes.get(nodeRef);
+            if (node == null)
+            {
+                return null;
+            }
+            
+            List<Serializable> sortValues = new ArrayList<Serializable>(keysetSortProps.size());
+            for (QName sortProp : keysetSortProps)
+            {
+                Serializable sortValue = node.getVal(sortProp);
+                if (! GetChildrenCursor.isSupported(sortValue))
+                {
+                    return null;
+                }
+                sortValues.add(sortValue);
+            }
+            return new GetChildrenCursor(sortValues, node.getNodeId()).encode();
+        }
+        
+        // unsorted - listed in child node id order
+        Pair<Long, NodeRef> nodePair = nodeDAO.getNodePair(tenantService.getName(nodeRef));
+        return (nodePair == null ? null : new GetChildrenCursor(Collections.<Serializable>emptyList(), nodePair.getFirst()).encode());
+    }
+    
+    /**
+     * Get the folder types, if known, for sorting by {@link #SORT_QNAME_NODE_IS_FOLDER} - allows keyset paging of the default
+     * folders first, then by name, listing to be ordered by the query itself
+     * 
+     * @return              the folder type and its sub-types or null if not known (default)
+     */
+    protected Set<QName> getFolderTypeQNames()
+    {
+        return null;
+    }
+    
+    // Keyset paging sorted by name (optionally by IS_FOLDER first, as per the default listing) is ordered and sought past the
+    // cursor by the query itself, so only the requested page (plus any filtered children) is read rather than all the children.
+    // Note: names are then compared by the database (rather than by locale collation) and the cursor must come from this mode.
+    private boolean setNameKeysetOrder(List<Pair<QName, SortOrder>> sortPairs, GetChildrenCursor afterCursor, FilterSortNodeEntity params)
+    {
+        int sortCnt = sortPairs.size();
+        Pair<QName, SortOrder> nameSort = sortPairs.get(sortCnt - 1);
+        Pair<QName, SortOrder> folderSort = (sortCnt == 2 ? sortPairs.get(0) : null);
+        if ((sortCnt > 2) || (! nameSort.getFirst().equals(ContentModel.PROP_NAME)) ||
+            ((folderSort != null) && (! folderSort.getFirst().equals(SORT_QNAME_NODE_IS_FOLDER))))
+        {
+            return false;
+        }
+        
+        // note: cm:name is prop1 as the sort props come first
+        Long nameQNameId = getQNameId(ContentModel.PROP_NAME);
+        if ((nameQNameId == null) || (! nameQNameId.equals(params.getProp1qnameId())))
+        {
+            return false;
+        }
+        
+        List<Long> folderTypeQNameIds = null;
+        boolean foldersFirst = false;
+        if (folderSort != null)
+        {
+            Set<QName> folderTypeQNames = getFolderTypeQNames();
+            if (folderTypeQNames == null)
+            {
+                return false;
+            }
+            Set<Long> qnameIds = qnameDAO.convertQNamesToIds(folderTypeQNames, false);
+            if (qnameIds.size() == 0)
+            {
+                return false;
+            }
+            folderTypeQNameIds = new ArrayList<Long>(qnameIds);
+            foldersFirst = (folderSort.getSecond() != SortOrder.ASCENDING);
+        }
+        
+        if (afterCursor != null)
+        {
+            Serializable afterName = afterCursor.getSortValues().get(sortCnt - 1);
+            Serializable afterIsFolder = (folderSort != null ? afterCursor.getSortValues().get(0) : Boolean.FALSE);
+            if ((! (afterName instanceof String)) || (! (afterIsFolder instanceof Boolean)))
+            {
+                return false;
+            }
+            
+            params.setAfterName((String)afterName);
+            params.setAfterNameChildNodeId(afterCursor.getNodeId());
+            params.setAfterIsFolder((Boolean)afterIsFolder);
+            params.setAfterInFirstFolderGroup(((Boolean)afterIsFolder).booleanValue() == foldersFirst);
+        }
+        
+        params.setNameKeysetOrder(true);
+        params.setNameAscending(nameSort.getSecond() == SortOrder.ASCENDING);
+        params.setFolderTypeQNameIds(folderTypeQNameIds);
+        params.setFoldersFirst(foldersFirst);
+        return true;
+    }
+    
     // Set filter/sort props (between 0 and 3)
     private int setFilterSortParams(List<QName> filterSortProps, FilterSortNodeEntity params)
     {
@@ -500,6 +682,14 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
             {
                 result = (((Boolean)pv1).compareTo((Boolean)pv2));
             }
+            else if (pv1 instanceof Double)
+            {
+                result = (((Double)pv1).compareTo((Double)pv2));
+            }
+            else if (pv1 instanceof Float)
+            {
+                result = (((Float)pv1).compareTo((Float)pv2));
+            }
             else
             {
                 // TODO other comparisons
@@ -713,6 +903,73 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
         }
     }
     
+    // Drops the children at or before the cursor as they are handled, so that earlier pages are neither kept nor sorted
+    private class AfterCursorFilterSortChildQueryCallback implements FilterSortChildQueryCallback
+    {
+        private final FilterSortChildQueryCallback callback;
+        private final List<FilterSortNode> children;
+        private final FilterSortNode cursorNode;
+        
+        private AfterCursorFilterSortChildQueryCallback(FilterSortChildQueryCallback callback, List<FilterSortNode> children, GetChildrenCursor afterCursor)
+        {
+            this.callback = callback;
+            this.children = children;
+            
+            Map<QName, Serializable> propVals = new HashMap<QName, Serializable>(keysetSortProps.size());
+            for (int i = 0; i < keysetSortProps.size(); i++)
+            {
+                propVals.put(keysetSortProps.get(i), afterCursor.getSortValues().get(i));
+            }
+            this.cursorNode = new FilterSortNode(afterCursor.getNodeId(), null, propVals);
+        }
+        
+        @Override
+        public boolean handle(FilterSortNode node)
+        {
+            boolean more = callback.handle(node);
+            
+            // note: compared once handled, as the callback may add sort values (eg. IS_FOLDER)
+            int last = children.size() - 1;
+            if ((last >= 0) && (children.get(last) == node) && (keysetComparator.compare(node, cursorNode) <= 0))
+            {
+                children.remove(last);
+            }
+            
+            return more;
+        }
+    }
+    
+    // Drops the children that cannot be read as they are handled and stops once enough have been kept (see setNameKeysetOrder)
+    private class PermittedFilterSortChildQueryCallback implements FilterSortChildQueryCallback
+    {
+        private final FilterSortChildQueryCallback callback;
+        private final List<FilterSortNode> children;
+        private final int requestedCount;
+        
+        private PermittedFilterSortChildQueryCallback(FilterSortChildQueryCallback callback, List<FilterSortNode> children, int requestedCount)
+        {
+            this.callback = callback;
+            this.children = children;
+            this.requestedCount = requestedCount;
+        }
+        
+        @Override
+        public boolean handle(FilterSortNode node)
+        {
+            boolean more = callback.handle(node);
+            
+            // note: already pre-loaded by the result handler
+            int last = children.size() - 1;
+            if ((last >= 0) && (children.get(last) == node) &&
+                GetChildrenCannedQuery.super.applyPostQueryPermissions(Collections.singletonList(node.getNodeRef()), 1).isEmpty())
+            {
+                children.remove(last);
+            }
+            
+            return more && (children.size() < requestedCount);
+        }
+    }
+    
     protected class DefaultUnsortedChildQueryCallback implements UnsortedChildQueryCallback
     {
         private List<NodeRef> rawResult;
@@ -875,7 +1132,7 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
                 }
                 
                 // Call back
-                boolean more = resultsCallback.handle(new FilterSortNode(nodeRef, propVals));
+                boolean more = resultsCallback.handle(new FilterSortNode(node.getId(), nodeRef, propVals));
                 if (!more)
                 {
                     this.more = false;
@@ -889,11 +1146,18 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
     
     protected class FilterSortNode
     {
+        private Long nodeId;
         private NodeRef nodeRef;
         private Map<QName, Serializable> propVals; // subset of nodes properties - used for filtering and/or sorting
         
         public FilterSortNode(NodeRef nodeRef, Map<QName, Serializable> propVals)
         {
+            this(null, nodeRef, propVals);
+        }
+        
+        public FilterSortNode(Long nodeId, NodeRef nodeRef, Map<QName, Serializable> propVals)
+        {
+            this.nodeId = nodeId;
             this.nodeRef = nodeRef;
             this.propVals = propVals;
         }
@@ -901,7 +1165,12 @@ public class GetChildrenCannedQuery extends AbstractCannedQueryPermissions<NodeR
         @Override
         public String toString()
         {
-            return "FilterSortNode [nodeRef=" + nodeRef + ", propVals=" + propVals + "]";
+            return "FilterSortNode [nodeId=" + nodeId + ", nodeRef=" + nodeRef + ", propVals=" + propVals + "]";
+        }
+        
+        public Long getNodeId()
+        {
+            return nodeId;
         }
 
         public NodeRef getNodeRef()
@@ -157,9 +157,10 @@ public class GetChildrenCannedQueryFactory extends AbstractCannedQueryFactory<No
      * @param exclusiveAspects      If not null, any child nodes with any aspect in this collection will be excluded in the results.
      * @param filterProps           filter properties
      * @param sortProps             sort property pairs (QName and Boolean - true if ascending)
-     * @param pagingRequest         skipCount, maxItems - optionally queryExecutionId and requestTotalCountMax
+     * @param pagingRequest         skipCount, maxItems - optionally queryExecutionId, requestTotalCountMax and keyset paging
      * 
      * @return                      an implementation that will execute the query
+     * @throws IllegalArgumentException if the paging request carries an invalid cursor
      */
     public CannedQuery<NodeRef> getCannedQuery(NodeRef parentRef, String pattern, Set<QName> assocTypeQNames, Set<QName> childTypeQNames, Set<QName> inclusiveAspects, Set<QName> exclusiveAspects, List<FilterProp> filterProps, List<Pair<QName, Boolean>> sortProps, PagingRequest pagingRequest)
     {
@@ -170,6 +171,11 @@ public class GetChildrenCannedQueryFactory extends AbstractCannedQueryFactory<No
         
         // specific query params - context (parent) and inclusive filters (child types, property values)
         GetChildrenCannedQueryParams paramBean = new GetChildrenCannedQueryParams(tenantService.getName(parentRef), assocTypeQNames, childTypeQNames, inclusiveAspects, exclusiveAspects, filterProps, pattern);
+        paramBean.setKeysetPaging(pagingRequest.isKeysetPaging());
+        if (pagingRequest.getAfterCursor() != null)
+        {
+            paramBean.setAfterCursor(GetChildrenCursor.decode(pagingRequest.getAfterCursor()));
+        }
 
         // page details
         CannedQueryPageDetails cqpd = new CannedQueryPageDetails(pagingRequest.getSkipCount(), pagingRequest.getMaxItems(), CannedQueryPageDetails.DEFAULT_PAGE_NUMBER, CannedQueryPageDetails.DEFAULT_PAGE_COUNT);
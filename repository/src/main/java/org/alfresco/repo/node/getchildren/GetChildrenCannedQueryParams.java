@@ -48,6 +48,8 @@ public class GetChildrenCannedQueryParams
     private String pattern = null;
     private Set<QName> inclusiveAspects = null;
     private Set<QName> exclusiveAspects = null;
+    private boolean keysetPaging = false;
+    private GetChildrenCursor afterCursor = null;
     
     public GetChildrenCannedQueryParams(
             NodeRef parentRef,
@@ -105,4 +107,31 @@ public class GetChildrenCannedQueryParams
     {
         return exclusiveAspects;
     }
+
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging;
+    }
+
+    public void setKeysetPaging(boolean keysetPaging)
+    {
+        this.keysetPaging = keysetPaging;
+    }
+
+    public GetChildrenCursor getAfterCursor()
+    {
+        return afterCursor;
+    }
+
+    /**
+     * @param afterCursor start after this position (implies keyset paging)
+     */
+    public void setAfterCursor(GetChildrenCursor afterCursor)
+    {
+        this.afterCursor = afterCursor;
+        if (afterCursor != null)
+        {
+            this.keysetPaging = true;
+        }
+    }
 }
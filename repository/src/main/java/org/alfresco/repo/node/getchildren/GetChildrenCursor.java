@@ -0,0 +1,239 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.node.getchildren;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.alfresco.service.namespace.QName;
+
+/**
+ * Position of a child in a keyset paged GetChildren listing: the values of the sort properties of the last child
+ * returned followed by its node id, which breaks ties between children with equal sort values.
+ * <p>
+ * The cursor is passed to and from clients as an opaque, URL safe string. It only positions the listing, so a
+ * forged cursor cannot expose anything the caller could not already page to.
+ */
+public final class GetChildrenCursor
+{
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_DATE = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_INTEGER = 4;
+    private static final byte TYPE_QNAME = 5;
+    private static final byte TYPE_BOOLEAN = 6;
+    private static final byte TYPE_DOUBLE = 7;
+    private static final byte TYPE_FLOAT = 8;
+
+    private final List<Serializable> sortValues;
+    private final long nodeId;
+
+    /**
+     * @param sortValues    the sort property values of the child, in sort order (may contain nulls)
+     * @param nodeId        the node id of the child
+     */
+    public GetChildrenCursor(List<Serializable> sortValues, long nodeId)
+    {
+        this.sortValues = Collections.unmodifiableList(new ArrayList<>(sortValues));
+        this.nodeId = nodeId;
+    }
+
+    public List<Serializable> getSortValues()
+    {
+        return sortValues;
+    }
+
+    public long getNodeId()
+    {
+        return nodeId;
+    }
+
+    /**
+     * @param value a sort property value
+     * @return true if the value can be held by a cursor (else the listing can only be continued by skip count)
+     */
+    public static boolean isSupported(Serializable value)
+    {
+        return (value == null) || (value instanceof String) || (value instanceof Date) || (value instanceof Long) ||
+               (value instanceof Integer) || (value instanceof QName) || (value instanceof Boolean) ||
+               (value instanceof Double) || (value instanceof Float);
+    }
+
+    /**
+     * @return the opaque string form of the cursor
+     * @throws IllegalArgumentException if a sort value is not {@link #isSupported(Serializable) supported}
+     */
+    public String encode()
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            out.writeByte(VERSION);
+            out.writeByte(sortValues.size());
+            for (Serializable value : sortValues)
+            {
+                writeValue(out, value);
+            }
+            out.writeLong(nodeId);
+        }
+        catch (IOException e)
+        {
+            // cannot happen writing to memory
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @param cursor the opaque string form, as returned by {@link #encode()}
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the string is not a valid cursor
+     */
+    public static GetChildrenCursor decode(String cursor)
+    {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor))))
+        {
+            if (in.readByte() != VERSION)
+            {
+                throw new IllegalArgumentException("Unsupported cursor: " + cursor);
+            }
+            int count = in.readUnsignedByte();
+            List<Serializable> sortValues = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+            {
+                sortValues.add(readValue(in));
+            }
+            long nodeId = in.readLong();
+            if (in.available() > 0)
+            {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new GetChildrenCursor(sortValues, nodeId);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Serializable value) throws IOException
+    {
+        if (value == null)
+        {
+            out.writeByte(TYPE_NULL);
+        }
+        else if (value instanceof String)
+        {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        }
+        else if (value instanceof Date)
+        {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        }
+        else if (value instanceof Long)
+        {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Integer)
+        {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        }
+        else if (value instanceof QName)
+        {
+            out.writeByte(TYPE_QNAME);
+            out.writeUTF(value.toString());
+        }
+        else if (value instanceof Boolean)
+        {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+        else if (value instanceof Double)
+        {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        }
+        else if (value instanceof Float)
+        {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unsupported sort type: " + value.getClass().getName());
+        }
+    }
+
+    private static Serializable readValue(DataInputStream in) throws IOException
+    {
+        byte type = in.readByte();
+        switch (type)
+        {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return in.readUTF();
+            case TYPE_DATE:
+                return new Date(in.readLong());
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_QNAME:
+                return QName.createQName(in.readUTF());
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            default:
+                throw new IllegalArgumentException("Unsupported cursor value type: " + type);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "GetChildrenCursor [sortValues=" + sortValues + ", nodeId=" + nodeId + "]";
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.policy;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Base class of the aggregate policy implementations generated in compiled dispatch mode.
+ * <p>
+ * It gives them the <tt>toString</tt>, <tt>equals</tt> and <tt>hashCode</tt> of the proxies created in
+ * proxy dispatch mode: an aggregate of a single policy is equal to, and has the hash code of, the policy it
+ * wraps, while any other aggregate is only equal to itself.
+ * 
+ * @see PolicyFactory#toPolicy(Collection)
+ */
+/*package*/ abstract class CompiledPolicy
+{
+    private final Collection<?> policies;
+
+    /**
+     * Construct
+     * 
+     * @param policies  the policy implementations aggregated
+     */
+    protected CompiledPolicy(Collection<?> policies)
+    {
+        this.policies = policies;
+    }
+
+    /**
+     * @return  the policy implementation wrapped, or <tt>null</tt> if none or several are aggregated
+     */
+    private Object getSinglePolicy()
+    {
+        Iterator<?> iterator = policies.iterator();
+        return (policies.size() == 1 ? iterator.next() : null);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        Object policy = getSinglePolicy();
+        if (policy == null || obj == null)
+        {
+            return this == obj;
+        }
+        if (obj instanceof CompiledPolicy)
+        {
+            Object otherPolicy = ((CompiledPolicy)obj).getSinglePolicy();
+            return otherPolicy != null && policy.equals(otherPolicy);
+        }
+        return obj.equals(policy);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        Object policy = getSinglePolicy();
+        return (policy == null ? super.hashCode() : policy.hashCode());
+    }
+
+    @Override
+    public String toString()
+    {
+        int size = policies.size();
+        if (size == 0)
+        {
+            return super.toString();
+        }
+        return super.toString() + ": wrapped " + size + (size == 1 ? " policy" : " policies");
+    }
+}
@@ -25,6 +25,9 @@
  */
 package org.alfresco.repo.policy;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -45,6 +48,8 @@ import org.springframework.extensions.surf.util.ParameterCheck;
 @AlfrescoPublicApi
 public class JavaBehaviour extends BaseBehaviour
 {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     // The object instance holding the method
     Object instance;
     
@@ -126,16 +131,55 @@ public class JavaBehaviour extends BaseBehaviour
             throw new PolicyException("Method " + method + " not found or accessible on " + instance.getClass(), e);
         }
     }    
-    
+
+    /**
+     * Creates a method handle that calls the delegate method directly, with the same
+     * disable/enable guard that the invocation handler applies.  The handle has the
+     * generic shape <tt>(Object, ...)Object</tt> for the number of policy arguments.
+     * 
+     * @param delegateMethod  the method to invoke
+     * @return  the method handle
+     * @throws IllegalAccessException  if the method cannot be accessed directly
+     */
+    MethodHandle createMethodHandle(Method delegateMethod) throws IllegalAccessException
+    {
+        MethodType genericType = MethodType.genericMethodType(delegateMethod.getParameterCount());
+        MethodHandle target = LOOKUP.unreflect(delegateMethod).bindTo(instance).asType(genericType);
+        try
+        {
+            MethodHandle isEnabled = LOOKUP.findVirtual(BaseBehaviour.class, "isEnabled", MethodType.methodType(boolean.class)).bindTo(this);
+            MethodHandle disable = LOOKUP.findVirtual(BaseBehaviour.class, "disable", MethodType.methodType(void.class)).bindTo(this);
+            MethodHandle enable = LOOKUP.findStatic(JavaBehaviour.class, "enableAfterInvoke",
+                    MethodType.methodType(Object.class, JavaBehaviour.class, Throwable.class, Object.class)).bindTo(this);
+            // if enabled { disable; try { target } finally { enable } } else { null }
+            MethodHandle invoke = MethodHandles.foldArguments(MethodHandles.tryFinally(target, enable), disable);
+            MethodHandle skip = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, genericType.parameterList());
+            return MethodHandles.guardWithTest(isEnabled, invoke, skip);
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new PolicyException("Unable to compile invoker for " + this, e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static Object enableAfterInvoke(JavaBehaviour behaviour, Throwable failure, Object result)
+    {
+        behaviour.enable();
+        return result;
+    }
+
     /**
      * Java Method Invocation Handler
      * 
      * @author David Caruana
      */
-    private static class JavaMethodInvocationHandler implements InvocationHandler
+    static class JavaMethodInvocationHandler implements InvocationHandler
     {
         private JavaBehaviour behaviour;
         private Method delegateMethod;
+        // compiled invoker, created on first use by compiled policy dispatch
+        private volatile MethodHandle methodHandle;
         
         /**
          * Constuct.
@@ -149,6 +193,23 @@ public class JavaBehaviour extends BaseBehaviour
             this.delegateMethod = delegateMethod;
         }
 
+        /**
+         * Gets the compiled invoker of the delegate method.
+         * 
+         * @return  the method handle, see {@link JavaBehaviour#createMethodHandle(Method)}
+         * @throws IllegalAccessException  if the method cannot be accessed directly
+         */
+        MethodHandle getMethodHandle() throws IllegalAccessException
+        {
+            MethodHandle handle = methodHandle;
+            if (handle == null)
+            {
+                handle = behaviour.createMethodHandle(delegateMethod);
+                methodHandle = handle;
+            }
+            return handle;
+        }
+
         /* (non-Javadoc)
          * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method, java.lang.Object[])
          */
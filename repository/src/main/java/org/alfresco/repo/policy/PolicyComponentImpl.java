@@ -53,6 +53,18 @@ import org.apache.commons.logging.LogFactory;
  */
 public class PolicyComponentImpl implements PolicyComponent
 {
+    /**
+     * How aggregate policies, such as those returned by
+     * {@link ClassPolicyDelegate#get(org.alfresco.service.cmr.repository.NodeRef, java.util.Set)}, invoke their behaviours.
+     */
+    public enum DispatchMode
+    {
+        /** Through <tt>java.lang.reflect.Proxy</tt> and reflective method calls */
+        PROXY,
+        /** Through generated policy implementations and precompiled method handles */
+        COMPILED
+    }
+
     // Logger
     private static final Log logger = LogFactory.getLog(PolicyComponentImpl.class);
     
@@ -134,6 +146,18 @@ public class PolicyComponentImpl implements PolicyComponent
     }
     
     
+    /**
+     * Sets how aggregate policies invoke their behaviours
+     * 
+     * @param dispatchMode DispatchMode
+     */
+    public void setDispatchMode(DispatchMode dispatchMode)
+    {
+        ParameterCheck.mandatory("dispatchMode", dispatchMode);
+        PolicyFactory.setDispatchMode(dispatchMode);
+    }
+    
+    
     /* (non-Javadoc)
      * @see org.alfresco.repo.policy.PolicyComponent#registerClassPolicy()
      */
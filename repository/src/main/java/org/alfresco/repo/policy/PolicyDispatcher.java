@@ -0,0 +1,174 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.policy;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Fans a policy invocation out to the behaviours of an aggregate policy.
+ * <p>
+ * In compiled dispatch mode the {@link PolicyFactory} generates the policy implementation with
+ * {@link java.lang.invoke.LambdaMetafactory}.  It calls the <tt>invoke</tt> method matching the arity
+ * of the policy method, which in turn calls each behaviour through a precompiled method handle, so
+ * neither reflection nor an argument array is involved.  Each handle has the generic shape
+ * <tt>(Object, ...)Object</tt>.
+ * 
+ * @see PolicyFactory#toPolicy(java.util.Collection)
+ */
+/*package*/ final class PolicyDispatcher
+{
+    // The largest number of policy method arguments supported
+    static final int MAX_ARITY = 6;
+
+    private final MethodHandle[] handles;
+
+    /**
+     * Construct
+     * 
+     * @param handles  the behaviours to invoke, in order
+     */
+    PolicyDispatcher(MethodHandle[] handles)
+    {
+        this.handles = handles;
+    }
+
+    /**
+     * @return  the number of behaviours invoked
+     */
+    int size()
+    {
+        return handles.length;
+    }
+
+    Object invoke0() throws Throwable
+    {
+        Object result = null;
+        for (MethodHandle handle : handles)
+        {
+            result = (Object) handle.invokeExact();
+        }
+        return result;
+    }
+
+    Object invoke1(Object a1) throws Throwable
+    {
+        if (PolicyFactory.isMTArgConversionEnabled())
+        {
+            a1 = PolicyFactory.convertMTArg(a1);
+        }
+        Object result = null;
+        for (MethodHandle handle : handles)
+        {
+            result = (Object) handle.invokeExact(a1);
+        }
+        return result;
+    }
+
+    Object invoke2(Object a1, Object a2) throws Throwable
+    {
+        if (PolicyFactory.isMTArgConversionEnabled())
+        {
+            a1 = PolicyFactory.convertMTArg(a1);
+            a2 = PolicyFactory.convertMTArg(a2);
+        }
+        Object result = null;
+        for (MethodHandle handle : handles)
+        {
+            result = (Object) handle.invokeExact(a1, a2);
+        }
+        return result;
+    }
+
+    Object invoke3(Object a1, Object a2, Object a3) throws Throwable
+    {
+        if (PolicyFactory.isMTArgConversionEnabled())
+        {
+            a1 = PolicyFactory.convertMTArg(a1);
+            a2 = PolicyFactory.convertMTArg(a2);
+            a3 = PolicyFactory.convertMTArg(a3);
+        }
+        Object result = null;
+        for (MethodHandle handle : handles)
+        {
+            result = (Object) handle.invokeExact(a1, a2, a3);
+        }
+        return result;
+    }
+
+    Object invoke4(Object a1, Object a2, Object a3, Object a4) throws Throwable
+    {
+        if (PolicyFactory.isMTArgConversionEnabled())
+        {
+            a1 = PolicyFactory.convertMTArg(a1);
+            a2 = PolicyFactory.convertMTArg(a2);
+            a3 = PolicyFactory.convertMTArg(a3);
+            a4 = PolicyFactory.convertMTArg(a4);
+        }
+        Object result = null;
+        for (MethodHandle handle : handles)
+        {
+            result = (Object) handle.invokeExact(a1, a2, a3, a4);
+        }
+        return result;
+    }
+
+    Object invoke5(Object a1, Object a2, Object a3, Object a4, Object a5) throws Throwable
+    {
+        if (PolicyFactory.isMTArgConversionEnabled())
+        {
+            a1 = PolicyFactory.convertMTArg(a1);
+            a2 = PolicyFactory.convertMTArg(a2);
+            a3 = PolicyFactory.convertMTArg(a3);
+            a4 = PolicyFactory.convertMTArg(a4);
+            a5 = PolicyFactory.convertMTArg(a5);
+        }
+        Object result = null;
+        for (MethodHandle handle : handles)
+        {
+            result = (Object) handle.invokeExact(a1, a2, a3, a4, a5);
+        }
+        return result;
+    }
+
+    Object invoke6(Object a1, Object a2, Object a3, Object a4, Object a5, Object a6) throws Throwable
+    {
+        if (PolicyFactory.isMTArgConversionEnabled())
+        {
+            a1 = PolicyFactory.convertMTArg(a1);
+            a2 = PolicyFactory.convertMTArg(a2);
+            a3 = PolicyFactory.convertMTArg(a3);
+            a4 = PolicyFactory.convertMTArg(a4);
+            a5 = PolicyFactory.convertMTArg(a5);
+            a6 = PolicyFactory.convertMTArg(a6);
+        }
+        Object result = null;
+        for (MethodHandle handle : handles)
+        {
+            result = (Object) handle.invokeExact(a1, a2, a3, a4, a5, a6);
+        }
+        return result;
+    }
+}
@@ -25,6 +25,12 @@
  */
 package org.alfresco.repo.policy;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -35,11 +41,18 @@ import java.util.Collections;
 import java.util.List;
 
 import org.alfresco.repo.policy.Behaviour.NotificationFrequency;
+import org.alfresco.repo.policy.PolicyComponentImpl.DispatchMode;
 import org.alfresco.repo.tenant.TenantService;
 import org.alfresco.service.cmr.repository.AssociationRef;
 import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.repository.StoreRef;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
 
 
 /**
@@ -52,6 +65,11 @@ import org.alfresco.service.cmr.repository.StoreRef;
  */
 /*package*/ class PolicyFactory<B extends BehaviourBinding, P extends Policy>
 {
+    // Logger
+    private static final Log logger = LogFactory.getLog(PolicyFactory.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     // Behaviour Index to query
     private BehaviourIndex<B> index;
     
@@ -67,6 +85,15 @@ import org.alfresco.service.cmr.repository.StoreRef;
     // Tenant Service
     private static TenantService tenantService = null;
     
+    // How aggregate policies invoke their behaviours
+    private static DispatchMode dispatchMode = DispatchMode.PROXY;
+    
+    // Compiled dispatch: creates a policy implementation for the aggregated policies and their PolicyDispatcher,
+    // and invokes the policy method of a single policy implementation
+    private volatile MethodHandle compiledPolicyConstructor;
+    private volatile MethodHandle policyMethodHandle;
+    private volatile boolean compiledDispatchUnsupported;
+    
     
     /**
      * Construct.
@@ -101,6 +128,16 @@ import org.alfresco.service.cmr.repository.StoreRef;
         tenantService = service;
     }
 
+    /**
+     * Sets how aggregate policies invoke their behaviours
+     * 
+     * @param mode DispatchMode
+     */
+    protected static void setDispatchMode(DispatchMode mode)
+    {
+        dispatchMode = mode;
+    }
+
     
     /**
      * Gets the Policy class created by this factory
@@ -121,8 +158,9 @@ import org.alfresco.service.cmr.repository.StoreRef;
      */
     public P create(B binding)
     {
+        // The policy delegates flatten these through PolicyList, so they are always proxies
         Collection<P> policyInterfaces = createList(binding);
-        return toPolicy(policyInterfaces);
+        return toProxyPolicy(policyInterfaces);
     }
     
 
@@ -165,8 +203,29 @@ import org.alfresco.service.cmr.repository.StoreRef;
      * @param policyList  the policy implementations to aggregate
      * @return  the aggregate policy implementation
      */
-    @SuppressWarnings("unchecked")
     public P toPolicy(Collection<P> policyList)
+    {
+        if (dispatchMode == DispatchMode.COMPILED)
+        {
+            P policy = toCompiledPolicy(policyList);
+            if (policy != null)
+            {
+                return policy;
+            }
+        }
+        return toProxyPolicy(policyList);
+    }
+    
+
+    /**
+     * Construct a single aggregate policy implementation, based on <tt>java.lang.reflect.Proxy</tt>,
+     * for the specified collection of policy implementations.
+     * 
+     * @param policyList  the policy implementations to aggregate
+     * @return  the aggregate policy implementation
+     */
+    @SuppressWarnings("unchecked")
+    protected P toProxyPolicy(Collection<P> policyList)
     {
         if (policyList.size() == 1)
         {
@@ -187,6 +246,215 @@ import org.alfresco.service.cmr.repository.StoreRef;
     }
     
 
+    /**
+     * Construct a single aggregate policy implementation that invokes each behaviour through a
+     * precompiled method handle.  Java behaviours are called directly; any other policy
+     * implementation, such as a transaction-deferred one, is called through its policy interface.
+     * 
+     * @param policyList  the policy implementations to aggregate
+     * @return  the aggregate policy implementation, or <tt>null</tt> if the policy cannot be compiled
+     */
+    @SuppressWarnings("unchecked")
+    private P toCompiledPolicy(Collection<P> policyList)
+    {
+        MethodHandle constructor = getCompiledPolicyConstructor();
+        if (constructor == null)
+        {
+            return null;
+        }
+        List<MethodHandle> handles = new ArrayList<MethodHandle>(policyList.size());
+        for (P policy : policyList)
+        {
+            addMethodHandles(policy, handles);
+        }
+        try
+        {
+            PolicyDispatcher dispatcher = new PolicyDispatcher(handles.toArray(new MethodHandle[handles.size()]));
+            return (P)constructor.invoke(Collections.unmodifiableCollection(policyList), dispatcher);
+        }
+        catch (Throwable e)
+        {
+            throw new PolicyException("Failed to create compiled policy " + policyClass.getName(), e);
+        }
+    }
+    
+
+    /**
+     * Adds the method handles that invoke the given policy implementation, unwrapping the
+     * aggregates and Java behaviours created by this package.
+     */
+    private void addMethodHandles(Object policy, List<MethodHandle> handles)
+    {
+        if (Proxy.isProxyClass(policy.getClass()))
+        {
+            InvocationHandler handler = Proxy.getInvocationHandler(policy);
+            if (handler instanceof NOOPHandler)
+            {
+                return;
+            }
+            else if (handler instanceof SingleHandler)
+            {
+                addMethodHandles(((SingleHandler<?>)handler).policyInterface, handles);
+                return;
+            }
+            else if (handler instanceof MultiHandler)
+            {
+                for (Object wrapped : ((MultiHandler<?>)handler).policyInterfaces)
+                {
+                    addMethodHandles(wrapped, handles);
+                }
+                return;
+            }
+            else if (handler instanceof JavaBehaviour.JavaMethodInvocationHandler)
+            {
+                try
+                {
+                    handles.add(((JavaBehaviour.JavaMethodInvocationHandler)handler).getMethodHandle());
+                    return;
+                }
+                catch (IllegalAccessException e)
+                {
+                    // The method is not directly accessible, so call it through the proxy
+                }
+            }
+        }
+        handles.add(policyMethodHandle.bindTo(policy));
+    }
+    
+
+    /**
+     * Gets the constructor of compiled policy implementations, generating the implementation
+     * class on first use.
+     * 
+     * @return  a method handle taking the aggregated policies and their PolicyDispatcher and returning
+     *          the policy implementation, or <tt>null</tt> if the policy interface cannot be compiled
+     */
+    private MethodHandle getCompiledPolicyConstructor()
+    {
+        MethodHandle constructor = compiledPolicyConstructor;
+        if (constructor != null || compiledDispatchUnsupported)
+        {
+            return constructor;
+        }
+        
+        synchronized (this)
+        {
+            if (compiledPolicyConstructor != null || compiledDispatchUnsupported)
+            {
+                return compiledPolicyConstructor;
+            }
+            try
+            {
+                Method[] policyIFMethods = policyClass.getMethods();
+                if (policyIFMethods.length != 1)
+                {
+                    throw new PolicyException("Policy interface " + policyClass.getCanonicalName() + " must have only one method");
+                }
+                Method policyMethod = policyIFMethods[0];
+                int arity = policyMethod.getParameterCount();
+                if (arity > PolicyDispatcher.MAX_ARITY)
+                {
+                    throw new PolicyException("Policy method " + policyMethod + " has more than " + PolicyDispatcher.MAX_ARITY + " arguments");
+                }
+                // The generated class is defined alongside this one, so it must be able to see the policy types
+                checkVisible(policyClass);
+                checkVisible(policyMethod.getReturnType());
+                for (Class<?> parameterType : policyMethod.getParameterTypes())
+                {
+                    checkVisible(parameterType);
+                }
+                
+                MethodType policyMethodType = MethodType.methodType(policyMethod.getReturnType(), policyMethod.getParameterTypes());
+                MethodHandle dispatch = LOOKUP.findVirtual(PolicyDispatcher.class, "invoke" + arity, MethodType.genericMethodType(arity));
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, policyMethod.getName(),
+                        MethodType.methodType(policyClass, PolicyDispatcher.class), policyMethodType, dispatch, policyMethodType);
+                
+                // The lambda is wrapped to give the policy implementation the Object methods of the proxies
+                MethodHandle wrapper = getCompiledPolicyWrapperConstructor(policyMethod);
+                
+                policyMethodHandle = LOOKUP.unreflect(policyMethod).asType(MethodType.genericMethodType(arity + 1));
+                compiledPolicyConstructor = MethodHandles.filterArguments(wrapper, 1, site.getTarget());
+            }
+            catch (ReflectiveOperationException | LambdaConversionException | LinkageError | PolicyException e)
+            {
+                compiledDispatchUnsupported = true;
+                logger.warn("Policy " + policyClass.getName() + " will use proxy dispatch: " + e.getMessage());
+            }
+            return compiledPolicyConstructor;
+        }
+    }
+    
+    /**
+     * Generates a {@link CompiledPolicy} subclass implementing the policy interface.  Its policy method calls
+     * the same method of the policy implementation it wraps.
+     * 
+     * @return  a method handle taking the aggregated policies and the wrapped policy implementation
+     *          and returning the policy implementation
+     */
+    private MethodHandle getCompiledPolicyWrapperConstructor(Method policyMethod) throws ReflectiveOperationException
+    {
+        String className = Type.getInternalName(CompiledPolicy.class) + "$" + policyClass.getSimpleName();
+        String superName = Type.getInternalName(CompiledPolicy.class);
+        String policyName = Type.getInternalName(policyClass);
+        String policyDescriptor = Type.getDescriptor(policyClass);
+        String policyMethodDescriptor = Type.getMethodDescriptor(policyMethod);
+        
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+                className, null, superName, new String[] {policyName});
+        cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "policy", policyDescriptor, null, null).visitEnd();
+        
+        // Constructor: CompiledPolicy(Collection policies) and the wrapped policy
+        MethodVisitor mv = cw.visitMethod(0, "<init>",
+                Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Collection.class), Type.getType(policyClass)), null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>",
+                Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Collection.class)), false);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, "policy", policyDescriptor);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        
+        // Policy method: delegates to the wrapped policy
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, policyMethod.getName(), policyMethodDescriptor, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, "policy", policyDescriptor);
+        int slot = 1;
+        for (Type argumentType : Type.getArgumentTypes(policyMethod))
+        {
+            mv.visitVarInsn(argumentType.getOpcode(Opcodes.ILOAD), slot);
+            slot += argumentType.getSize();
+        }
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, policyName, policyMethod.getName(), policyMethodDescriptor, true);
+        mv.visitInsn(Type.getReturnType(policyMethod).getOpcode(Opcodes.IRETURN));
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        
+        MethodHandles.Lookup wrapperLookup = LOOKUP.defineHiddenClass(cw.toByteArray(), true);
+        return wrapperLookup.findConstructor(wrapperLookup.lookupClass(), MethodType.methodType(void.class, Collection.class, policyClass))
+                .asType(MethodType.methodType(policyClass, Collection.class, policyClass));
+    }
+    
+    private static void checkVisible(Class<?> type) throws ReflectiveOperationException
+    {
+        if (type.isPrimitive())
+        {
+            return;
+        }
+        LOOKUP.accessClass(type);
+        if (Class.forName(type.getName(), false, PolicyFactory.class.getClassLoader()) != type)
+        {
+            throw new ClassNotFoundException(type.getName() + " is not visible to " + PolicyFactory.class.getClassLoader());
+        }
+    }
+    
+
     /**
      * NOOP Invocation Handler.
      * 
@@ -389,35 +657,52 @@ import org.alfresco.service.cmr.repository.StoreRef;
         // Convert each of the arguments to the spoofed (no tenant prefix) reference
         for (int i = 0; i < args.length; i++)
         {
-            Object arg = args[i];
-            Object newArg = arg;
-            if (arg == null)
-            {
-                // No conversion possible
-            }
-            if (arg instanceof StoreRef)
-            {
-                StoreRef ref = (StoreRef) arg;
-                newArg = tenantService.getBaseName(ref);
-            }
-            else if (arg instanceof NodeRef)
-            {
-                NodeRef ref = (NodeRef) arg;
-                newArg = tenantService.getBaseName(ref);
-            }
-            else if (arg instanceof ChildAssociationRef)
-            {
-                ChildAssociationRef ref = (ChildAssociationRef) arg;
-                newArg = tenantService.getBaseName(ref);
-            }
-            else if (arg instanceof AssociationRef)
-            {
-                AssociationRef ref = (AssociationRef) arg;
-                newArg = tenantService.getBaseName(ref);
-            }
-            
-            // Substitute the new value
-            args[i] = newArg;
+            args[i] = convertMTArg(args[i]);
         }    
     }
+    
+    /**
+     * @return  true if policy arguments must be converted to spoofed (no tenant prefix) references
+     */
+    static boolean isMTArgConversionEnabled()
+    {
+        return (tenantService != null) && (tenantService.isEnabled());
+    }
+    
+    /**
+     * Convert an argument to the spoofed (no tenant prefix) reference.
+     * 
+     * @param arg the argument
+     * @return the converted argument, or the argument itself if it is not a reference
+     */
+    static Object convertMTArg(Object arg)
+    {
+        Object newArg = arg;
+        if (arg == null)
+        {
+            // No conversion possible
+        }
+        if (arg instanceof StoreRef)
+        {
+            StoreRef ref = (StoreRef) arg;
+            newArg = tenantService.getBaseName(ref);
+        }
+        else if (arg instanceof NodeRef)
+        {
+            NodeRef ref = (NodeRef) arg;
+            newArg = tenantService.getBaseName(ref);
+        }
+        else if (arg instanceof ChildAssociationRef)
+        {
+            ChildAssociationRef ref = (ChildAssociationRef) arg;
+            newArg = tenantService.getBaseName(ref);
+        }
+        else if (arg instanceof AssociationRef)
+        {
+            AssociationRef ref = (AssociationRef) arg;
+            newArg = tenantService.getBaseName(ref);
+        }
+        
+        return newArg;
+    }
 }
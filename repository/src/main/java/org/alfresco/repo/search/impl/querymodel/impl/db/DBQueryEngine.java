@@ -428,8 +428,16 @@ public class DBQueryEngine implements QueryEngine
         nodes.removeAll(Collections.singleton(null));
         
         DBResultSet rs =  createResultSet(options, nodes, numberFound);
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("- permission checks: " + permissionAssessor.getChecksPerformed() + " nodes, "
+                    + permissionAssessor.getAclEvaluations() + " ACL evaluations, " + permissionAssessor.getChecksSaved()
+                    + " ACL evaluations saved, " + permissionAssessor.getOwnerChecks() + " owner checks");
+        }
         FilteringResultSet frs = new FilteringResultSet(rs, formInclusionMask(nodes));
         frs.setResultSetMetaData(new SimpleResultSetMetaData(LimitBy.UNLIMITED, PermissionEvaluationMode.EAGER, rs.getResultSetMetaData().getSearchParameters()));
+        frs.setPermissionChecksPerformed(permissionAssessor.getChecksPerformed());
+        frs.setPermissionChecksSaved(permissionAssessor.getChecksSaved());
  
         logger.debug("- query is completed, "+nodes.size()+" nodes loaded");
         return frs;
@@ -52,8 +52,12 @@ public class NodePermissionAssessor
     private final boolean isAdminReading;
     private final boolean isNullReading;
     private final Authority authority;
+    private final Set<String> authorisations;
     private final Map<Long, Boolean> aclReadCache = new HashMap<>();
     private int checksPerformed;
+    private int aclEvaluations;
+    private int aclCacheHits;
+    private int ownerChecks;
     private long startTime;
     private int maxPermissionChecks;
     private long maxPermissionCheckTimeMillis;
@@ -73,7 +77,7 @@ public class NodePermissionAssessor
         this.maxPermissionChecks = Integer.MAX_VALUE;
         this.maxPermissionCheckTimeMillis = Long.MAX_VALUE;
 
-        Set<String> authorisations = permissionService.getAuthorisations();
+        this.authorisations = permissionService.getAuthorisations();
         this.isSystemReading = AuthenticationUtil.isRunAsUserTheSystemUser();
         this.isAdminReading = authorisations.contains(AuthenticationUtil.getAdminRoleName());
         this.isNullReading = AuthenticationUtil.getRunAsUser() == null;
@@ -97,6 +101,38 @@ public class NodePermissionAssessor
         return checksPerformed == 0;
     }
 
+    /**
+     * @return the number of nodes checked so far
+     */
+    public int getChecksPerformed()
+    {
+        return checksPerformed;
+    }
+
+    /**
+     * @return the number of distinct ACLs evaluated so far
+     */
+    public int getAclEvaluations()
+    {
+        return aclEvaluations;
+    }
+
+    /**
+     * @return the number of ACL evaluations saved by reusing the result for an ACL that was already evaluated
+     */
+    public int getChecksSaved()
+    {
+        return aclCacheHits;
+    }
+
+    /**
+     * @return the number of nodes for which the ACL did not grant read access and the owner had to be checked
+     */
+    public int getOwnerChecks()
+    {
+        return ownerChecks;
+    }
+
     protected boolean isOwnerReading(Node node, Authority authority)
     {
         if (authority == null)
@@ -104,6 +140,7 @@ public class NodePermissionAssessor
             return false;
         }
 
+        ownerChecks++;
         String owner = getOwner(node);
         return EqualsHelper.nullSafeEquals(authority.getAuthority(), owner);
     }
@@ -174,6 +211,11 @@ public class NodePermissionAssessor
         this.maxPermissionCheckTimeMillis = maxPermissionCheckTimeMillis;
     }
             
+    /**
+     * Whether the ACL grants read access, ignoring ownership.  The answer only depends on the ACL and the
+     * current user's authorisations, so each distinct ACL is evaluated once per query.  Nodes whose ACL does
+     * not grant access are owner-sensitive and still need an owner check.
+     */
     protected boolean canRead(Long aclId)
     {
         Boolean res = aclReadCache.get(aclId);
@@ -181,14 +223,19 @@ public class NodePermissionAssessor
         {
             res = canCurrentUserRead(aclId);
             aclReadCache.put(aclId, res);
+            aclEvaluations++;
+        }
+        else
+        {
+            aclCacheHits++;
         }
         return res;
     }
     
     protected boolean canCurrentUserRead(Long aclId)
     {
-        // cache resolved ACLs
-        Set<String> authorities = permissionService.getAuthorisations();
+        // the authorisations were resolved once for the query
+        Set<String> authorities = authorisations;
 
         Set<String> aclReadersDenied = permissionService.getReadersDenied(aclId);
         for (String auth : aclReadersDenied)
@@ -27,6 +27,7 @@ package org.alfresco.repo.search.impl.solr;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.List;
@@ -86,7 +87,32 @@ public abstract class AbstractSolrQueryHTTPClient
     /** List of SOLR Exceptions that should be returning HTTP 501 status code in Remote API. */
     private static final List<String> STATUS_CODE_501_EXCEPTIONS = List.of("java.lang.UnsupportedOperationException");
     
+    /**
+     * Reads the body of a successful SOLR response.
+     *
+     * @param <R> the type the body is read into
+     */
+    @FunctionalInterface
+    protected interface ResponseBodyReader<R>
+    {
+        R read(InputStream body, String charSet) throws IOException, JSONException;
+    }
+
     protected JSONObject postQuery(HttpClient httpClient, String url, JSONObject body) throws IOException, JSONException
+    {
+        return postQuery(httpClient, url, body, (responseBody, charSet) -> {
+            Reader reader = new BufferedReader(new InputStreamReader(responseBody, charSet));
+            return new JSONObject(new JSONTokener(reader));
+        });
+    }
+
+    /**
+     * Posts a query to SOLR and hands the body of a successful response to the given reader, so that callers able to
+     * consume the response incrementally are not forced through a {@link JSONObject}. The body of a failed response is
+     * still buffered to extract the error trace.
+     */
+    protected <R> R postQuery(HttpClient httpClient, String url, JSONObject body, ResponseBodyReader<R> responseBodyReader)
+            throws IOException, JSONException
     {
         PostMethod post = createNewPostMethod(url);
         if (body.toString().length() > DEFAULT_SAVEPOST_BUFFER)
@@ -108,9 +134,9 @@ public abstract class AbstractSolrQueryHTTPClient
                     httpClient.executeMethod(post);
                 }
             }
-            String responseBodyStr = post.getResponseBodyAsString();
             if (post.getStatusCode() != HttpServletResponse.SC_OK)
             {
+                String responseBodyStr = post.getResponseBodyAsString();
                 String trace = null;
                 try
                 {
@@ -137,10 +163,7 @@ public abstract class AbstractSolrQueryHTTPClient
                 throw new QueryParserException(message, httpStatusCode);
             }
 
-            Reader reader = new BufferedReader(new InputStreamReader(post.getResponseBodyAsStream(), post.getResponseCharSet()));
-            // TODO - replace with streaming-based solution e.g. SimpleJSON ContentHandler
-            JSONObject json = new JSONObject(new JSONTokener(reader));
-            return json;
+            return responseBodyReader.read(post.getResponseBodyAsStream(), post.getResponseCharSet());
         }
         finally
         {
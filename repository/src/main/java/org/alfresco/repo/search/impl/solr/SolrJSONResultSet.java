@@ -25,7 +25,9 @@
  */
 package org.alfresco.repo.search.impl.solr;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,6 +38,11 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.alfresco.repo.domain.node.NodeDAO;
 import org.alfresco.repo.search.QueryParserException;
 import org.alfresco.repo.search.SearchEngineResultSet;
@@ -71,10 +78,12 @@ import org.json.JSONObject;
  */
 public class SolrJSONResultSet implements SearchEngineResultSet {
     private static final Log logger = LogFactory.getLog(SolrJSONResultSet.class);
+
+    private static final ObjectMapper JSON_TREE_MAPPER = new ObjectMapper();
     
     private NodeService nodeService;
     
-    private ArrayList<Pair<Long, Float>> page;
+    private float[] scores;
     
     private ArrayList<NodeRef> refs;
     
@@ -151,27 +160,24 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
             
             int numDocs = docs.length();
             
-            ArrayList<Long> rawDbids = new ArrayList<Long>(numDocs);
-            ArrayList<Float> rawScores = new ArrayList<Float>(numDocs); 
+            long[] rawDbids = new long[numDocs];
+            float[] rawScores = new float[numDocs];
             for(int i = 0; i < numDocs; i++)
             {
                 JSONObject doc = docs.getJSONObject(i);
                 JSONArray dbids = doc.optJSONArray("DBID");
                 if(dbids != null)
                 {
-                    Long dbid = dbids.getLong(0);
-                    Float score = Float.valueOf((float)doc.getDouble("score"));
-                    rawDbids.add(dbid);
-                    rawScores.add(score);
+                    rawDbids[i] = dbids.getLong(0);
+                    rawScores[i] = (float)doc.getDouble("score");
                 }
                 else
                 {
                     Long dbid = doc.optLong("DBID");
                     if(dbid != null)
                     {
-                        Float score = Float.valueOf((float)doc.getDouble("score"));
-                        rawDbids.add(dbid);
-                        rawScores.add(score);
+                        rawDbids[i] = dbid;
+                        rawScores[i] = (float)doc.getDouble("score");
                     }
                     else
                     {
@@ -182,30 +188,7 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
                 
             }
             
-            // bulk load
-            if (searchParameters.isBulkFetchEnabled())
-            {
-                nodeDao.cacheNodesById(rawDbids);
-            }
-
-            // filter out rubbish
-            
-            page = new ArrayList<Pair<Long, Float>>(numDocs);
-            refs = new ArrayList<NodeRef>(numDocs);
-            Map<Long,NodeRef> dbIdNodeRefs = new HashMap<>(numDocs);
-
-            for(int i = 0; i < numDocs; i++)
-            {
-                Long dbid = rawDbids.get(i);
-                NodeRef nodeRef = nodeService.getNodeRef(dbid);
-
-                if(nodeRef != null)
-                {
-                    page.add(new Pair<Long, Float>(dbid, rawScores.get(i)));
-                    refs.add(nodeRef);
-                    dbIdNodeRefs.put(dbid, nodeRef);
-                }
-            }
+            Map<Long,NodeRef> dbIdNodeRefs = buildPage(rawDbids, rawScores, numDocs, searchParameters);
 
             //Process hightlight response
             if(json.has("highlighting"))
@@ -236,11 +219,7 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
                             highFields.add(highPair);
                         }
                     }
-                    NodeRef nodefRef = dbIdNodeRefs.get(nodeKey);
-                    if (nodefRef != null && !highFields.isEmpty())
-                    {
-                        highlighting.put(nodefRef, highFields);
-                    }
+                    addHighlighting(dbIdNodeRefs, nodeKey, highFields);
                 }
             }
             if(json.has("facet_counts"))
@@ -299,109 +278,518 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
                 }
                 if(facet_counts.has("facet_pivot"))
                 {
-                    JSONObject facet_pivot = facet_counts.getJSONObject("facet_pivot");
-                    for(Iterator it = facet_pivot.keys(); it.hasNext(); /**/)
-                    {
-                        String pivotName = (String)it.next();
-                        pivotFacets.addAll(buildPivot(facet_pivot, pivotName, searchParameters.getRanges()));
-                    }
+                    processPivots(facet_counts.getJSONObject("facet_pivot"), searchParameters);
                 }
 
                 if(facet_counts.has("facet_ranges"))
                 {
-                    JSONObject facet_ranges = facet_counts.getJSONObject("facet_ranges");
-                    for(Iterator it = facet_ranges.keys(); it.hasNext();)
-                    {
-                        String fieldName = (String) it.next();
-                        String end = "";
-                        try
-                        {
-                            end = facet_ranges.getJSONObject(fieldName).getString("end");
-                        }
-                        catch(JSONException e)
-                        {
-                            end = String.valueOf(facet_ranges.getJSONObject(fieldName).getInt("end"));
-                            
-                        }
-                        JSONArray rangeCollection = facet_ranges.getJSONObject(fieldName).getJSONArray("counts");
-                        List<Map<String, String>> buckets = new ArrayList<Map<String, String>>();
-                        for(int i = 0; i < rangeCollection.length(); i += 2)
-                        {
-                            String position = i == 0 ? "head":"body";
-                            if( i+2 == rangeCollection.length())
-                            {
-                                position = "tail";
-                            }
-                            Map<String,String> rangeMap = new HashMap<String,String>(3);
-                            String rangeFrom = rangeCollection.getString(i);
-                            String facetRangeCount = String.valueOf(rangeCollection.getInt(i+1));
-                            String rangeTo = (i+2 < rangeCollection.length() ? rangeCollection.getString(i+2):end);
-                            String label = rangeFrom + " - " + rangeTo;
-                            rangeMap.put(GenericFacetResponse.LABEL, label);
-                            rangeMap.put(GenericFacetResponse.COUNT, facetRangeCount);
-                            rangeMap.put(GenericFacetResponse.START, rangeFrom);
-                            rangeMap.put(GenericFacetResponse.END, rangeTo);
-                            rangeMap.put("bucketPosition", position);
-                            buckets.add(rangeMap);
-                        }
-                        facetRanges.put(fieldName, buckets);
-                    }
-                    Map<String, List<Map<String, String>>> builtRanges = buildRanges(facet_ranges);
-                    builtRanges.forEach((pKey, buckets) -> {
-                        facetRanges.put(pKey, buckets);
-                    });
+                    processRanges(facet_counts.getJSONObject("facet_ranges"));
                 }
             }
 
             if(json.has("stats"))
             {
-                JSONObject statsObj = json.getJSONObject("stats");
-                Map<String, Map<String, Object>> builtStats = buildStats(statsObj);
-                builtStats.forEach((pKey, pVal) -> {
-                    stats.put(pKey, getMetrics(pVal));
-                });
+                processStats(json.getJSONObject("stats"));
             }
 
             // process Spell check 
-            JSONObject spellCheckJson = (JSONObject) json.opt("spellcheck");
-            if (spellCheckJson != null)
+            processSpellCheck((JSONObject) json.opt("spellcheck"));
+        }
+        catch (JSONException e)
+        {
+           logger.info(e.getMessage());
+        }
+        // We'll say we were unlimited if we got a number less than the limit
+        this.resultSetMetaData = new SimpleResultSetMetaData(
+                maxResults > 0 && numberFound < maxResults ? LimitBy.UNLIMITED : limitBy,
+                PermissionEvaluationMode.EAGER, searchParameters);
+    }
+
+    /**
+     * Detached result set read directly from a streamed SOLR JSON response.
+     * <p>
+     * Unlike {@link #SolrJSONResultSet(JSONObject, SearchParameters, NodeService, NodeDAO, LimitBy, int)} the response
+     * is never held as an object tree: the DBIDs and scores of the page are pulled into primitive arrays and the facet
+     * counts and highlights are read token by token. Only the rarely requested nested sections (pivots, ranges, stats
+     * and spell check) are materialised, and they are handed to the same builders as the tree based parser.
+     * 
+     * @param parser JsonParser positioned before the response object
+     * @param searchParameters SearchParameters
+     * @param nodeService NodeService
+     * @param nodeDao NodeDAO
+     * @param limitBy LimitBy
+     * @param maxResults int
+     * @throws IOException if the response cannot be read or is not well formed
+     */
+    public SolrJSONResultSet(JsonParser parser, SearchParameters searchParameters, NodeService nodeService, NodeDAO nodeDao, LimitBy limitBy, int maxResults) throws IOException
+    {
+        this.nodeService = nodeService;
+        this.nodeDao = nodeDao;
+        try
+        {
+            readResponse(parser, searchParameters);
+        }
+        catch (JSONException e)
+        {
+           logger.info(e.getMessage());
+        }
+        // We'll say we were unlimited if we got a number less than the limit
+        this.resultSetMetaData = new SimpleResultSetMetaData(
+                maxResults > 0 && numberFound < maxResults ? LimitBy.UNLIMITED : limitBy,
+                PermissionEvaluationMode.EAGER, searchParameters);
+    }
+
+    private void readResponse(JsonParser parser, SearchParameters searchParameters) throws IOException, JSONException
+    {
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+        {
+            throw new JsonParseException(parser, "Expected a SOLR response object");
+        }
+
+        ScoredDocs docs = null;
+        List<Pair<Long, List<Pair<String, List<String>>>>> rawHighlighting = Collections.emptyList();
+        JSONObject spellCheckJson = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String section = parser.getCurrentName();
+            parser.nextToken();
+            switch (section)
+            {
+                case "responseHeader":
+                    readResponseHeader(parser);
+                    break;
+                case "response":
+                    docs = readDocs(parser);
+                    break;
+                case "lastIndexedTx":
+                    lastIndexedTxId = parser.getValueAsLong();
+                    break;
+                case "processedDenies":
+                    processedDenies = parser.getValueAsBoolean();
+                    break;
+                case "highlighting":
+                    rawHighlighting = readHighlighting(parser);
+                    break;
+                case "facet_counts":
+                    readFacetCounts(parser, searchParameters);
+                    break;
+                case "stats":
+                    processStats(readJSONObject(parser));
+                    break;
+                case "spellcheck":
+                    spellCheckJson = readJSONObject(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (docs == null)
+        {
+            throw new JSONException("JSONObject[\"response\"] not found.");
+        }
+        Map<Long, NodeRef> dbIdNodeRefs = buildPage(docs.dbids, docs.scores, docs.size, searchParameters);
+        for (Pair<Long, List<Pair<String, List<String>>>> high : rawHighlighting)
+        {
+            addHighlighting(dbIdNodeRefs, high.getFirst(), high.getSecond());
+        }
+        processSpellCheck(spellCheckJson);
+    }
+
+    private void readResponseHeader(JsonParser parser) throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("status".equals(name))
+            {
+                status = parser.getValueAsLong();
+            }
+            else if ("QTime".equals(name))
+            {
+                queryTime = parser.getValueAsLong();
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private ScoredDocs readDocs(JsonParser parser) throws IOException, JSONException
+    {
+        ScoredDocs docs = new ScoredDocs();
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("numFound".equals(name))
+            {
+                numberFound = parser.getValueAsLong();
+            }
+            else if ("start".equals(name))
+            {
+                start = parser.getValueAsLong();
+            }
+            else if ("maxScore".equals(name))
+            {
+                maxScore = (float) parser.getValueAsDouble();
+            }
+            else if ("docs".equals(name))
+            {
+                while (parser.nextToken() == JsonToken.START_OBJECT)
+                {
+                    readDoc(parser, docs);
+                }
+            }
+            else
             {
-                List<String> list = new ArrayList<>(3);
-                String flag = "";
-                boolean searchedFor = false;
-                if (spellCheckJson.has("searchInsteadFor"))
+                parser.skipChildren();
+            }
+        }
+        return docs;
+    }
+
+    private void readDoc(JsonParser parser, ScoredDocs docs) throws IOException, JSONException
+    {
+        long dbid = 0;
+        Float score = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("DBID".equals(name))
+            {
+                if (value == JsonToken.START_ARRAY)
                 {
-                    flag = "searchInsteadFor";
-                    searchedFor = true;
-                    list.add(spellCheckJson.getString(flag));
+                    // multi-valued, the first value is the id
+                    if (parser.nextToken() == JsonToken.END_ARRAY)
+                    {
+                        throw new JSONException("JSONArray[0] not found.");
+                    }
+                    dbid = parser.getValueAsLong();
+                    while (parser.nextToken() != JsonToken.END_ARRAY)
+                    {
+                        parser.skipChildren();
+                    }
+                }
+                else
+                {
+                    dbid = parser.getValueAsLong();
+                }
+            }
+            else if ("score".equals(name))
+            {
+                score = (float) parser.getValueAsDouble();
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+        if (score == null)
+        {
+            throw new JSONException("JSONObject[\"score\"] not found.");
+        }
+        docs.add(dbid, score);
+    }
 
+    private List<Pair<Long, List<Pair<String, List<String>>>>> readHighlighting(JsonParser parser) throws IOException
+    {
+        List<Pair<Long, List<Pair<String, List<String>>>>> rawHighlighting = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                parser.skipChildren();
+                continue;
+            }
+            Long nodeKey = null;
+            List<Pair<String, List<String>>> highFields = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String highKey = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("DBID".equals(highKey))
+                {
+                    nodeKey = parser.getValueAsLong();
                 }
-                else if (spellCheckJson.has("didYouMean"))
+                else if (value == JsonToken.START_ARRAY)
                 {
-                    flag = "didYouMean";
-                    JSONArray suggestions = spellCheckJson.getJSONArray(flag);
-                    for (int i = 0, lenght = suggestions.length(); i < lenght; i++)
+                    List<String> highValues = new ArrayList<>(1);
+                    while (parser.nextToken() != JsonToken.END_ARRAY)
                     {
-                        list.add(suggestions.getString(i));
+                        if (parser.currentToken().isScalarValue())
+                        {
+                            highValues.add(parser.getValueAsString());
+                        }
+                        else
+                        {
+                            parser.skipChildren();
+                        }
                     }
+                    highFields.add(new Pair<String, List<String>>(highKey, highValues));
+                }
+                else if (value.isScalarValue())
+                {
+                    // a single snippet rather than a list of them
+                    highFields.add(new Pair<String, List<String>>(highKey, Collections.singletonList(parser.getValueAsString())));
+                }
+                else
+                {
+                    parser.skipChildren();
                 }
+            }
+            rawHighlighting.add(new Pair<>(nodeKey, highFields));
+        }
+        return rawHighlighting;
+    }
 
-                spellCheckResult = new SpellCheckResult(flag, list, searchedFor);
+    private void readFacetCounts(JsonParser parser, SearchParameters searchParameters) throws IOException, JSONException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name)
+            {
+                case "facet_queries":
+                    while (parser.nextToken() == JsonToken.FIELD_NAME)
+                    {
+                        String fq = parser.getCurrentName();
+                        parser.nextToken();
+                        facetQueries.put(fq, parser.getValueAsInt());
+                    }
+                    break;
+                case "facet_fields":
+                    while (parser.nextToken() == JsonToken.FIELD_NAME)
+                    {
+                        String fieldName = parser.getCurrentName();
+                        parser.nextToken();
+                        fieldFacets.put(fieldName, readCountPairs(parser));
+                    }
+                    break;
+                case "facet_intervals":
+                    while (parser.nextToken() == JsonToken.FIELD_NAME)
+                    {
+                        String fieldName = parser.getCurrentName();
+                        parser.nextToken();
+                        ArrayList<Pair<String, Integer>> intervalValues = new ArrayList<Pair<String, Integer>>();
+                        while (parser.nextToken() == JsonToken.FIELD_NAME)
+                        {
+                            String key = parser.getCurrentName();
+                            parser.nextToken();
+                            intervalValues.add(new Pair<String, Integer>(key, parser.getValueAsInt()));
+                        }
+                        facetIntervals.put(fieldName, intervalValues);
+                    }
+                    break;
+                case "facet_pivot":
+                    processPivots(readJSONObject(parser), searchParameters);
+                    break;
+                case "facet_ranges":
+                    processRanges(readJSONObject(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+    }
 
+    /**
+     * Reads a SOLR named list into (name, count) pairs.  Depending on the <code>json.nl</code> style of the response the
+     * list is flat, e.g. <code>["a", 2, "b", 1]</code>, a map, e.g. <code>{"a": 2, "b": 1}</code>, or a list of pairs
+     * or of single entry maps, e.g. <code>[["a", 2], ["b", 1]]</code> or <code>[{"a": 2}, {"b": 1}]</code>.
+     */
+    private List<Pair<String, Integer>> readCountPairs(JsonParser parser) throws IOException
+    {
+        ArrayList<Pair<String, Integer>> facetValues = new ArrayList<Pair<String, Integer>>();
+        if (parser.currentToken() == JsonToken.START_OBJECT)
+        {
+            readCountEntries(parser, facetValues);
+            return facetValues;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY)
+        {
+            return facetValues;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            if (parser.currentToken() == JsonToken.START_OBJECT)
+            {
+                readCountEntries(parser, facetValues);
+            }
+            else if (parser.currentToken() == JsonToken.START_ARRAY)
+            {
+                parser.nextToken();
+                String facetEntryName = getFacetEntryName(parser);
+                parser.nextToken();
+                facetValues.add(new Pair<String, Integer>(facetEntryName, parser.getValueAsInt()));
+                while (parser.nextToken() != JsonToken.END_ARRAY)
+                {
+                    parser.skipChildren();
+                }
             }
             else
             {
-                spellCheckResult = new SpellCheckResult(null, null, false);
+                String facetEntryName = getFacetEntryName(parser);
+                parser.nextToken();
+                facetValues.add(new Pair<String, Integer>(facetEntryName, parser.getValueAsInt()));
             }
         }
-        catch (JSONException e)
+        return facetValues;
+    }
+
+    private void readCountEntries(JsonParser parser, List<Pair<String, Integer>> facetValues) throws IOException
+    {
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
         {
-           logger.info(e.getMessage());
+            String facetEntryName = parser.getCurrentName();
+            parser.nextToken();
+            facetValues.add(new Pair<String, Integer>(facetEntryName, parser.getValueAsInt()));
+        }
+    }
+
+    private String getFacetEntryName(JsonParser parser) throws IOException
+    {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? "Null" : parser.getValueAsString();
+    }
+
+    /**
+     * Materialises the value under the parser as a {@link JSONObject} so it can be handed to the tree based builders.
+     */
+    private JSONObject readJSONObject(JsonParser parser) throws IOException, JSONException
+    {
+        return new JSONObject(JSON_TREE_MAPPER.writeValueAsString(JSON_TREE_MAPPER.readTree(parser)));
+    }
+
+    /**
+     * Growable primitive buffer for the DBIDs and scores of a streamed page.
+     */
+    private static final class ScoredDocs
+    {
+        private long[] dbids = new long[16];
+        private float[] scores = new float[16];
+        private int size;
+
+        private void add(long dbid, float score)
+        {
+            if (size == dbids.length)
+            {
+                dbids = Arrays.copyOf(dbids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            dbids[size] = dbid;
+            scores[size] = score;
+            size++;
+        }
+    }
+
+    /**
+     * Resolves the DBIDs of the returned page to node references, bulk loading them first if requested and
+     * dropping any that no longer resolve.
+     * 
+     * @return the node references of the page keyed by DBID
+     */
+    private Map<Long, NodeRef> buildPage(long[] rawDbids, float[] rawScores, int numDocs, SearchParameters searchParameters)
+    {
+        // bulk load
+        if (searchParameters.isBulkFetchEnabled())
+        {
+            List<Long> ids = new ArrayList<Long>(numDocs);
+            for(int i = 0; i < numDocs; i++)
+            {
+                ids.add(rawDbids[i]);
+            }
+            nodeDao.cacheNodesById(ids);
+        }
+
+        // filter out rubbish
+        scores = new float[numDocs];
+        refs = new ArrayList<NodeRef>(numDocs);
+        Map<Long,NodeRef> dbIdNodeRefs = new HashMap<>(numDocs);
+
+        for(int i = 0; i < numDocs; i++)
+        {
+            Long dbid = rawDbids[i];
+            NodeRef nodeRef = nodeService.getNodeRef(dbid);
+
+            if(nodeRef != null)
+            {
+                scores[refs.size()] = rawScores[i];
+                refs.add(nodeRef);
+                dbIdNodeRefs.put(dbid, nodeRef);
+            }
+        }
+        return dbIdNodeRefs;
+    }
+
+    private void addHighlighting(Map<Long, NodeRef> dbIdNodeRefs, Long nodeKey, List<Pair<String, List<String>>> highFields)
+    {
+        NodeRef nodefRef = dbIdNodeRefs.get(nodeKey);
+        if (nodefRef != null && !highFields.isEmpty())
+        {
+            highlighting.put(nodefRef, highFields);
+        }
+    }
+
+    private void processPivots(JSONObject facet_pivot, SearchParameters searchParameters) throws JSONException
+    {
+        for(Iterator it = facet_pivot.keys(); it.hasNext(); /**/)
+        {
+            String pivotName = (String)it.next();
+            pivotFacets.addAll(buildPivot(facet_pivot, pivotName, searchParameters.getRanges()));
+        }
+    }
+
+    private void processRanges(JSONObject facet_ranges) throws JSONException
+    {
+        Map<String, List<Map<String, String>>> builtRanges = buildRanges(facet_ranges);
+        builtRanges.forEach((pKey, buckets) -> {
+            facetRanges.put(pKey, buckets);
+        });
+    }
+
+    private void processStats(JSONObject statsObj) throws JSONException
+    {
+        Map<String, Map<String, Object>> builtStats = buildStats(statsObj);
+        builtStats.forEach((pKey, pVal) -> {
+            stats.put(pKey, getMetrics(pVal));
+        });
+    }
+
+    private void processSpellCheck(JSONObject spellCheckJson) throws JSONException
+    {
+        if (spellCheckJson != null)
+        {
+            List<String> list = new ArrayList<>(3);
+            String flag = "";
+            boolean searchedFor = false;
+            if (spellCheckJson.has("searchInsteadFor"))
+            {
+                flag = "searchInsteadFor";
+                searchedFor = true;
+                list.add(spellCheckJson.getString(flag));
+
+            }
+            else if (spellCheckJson.has("didYouMean"))
+            {
+                flag = "didYouMean";
+                JSONArray suggestions = spellCheckJson.getJSONArray(flag);
+                for (int i = 0, lenght = suggestions.length(); i < lenght; i++)
+                {
+                    list.add(suggestions.getString(i));
+                }
+            }
+
+            spellCheckResult = new SpellCheckResult(flag, list, searchedFor);
+
+        }
+        else
+        {
+            spellCheckResult = new SpellCheckResult(null, null, false);
         }
-        // We'll say we were unlimited if we got a number less than the limit
-        this.resultSetMetaData = new SimpleResultSetMetaData(
-                maxResults > 0 && numberFound < maxResults ? LimitBy.UNLIMITED : limitBy,
-                PermissionEvaluationMode.EAGER, searchParameters);
     }
 
     protected Map<String,List<Map<String,String>>> buildRanges(JSONObject facet_ranges) throws JSONException
@@ -610,8 +998,8 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
     @Override
     public List<ChildAssociationRef> getChildAssocRefs()
     {
-        ArrayList<ChildAssociationRef> refs = new ArrayList<ChildAssociationRef>(page.size());
-        for(int i = 0; i < page.size(); i++ )
+        ArrayList<ChildAssociationRef> refs = new ArrayList<ChildAssociationRef>(length());
+        for(int i = 0; i < length(); i++ )
         {
             refs.add( getChildAssocRef(i));
         }
@@ -665,7 +1053,8 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
     @Override
     public float getScore(int n)
     {
-        return page.get(n).getSecond();
+        Objects.checkIndex(n, length());
+        return scores[n];
     }
 
     /*
@@ -685,7 +1074,7 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
     @Override
     public boolean hasMore()
     {
-       return numberFound.longValue() > (start.longValue() + page.size());
+       return numberFound.longValue() > (start.longValue() + length());
     }
 
     /*
@@ -695,7 +1084,7 @@ public class SolrJSONResultSet implements SearchEngineResultSet {
     @Override
     public int length()
     {
-       return page.size();
+       return refs.size();
     }
 
     /*
@@ -43,6 +43,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.alfresco.error.AlfrescoRuntimeException;
@@ -108,6 +111,8 @@ public class SolrQueryHTTPClient extends AbstractSolrQueryHTTPClient implements
 {
     static Log s_logger = LogFactory.getLog(SolrQueryHTTPClient.class);
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private DictionaryService dictionaryService;
 
     private NodeService nodeService;
@@ -142,6 +147,8 @@ public class SolrQueryHTTPClient extends AbstractSolrQueryHTTPClient implements
     
     private int defaultShardedFacetLimit = 20;
 
+    private boolean streamingResponseParsing = false;
+
     private NamespaceDAO namespaceDAO;
 
     private PermissionService permissionService;
@@ -218,6 +225,15 @@ public class SolrQueryHTTPClient extends AbstractSolrQueryHTTPClient implements
         this.useDynamicShardRegistration = useDynamicShardRegistration;
     }
 
+    /**
+     * @param streamingResponseParsing true to read search responses with the streaming parser rather than building a
+     *            JSON tree first. Responses that need spell check post-processing always use the tree.
+     */
+    public void setStreamingResponseParsing(boolean streamingResponseParsing)
+    {
+        this.streamingResponseParsing = streamingResponseParsing;
+    }
+
     public void setLanguageMappings(Map<String, String> languageMappings)
     {
         this.languageMappings = languageMappings;
@@ -575,6 +591,11 @@ public class SolrQueryHTTPClient extends AbstractSolrQueryHTTPClient implements
             body.put("textAttributes", textAttributes);
 
             final int maximumResults = maxResults;  //just needed for the final parameter
+
+            if (streamingResponseParsing && spellCheckQueryStr == null)
+            {
+                return postStreamingSolrQuery(httpClient, url.toString(), body, searchParameters, limitBy, maximumResults);
+            }
             
             return (ResultSet) postSolrQuery(httpClient, url.toString(), body, json ->
             {
@@ -1132,7 +1153,29 @@ public class SolrQueryHTTPClient extends AbstractSolrQueryHTTPClient implements
             return results;
     }
 
-    
+    /**
+     * Posts a search query and reads the response straight into a {@link SolrJSONResultSet}, without building an
+     * intermediate JSON tree of the whole response.
+     */
+    protected SolrJSONResultSet postStreamingSolrQuery(HttpClient httpClient, String url, JSONObject body,
+                SearchParameters searchParameters, LimitBy limitBy, int maximumResults) throws IOException, JSONException
+    {
+        SolrJSONResultSet results = postQuery(httpClient, url, body, (responseBody, charSet) -> {
+            try (JsonParser parser = JSON_FACTORY.createParser(new BufferedReader(new InputStreamReader(responseBody, charSet))))
+            {
+                return new SolrJSONResultSet(parser, searchParameters, nodeService, nodeDAO, limitBy, maximumResults);
+            }
+        });
+
+        if (s_logger.isDebugEnabled())
+        {
+            s_logger.debug("Sent :" + url);
+            s_logger.debug("   with: " + body.toString());
+            s_logger.debug("Got: " + results.getNumberFound() + " in " + results.getQueryTime() + " ms");
+        }
+
+        return results;
+    }
 
     private StringBuffer buildSortParameters(BasicSearchParameters searchParameters, URLCodec encoder)
                 throws UnsupportedEncodingException
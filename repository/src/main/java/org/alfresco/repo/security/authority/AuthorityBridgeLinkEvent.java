@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.security.authority;
+
+import org.alfresco.util.cache.RefreshableCacheEvent;
+
+/**
+ * Announces that a group membership link was added or removed, so that the authority bridge tables can be updated
+ * in place rather than rebuilt.
+ *
+ * @see AuthorityBridgeTableAsynchronouslyRefreshedCache
+ */
+public class AuthorityBridgeLinkEvent implements RefreshableCacheEvent
+{
+    private static final long serialVersionUID = -2906018455711409652L;
+
+    private final String cacheId;
+    private final String key;
+    private final String parentName;
+    private final String childName;
+    private final boolean added;
+
+    AuthorityBridgeLinkEvent(String cacheId, String key, String parentName, String childName, boolean added)
+    {
+        this.cacheId = cacheId;
+        this.key = key;
+        this.parentName = parentName;
+        this.childName = childName;
+        this.added = added;
+    }
+
+    @Override
+    public String getCacheId()
+    {
+        return cacheId;
+    }
+
+    /**
+     * @return the tenant whose bridge table changed
+     */
+    @Override
+    public String getKey()
+    {
+        return key;
+    }
+
+    public String getParentName()
+    {
+        return parentName;
+    }
+
+    public String getChildName()
+    {
+        return childName;
+    }
+
+    /**
+     * @return <tt>true</tt> if the link was added, <tt>false</tt> if it was removed
+     */
+    public boolean isAdded()
+    {
+        return added;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AuthorityBridgeLinkEvent [cacheId=" + cacheId + ", tenantId=" + key + ", parent=" + parentName
+                + ", child=" + childName + ", added=" + added + "]";
+    }
+}
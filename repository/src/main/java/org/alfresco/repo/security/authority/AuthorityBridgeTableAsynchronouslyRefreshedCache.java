@@ -25,36 +25,71 @@
  */
 package org.alfresco.repo.security.authority;
 
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.repo.cache.AbstractMTAsynchronouslyRefreshedCache;
+import org.alfresco.repo.management.DynamicMBeanExportOperations;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
 import org.alfresco.repo.tenant.TenantAdminService;
+import org.alfresco.repo.tenant.TenantService;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
 import org.alfresco.repo.transaction.RetryingTransactionHelper;
 import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
 import org.alfresco.util.BridgeTable;
+import org.alfresco.util.CompactBridgeTable;
 import org.alfresco.util.PropertyCheck;
+import org.alfresco.util.cache.AsynchronouslyRefreshedCacheRegistry;
+import org.alfresco.util.cache.RefreshableCacheEvent;
+import org.alfresco.util.transaction.TransactionListenerAdapter;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
 /**
+ * Holds the group hierarchy of each tenant as a {@link CompactBridgeTable}.
+ * <p>
+ * Group membership changes reported through {@link #addLink(String, String)} and {@link #removeLink(String, String)}
+ * are broadcast once their transaction commits and applied to the live bridge tables in place. A change that cannot
+ * be applied drops the tenant's table so that it is rebuilt on next use. With incremental updates switched off every
+ * change refreshes the whole table, as before.
+ * 
  * @author Andy
  * @since 4.1.3
  */
-public class AuthorityBridgeTableAsynchronouslyRefreshedCache extends  AbstractMTAsynchronouslyRefreshedCache<BridgeTable<String>> implements InitializingBean
+public class AuthorityBridgeTableAsynchronouslyRefreshedCache extends  AbstractMTAsynchronouslyRefreshedCache<BridgeTable<String>> implements InitializingBean, DisposableBean, AuthorityBridgeTableCacheMBean
 {
+    private static final String KEY_LINK_CHANGES = AuthorityBridgeTableAsynchronouslyRefreshedCache.class.getName() + ".linkChanges";
+
     private AuthorityBridgeDAO authorityBridgeDAO;
     private RetryingTransactionHelper retryingTransactionHelper;
     private TenantAdminService tenantAdminService;
     private AuthorityDAO authorityDAO;
+    private TenantService tenantService;
+    private AsynchronouslyRefreshedCacheRegistry registry;
+    private boolean incrementalUpdates = true;
+    private DynamicMBeanExportOperations mbeanExporter;
+    private String objectName;
+
+    private ObjectName registeredObjectName;
+    private final LongAdder incrementalUpdateCount = new LongAdder();
+    private final LongAdder skippedUpdateCount = new LongAdder();
+    private final LongAdder failedUpdateCount = new LongAdder();
+    private final List<LinkChangesDuringBuild> buildsInFlight = new CopyOnWriteArrayList<LinkChangesDuringBuild>();
 
     private Log logger = LogFactory.getLog(getClass());
 
@@ -90,8 +125,254 @@ public class AuthorityBridgeTableAsynchronouslyRefreshedCache extends  AbstractM
         this.tenantAdminService = tenantAdminService;
     }
 
+    @Override
+    public void setTenantService(TenantService tenantService)
+    {
+        super.setTenantService(tenantService);
+        this.tenantService = tenantService;
+    }
+
+    @Override
+    public void setRegistry(AsynchronouslyRefreshedCacheRegistry registry)
+    {
+        super.setRegistry(registry);
+        this.registry = registry;
+    }
+
+    /**
+     * @param incrementalUpdates
+     *            <tt>true</tt> to apply group membership changes to the bridge tables in place, <tt>false</tt> to
+     *            refresh the whole table on every change
+     */
+    public void setIncrementalUpdates(boolean incrementalUpdates)
+    {
+        this.incrementalUpdates = incrementalUpdates;
+    }
+
+    /**
+     * @param mbeanExporter
+     *            optional exporter used to register the bridge table footprint
+     */
+    public void setMbeanExporter(DynamicMBeanExportOperations mbeanExporter)
+    {
+        this.mbeanExporter = mbeanExporter;
+    }
+
+    public void setObjectName(String objectName)
+    {
+        this.objectName = objectName;
+    }
+
+    /**
+     * Record that a group was added to another group in the current transaction.
+     * 
+     * @param parentName
+     *            the name of the containing group
+     * @param childName
+     *            the name of the group added to it
+     */
+    public void addLink(String parentName, String childName)
+    {
+        linkChanged(parentName, childName, true);
+    }
+
+    /**
+     * Record that a group was removed from another group in the current transaction.
+     * 
+     * @param parentName
+     *            the name of the containing group
+     * @param childName
+     *            the name of the group removed from it
+     */
+    public void removeLink(String parentName, String childName)
+    {
+        linkChanged(parentName, childName, false);
+    }
+
+    private void linkChanged(String parentName, String childName, boolean added)
+    {
+        if (!incrementalUpdates)
+        {
+            refresh();
+            return;
+        }
+        List<AuthorityBridgeLinkEvent> changes = AlfrescoTransactionSupport.getResource(KEY_LINK_CHANGES);
+        if (changes == null)
+        {
+            final List<AuthorityBridgeLinkEvent> txnChanges = new ArrayList<AuthorityBridgeLinkEvent>();
+            AlfrescoTransactionSupport.bindResource(KEY_LINK_CHANGES, txnChanges);
+            AlfrescoTransactionSupport.bindListener(new TransactionListenerAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    for (AuthorityBridgeLinkEvent change : txnChanges)
+                    {
+                        registry.broadcastEvent(change, true);
+                    }
+                }
+            });
+            changes = txnChanges;
+        }
+        changes.add(new AuthorityBridgeLinkEvent(getCacheId(), tenantService.getCurrentUserDomain(), parentName, childName, added));
+    }
+
+    /**
+     * The bridge table does not hold the link changes of the current transaction until it commits.
+     */
+    @Override
+    public boolean isUpToDate()
+    {
+        List<AuthorityBridgeLinkEvent> changes = AlfrescoTransactionSupport.getResource(KEY_LINK_CHANGES);
+        if (changes != null && !changes.isEmpty())
+        {
+            return false;
+        }
+        return super.isUpToDate();
+    }
+
+    @Override
+    public void onRefreshableCacheEvent(RefreshableCacheEvent refreshableCacheEvent)
+    {
+        if (refreshableCacheEvent instanceof AuthorityBridgeLinkEvent)
+        {
+            if (refreshableCacheEvent.getCacheId().equals(getCacheId()))
+            {
+                applyLinkChange((AuthorityBridgeLinkEvent) refreshableCacheEvent);
+            }
+        }
+        else
+        {
+            super.onRefreshableCacheEvent(refreshableCacheEvent);
+        }
+    }
+
+    /**
+     * Apply a committed link change to the live bridge table of its tenant. The table may have been rebuilt since the
+     * change committed, so the change is only applied if the table does not already reflect it. Tables being built
+     * may have read the links before the change committed, so the change is also kept for them.
+     */
+    private void applyLinkChange(AuthorityBridgeLinkEvent change)
+    {
+        liveLock.writeLock().lock();
+        try
+        {
+            for (LinkChangesDuringBuild build : buildsInFlight)
+            {
+                if (build.tenantId.equals(change.getKey()))
+                {
+                    build.changes.add(change);
+                }
+            }
+            BridgeTable<String> bridgeTable = live.get(change.getKey());
+            if (bridgeTable == null)
+            {
+                // Nothing built yet, the next build reads the committed links
+                return;
+            }
+            try
+            {
+                if (applyLinkChange(bridgeTable, change))
+                {
+                    incrementalUpdateCount.increment();
+                }
+                else
+                {
+                    skippedUpdateCount.increment();
+                }
+            }
+            catch (RuntimeException e)
+            {
+                failedUpdateCount.increment();
+                live.remove(change.getKey());
+                logger.warn("Failed to apply " + change + ", the bridge table will be rebuilt", e);
+            }
+        }
+        finally
+        {
+            liveLock.writeLock().unlock();
+        }
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("Applied " + change);
+        }
+    }
+
+    /**
+     * @return <tt>true</tt> if the table changed, <tt>false</tt> if it already reflected the change
+     */
+    private boolean applyLinkChange(BridgeTable<String> bridgeTable, AuthorityBridgeLinkEvent change)
+    {
+        boolean linked = bridgeTable.getAncestors(change.getChildName(), 1).contains(change.getParentName());
+        if (linked == change.isAdded())
+        {
+            return false;
+        }
+        if (change.isAdded())
+        {
+            bridgeTable.addLink(change.getParentName(), change.getChildName());
+        }
+        else
+        {
+            bridgeTable.removeLink(change.getParentName(), change.getChildName());
+        }
+        return true;
+    }
+
+    /**
+     * Replays the link changes that arrived while the table was being built. A change that cannot be replayed fails
+     * the build, which is then retried.
+     */
+    @Override
+    protected void beforeLiveUpdate(String tenantId, BridgeTable<String> bridgeTable)
+    {
+        for (LinkChangesDuringBuild build : buildsInFlight)
+        {
+            if (build.bridgeTable == bridgeTable)
+            {
+                buildsInFlight.remove(build);
+                for (AuthorityBridgeLinkEvent change : build.changes)
+                {
+                    applyLinkChange(bridgeTable, change);
+                }
+            }
+        }
+    }
+
+    /**
+     * The link changes applied while a bridge table is built, guarded by the live lock.
+     */
+    private static class LinkChangesDuringBuild
+    {
+        private final String tenantId;
+        private final List<AuthorityBridgeLinkEvent> changes = new ArrayList<AuthorityBridgeLinkEvent>();
+        private volatile BridgeTable<String> bridgeTable;
+
+        LinkChangesDuringBuild(String tenantId)
+        {
+            this.tenantId = tenantId;
+        }
+    }
+
     @Override
     protected BridgeTable<String> buildCache(final String tenantId)
+    {
+        // Registered before the links are read so that no change committed after the read is missed
+        LinkChangesDuringBuild build = new LinkChangesDuringBuild(tenantId);
+        buildsInFlight.add(build);
+        try
+        {
+            build.bridgeTable = doBuildCacheAsSystem(tenantId);
+            return build.bridgeTable;
+        }
+        catch (RuntimeException e)
+        {
+            buildsInFlight.remove(build);
+            throw e;
+        }
+    }
+
+    private BridgeTable<String> doBuildCacheAsSystem(final String tenantId)
     {
         return AuthenticationUtil.runAs(new RunAsWork<BridgeTable<String>>()
         {
@@ -113,7 +394,7 @@ public class AuthorityBridgeTableAsynchronouslyRefreshedCache extends  AbstractM
     private BridgeTable<String> doBuildCache(String tenantId)
     {
         List<AuthorityBridgeLink> links = authorityBridgeDAO.getAuthorityBridgeLinks();
-        BridgeTable<String> bridgeTable = new BridgeTable<String>();
+        BridgeTable<String> bridgeTable = new CompactBridgeTable<String>();
         try
         {
             for (AuthorityBridgeLink link : links)
@@ -243,5 +524,131 @@ public class AuthorityBridgeTableAsynchronouslyRefreshedCache extends  AbstractM
         PropertyCheck.mandatory(this, "retryingTransactionHelper", retryingTransactionHelper);
         PropertyCheck.mandatory(this, "authorityDAO", authorityDAO);
         super.afterPropertiesSet();
+
+        if (mbeanExporter != null && objectName != null)
+        {
+            try
+            {
+                StandardMBean mbean = new StandardMBean(this, AuthorityBridgeTableCacheMBean.class);
+                registeredObjectName = mbeanExporter.registerMBean(mbean, new ObjectName(objectName));
+            }
+            catch (JMException e)
+            {
+                throw new AlfrescoRuntimeException("Failed to register authority bridge table MBean " + objectName, e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (registeredObjectName != null)
+        {
+            mbeanExporter.unregisterMBean(registeredObjectName);
+            registeredObjectName = null;
+        }
+    }
+
+    @Override
+    public int getTenantCount()
+    {
+        liveLock.readLock().lock();
+        try
+        {
+            return live.size();
+        }
+        finally
+        {
+            liveLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getAuthorityCount()
+    {
+        long count = 0;
+        for (CompactBridgeTable<String> bridgeTable : getCompactBridgeTables().values())
+        {
+            count += bridgeTable.getNodeCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getEntryCount()
+    {
+        long count = 0;
+        for (CompactBridgeTable<String> bridgeTable : getCompactBridgeTables().values())
+        {
+            count += bridgeTable.getEntryCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getEstimatedSizeInBytes()
+    {
+        long size = 0;
+        for (CompactBridgeTable<String> bridgeTable : getCompactBridgeTables().values())
+        {
+            size += bridgeTable.getEstimatedSizeInBytes();
+        }
+        return size;
+    }
+
+    @Override
+    public long getIncrementalUpdateCount()
+    {
+        return incrementalUpdateCount.sum();
+    }
+
+    @Override
+    public long getSkippedUpdateCount()
+    {
+        return skippedUpdateCount.sum();
+    }
+
+    @Override
+    public long getFailedUpdateCount()
+    {
+        return failedUpdateCount.sum();
+    }
+
+    @Override
+    public String getFootprintReport()
+    {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, CompactBridgeTable<String>> entry : getCompactBridgeTables().entrySet())
+        {
+            CompactBridgeTable<String> bridgeTable = entry.getValue();
+            String tenant = entry.getKey().isEmpty() ? "(default)" : entry.getKey();
+            report.append(tenant)
+                  .append(": authorities=").append(bridgeTable.getNodeCount())
+                  .append(", entries=").append(bridgeTable.getEntryCount())
+                  .append(", bytes=").append(bridgeTable.getEstimatedSizeInBytes())
+                  .append('\n');
+        }
+        return report.toString();
+    }
+
+    private Map<String, CompactBridgeTable<String>> getCompactBridgeTables()
+    {
+        Map<String, CompactBridgeTable<String>> bridgeTables = new HashMap<String, CompactBridgeTable<String>>();
+        liveLock.readLock().lock();
+        try
+        {
+            for (Map.Entry<String, BridgeTable<String>> entry : live.entrySet())
+            {
+                if (entry.getValue() instanceof CompactBridgeTable)
+                {
+                    bridgeTables.put(entry.getKey(), (CompactBridgeTable<String>) entry.getValue());
+                }
+            }
+        }
+        finally
+        {
+            liveLock.readLock().unlock();
+        }
+        return bridgeTables;
     }
 }
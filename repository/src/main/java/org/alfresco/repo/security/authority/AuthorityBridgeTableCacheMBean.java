@@ -0,0 +1,72 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.security.authority;
+
+/**
+ * Management interface of the {@link AuthorityBridgeTableAsynchronouslyRefreshedCache}.
+ */
+public interface AuthorityBridgeTableCacheMBean
+{
+    /**
+     * @return the number of tenants with a bridge table in memory
+     */
+    int getTenantCount();
+
+    /**
+     * @return the number of authorities held across all bridge tables
+     */
+    long getAuthorityCount();
+
+    /**
+     * @return the number of ancestor and descendant entries held across all bridge tables
+     */
+    long getEntryCount();
+
+    /**
+     * @return the estimated memory used by all bridge tables, in bytes
+     */
+    long getEstimatedSizeInBytes();
+
+    /**
+     * @return the number of link changes applied to the bridge tables in place
+     */
+    long getIncrementalUpdateCount();
+
+    /**
+     * @return the number of link changes that were already present in a rebuilt bridge table
+     */
+    long getSkippedUpdateCount();
+
+    /**
+     * @return the number of link changes that could not be applied and forced a rebuild
+     */
+    long getFailedUpdateCount();
+
+    /**
+     * @return one line per tenant giving the authorities, entries and estimated size of its bridge table
+     */
+    String getFootprintReport();
+}
@@ -375,7 +375,12 @@ public class AuthorityDAOImpl implements AuthorityDAO, NodeServicePolicies.Befor
         else
         {
             userAuthorityCache.clear();
-            authorityBridgeTableCache.refresh();
+            // The bridge table names a member by its association name and a group by its authority name
+            for (NodeRef parentRef : parentRefs)
+            {
+                String parentAuthorityName = (String) nodeService.getProperty(parentRef, ContentModel.PROP_AUTHORITY_NAME);
+                authorityBridgeTableCache.addLink(parentAuthorityName, childName);
+            }
         }
     }
 
@@ -826,7 +831,9 @@ public class AuthorityDAOImpl implements AuthorityDAO, NodeServicePolicies.Befor
             userAuthorityCache.clear();
             if (cacheRefresh)
             {
-                authorityBridgeTableCache.refresh();
+                String parentAuthorityName = (String) nodeService.getProperty(parentRef, ContentModel.PROP_AUTHORITY_NAME);
+                String childAuthorityName = (String) nodeService.getProperty(childRef, ContentModel.PROP_AUTHORITY_NAME);
+                authorityBridgeTableCache.removeLink(parentAuthorityName, childAuthorityName);
             }
         }
     }
@@ -25,6 +25,8 @@
  */
 package org.alfresco.repo.security.permissions;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.alfresco.service.cmr.repository.NodeRef;
@@ -84,6 +86,24 @@ public interface PermissionServiceSPI extends PermissionService
      */
     public AccessStatus hasPermission(NodeRef nodeRef, PermissionReference perm);
 
+    /**
+     * Optimised read permission evaluation for several nodes at once.  The result for each node is the same as
+     * {@link #hasReadPermission(NodeRef)} would give, but implementations may share the work for nodes with the
+     * same ACL.
+     * 
+     * @param nodeRefs the nodes to check
+     * @return the access status for each node, in the order given
+     */
+    public default List<AccessStatus> hasReadPermissions(List<NodeRef> nodeRefs)
+    {
+        List<AccessStatus> results = new ArrayList<AccessStatus>(nodeRefs.size());
+        for (NodeRef nodeRef : nodeRefs)
+        {
+            results.add(hasReadPermission(nodeRef));
+        }
+        return results;
+    }
+
     /**
      * Where is the permission set that controls the behaviour for the given
      * permission for the given authentication to access the specified name.
@@ -28,12 +28,16 @@ package org.alfresco.repo.security.permissions.impl;
 import static org.apache.commons.lang3.BooleanUtils.toBoolean;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import net.sf.acegisecurity.Authentication;
 import net.sf.acegisecurity.GrantedAuthority;
@@ -89,6 +93,7 @@ import org.alfresco.traitextender.ExtendedTrait;
 import org.alfresco.traitextender.Extensible;
 import org.alfresco.traitextender.Trait;
 import org.alfresco.util.EqualsHelper;
+import org.alfresco.util.GUID;
 import org.alfresco.util.Pair;
 import org.alfresco.util.PolicyIgnoreUtil;
 import org.alfresco.util.PropertyCheck;
@@ -111,8 +116,17 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
 
     private static Log log = LogFactory.getLog(PermissionServiceImpl.class);
 
+    /** the key of the generation that invalidates every access cache entry when advanced */
+    private static final String GLOBAL_GENERATION_KEY = "accessGeneration";
+
+    /** the prefix of the keys of the generations of the node ACLs */
+    private static final String ACL_GENERATION_KEY = "aclGeneration";
+
     /** a transactionally-safe cache to be injected */
     protected SimpleCache<Serializable, AccessStatus> accessCache;
+
+    /** a transactionally-safe cache of the generations included in the access cache keys */
+    protected SimpleCache<Serializable, String> accessGenerationCache;
     
     protected SimpleCache<Serializable, Set<String>> readersCache;
     
@@ -168,6 +182,21 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
 
     protected boolean anyDenyDenies = false;
 
+    /*
+     * Access cache invalidation statistics, by event
+     */
+    private final Map<AccessCacheEvent, LongAdder> accessCacheEventCounts = new EnumMap<AccessCacheEvent, LongAdder>(AccessCacheEvent.class);
+    private final Map<AccessCacheEvent, LongAdder> accessCacheInvalidationCounts = new EnumMap<AccessCacheEvent, LongAdder>(AccessCacheEvent.class);
+    private final Map<AccessCacheEvent, LongAdder> accessCacheFullInvalidationCounts = new EnumMap<AccessCacheEvent, LongAdder>(AccessCacheEvent.class);
+    {
+        for (AccessCacheEvent event : AccessCacheEvent.values())
+        {
+            accessCacheEventCounts.put(event, new LongAdder());
+            accessCacheInvalidationCounts.put(event, new LongAdder());
+            accessCacheFullInvalidationCounts.put(event, new LongAdder());
+        }
+    }
+
     private final ExtendedTrait<PermissionServiceTrait> permissionServiceTrait;
     
     private ClassPolicyDelegate<OnGrantLocalPermission> onGrantLocalPermissionDelegate;
@@ -311,6 +340,17 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
         this.accessCache = accessCache;
     }
 
+    /**
+     * Set the cache of the ACL and authority generations that are part of every access cache key.
+     * 
+     * @param accessGenerationCache
+     *            a transactionally safe cache
+     */
+    public void setAccessGenerationCache(SimpleCache<Serializable, String> accessGenerationCache)
+    {
+        this.accessGenerationCache = accessGenerationCache;
+    }
+
     /**
      * @param readersCache the readersCache to set
      */
@@ -344,34 +384,211 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
     }
 
     /**
-     * Cache clear on move node
+     * Events that invalidate entries in the access cache
+     */
+    public enum AccessCacheEvent
+    {
+        /**
+         * A node was moved
+         */
+        MOVE_NODE,
+        /**
+         * An authority was added to an authority container
+         */
+        CREATE_AUTHORITY_MEMBERSHIP,
+        /**
+         * An authority was removed from an authority container
+         */
+        DELETE_AUTHORITY_MEMBERSHIP;
+    }
+
+    /**
+     * @param event the invalidating event
+     * @return the number of times the event has been seen
+     */
+    public long getAccessCacheEventCount(AccessCacheEvent event)
+    {
+        return accessCacheEventCounts.get(event).sum();
+    }
+
+    /**
+     * @param event the invalidating event
+     * @return the number of ACLs or authorities whose access cache entries were invalidated by the event
+     */
+    public long getAccessCacheInvalidationCount(AccessCacheEvent event)
+    {
+        return accessCacheInvalidationCounts.get(event).sum();
+    }
+
+    /**
+     * @param event the invalidating event
+     * @return the number of times the event invalidated every access cache entry
+     */
+    public long getAccessCacheFullInvalidationCount(AccessCacheEvent event)
+    {
+        return accessCacheFullInvalidationCounts.get(event).sum();
+    }
+
+    /**
+     * Cache invalidation on move node.
+     * <p>
+     * The access cache keys include the change transaction of the node, which the move updates, and the generation of
+     * the node's ACL (see {@link #generateKey(Set, NodeRef, PermissionReference, CacheType)}). The access cache is
+     * only used for nodes without an ACL or with a legacy ACL, so:
+     * <ul>
+     * <li>a node that does not inherit permissions keeps its ACL, and so does its subtree: nothing else goes stale</li>
+     * <li>the subtree of a node with a current ACL has current ACLs too, which are replaced as the move requires</li>
+     * <li>nodes without an ACL inherit through their parents, so the generation shared by such nodes is advanced</li>
+     * <li>legacy ACLs below the node may inherit from it, so every entry is invalidated</li>
+     * </ul>
      * 
      * @param oldChildAssocRef ChildAssociationRef
      * @param newChildAssocRef ChildAssociationRef
      */
     public void onMoveNode(ChildAssociationRef oldChildAssocRef, ChildAssociationRef newChildAssocRef)
     {
-        accessCache.clear();
+        NodeRef childRef = newChildAssocRef.getChildRef();
+        if (!nodeService.exists(childRef))
+        {
+            invalidateAllAccess(AccessCacheEvent.MOVE_NODE, childRef);
+            return;
+        }
+        AccessControlListProperties properties = permissionsDaoComponent.getAccessControlListProperties(childRef);
+        if (properties == null)
+        {
+            advanceAccessGeneration(getAclGenerationKey(null));
+            recordAccessCacheInvalidation(AccessCacheEvent.MOVE_NODE, 1, childRef);
+        }
+        else if (properties.getAclType() == ACLType.OLD && permissionsDaoComponent.getInheritParentPermissions(childRef))
+        {
+            invalidateAllAccess(AccessCacheEvent.MOVE_NODE, childRef);
+        }
+        else
+        {
+            recordAccessCacheInvalidation(AccessCacheEvent.MOVE_NODE, 0, childRef);
+        }
     }
 
     /**
-     * Cache clear on create of a child association from an authority container.
+     * Cache invalidation on create of a child association from an authority container.
      * 
      * @param childAssocRef ChildAssociationRef
      */
     public void onCreateChildAssociation(ChildAssociationRef childAssocRef)
     {
-        accessCache.clear();
+        invalidateAccessForAuthority(AccessCacheEvent.CREATE_AUTHORITY_MEMBERSHIP, childAssocRef.getChildRef());
     }
 
     /**
-     * Cache clear on delete of a child association from an authority container.
+     * Cache invalidation on delete of a child association from an authority container.
      * 
      * @param childAssocRef ChildAssociationRef
      */
     public void beforeDeleteChildAssociation(ChildAssociationRef childAssocRef)
     {
-        accessCache.clear();
+        invalidateAccessForAuthority(AccessCacheEvent.DELETE_AUTHORITY_MEMBERSHIP, childAssocRef.getChildRef());
+    }
+
+    /**
+     * Invalidate the access cache entries that depend on the membership of the given authority by advancing its
+     * generation.  Every user contained in a group has the group among its authorities, so a single generation
+     * covers all of them.  Falls back to invalidating every entry if the authority cannot be identified.
+     */
+    private void invalidateAccessForAuthority(AccessCacheEvent event, final NodeRef authorityRef)
+    {
+        final String authority = AuthenticationUtil.runAs(new RunAsWork<String>()
+        {
+            public String doWork() throws Exception
+            {
+                return getAuthorityName(authorityRef);
+            }
+        }, AuthenticationUtil.getSystemUserName());
+        if (authority == null)
+        {
+            invalidateAllAccess(event, authorityRef);
+            return;
+        }
+        advanceAccessGeneration(getAuthorityGenerationKey(authority));
+        recordAccessCacheInvalidation(event, 1, authorityRef);
+    }
+
+    /**
+     * @return the name of the user or group node, or <tt>null</tt> if the node is not a recognised authority
+     */
+    private String getAuthorityName(NodeRef authorityRef)
+    {
+        if (!nodeService.exists(authorityRef))
+        {
+            return null;
+        }
+        String userName = (String) nodeService.getProperty(authorityRef, ContentModel.PROP_USERNAME);
+        if (userName != null)
+        {
+            return userName;
+        }
+        return (String) nodeService.getProperty(authorityRef, ContentModel.PROP_AUTHORITY_NAME);
+    }
+
+    private void invalidateAllAccess(AccessCacheEvent event, NodeRef nodeRef)
+    {
+        advanceAccessGeneration(GLOBAL_GENERATION_KEY);
+        accessCacheEventCounts.get(event).increment();
+        accessCacheFullInvalidationCounts.get(event).increment();
+        if (log.isDebugEnabled())
+        {
+            log.debug("Access cache " + event + " for " + nodeRef + ": invalidated all entries");
+        }
+    }
+
+    private void recordAccessCacheInvalidation(AccessCacheEvent event, int generations, NodeRef nodeRef)
+    {
+        accessCacheEventCounts.get(event).increment();
+        accessCacheInvalidationCounts.get(event).add(generations);
+        if (log.isDebugEnabled())
+        {
+            log.debug("Access cache " + event + " for " + nodeRef + ": invalidated entries for " + generations + " ACLs or authorities");
+        }
+    }
+
+    /**
+     * Authorities are keyed by the wrapped name, as users are in the access cache keys, so they cannot be confused
+     * with the other generations.
+     */
+    private Serializable getAuthorityGenerationKey(String authority)
+    {
+        return (Serializable) Collections.singleton(authority);
+    }
+
+    /**
+     * Nodes without an ACL all share the generation with the <tt>null</tt> ACL ID.
+     */
+    private Serializable getAclGenerationKey(Long aclId)
+    {
+        return new Pair<String, Long>(ACL_GENERATION_KEY, aclId);
+    }
+
+    /**
+     * Get the current generation for the given key.  A missing generation is never used in an access cache key, as
+     * it may have been evicted after entries were cached against it; a new one is started instead.
+     */
+    private String getAccessGeneration(Serializable generationKey)
+    {
+        String generation = accessGenerationCache.get(generationKey);
+        if (generation == null)
+        {
+            generation = GUID.generate();
+            accessGenerationCache.put(generationKey, generation);
+        }
+        return generation;
+    }
+
+    /**
+     * Start a new generation for the given key.  Generations are unique rather than incremented so that concurrent
+     * changes can never end up on the same generation.
+     */
+    private void advanceAccessGeneration(Serializable generationKey)
+    {
+        accessGenerationCache.put(generationKey, GUID.generate());
     }
 
     @Override
@@ -384,6 +601,7 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
         PropertyCheck.mandatory(this, "permissionsDaoComponent", permissionsDaoComponent);
         PropertyCheck.mandatory(this, "authorityService", authorityService);
         PropertyCheck.mandatory(this, "accessCache", accessCache);
+        PropertyCheck.mandatory(this, "accessGenerationCache", accessGenerationCache);
         PropertyCheck.mandatory(this, "readersCache", readersCache);
         PropertyCheck.mandatory(this, "policyComponent", policyComponent);
         PropertyCheck.mandatory(this, "aclDaoComponent", aclDaoComponent);
@@ -824,15 +1042,24 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
     /**
      * Key for a cache object is built from all the known Authorities (which can change dynamically so they must all be
      * used) the NodeRef ID and the permission reference itself. This gives a unique key for each permission test.
+     * <p>
+     * The generations of the node's ACL and, for dynamic authority sets, of each of the user's authorities are
+     * included so that moves and membership changes only need to advance a generation rather than remove entries.
      */
     Serializable generateKey(Set<String> auths, NodeRef nodeRef, PermissionReference perm, CacheType type)
     {
         LinkedHashSet<Serializable> key = new LinkedHashSet<Serializable>();
         key.add(perm.toString());
+        key.add(getAccessGeneration(GLOBAL_GENERATION_KEY));
         // We will just have to key our dynamic sets by username. We wrap it so as not to be confused with a static set
         if (auths instanceof AuthorityServiceImpl.UserAuthoritySet)
         {
-            key.add((Serializable)Collections.singleton(((AuthorityServiceImpl.UserAuthoritySet)auths).getUsername()));
+            key.add(getAuthorityGenerationKey(((AuthorityServiceImpl.UserAuthoritySet)auths).getUsername()));
+            // The generations are unique, so they cannot be confused with each other or with the authorities
+            for (String authority : auths)
+            {
+                key.add(getAccessGeneration(getAuthorityGenerationKey(authority)));
+            }
         }
         else
         {
@@ -842,6 +1069,8 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
         // Ensure some concept of node version or transaction is included in the key so we can track without cache replication 
         NodeRef.Status nodeStatus = nodeService.getNodeStatus(nodeRef);
         key.add(nodeStatus == null ? "null" : nodeStatus.getChangeTxnId());
+        Long aclId = (nodeStatus == null || nodeStatus.isDeleted()) ? null : nodeService.getNodeAclId(nodeRef);
+        key.add(getAccessGeneration(getAclGenerationKey(aclId)));
         key.add(type);
         return key;
     }
@@ -1271,8 +1500,92 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
             return AccessStatus.ALLOWED;
         }
 
-        // any dynamic authorities other than those defined in the default permissions model with full
-        // control or read permission force hasPermission check
+        if(isReadPermissionForced())
+        {
+            return hasPermission(nodeRef, PermissionService.READ);
+        }
+
+        Long aclID = nodeService.getNodeAclId(nodeRef);
+        if(aclID == null)
+        {
+            // ACLID is null - need to call default permissions evaluation
+            // This will end up calling the old-style ACL code that walks up the ACL tree
+            status = hasPermission(nodeRef, getPermissionReference(null, PermissionService.READ));
+        }
+        else
+        {
+            status = (canRead(aclID) == AccessStatus.ALLOWED ||
+                    adminRead() == AccessStatus.ALLOWED ||
+                    ownerRead(runAsUser, nodeRef) == AccessStatus.ALLOWED) ? AccessStatus.ALLOWED : AccessStatus.DENIED;
+        }
+
+        return status;
+    }
+
+    /**
+     * Optimised read permission evaluation for several nodes; see {@link #hasReadPermission(NodeRef)}.
+     * The authorisations are computed once and each distinct ACL is evaluated once.
+     */
+    @Override
+    public List<AccessStatus> hasReadPermissions(List<NodeRef> nodeRefs)
+    {
+        List<AccessStatus> results = new ArrayList<AccessStatus>(nodeRefs.size());
+
+        String runAsUser = AuthenticationUtil.getRunAsUser();
+        if (runAsUser == null || AuthenticationUtil.isRunAsUserTheSystemUser() || isReadPermissionForced())
+        {
+            // Nothing to share between the nodes
+            for (NodeRef nodeRef : nodeRefs)
+            {
+                results.add(hasReadPermission(nodeRef));
+            }
+            return results;
+        }
+
+        Set<String> authorisations = getAuthorisations();
+        Map<Long, AccessStatus> aclStatuses = new HashMap<Long, AccessStatus>();
+        AccessStatus adminStatus = null;
+        for (NodeRef nodeRef : nodeRefs)
+        {
+            if (nodeRef == null || !nodeService.exists(nodeRef))
+            {
+                // Allow permissions for nodes that do not exist
+                results.add(AccessStatus.ALLOWED);
+                continue;
+            }
+            Long aclID = nodeService.getNodeAclId(nodeRef);
+            if (aclID == null)
+            {
+                results.add(hasPermission(nodeRef, getPermissionReference(null, PermissionService.READ)));
+                continue;
+            }
+            AccessStatus aclStatus = aclStatuses.get(aclID);
+            if (aclStatus == null)
+            {
+                aclStatus = canRead(aclID, authorisations);
+                aclStatuses.put(aclID, aclStatus);
+            }
+            if (aclStatus == AccessStatus.ALLOWED)
+            {
+                results.add(AccessStatus.ALLOWED);
+                continue;
+            }
+            if (adminStatus == null)
+            {
+                adminStatus = adminRead();
+            }
+            results.add((adminStatus == AccessStatus.ALLOWED ||
+                    ownerRead(runAsUser, nodeRef) == AccessStatus.ALLOWED) ? AccessStatus.ALLOWED : AccessStatus.DENIED);
+        }
+        return results;
+    }
+
+    /**
+     * Any dynamic authorities other than those defined in the default permissions model with full
+     * control or read permission force a full hasPermission check for read permissions.
+     */
+    private boolean isReadPermissionForced()
+    {
         Boolean forceHasPermission = (Boolean)AlfrescoTransactionSupport.getResource("forceHasPermission");
         if(forceHasPermission == null)
         {
@@ -1293,27 +1606,7 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
             }
             AlfrescoTransactionSupport.bindResource("forceHasPermission", forceHasPermission);            
         }
-
-        if(forceHasPermission == Boolean.TRUE)
-        {
-            return hasPermission(nodeRef, PermissionService.READ);
-        }
-
-        Long aclID = nodeService.getNodeAclId(nodeRef);
-        if(aclID == null)
-        {
-            // ACLID is null - need to call default permissions evaluation
-            // This will end up calling the old-style ACL code that walks up the ACL tree
-            status = hasPermission(nodeRef, getPermissionReference(null, PermissionService.READ));
-        }
-        else
-        {
-            status = (canRead(aclID) == AccessStatus.ALLOWED ||
-                    adminRead() == AccessStatus.ALLOWED ||
-                    ownerRead(runAsUser, nodeRef) == AccessStatus.ALLOWED) ? AccessStatus.ALLOWED : AccessStatus.DENIED;
-        }
-
-        return status;
+        return forceHasPermission == Boolean.TRUE;
     }
 
     protected AccessStatus adminRead()
@@ -1441,8 +1734,11 @@ public class PermissionServiceImpl extends AbstractLifecycleBean implements Perm
 
     protected AccessStatus canRead(Long aclId)
     {
-        Set<String> authorities = getAuthorisations();
+        return canRead(aclId, getAuthorisations());
+    }
 
+    protected AccessStatus canRead(Long aclId, Set<String> authorities)
+    {
         // test denied 
         
         if(anyDenyDenies)
@@ -30,17 +30,22 @@ import net.sf.acegisecurity.Authentication;
 import net.sf.acegisecurity.ConfigAttribute;
 import net.sf.acegisecurity.ConfigAttributeDefinition;
 import net.sf.acegisecurity.afterinvocation.AfterInvocationProvider;
+import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.opencmis.search.CMISResultSet;
+import org.alfresco.repo.node.NodeBulkLoader;
 import org.alfresco.repo.search.SearchEngineResultSet;
 import org.alfresco.repo.search.SimpleResultSetMetaData;
 import org.alfresco.repo.search.impl.lucene.PagingLuceneResultSet;
 import org.alfresco.repo.search.impl.querymodel.QueryEngineResults;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
 import org.alfresco.repo.security.permissions.PermissionCheckCollection;
 import org.alfresco.repo.security.permissions.PermissionCheckValue;
 import org.alfresco.repo.security.permissions.PermissionCheckedCollection.PermissionCheckedCollectionMixin;
 import org.alfresco.repo.security.permissions.PermissionCheckedValue;
+import org.alfresco.repo.security.permissions.PermissionServiceSPI;
 import org.alfresco.repo.security.permissions.impl.SimplePermissionReference;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
 import org.alfresco.service.cmr.repository.AssociationRef;
 import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.NodeRef;
@@ -54,15 +59,18 @@ import org.alfresco.service.cmr.security.AccessStatus;
 import org.alfresco.service.cmr.security.PermissionService;
 import org.alfresco.service.namespace.NamespacePrefixResolver;
 import org.alfresco.service.namespace.QName;
+import org.alfresco.service.transaction.TransactionService;
 import org.alfresco.util.Pair;
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.InitializingBean;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -70,6 +78,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Enforce permission after the method call
@@ -102,6 +114,11 @@ public class ACLEntryAfterInvocationProvider implements AfterInvocationProvider,
 	private int optimisePermissionsBulkFetchSize;
     private boolean anyDenyDenies = false;
     private boolean postProcessDenies = false;
+    private boolean groupReadPermissionChecksByAcl = false;
+    private int readPermissionCheckParallelism = 1;
+    private ExecutorService readPermissionCheckExecutor;
+    private TransactionService transactionService;
+    private NodeBulkLoader nodeBulkLoader;
     /**
      * Default constructor
      */
@@ -531,6 +548,52 @@ public class ACLEntryAfterInvocationProvider implements AfterInvocationProvider,
     {
         this.postProcessDenies = postProcessDenies;
     }
+
+    /**
+     * Evaluate optimised read permissions in chunks of the bulk fetch size, checking each distinct ACL
+     * once per chunk rather than once per result.  Requires the permission service to be a {@link PermissionServiceSPI}.
+     * 
+     * @param groupReadPermissionChecksByAcl <tt>true</tt> to group the read permission checks by ACL
+     */
+    public void setGroupReadPermissionChecksByAcl(boolean groupReadPermissionChecksByAcl)
+    {
+        this.groupReadPermissionChecksByAcl = groupReadPermissionChecksByAcl;
+    }
+
+    /**
+     * @param readPermissionCheckParallelism the maximum number of chunks of a single result set that are evaluated
+     *            concurrently when read permission checks are grouped by ACL.  <tt>1</tt> (the default) evaluates all
+     *            chunks on the calling thread.  Parallel chunks are evaluated in separate read-only transactions,
+     *            so they do not see changes made but not yet committed by the calling transaction.
+     */
+    public void setReadPermissionCheckParallelism(int readPermissionCheckParallelism)
+    {
+        this.readPermissionCheckParallelism = readPermissionCheckParallelism;
+    }
+
+    /**
+     * @param readPermissionCheckExecutor the bounded executor used for parallel read permission checks
+     */
+    public void setReadPermissionCheckExecutor(ExecutorService readPermissionCheckExecutor)
+    {
+        this.readPermissionCheckExecutor = readPermissionCheckExecutor;
+    }
+
+    /**
+     * @param transactionService the transaction service used for parallel read permission checks
+     */
+    public void setTransactionService(TransactionService transactionService)
+    {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * @param nodeBulkLoader used to prefetch the nodes of each chunk when read permission checks are grouped by ACL
+     */
+    public void setNodeBulkLoader(NodeBulkLoader nodeBulkLoader)
+    {
+        this.nodeBulkLoader = nodeBulkLoader;
+    }
     
 	private ResultSet decide(Authentication authentication, Object object, ConfigAttributeDefinition config, ResultSet returnedObject) throws AccessDeniedException
     {
@@ -615,6 +678,12 @@ public class ACLEntryAfterInvocationProvider implements AfterInvocationProvider,
 
         try
         {
+            if (supportedDefinitions == null && groupReadPermissionChecksByAcl && permissionService instanceof PermissionServiceSPI)
+            {
+                decideReadPermissionsByAcl(returnedObject, filteringResultSet, maxChecks, maxCheckTime, startTimeMillis);
+                return filteringResultSet;
+            }
+
             // Iterate over all the elements.
             for (int i = 0; i < returnedObject.length(); i++)
             {
@@ -686,6 +755,125 @@ public class ACLEntryAfterInvocationProvider implements AfterInvocationProvider,
         return filteringResultSet;
     }
 
+    /**
+     * Optimised read permission filtering that checks the results in chunks of the bulk fetch size.  The nodes of
+     * each chunk are prefetched and checked with one call to {@link PermissionServiceSPI#hasReadPermissions(List)},
+     * which evaluates each distinct ACL once.  Chunks are evaluated on the executor if parallelism is enabled, but
+     * the results are always applied in result set order.  The count and time cut-offs are applied at chunk
+     * boundaries.
+     */
+    private void decideReadPermissionsByAcl(ResultSet returnedObject, FilteringResultSet filteringResultSet,
+                int maxChecks, long maxCheckTime, long startTimeMillis)
+    {
+        final PermissionServiceSPI permissionServiceSPI = (PermissionServiceSPI) permissionService;
+        int length = returnedObject.length();
+        int chunkSize = optimisePermissionsBulkFetchSize > 0 ? optimisePermissionsBulkFetchSize : length;
+        boolean parallel = readPermissionCheckParallelism > 1 && readPermissionCheckExecutor != null && transactionService != null;
+        final String runAsUser = AuthenticationUtil.getRunAsUser();
+
+        // Chunks in flight, in result set order
+        Deque<Pair<Integer, Future<List<AccessStatus>>>> pending = new ArrayDeque<Pair<Integer, Future<List<AccessStatus>>>>();
+        int next = 0;
+        try
+        {
+            while (next < length || !pending.isEmpty())
+            {
+                // Keep the pipeline full
+                while (next < length && next < maxChecks && (pending.isEmpty() || (parallel && pending.size() < readPermissionCheckParallelism)))
+                {
+                    int end = Math.min(Math.min(length, maxChecks), next + chunkSize);
+                    final List<NodeRef> nodeRefs = new ArrayList<NodeRef>(end - next);
+                    for (int i = next; i < end; i++)
+                    {
+                        nodeRefs.add(returnedObject.getNodeRef(i));
+                    }
+                    Future<List<AccessStatus>> future;
+                    if (parallel)
+                    {
+                        // Workers run in their own read-only transaction as the current user
+                        future = readPermissionCheckExecutor.submit(() -> AuthenticationUtil.runAs(new RunAsWork<List<AccessStatus>>()
+                        {
+                            public List<AccessStatus> doWork() throws Exception
+                            {
+                                RetryingTransactionCallback<List<AccessStatus>> callback = () -> checkReadPermissions(permissionServiceSPI, nodeRefs);
+                                return transactionService.getRetryingTransactionHelper().doInTransaction(callback, true, true);
+                            }
+                        }, runAsUser));
+                    }
+                    else
+                    {
+                        // Run on this thread once the cut-offs have been checked
+                        future = new FutureTask<List<AccessStatus>>(() -> checkReadPermissions(permissionServiceSPI, nodeRefs));
+                    }
+                    pending.add(new Pair<Integer, Future<List<AccessStatus>>>(next, future));
+                    next = end;
+                }
+
+                if (pending.isEmpty())
+                {
+                    // Only the count cut-off stops us here
+                    filteringResultSet.setIncluded(next, true);
+                    log.warn("maxChecks exceeded (" + maxChecks + ")", new Exception("Back Trace"));
+                    filteringResultSet.setResultSetMetaData(new SimpleResultSetMetaData(LimitBy.NUMBER_OF_PERMISSION_EVALUATIONS, PermissionEvaluationMode.EAGER, returnedObject
+                            .getResultSetMetaData().getSearchParameters()));
+                    break;
+                }
+
+                Pair<Integer, Future<List<AccessStatus>>> chunk = pending.poll();
+                int chunkStart = chunk.getFirst();
+                long currentTimeMillis = System.currentTimeMillis();
+                if ((currentTimeMillis - startTimeMillis) > maxCheckTime)
+                {
+                    filteringResultSet.setIncluded(chunkStart, true);
+                    log.warn("maxCheckTime exceeded (" + (currentTimeMillis - startTimeMillis) + " milliseconds)", new Exception("Back Trace"));
+                    filteringResultSet.setResultSetMetaData(new SimpleResultSetMetaData(LimitBy.NUMBER_OF_PERMISSION_EVALUATIONS, PermissionEvaluationMode.EAGER, returnedObject
+                            .getResultSetMetaData().getSearchParameters()));
+                    chunk.getSecond().cancel(true);
+                    break;
+                }
+                if (!parallel)
+                {
+                    ((FutureTask<List<AccessStatus>>) chunk.getSecond()).run();
+                }
+                List<AccessStatus> statuses = chunk.getSecond().get();
+                for (int i = 0; i < statuses.size(); i++)
+                {
+                    filteringResultSet.setIncluded(chunkStart + i, statuses.get(i) != AccessStatus.DENIED);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new AlfrescoRuntimeException("Interrupted while checking read permissions", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new AlfrescoRuntimeException("Failed to check read permissions", cause);
+        }
+        finally
+        {
+            for (Pair<Integer, Future<List<AccessStatus>>> chunk : pending)
+            {
+                chunk.getSecond().cancel(true);
+            }
+        }
+    }
+
+    private List<AccessStatus> checkReadPermissions(PermissionServiceSPI permissionServiceSPI, List<NodeRef> nodeRefs)
+    {
+        if (nodeBulkLoader != null)
+        {
+            nodeBulkLoader.cacheNodes(nodeRefs);
+        }
+        return permissionServiceSPI.hasReadPermissions(nodeRefs);
+    }
+
     /**
      * Compute a (Weak)FilteringResultSet by selecting the first maxSize elements from returnedObject.
      *
@@ -54,6 +54,10 @@ public class FilteringResultSet extends ACLEntryAfterInvocationProvider implemen
 
     private ResultSetMetaData resultSetMetaData;
 
+    private int permissionChecksPerformed;
+
+    private int permissionChecksSaved;
+
     public FilteringResultSet(ResultSet unfiltered)
     {
         super();
@@ -281,6 +285,33 @@ public class FilteringResultSet extends ACLEntryAfterInvocationProvider implemen
         this.resultSetMetaData = resultSetMetaData;
     }
 
+    public void setPermissionChecksPerformed(int permissionChecksPerformed)
+    {
+        this.permissionChecksPerformed = permissionChecksPerformed;
+    }
+
+    /**
+     * @return the number of nodes that had their read permission checked while filtering, if recorded by the filter
+     */
+    public int getPermissionChecksPerformed()
+    {
+        return permissionChecksPerformed;
+    }
+
+    public void setPermissionChecksSaved(int permissionChecksSaved)
+    {
+        this.permissionChecksSaved = permissionChecksSaved;
+    }
+
+    /**
+     * @return the number of ACL evaluations avoided because another node with the same ACL had already been checked,
+     *         if recorded by the filter
+     */
+    public int getPermissionChecksSaved()
+    {
+        return permissionChecksSaved;
+    }
+
     public int getStart()
     {
         throw new UnsupportedOperationException();
@@ -27,17 +27,25 @@ package org.alfresco.repo.solr;
 
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.zip.CRC32;
 
 import org.alfresco.error.AlfrescoRuntimeException;
@@ -57,7 +65,9 @@ import org.alfresco.repo.search.SearchTrackingComponent;
 import org.alfresco.repo.search.TypeIndexFilter;
 import org.alfresco.repo.search.impl.QueryParserUtils;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
 import org.alfresco.repo.tenant.TenantService;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
 import org.alfresco.repo.version.Version2Model;
 import org.alfresco.repo.version.VersionModel;
 import org.alfresco.repo.version.common.VersionUtil;
@@ -78,6 +88,7 @@ import org.alfresco.service.cmr.security.OwnableService;
 import org.alfresco.service.cmr.security.PermissionService;
 import org.alfresco.service.namespace.NamespaceService;
 import org.alfresco.service.namespace.QName;
+import org.alfresco.service.transaction.TransactionService;
 import org.alfresco.util.Pair;
 import org.alfresco.util.PropertyCheck;
 import org.apache.commons.logging.Log;
@@ -105,6 +116,11 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
     private AspectIndexFilter aspectIndexFilter;
     private ShardRegistry shardRegistry;
     private NamespaceService namespaceService;
+    private TransactionService transactionService;
+    private ExecutorService metadataThreadPool;
+    private boolean streaming = false;
+    private int streamingChunkSize = 500;
+    private int streamingChunksInFlight = 4;
 
     private static Log logger = LogFactory.getLog(SOLRTrackingComponentImpl.class);
     
@@ -194,6 +210,43 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
         this.namespaceService = namespaceService;
     }
 
+    public void setTransactionService(TransactionService transactionService)
+    {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * @param metadataThreadPool the threads building node metadata chunks when streaming
+     */
+    public void setMetadataThreadPool(ExecutorService metadataThreadPool)
+    {
+        this.metadataThreadPool = metadataThreadPool;
+    }
+
+    /**
+     * @param streaming <tt>true</tt> to build the metadata of large requests in chunks on the metadata thread pool
+     */
+    public void setStreaming(boolean streaming)
+    {
+        this.streaming = streaming;
+    }
+
+    /**
+     * @param streamingChunkSize the number of nodes loaded and built together when streaming
+     */
+    public void setStreamingChunkSize(int streamingChunkSize)
+    {
+        this.streamingChunkSize = streamingChunkSize;
+    }
+
+    /**
+     * @param streamingChunksInFlight the number of chunks that may be built ahead of the callback when streaming
+     */
+    public void setStreamingChunksInFlight(int streamingChunksInFlight)
+    {
+        this.streamingChunksInFlight = streamingChunksInFlight;
+    }
+
     /**
      * Initialize
      */    
@@ -211,6 +264,15 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
         PropertyCheck.mandatory(this, "typeIndexFilter", typeIndexFilter);
         PropertyCheck.mandatory(this, "aspectIndexFilter", aspectIndexFilter);
         PropertyCheck.mandatory(this, "namespaceService", namespaceService);
+        if (streaming)
+        {
+            PropertyCheck.mandatory(this, "transactionService", transactionService);
+            PropertyCheck.mandatory(this, "metadataThreadPool", metadataThreadPool);
+            if (streamingChunkSize < 1 || streamingChunksInFlight < 1)
+            {
+                throw new AlfrescoRuntimeException("The streaming chunk size and chunks in flight must be positive");
+            }
+        }
     }
     
     @Override
@@ -587,6 +649,16 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
     
     
     private List<Long> preCacheNodes(NodeMetaDataParameters nodeMetaDataParameters)
+    {
+        List<Long> nodeIds = getNodeIds(nodeMetaDataParameters);
+        cacheNodes(nodeIds);
+        return nodeIds;
+    }
+
+    /**
+     * @return the IDs of the nodes requested, up to the maximum number of results
+     */
+    private List<Long> getNodeIds(NodeMetaDataParameters nodeMetaDataParameters)
     {
         int maxResults = nodeMetaDataParameters.getMaxResults();
         boolean isLimitSet = (maxResults != 0 && maxResults != Integer.MAX_VALUE);
@@ -616,7 +688,14 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
                 nodeIds.add(nodeId);
             }
         }
-        
+        return nodeIds;
+    }
+
+    /**
+     * Bulk load the nodes, their parent associations and, if required, their ancestors.
+     */
+    private void cacheNodes(List<Long> nodeIds)
+    {
         // Pre-evaluate ancestors so we can bulk load them
         List<Long> ancestors;
         if(cacheAncestors)
@@ -631,8 +710,8 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
         nodeDAO.setCheckNodeConsistency();
         // bulk load nodes and their ancestors      
         nodeDAO.cacheNodesById(ancestors);
-        
-        return nodeIds;
+        // bulk load their parent associations
+        nodeDAO.cacheParentAssocs(ancestors);
     }
     
     /**
@@ -646,6 +725,7 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
         Set<Long> visited = new TreeSet<Long>();
         Long nodeId;
         nodeDAO.cacheNodesById(toVisit);
+        nodeDAO.cacheParentAssocs(toVisit);
         Long lastCached = toVisit.peekLast();
         while ((nodeId = toVisit.pollFirst()) != null)
         {
@@ -684,6 +764,7 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
             if (nodeIdEqualsLastCached && !toVisit.isEmpty())
             {
                 nodeDAO.cacheNodesById(toVisit);
+                nodeDAO.cacheParentAssocs(toVisit);
                 lastCached = toVisit.peekLast();
             }
         }
@@ -784,351 +865,608 @@ public class SOLRTrackingComponentImpl implements SearchTrackingComponent
         }
                 
         NodeMetaDataQueryRowHandler rowHandler = new NodeMetaDataQueryRowHandler(callback);
-        boolean includeType = (resultFilter == null ? true : resultFilter.getIncludeType());
-        boolean includeProperties = (resultFilter == null ? true : resultFilter.getIncludeProperties());
-        boolean includeAspects = (resultFilter == null ? true : resultFilter.getIncludeAspects());
-        boolean includePaths = (resultFilter == null ? true : resultFilter.getIncludePaths());
-        boolean includeNodeRef = (resultFilter == null ? true : resultFilter.getIncludeNodeRef());
-        boolean includeParentAssociations = (resultFilter == null ? true : resultFilter.getIncludeParentAssociations());
-        boolean includeChildAssociations = (resultFilter == null ? true : resultFilter.getIncludeChildAssociations());
-        boolean includeOwner = (resultFilter == null ? true : resultFilter.getIncludeOwner());
-        boolean includeChildIds = (resultFilter == null ? true : resultFilter.getIncludeChildIds());
-        boolean includeTxnId = (resultFilter == null ? true : resultFilter.getIncludeTxnId());
+        NodeMetaDataRequest request = new NodeMetaDataRequest(resultFilter);
         
+        if (isStreaming(nodeMetaDataParameters))
+        {
+            streamNodesMetadata(getNodeIds(nodeMetaDataParameters), request, rowHandler);
+            return;
+        }
+
         List<Long> nodeIds = preCacheNodes(nodeMetaDataParameters);
+        Map<Long, List<Path>> paths = getPaths(nodeIds, request);
 
         for(Long nodeId : nodeIds)
         {
-            Status status = nodeDAO.getNodeIdStatus(nodeId);
-            if (status == null)
+            NodeMetaData nodeMetaData = getNodeMetaData(nodeId, request, paths);
+            if (nodeMetaData != null)
             {
-                // We've been called with the ID of a purged node, probably due to processing a transaction with a
-                // cascading delete. Fine to skip and assume it will be processed in a transaction.
-                // See org.alfresco.solr.tracker.CoreTracker.updateDescendantAuxDocs(NodeMetaData, boolean, SolrIndexSearcher)
-                continue;
+                rowHandler.processResult(nodeMetaData);
             }
-            NodeRef nodeRef = status.getNodeRef();
-            
-            NodeRef unversionedNodeRef = null;
-            if(isVersionNodeRef(nodeRef))
+        }
+    }
+
+    /**
+     * Streaming is used when it is configured and the request spans more than one chunk.
+     */
+    private boolean isStreaming(NodeMetaDataParameters nodeMetaDataParameters)
+    {
+        if (!streaming)
+        {
+            return false;
+        }
+        List<Long> nodeIds = nodeMetaDataParameters.getNodeIds();
+        int maxResults = nodeMetaDataParameters.getMaxResults();
+        int size = (nodeIds == null ? maxResults : nodeIds.size());
+        if (maxResults != 0 && maxResults < size)
+        {
+            size = maxResults;
+        }
+        return size == 0 || size > streamingChunkSize;
+    }
+
+    /**
+     * Build the metadata of the nodes in chunks on the metadata thread pool. Each chunk bulk loads its nodes, their
+     * parent associations and their ancestors in its own read-only transaction, and the chunks are handed to the
+     * callback in request order on the calling thread. At most
+     * {@link #setStreamingChunksInFlight(int) streamingChunksInFlight} chunks are built ahead of the callback.
+     */
+    private void streamNodesMetadata(List<Long> nodeIds, final NodeMetaDataRequest request, NodeMetaDataQueryRowHandler rowHandler)
+    {
+        final String runAsUser = AuthenticationUtil.getRunAsUser();
+        Deque<Future<List<NodeMetaData>>> chunks = new ArrayDeque<Future<List<NodeMetaData>>>();
+        int nextChunkStart = 0;
+        try
+        {
+            while (rowHandler.more && (nextChunkStart < nodeIds.size() || !chunks.isEmpty()))
             {
-            	unversionedNodeRef = convertVersionNodeRefToVersionedNodeRef(VersionUtil.convertNodeRef(nodeRef));
+                while (nextChunkStart < nodeIds.size() && chunks.size() < streamingChunksInFlight)
+                {
+                    int nextChunkEnd = Math.min(nextChunkStart + streamingChunkSize, nodeIds.size());
+                    final List<Long> chunk = new ArrayList<Long>(nodeIds.subList(nextChunkStart, nextChunkEnd));
+                    nextChunkStart = nextChunkEnd;
+                    chunks.add(metadataThreadPool.submit(new Callable<List<NodeMetaData>>()
+                    {
+                        @Override
+                        public List<NodeMetaData> call() throws Exception
+                        {
+                            return AuthenticationUtil.runAs(new RunAsWork<List<NodeMetaData>>()
+                            {
+                                @Override
+                                public List<NodeMetaData> doWork() throws Exception
+                                {
+                                    RetryingTransactionCallback<List<NodeMetaData>> callback = new RetryingTransactionCallback<List<NodeMetaData>>()
+                                    {
+                                        @Override
+                                        public List<NodeMetaData> execute() throws Throwable
+                                        {
+                                            return getNodesMetaData(chunk, request);
+                                        }
+                                    };
+                                    return transactionService.getRetryingTransactionHelper().doInTransaction(callback, true, true);
+                                }
+                            }, runAsUser);
+                        }
+                    }));
+                }
+                for (NodeMetaData nodeMetaData : getChunk(chunks.poll()))
+                {
+                    rowHandler.processResult(nodeMetaData);
+                }
             }
-          
-            NodeMetaData nodeMetaData = new NodeMetaData();
-            nodeMetaData.setNodeId(nodeId);
-  
-            if(includeNodeRef)
+        }
+        finally
+        {
+            for (Future<List<NodeMetaData>> chunk : chunks)
             {
-                nodeMetaData.setNodeRef(tenantService.getBaseName(nodeRef, true));
+                chunk.cancel(true);
             }
-            
-            if(includeTxnId)
+        }
+    }
+
+    private List<NodeMetaData> getChunk(Future<List<NodeMetaData>> chunk)
+    {
+        try
+        {
+            return chunk.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new AlfrescoRuntimeException("Interrupted while building node metadata", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
             {
-                nodeMetaData.setTxnId(status.getDbTxnId());
+                throw (RuntimeException) cause;
             }
-            
-            if(status.isDeleted())
+            if (cause instanceof Error)
             {
-                rowHandler.processResult(nodeMetaData);
-                continue;
+                throw (Error) cause;
             }
-            
-            Map<QName, Serializable> props = null;
-            Set<QName> aspects = null;
+            throw new AlfrescoRuntimeException("Failed to build node metadata", cause);
+        }
+    }
 
-            Status unversionedStatus = null;
-            if(unversionedNodeRef != null)
+    /**
+     * Bulk load a chunk of nodes, their parent associations and their ancestors and build their metadata.
+     */
+    private List<NodeMetaData> getNodesMetaData(List<Long> nodeIds, NodeMetaDataRequest request)
+    {
+        cacheNodes(nodeIds);
+        Map<Long, List<Path>> paths = getPaths(nodeIds, request);
+        List<NodeMetaData> nodesMetaData = new ArrayList<NodeMetaData>(nodeIds.size());
+        for (Long nodeId : nodeIds)
+        {
+            NodeMetaData nodeMetaData = getNodeMetaData(nodeId, request, paths);
+            if (nodeMetaData != null)
             {
-            	unversionedStatus = nodeDAO.getNodeRefStatus(unversionedNodeRef);
+                nodesMetaData.add(nodeMetaData);
             }
+        }
+        return nodesMetaData;
+    }
 
-            if(unversionedStatus != null)
+    /**
+     * Resolve the paths of the nodes that need them in one go, so that the ancestors they share are only resolved once.
+     * The paths of the live nodes of versions are resolved along with them.
+     * 
+     * @return the paths by node ID, leaving out deleted nodes and nodes whose paths are not indexed
+     */
+    private Map<Long, List<Path>> getPaths(List<Long> nodeIds, NodeMetaDataRequest request)
+    {
+        if (!request.includePaths)
+        {
+            return Collections.emptyMap();
+        }
+        List<Long> pathNodeIds = new ArrayList<Long>(nodeIds.size());
+        for (Long nodeId : nodeIds)
+        {
+            Status status = nodeDAO.getNodeIdStatus(nodeId);
+            if (status != null && !status.isDeleted() && !isLargeMetadataIgnored(nodeId))
             {
-            	nodeMetaData.setAclId(nodeDAO.getNodeAclId(unversionedStatus.getDbId()));
+                pathNodeIds.add(nodeId);
+                Status unversionedStatus = getUnversionedStatus(status.getNodeRef());
+                if (unversionedStatus != null && !unversionedStatus.isDeleted())
+                {
+                    pathNodeIds.add(unversionedStatus.getDbId());
+                }
             }
-            else
+        }
+        return nodeDAO.getPaths(pathNodeIds, false);
+    }
+
+    /**
+     * @return the status of the live node of a version, or <tt>null</tt> if the node is not a version
+     */
+    private Status getUnversionedStatus(NodeRef nodeRef)
+    {
+        if (!isVersionNodeRef(nodeRef))
+        {
+            return null;
+        }
+        return nodeDAO.getNodeRefStatus(convertVersionNodeRefToVersionedNodeRef(VersionUtil.convertNodeRef(nodeRef)));
+    }
+
+    /**
+     * @return <tt>true</tt> if the paths and parents of the node are not indexed because of its type or aspects
+     */
+    private boolean isLargeMetadataIgnored(Long nodeId)
+    {
+        return typeIndexFilter.shouldBeIgnored(getNodeType(nodeId)) || aspectIndexFilter.shouldBeIgnored(getNodeAspects(nodeId));
+    }
+
+    /**
+     * @param resolvedPaths     the paths of the nodes resolved up front, by node ID
+     * @return the metadata of the node, or <tt>null</tt> if the node has been purged
+     */
+    private NodeMetaData getNodeMetaData(Long nodeId, final NodeMetaDataRequest request, Map<Long, List<Path>> resolvedPaths)
+    {
+        Status status = nodeDAO.getNodeIdStatus(nodeId);
+        if (status == null)
+        {
+            // We've been called with the ID of a purged node, probably due to processing a transaction with a
+            // cascading delete. Fine to skip and assume it will be processed in a transaction.
+            // See org.alfresco.solr.tracker.CoreTracker.updateDescendantAuxDocs(NodeMetaData, boolean, SolrIndexSearcher)
+            return null;
+        }
+        NodeRef nodeRef = status.getNodeRef();
+        
+        NodeRef unversionedNodeRef = null;
+        if(isVersionNodeRef(nodeRef))
+        {
+        	unversionedNodeRef = convertVersionNodeRefToVersionedNodeRef(VersionUtil.convertNodeRef(nodeRef));
+        }
+      
+        NodeMetaData nodeMetaData = new NodeMetaData();
+        nodeMetaData.setNodeId(nodeId);
+  
+        if(request.includeNodeRef)
+        {
+            nodeMetaData.setNodeRef(tenantService.getBaseName(nodeRef, true));
+        }
+        
+        if(request.includeTxnId)
+        {
+            nodeMetaData.setTxnId(status.getDbTxnId());
+        }
+        
+        if(status.isDeleted())
+        {
+            return nodeMetaData;
+        }
+        
+        Map<QName, Serializable> props = null;
+        Set<QName> aspects = null;
+
+        Status unversionedStatus = null;
+        if(unversionedNodeRef != null)
+        {
+        	unversionedStatus = nodeDAO.getNodeRefStatus(unversionedNodeRef);
+        }
+
+        if(unversionedStatus != null)
+        {
+        	nodeMetaData.setAclId(nodeDAO.getNodeAclId(unversionedStatus.getDbId()));
+        }
+        else
+        {
+        	nodeMetaData.setAclId(nodeDAO.getNodeAclId(nodeId));
+        }
+
+        
+        if(request.includeType)
+        {
+            QName nodeType = getNodeType(nodeId);
+            if(nodeType != null)
             {
-            	nodeMetaData.setAclId(nodeDAO.getNodeAclId(nodeId));
+                nodeMetaData.setNodeType(nodeType);
             }
-
-            
-            if(includeType)
+            else
             {
-                QName nodeType = getNodeType(nodeId);
-                if(nodeType != null)
+                QName typeQName = null;
+                TypeDefinition typeDefinition = null;
+                
+                String errorMessage = "NodeId " + nodeId + " with nodeRef " + nodeRef;
+
+                typeQName = nodeDAO.getNodeType(nodeId);
+                if (typeQName != null)
                 {
-                    nodeMetaData.setNodeType(nodeType);
+                    errorMessage += " has type " + typeQName + ", but this type is not registered in DictionaryService.";
                 }
                 else
                 {
-                    QName typeQName = null;
-                    TypeDefinition typeDefinition = null;
-                    
-                    String errorMessage = "NodeId " + nodeId + " with nodeRef " + nodeRef;
-
-                    typeQName = nodeDAO.getNodeType(nodeId);
-                    if (typeQName != null)
-                    {
-                        errorMessage += " has type " + typeQName + ", but this type is not registered in DictionaryService.";
-                    }
-                    else
-                    {
-                        errorMessage += " has no type.";
-                    }
-                    
-                    throw new AlfrescoRuntimeException(errorMessage + " It will be ignored by SOLR.");
+                    errorMessage += " has no type.";
                 }
+                
+                throw new AlfrescoRuntimeException(errorMessage + " It will be ignored by SOLR.");
             }
+        }
 
-            if(includeProperties)
+        if(request.includeProperties)
+        {
+            if(props == null)
             {
-                if(props == null)
-                {
-                    props = getProperties(nodeId);
-                }
-                nodeMetaData.setProperties(props);
+                props = getProperties(nodeId);
             }
-            else
+            nodeMetaData.setProperties(props);
+        }
+        else
+        {
+            nodeMetaData.setProperties(Collections.<QName, Serializable>emptyMap());
+        }
+
+        if(request.includeAspects || request.includePaths || request.includeParentAssociations)
+        {
+            aspects = getNodeAspects(nodeId);
+        }
+        nodeMetaData.setAspects(aspects);
+
+        boolean ignoreLargeMetadata = isLargeMetadataIgnored(nodeId);
+
+        CategoryPaths categoryPaths = new CategoryPaths(new ArrayList<Pair<Path, QName>>(), new ArrayList<ChildAssociationRef>());
+        if(!ignoreLargeMetadata && (request.includePaths || request.includeParentAssociations))
+        {
+            if(props == null)
             {
-                nodeMetaData.setProperties(Collections.<QName, Serializable>emptyMap());
+                props = getProperties(nodeId);
             }
+            categoryPaths = getCategoryPaths(status.getNodeRef(), aspects, props);
+        }
 
-            if(includeAspects || includePaths || includeParentAssociations)
+        if (!ignoreLargeMetadata && (typeIndexFilter.isIgnorePathsForSpecificTypes() || aspectIndexFilter.isIgnorePathsForSpecificAspects() || request.includeParentAssociations))
+        {
+            // check if parent should be ignored
+            final List<Long> parentIds = new LinkedList<Long>();
+            final List<ChildAssociationRef> parentAssocs = new ArrayList<ChildAssociationRef>(100);
+            nodeDAO.getParentAssocs(nodeId, null, null, true, new ChildAssocRefQueryCallback()
             {
-                aspects = getNodeAspects(nodeId);
-            }
-            nodeMetaData.setAspects(aspects);
+                @Override
+                public boolean preLoadNodes()
+                {
+                    return false;
+                }
 
-            boolean ignoreLargeMetadata = (typeIndexFilter.shouldBeIgnored(getNodeType(nodeId)) || aspectIndexFilter.shouldBeIgnored(getNodeAspects(nodeId)));
+                @Override
+                public boolean orderResults()
+                {
+                    return false;
+                }
 
-            CategoryPaths categoryPaths = new CategoryPaths(new ArrayList<Pair<Path, QName>>(), new ArrayList<ChildAssociationRef>());
-            if(!ignoreLargeMetadata && (includePaths || includeParentAssociations))
-            {
-                if(props == null)
+                @Override
+                public boolean handle(Pair<Long, ChildAssociationRef> childAssocPair, Pair<Long, NodeRef> parentNodePair, Pair<Long, NodeRef> childNodePair)
                 {
-                    props = getProperties(nodeId);
+                    parentIds.add(parentNodePair.getFirst());
+                    parentAssocs.add(tenantService.getBaseName(childAssocPair.getSecond(), true));
+                    return false;
                 }
-                categoryPaths = getCategoryPaths(status.getNodeRef(), aspects, props);
+
+                @Override
+                public void done()
+                {
+                }
+            });
+
+            if (!parentIds.isEmpty())
+            {
+                ignoreLargeMetadata = request.isParentIgnored(parentIds.iterator().next());
             }
 
-            if (!ignoreLargeMetadata && (typeIndexFilter.isIgnorePathsForSpecificTypes() || aspectIndexFilter.isIgnorePathsForSpecificAspects() || includeParentAssociations))
+            if (request.includeParentAssociations)
             {
-                // check if parent should be ignored
-                final List<Long> parentIds = new LinkedList<Long>();
-                final List<ChildAssociationRef> parentAssocs = new ArrayList<ChildAssociationRef>(100);
-                nodeDAO.getParentAssocs(nodeId, null, null, true, new ChildAssocRefQueryCallback()
+                for(ChildAssociationRef ref : categoryPaths.getCategoryParents())
                 {
-                    @Override
-                    public boolean preLoadNodes()
-                    {
-                        return false;
-                    }
-
-                    @Override
-                    public boolean orderResults()
-                    {
-                        return false;
-                    }
+                    parentAssocs.add(tenantService.getBaseName(ref, true));
+                }
 
-                    @Override
-                    public boolean handle(Pair<Long, ChildAssociationRef> childAssocPair, Pair<Long, NodeRef> parentNodePair, Pair<Long, NodeRef> childNodePair)
+                CRC32 crc = new CRC32();
+                for(ChildAssociationRef car : parentAssocs)
+                {
+                    try
                     {
-                        parentIds.add(parentNodePair.getFirst());
-                        parentAssocs.add(tenantService.getBaseName(childAssocPair.getSecond(), true));
-                        return false;
+                        crc.update(car.toString().getBytes("UTF-8"));
                     }
-
-                    @Override
-                    public void done()
+                    catch (UnsupportedEncodingException e)
                     {
+                        throw new RuntimeException("UTF-8 encoding is not supported");
                     }
-                });
+                }
+                nodeMetaData.setParentAssocs(parentAssocs, crc.getValue());
+            }
+        }
 
-                if (!parentIds.isEmpty())
+        nodeMetaData.setTenantDomain(tenantService.getDomain(nodeRef.getStoreRef().getIdentifier()));
+        
+        if(request.includeChildAssociations || request.includeChildIds)
+        {
+            final List<ChildAssociationRef> childAssocs = new ArrayList<ChildAssociationRef>(100);
+            final List<Long> childIds = new ArrayList<Long>(100);
+            nodeDAO.getChildAssocs(nodeId, null, null, null, null, null, new ChildAssocRefQueryCallback()
+            {
+                @Override
+                public boolean preLoadNodes()
                 {
-                    Long parentId = parentIds.iterator().next();
-                    if (typeIndexFilter.isIgnorePathsForSpecificTypes())
-                    {
-                        QName parentType = getNodeType(parentId);
-                        ignoreLargeMetadata = typeIndexFilter.shouldBeIgnored(parentType);
-                    }
-                    if (!ignoreLargeMetadata && aspectIndexFilter.isIgnorePathsForSpecificAspects())
-                    {
-                        ignoreLargeMetadata = aspectIndexFilter.shouldBeIgnored(getNodeAspects(parentId));
-                    }
+                    return false;
+                }
+                
+                @Override
+                public boolean orderResults()
+                {
+                    return false;
                 }
 
-                if (includeParentAssociations)
+                @Override
+                public boolean handle(Pair<Long, ChildAssociationRef> childAssocPair, Pair<Long, NodeRef> parentNodePair,
+                        Pair<Long, NodeRef> childNodePair)
                 {
-                    for(ChildAssociationRef ref : categoryPaths.getCategoryParents())
+                    QName nodeType = nodeDAO.getNodeType(childNodePair.getFirst());
+                    if (request.includeChildAssociations)
                     {
-                        parentAssocs.add(tenantService.getBaseName(ref, true));
+                        boolean addCurrentChildAssoc = true;
+                        if (typeIndexFilter.isIgnorePathsForSpecificTypes())
+                        {
+                            addCurrentChildAssoc = !typeIndexFilter.shouldBeIgnored(nodeType);
+                        }
+                        if (!addCurrentChildAssoc && aspectIndexFilter.isIgnorePathsForSpecificAspects())
+                        {
+                            addCurrentChildAssoc = !aspectIndexFilter.shouldBeIgnored(getNodeAspects(childNodePair.getFirst()));
+                        }
+                        if (addCurrentChildAssoc)
+                        {
+                            childAssocs.add(tenantService.getBaseName(childAssocPair.getSecond(), true));
+                        }
                     }
 
-                    CRC32 crc = new CRC32();
-                    for(ChildAssociationRef car : parentAssocs)
+                    if (request.includeChildIds)
                     {
-                        try
+                        boolean addCurrentId = true;
+                        if (typeIndexFilter.isIgnorePathsForSpecificTypes())
+                        {
+                            addCurrentId = !typeIndexFilter.shouldBeIgnored(nodeType);
+                        }
+                        if (!addCurrentId)
                         {
-                            crc.update(car.toString().getBytes("UTF-8"));
+                            addCurrentId = !aspectIndexFilter.shouldBeIgnored(getNodeAspects(childNodePair.getFirst()));
                         }
-                        catch (UnsupportedEncodingException e)
+                        if (addCurrentId)
                         {
-                            throw new RuntimeException("UTF-8 encoding is not supported");
+                            childIds.add(childNodePair.getFirst());
                         }
                     }
-                    nodeMetaData.setParentAssocs(parentAssocs, crc.getValue());
+                    return true;
                 }
+                
+                @Override
+                public void done()
+                {
+                }
+            });
+            nodeMetaData.setChildAssocs(childAssocs);
+            nodeMetaData.setChildIds(childIds);
+        }
+
+        if (request.includePaths && !ignoreLargeMetadata)
+        {
+            List<Path> directPaths = resolvedPaths.get(nodeId);
+            if (directPaths == null)
+            {
+                directPaths = nodeDAO.getPaths(new Pair<Long, NodeRef>(nodeId, status.getNodeRef()), false);
             }
+            Collection<Pair<Path, QName>> paths = new ArrayList<Pair<Path, QName>>(directPaths.size() + categoryPaths.getPaths().size());
 
-            nodeMetaData.setTenantDomain(tenantService.getDomain(nodeRef.getStoreRef().getIdentifier()));
-            
-            if(includeChildAssociations || includeChildIds)
+            for (Path path : directPaths)
+            {
+                paths.add(new Pair<Path, QName>(path.getBaseNamePath(tenantService), null));
+            }
+            for (Pair<Path, QName> catPair : categoryPaths.getPaths())
+            {
+                paths.add(new Pair<Path, QName>(catPair.getFirst().getBaseNamePath(tenantService), catPair.getSecond()));
+            }
+            if(unversionedStatus !=  null)
             {
-                final List<ChildAssociationRef> childAssocs = new ArrayList<ChildAssociationRef>(100);
-                final List<Long> childIds = new ArrayList<Long>(100);
-                nodeDAO.getChildAssocs(nodeId, null, null, null, null, null, new ChildAssocRefQueryCallback()
+                List<Path> unversionedPaths = resolvedPaths.get(unversionedStatus.getDbId());
+                if (unversionedPaths == null)
                 {
-                    @Override
-                    public boolean preLoadNodes()
+                    unversionedPaths = nodeDAO.getPaths(new Pair<Long, NodeRef>(unversionedStatus.getDbId(), unversionedStatus.getNodeRef()), false);
+                }
+                for (Path path : unversionedPaths)
+                {
+                    paths.add(new Pair<Path, QName>(path.getBaseNamePath(tenantService), null));
+                }
+            }
+
+            nodeMetaData.setPaths(paths);
+
+            // Calculate name path
+            Collection<Collection<String>> namePaths = new ArrayList<Collection<String>>(2);
+            nodeMetaData.setNamePaths(namePaths);
+            for (Pair<Path, QName>  catPair : paths)
+            {
+                Path path = catPair.getFirst();
+
+                boolean added = false;
+                List<String> namePath = new ArrayList<String>(path.size());
+                NEXT_ELEMENT: for (Path.Element pathElement : path)
+                {
+                    if (!(pathElement instanceof ChildAssocElement))
                     {
-                        return false;
+                        // This is some path element that is terminal to a cm:name path
+                        break;
                     }
-                    
-                    @Override
-                    public boolean orderResults()
+                    ChildAssocElement pathChildAssocElement = (ChildAssocElement) pathElement;
+                    NodeRef childNodeRef = pathChildAssocElement.getRef().getChildRef();
+                    Optional<String> childNodeNameOptional = request.getAncestorName(childNodeRef);
+                    if (childNodeNameOptional == null)
                     {
-                        return false;
+                        // Gone
+                        break;
                     }
-
-                    @Override
-                    public boolean handle(Pair<Long, ChildAssociationRef> childAssocPair, Pair<Long, NodeRef> parentNodePair,
-                            Pair<Long, NodeRef> childNodePair)
+                    String childNodeName = childNodeNameOptional.orElse(null);
+                    if (childNodeName == null)
                     {
-                        QName nodeType = nodeDAO.getNodeType(childNodePair.getFirst());
-                        if (includeChildAssociations)
-                        {
-                            boolean addCurrentChildAssoc = true;
-                            if (typeIndexFilter.isIgnorePathsForSpecificTypes())
-                            {
-                                addCurrentChildAssoc = !typeIndexFilter.shouldBeIgnored(nodeType);
-                            }
-                            if (!addCurrentChildAssoc && aspectIndexFilter.isIgnorePathsForSpecificAspects())
-                            {
-                                addCurrentChildAssoc = !aspectIndexFilter.shouldBeIgnored(getNodeAspects(childNodePair.getFirst()));
-                            }
-                            if (addCurrentChildAssoc)
-                            {
-                                childAssocs.add(tenantService.getBaseName(childAssocPair.getSecond(), true));
-                            }
-                        }
-
-                        if (includeChildIds)
-                        {
-                            boolean addCurrentId = true;
-                            if (typeIndexFilter.isIgnorePathsForSpecificTypes())
-                            {
-                                addCurrentId = !typeIndexFilter.shouldBeIgnored(nodeType);
-                            }
-                            if (!addCurrentId)
-                            {
-                                addCurrentId = !aspectIndexFilter.shouldBeIgnored(getNodeAspects(childNodePair.getFirst()));
-                            }
-                            if (addCurrentId)
-                            {
-                                childIds.add(childNodePair.getFirst());
-                            }
-                        }
-                        return true;
+                        // We have hit a non-name node, which acts as a root for cm:name
+                        // DH: There is no particular constraint here.  This is just a decision made.
+                        namePath.clear();
+                        // We have to continue down the path as there could be a name path lower down
+                        continue NEXT_ELEMENT;
                     }
-                    
-                    @Override
-                    public void done()
+                    // We can finally add the name to the path
+                    namePath.add(childNodeName);
+                    // Add the path if this is the first entry in the name path
+                    if (!added)
                     {
+                        namePaths.add(namePath);
+                        added = true;
                     }
-                });
-                nodeMetaData.setChildAssocs(childAssocs);
-                nodeMetaData.setChildIds(childIds);
+                }
             }
+        }
 
-            if (includePaths && !ignoreLargeMetadata)
-            {
-                List<Path> directPaths = nodeDAO.getPaths(new Pair<Long, NodeRef>(nodeId, status.getNodeRef()), false);
-                Collection<Pair<Path, QName>> paths = new ArrayList<Pair<Path, QName>>(directPaths.size() + categoryPaths.getPaths().size());
+        if(request.includeOwner)
+        {
+            // cached in OwnableService
+            nodeMetaData.setOwner(ownableService.getOwner(status.getNodeRef()));
+        }
+ 
+        return nodeMetaData;
+    }
 
-                for (Path path : directPaths)
-                {
-                    paths.add(new Pair<Path, QName>(path.getBaseNamePath(tenantService), null));
-                }
-                for (Pair<Path, QName> catPair : categoryPaths.getPaths())
+    /**
+     * The parts of a node metadata request shared by all of its nodes, including the ancestors already looked at.
+     * The ancestor lookups may be shared by several threads.
+     */
+    private class NodeMetaDataRequest
+    {
+        private final boolean includeType;
+        private final boolean includeProperties;
+        private final boolean includeAspects;
+        private final boolean includePaths;
+        private final boolean includeNodeRef;
+        private final boolean includeParentAssociations;
+        private final boolean includeChildAssociations;
+        private final boolean includeOwner;
+        private final boolean includeChildIds;
+        private final boolean includeTxnId;
+
+        private final Map<Long, Boolean> ignoredParents = new ConcurrentHashMap<Long, Boolean>();
+        private final Map<NodeRef, Optional<String>> ancestorNames = new ConcurrentHashMap<NodeRef, Optional<String>>();
+
+        private NodeMetaDataRequest(MetaDataResultsFilter resultFilter)
+        {
+            includeType = (resultFilter == null ? true : resultFilter.getIncludeType());
+            includeProperties = (resultFilter == null ? true : resultFilter.getIncludeProperties());
+            includeAspects = (resultFilter == null ? true : resultFilter.getIncludeAspects());
+            includePaths = (resultFilter == null ? true : resultFilter.getIncludePaths());
+            includeNodeRef = (resultFilter == null ? true : resultFilter.getIncludeNodeRef());
+            includeParentAssociations = (resultFilter == null ? true : resultFilter.getIncludeParentAssociations());
+            includeChildAssociations = (resultFilter == null ? true : resultFilter.getIncludeChildAssociations());
+            includeOwner = (resultFilter == null ? true : resultFilter.getIncludeOwner());
+            includeChildIds = (resultFilter == null ? true : resultFilter.getIncludeChildIds());
+            includeTxnId = (resultFilter == null ? true : resultFilter.getIncludeTxnId());
+        }
+
+        /**
+         * @return <tt>true</tt> if the paths of the children of the parent should not be indexed
+         */
+        private boolean isParentIgnored(Long parentId)
+        {
+            Boolean ignored = ignoredParents.get(parentId);
+            if (ignored == null)
+            {
+                ignored = Boolean.FALSE;
+                if (typeIndexFilter.isIgnorePathsForSpecificTypes())
                 {
-                    paths.add(new Pair<Path, QName>(catPair.getFirst().getBaseNamePath(tenantService), catPair.getSecond()));
+                    QName parentType = getNodeType(parentId);
+                    ignored = typeIndexFilter.shouldBeIgnored(parentType);
                 }
-                if(unversionedStatus !=  null)
+                if (!ignored && aspectIndexFilter.isIgnorePathsForSpecificAspects())
                 {
-                    List<Path>  unversionedPaths = nodeDAO.getPaths(new Pair<Long, NodeRef>(unversionedStatus.getDbId(), unversionedStatus.getNodeRef()), false);
-                    for (Path path : unversionedPaths)
-                    {
-                        paths.add(new Pair<Path, QName>(path.getBaseNamePath(tenantService), null));
-                    }
-                }
-
-                nodeMetaData.setPaths(paths);
-
-                // Calculate name path
-                Collection<Collection<String>> namePaths = new ArrayList<Collection<String>>(2);
-                nodeMetaData.setNamePaths(namePaths);
-                for (Pair<Path, QName>  catPair : paths)
-                {
-                    Path path = catPair.getFirst();
-
-                    boolean added = false;
-                    List<String> namePath = new ArrayList<String>(path.size());
-                    NEXT_ELEMENT: for (Path.Element pathElement : path)
-                    {
-                        if (!(pathElement instanceof ChildAssocElement))
-                        {
-                            // This is some path element that is terminal to a cm:name path
-                            break;
-                        }
-                        ChildAssocElement pathChildAssocElement = (ChildAssocElement) pathElement;
-                        NodeRef childNodeRef = pathChildAssocElement.getRef().getChildRef();
-                        Pair<Long, NodeRef> childNodePair = nodeDAO.getNodePair(childNodeRef);
-                        if (childNodePair == null)
-                        {
-                            // Gone
-                            break;
-                        }
-                        Long childNodeId = childNodePair.getFirst();
-                        String childNodeName = (String) nodeDAO.getNodeProperty(childNodeId, ContentModel.PROP_NAME);
-                        if (childNodeName == null)
-                        {
-                            // We have hit a non-name node, which acts as a root for cm:name
-                            // DH: There is no particular constraint here.  This is just a decision made.
-                            namePath.clear();
-                            // We have to continue down the path as there could be a name path lower down
-                            continue NEXT_ELEMENT;
-                        }
-                        // We can finally add the name to the path
-                        namePath.add(childNodeName);
-                        // Add the path if this is the first entry in the name path
-                        if (!added)
-                        {
-                            namePaths.add(namePath);
-                            added = true;
-                        }
-                    }
+                    ignored = aspectIndexFilter.shouldBeIgnored(getNodeAspects(parentId));
                 }
+                ignoredParents.put(parentId, ignored);
             }
+            return ignored;
+        }
 
-            if(includeOwner)
+        /**
+         * @return the <b>cm:name</b> of the ancestor, empty if it has none, or <tt>null</tt> if it no longer exists
+         */
+        private Optional<String> getAncestorName(NodeRef ancestorNodeRef)
+        {
+            Optional<String> name = ancestorNames.get(ancestorNodeRef);
+            if (name == null)
             {
-                // cached in OwnableService
-                nodeMetaData.setOwner(ownableService.getOwner(status.getNodeRef()));
+                Pair<Long, NodeRef> ancestorNodePair = nodeDAO.getNodePair(ancestorNodeRef);
+                if (ancestorNodePair == null)
+                {
+                    return null;
+                }
+                name = Optional.ofNullable((String) nodeDAO.getNodeProperty(ancestorNodePair.getFirst(), ContentModel.PROP_NAME));
+                ancestorNames.put(ancestorNodeRef, name);
             }
- 
-            rowHandler.processResult(nodeMetaData);
+            return name;
         }
     }
 
@@ -38,9 +38,18 @@ CREATE TABLE alf_audit_entry
    audit_time BIGINT NOT NULL,
    audit_user_id BIGINT NULL,
    audit_values_id BIGINT NULL,
+   audit_values_data MEDIUMBLOB NULL,
    CONSTRAINT fk_alf_aud_ent_app FOREIGN KEY (audit_app_id) REFERENCES alf_audit_app (id) ON DELETE CASCADE,
    INDEX idx_alf_aud_ent_tm (audit_time),
    CONSTRAINT fk_alf_aud_ent_use FOREIGN KEY (audit_user_id) REFERENCES alf_prop_value (id),
    CONSTRAINT fk_alf_aud_ent_pro FOREIGN KEY (audit_values_id) REFERENCES alf_prop_root (id),
    PRIMARY KEY (id)
 ) ENGINE=InnoDB;
+
+CREATE TABLE alf_audit_entry_key
+(
+   search_hash BIGINT NOT NULL,
+   audit_entry_id BIGINT NOT NULL,
+   CONSTRAINT fk_alf_aud_key_ent FOREIGN KEY (audit_entry_id) REFERENCES alf_audit_entry (id) ON DELETE CASCADE,
+   PRIMARY KEY (search_hash, audit_entry_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,30 @@
+--
+-- Title:      Add storage for compact audit entry values
+-- Database:   PostgreSQL
+-- Since:      V23.4
+--
+-- Please contact support@alfresco.com if you need assistance with the upgrade.
+--
+
+ALTER TABLE alf_audit_entry ADD COLUMN audit_values_data BYTEA NULL;
+
+CREATE TABLE alf_audit_entry_key
+(
+   search_hash INT8 NOT NULL,
+   audit_entry_id INT8 NOT NULL,
+   CONSTRAINT fk_alf_aud_key_ent FOREIGN KEY (audit_entry_id) REFERENCES alf_audit_entry (id) ON DELETE CASCADE,
+   PRIMARY KEY (search_hash, audit_entry_id)
+);
+CREATE INDEX fk_alf_aud_key_ent ON alf_audit_entry_key(audit_entry_id);
+
+--
+-- Record script finish
+--
+DELETE FROM alf_applied_patch WHERE id = 'patch.db-V23.4-add-audit-entry-compact-values';
+INSERT INTO alf_applied_patch
+  (id, description, fixes_from_schema, fixes_to_schema, applied_to_schema, target_schema, applied_on_date, applied_to_server, was_executed, succeeded, report)
+  VALUES
+  (
+    'patch.db-V23.4-add-audit-entry-compact-values', 'Add storage for compact audit entry values',
+    0, 19300, -1, 19301, null, 'UNKNOWN', ${TRUE}, ${TRUE}, 'Compact audit entry value storage added'
+  );
@@ -54,7 +54,10 @@ import org.junit.runners.Suite;
     org.alfresco.opencmis.AlfrescoCmisExceptionInterceptorTest.class,
     org.alfresco.repo.admin.Log4JHierarchyInitTest.class,
     org.alfresco.repo.attributes.PropTablesCleanupJobTest.class,
+    org.alfresco.repo.bulkimport.impl.PipelinedFilesystemTrackerTest.class,
     org.alfresco.repo.cache.AbstractCacheFactoryTest.class,
+    org.alfresco.repo.cache.CaffeineSimpleCacheTest.class,
+    org.alfresco.metrics.LatencyHistogramsTest.class,
     org.alfresco.repo.cache.DefaultCacheFactoryTest.class,
     org.alfresco.repo.cache.DefaultSimpleCacheTest.class,
     org.alfresco.repo.cache.InMemoryCacheStatisticsTest.class,
@@ -76,6 +79,7 @@ import org.junit.runners.Suite;
     org.alfresco.repo.module.ModuleDetailsImplTest.class,
     org.alfresco.repo.module.ModuleVersionNumberTest.class,
     org.alfresco.repo.module.DeprecatedModulesValidatorTest.class,
+    org.alfresco.repo.node.getchildren.GetChildrenCursorTest.class,
     org.alfresco.repo.node.integrity.IntegrityEventTest.class,
     org.alfresco.repo.policy.MTPolicyComponentTest.class,
     org.alfresco.repo.policy.PolicyComponentTest.class,
@@ -197,6 +201,9 @@ import org.junit.runners.Suite;
     org.alfresco.repo.action.executer.TransformActionExecuterTest.class,
     org.alfresco.repo.action.executer.ImporterActionExecutorUnitTest.class,
     org.alfresco.repo.audit.AuditableAnnotationTest.class,
+    org.alfresco.repo.audit.AuditJournalTest.class,
+    org.alfresco.repo.audit.AsyncAuditEntryWriterTest.class,
+    org.alfresco.repo.domain.audit.CompactAuditValuesTest.class,
     org.alfresco.repo.audit.PropertyAuditFilterTest.class,
     org.alfresco.repo.audit.access.NodeChangeTest.class,
     org.alfresco.repo.content.ContentServiceImplUnitTest.class,
@@ -205,6 +212,7 @@ import org.junit.runners.Suite;
     org.alfresco.repo.content.LimitedStreamCopierTest.class,
     org.alfresco.repo.content.filestore.FileIOTest.class,
     org.alfresco.repo.content.filestore.SpoofedTextContentReaderTest.class,
+    org.alfresco.repo.content.filestore.FileContentTransferTest.class,
     org.alfresco.repo.content.ContentDataTest.class,
     org.alfresco.repo.content.replication.AggregatingContentStoreUnitTest.class,
     org.alfresco.service.cmr.repository.TransformationOptionLimitsTest.class,
@@ -217,6 +225,8 @@ import org.junit.runners.Suite;
     org.alfresco.repo.content.caching.quota.UnlimitedQuotaStrategyTest.class,
     org.alfresco.repo.content.caching.CachingContentStoreTest.class,
     org.alfresco.repo.content.caching.ContentCacheImplTest.class,
+    org.alfresco.repo.content.caching.ReadThroughCacheFillTest.class,
+    org.alfresco.repo.domain.node.NodePathsCacheTest.class,
     org.alfresco.repo.domain.permissions.FixedAclUpdaterUnitTest.class,
     org.alfresco.repo.domain.propval.PropertyTypeConverterTest.class,
     org.alfresco.repo.domain.schema.script.ScriptBundleExecutorImplTest.class,
@@ -57,6 +57,7 @@ import org.junit.runners.Suite;
     org.alfresco.repo.security.authority.AuthorityBridgeTableAsynchronouslyRefreshedCacheTest.class,
     org.alfresco.repo.security.person.HomeFolderProviderSynchronizerTest.class,
     org.alfresco.repo.domain.permissions.FixedAclUpdaterTest.class,
+    org.alfresco.repo.batch.BatchProcessorTest.class,
     org.alfresco.repo.security.authentication.external.DefaultRemoteUserMapperTest.class,
     org.alfresco.repo.security.authentication.identityservice.IdentityServiceAuthenticationComponentTest.class,
     org.alfresco.repo.security.authentication.identityservice.IdentityServiceRemoteUserMapperTest.class,
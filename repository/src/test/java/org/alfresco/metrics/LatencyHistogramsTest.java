@@ -0,0 +1,147 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.metrics;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.alfresco.metrics.db.HistogramDBMetricsReporter;
+import org.alfresco.metrics.rest.HistogramRestMetricsReporter;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link LatencyHistograms} class and the reporters built on it.
+ */
+public class LatencyHistogramsTest
+{
+    @Test
+    public void percentilesAndCounts()
+    {
+        LatencyHistograms histograms = new LatencyHistograms(10, "query_type", "statement");
+        for (int i = 1; i <= 1000; i++)
+        {
+            histograms.recordLatency(i, "select", "select_Node");
+        }
+        histograms.recordError("select", "select_Node");
+
+        LatencyHistograms.Snapshot snapshot = histograms.getSnapshots().get(Arrays.asList("select", "select_Node"));
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1, snapshot.getErrorCount());
+        assertEquals(500500, snapshot.getTotalMillis());
+        // Two significant digits gives values within 1%
+        assertEquals(500, snapshot.getP50Millis(), 5.0);
+        assertEquals(990, snapshot.getP99Millis(), 10.0);
+        assertEquals(999, snapshot.getP999Millis(), 10.0);
+        assertEquals(1000, snapshot.getMaxMillis(), 10.0);
+    }
+
+    @Test
+    public void labelCardinalityIsCapped()
+    {
+        LatencyHistograms histograms = new LatencyHistograms(3, "method", "service_path");
+        for (int i = 0; i < 10; i++)
+        {
+            histograms.recordLatency(5, "GET", "/nodes/" + i);
+        }
+        // Existing label sets are still recorded once the cap is reached
+        histograms.recordLatency(5, "GET", "/nodes/0");
+
+        assertEquals(4, histograms.getLabelCount());
+        assertEquals(8, histograms.getOverflowCount());
+        SortedMap<List<String>, LatencyHistograms.Snapshot> snapshots = histograms.getSnapshots();
+        List<String> overflow = Arrays.asList(LatencyHistograms.OVERFLOW_LABEL, LatencyHistograms.OVERFLOW_LABEL);
+        assertEquals(7, snapshots.get(overflow).getCount());
+        assertEquals(2, snapshots.get(Arrays.asList("GET", "/nodes/0")).getCount());
+
+        histograms.reset();
+        assertEquals(0, histograms.getLabelCount());
+        assertEquals(0, histograms.getOverflowCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void labelValuesMustMatchLabelNames()
+    {
+        new LatencyHistograms(10, "method", "service_path").recordLatency(1, "GET");
+    }
+
+    @Test
+    public void prometheusText() throws Exception
+    {
+        LatencyHistograms histograms = new LatencyHistograms(10, "method", "service_path");
+        histograms.recordLatency(100, "GET", "/a\"b");
+        histograms.recordError("GET", "/a\"b");
+
+        StringWriter out = new StringWriter();
+        histograms.writePrometheusText(out, "alfresco_rest_request", "REST API request execution time.");
+        String text = out.toString();
+
+        assertTrue(text, text.contains("# TYPE alfresco_rest_request_seconds summary\n"));
+        assertTrue(text, text.contains("alfresco_rest_request_seconds{method=\"GET\",service_path=\"/a\\\"b\",quantile=\"0.99\"} 0.1\n"));
+        assertTrue(text, text.contains("alfresco_rest_request_seconds_sum{method=\"GET\",service_path=\"/a\\\"b\"} 0.1\n"));
+        assertTrue(text, text.contains("alfresco_rest_request_seconds_count{method=\"GET\",service_path=\"/a\\\"b\"} 1\n"));
+        assertTrue(text, text.contains("alfresco_rest_request_errors_total{method=\"GET\",service_path=\"/a\\\"b\"} 1\n"));
+        assertTrue(text, text.contains("alfresco_rest_request_label_overflow_total 0\n"));
+    }
+
+    @Test
+    public void dbReporterOnlyRecordsStatementsWhenEnabled() throws Exception
+    {
+        HistogramDBMetricsReporter reporter = new HistogramDBMetricsReporter();
+        reporter.setEnabled(true);
+        reporter.afterPropertiesSet();
+
+        reporter.reportQueryExecutionTime(3, "select", "select_NodeById");
+        reporter.reportQueryExecutionTime(4, "select", "select_ChildAssocs");
+        reporter.reportQueryError("update", "update_Node");
+
+        assertArrayEquals(new String[] {
+                "[select, ]: count=2, errors=0, p50=3ms, p99=4ms, p999=4ms, max=4ms",
+                "[update, ]: count=0, errors=1, p50=0ms, p99=0ms, p999=0ms, max=0ms" }, reporter.getLatencySummary());
+
+        reporter.reset();
+        reporter.setQueryStatementsMetricsEnabled(true);
+        reporter.reportQueryExecutionTime(3, "select", "select_NodeById");
+        assertArrayEquals(new String[] { "[select, select_NodeById]: count=1, errors=0, p50=3ms, p99=3ms, p999=3ms, max=3ms" },
+                reporter.getLatencySummary());
+    }
+
+    @Test
+    public void disabledReporterRecordsNothing() throws Exception
+    {
+        HistogramRestMetricsReporter reporter = new HistogramRestMetricsReporter();
+        reporter.afterPropertiesSet();
+
+        reporter.reportRestRequestExecutionTime(10, "GET", "/nodes");
+        reporter.reportRestRequestError("GET", "/nodes");
+
+        assertFalse(reporter.isEnabled());
+        assertEquals(0, reporter.getLabelCount());
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.alfresco.repo.domain.audit.AuditDAO;
+import org.alfresco.repo.domain.audit.AuditDAO.AuditEntryInfo;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
+import org.alfresco.service.transaction.TransactionService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link AsyncAuditEntryWriter}, writing entries journaled before it starts.
+ */
+public class AsyncAuditEntryWriterTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private AuditDAO auditDAO;
+    private AsyncAuditEntryWriter writer;
+    /** The times of the entries written, in order */
+    private List<Long> written;
+    /** A permit per entry written */
+    private Semaphore writes;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        dir = folder.newFolder("journal");
+        written = new CopyOnWriteArrayList<>();
+        writes = new Semaphore(0);
+
+        auditDAO = mock(AuditDAO.class);
+        RetryingTransactionHelper txnHelper = mock(RetryingTransactionHelper.class);
+        when(txnHelper.doInTransaction(any(RetryingTransactionCallback.class), anyBoolean(), anyBoolean()))
+                .thenAnswer(invocation -> invocation.<RetryingTransactionCallback<?>>getArgument(0).execute());
+        TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.getRetryingTransactionHelper()).thenReturn(txnHelper);
+
+        writer = new AsyncAuditEntryWriter();
+        writer.setAuditDAO(auditDAO);
+        writer.setTransactionService(transactionService);
+        writer.setEnabled(true);
+        writer.setJournalDir(dir.getAbsolutePath());
+        writer.setBatchSize(2);
+        writer.setSyncOnAppend(false);
+        writer.setMaxSegmentSize(1024L * 1024L);
+        writer.setPollInterval(1000L);
+        writer.setRetryInterval(10L);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        writer.onShutdown(null);
+    }
+
+    @Test
+    public void journaledEntriesAreWrittenInBatches() throws Exception
+    {
+        journal(entry(1L), entry(2L), entry(3L));
+        recordWrites(0);
+
+        writer.onBootstrap(null);
+        assertTrue(writes.tryAcquire(3, 5, TimeUnit.SECONDS));
+        writer.onShutdown(null);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), written);
+        assertEquals(3L, writer.getEntriesWritten());
+        assertEquals(2L, writer.getBatchesWritten());
+        assertEquals(0L, writer.getFailureCount());
+        assertEquals(0L, writer.getPendingEntries());
+    }
+
+    @Test
+    public void failedBatchIsRetried() throws Exception
+    {
+        journal(entry(1L), entry(2L));
+        recordWrites(1);
+
+        writer.onBootstrap(null);
+        assertTrue(writes.tryAcquire(2, 5, TimeUnit.SECONDS));
+        writer.onShutdown(null);
+
+        assertEquals(Arrays.asList(1L, 2L), written);
+        assertEquals(1L, writer.getFailureCount());
+        assertEquals(2L, writer.getEntriesWritten());
+    }
+
+    @Test
+    public void corruptRecordIsSkipped() throws Exception
+    {
+        journal(entry(1L), entry(2L), entry(3L));
+        File segment = dir.listFiles((d, name) -> name.endsWith(".journal"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw"))
+        {
+            // Damage the last byte of the second record
+            long position = 2 * (8 + serialize(entry(1L)).length) - 1;
+            file.seek(position);
+            int last = file.read();
+            file.seek(position);
+            file.write(~last);
+        }
+        recordWrites(0);
+
+        writer.onBootstrap(null);
+        assertTrue(writes.tryAcquire(2, 5, TimeUnit.SECONDS));
+        writer.onShutdown(null);
+
+        assertEquals(Arrays.asList(1L, 3L), written);
+        assertEquals(0L, writer.getFailureCount());
+        assertEquals(1, dir.listFiles((d, name) -> name.endsWith(".corrupt")).length);
+    }
+
+    /**
+     * Records the times of the entries written, after failing the given number of batches
+     */
+    private void recordWrites(int failures)
+    {
+        int[] remainingFailures = {failures};
+        doAnswer(invocation -> {
+            if (remainingFailures[0]-- > 0)
+            {
+                throw new IllegalStateException("Failing batch for test");
+            }
+            List<AuditEntryInfo> entries = invocation.getArgument(0);
+            for (AuditEntryInfo entry : entries)
+            {
+                written.add(entry.getTime());
+            }
+            writes.release(entries.size());
+            return entries.size();
+        }).when(auditDAO).createAuditEntries(any());
+    }
+
+    private void journal(AuditEntryInfo... entries) throws IOException
+    {
+        List<byte[]> records = new ArrayList<>();
+        for (AuditEntryInfo entry : entries)
+        {
+            records.add(serialize(entry));
+        }
+        try (AuditJournal journal = new AuditJournal(dir, 1024L * 1024L, false))
+        {
+            journal.open();
+            journal.append(records);
+        }
+    }
+
+    private static AuditEntryInfo entry(long time)
+    {
+        return new AuditEntryInfo(1L, time, "alexi", Collections.singletonMap("/a/b/c", (Serializable) "value"));
+    }
+
+    private static byte[] serialize(AuditEntryInfo entry) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(entry);
+        }
+        return bytes.toByteArray();
+    }
+}
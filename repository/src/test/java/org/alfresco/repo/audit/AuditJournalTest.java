@@ -0,0 +1,232 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link AuditJournal}.
+ */
+public class AuditJournalTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private AuditJournal journal;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        dir = folder.newFolder("journal");
+        journal = new AuditJournal(dir, 1024L, false);
+        journal.open();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        journal.close();
+    }
+
+    @Test
+    public void readsRecordsInAppendOrder() throws Exception
+    {
+        journal.append(records("a", "b", "c"));
+        journal.append(records("d"));
+        assertEquals(4L, journal.getPendingCount());
+
+        assertEquals(Arrays.asList("a", "b"), strings(journal.read(2)));
+        assertEquals(Arrays.asList("c", "d"), strings(journal.read(10)));
+        assertTrue(journal.read(10).isEmpty());
+        assertEquals(4L, journal.getPendingCount());
+
+        journal.commit();
+        assertEquals(0L, journal.getPendingCount());
+    }
+
+    @Test
+    public void uncommittedRecordsAreReadAfterReopen() throws Exception
+    {
+        journal.append(records("a", "b", "c"));
+        assertEquals(Arrays.asList("a"), strings(journal.read(1)));
+        journal.commit();
+        assertEquals(Arrays.asList("b"), strings(journal.read(1)));
+        journal.close();
+
+        journal = new AuditJournal(dir, 1024L, false);
+        journal.open();
+        assertEquals(2L, journal.getPendingCount());
+        assertEquals(Arrays.asList("b", "c"), strings(journal.read(10)));
+    }
+
+    @Test
+    public void consumedSegmentsAreRemoved() throws Exception
+    {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            String value = String.format("record-%03d-%080d", i, i);
+            expected.add(value);
+            journal.append(records(value));
+        }
+        assertTrue(journal.getSegmentCount() > 1);
+
+        assertEquals(expected, strings(journal.read(1000)));
+        journal.commit();
+        assertEquals(1, journal.getSegmentCount());
+        assertEquals(0L, journal.getPendingCount());
+
+        journal.append(records("next"));
+        assertEquals(Arrays.asList("next"), strings(journal.read(10)));
+    }
+
+    @Test
+    public void tornRecordIsDiscardedOnOpen() throws Exception
+    {
+        journal.append(records("a", "b"));
+        journal.close();
+
+        File segment = dir.listFiles((d, name) -> name.endsWith(".journal"))[0];
+        long validLength = segment.length();
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw"))
+        {
+            // A header promising more data than was written
+            file.seek(validLength);
+            file.writeInt(100);
+            file.writeInt(0);
+            file.write(new byte[] {1, 2, 3});
+        }
+
+        journal = new AuditJournal(dir, 1024L, false);
+        journal.open();
+        assertEquals(validLength, segment.length());
+        assertEquals(2L, journal.getPendingCount());
+
+        journal.append(records("c"));
+        assertEquals(Arrays.asList("a", "b", "c"), strings(journal.read(10)));
+    }
+
+    @Test
+    public void corruptRecordIsDiscardedOnOpen() throws Exception
+    {
+        journal.append(records("a", "b"));
+        journal.close();
+
+        File segment = dir.listFiles((d, name) -> name.endsWith(".journal"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw"))
+        {
+            // Damage the payload of the last record
+            file.seek(segment.length() - 1);
+            file.write('x');
+        }
+
+        journal = new AuditJournal(dir, 1024L, false);
+        journal.open();
+        assertEquals(1L, journal.getPendingCount());
+        assertEquals(Arrays.asList("a"), strings(journal.read(10)));
+    }
+
+    @Test
+    public void corruptRecordIsSkippedWhenRead() throws Exception
+    {
+        journal.append(records("a", "b", "c"));
+
+        File segment = dir.listFiles((d, name) -> name.endsWith(".journal"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw"))
+        {
+            // Damage the payload of the middle record, after the header of each single byte record
+            file.seek(9 + 8);
+            file.write('x');
+        }
+
+        assertEquals(Arrays.asList("a", "c"), strings(journal.read(10)));
+        File[] corrupt = dir.listFiles((d, name) -> name.endsWith(".corrupt"));
+        assertEquals(1, corrupt.length);
+        assertEquals(9L, corrupt[0].length());
+
+        journal.append(records("d"));
+        assertEquals(Arrays.asList("d"), strings(journal.read(10)));
+    }
+
+    @Test
+    public void corruptRecordBeforeValidRecordsIsKeptOnOpen() throws Exception
+    {
+        journal.append(records("a", "b", "c"));
+        journal.close();
+
+        File segment = dir.listFiles((d, name) -> name.endsWith(".journal"))[0];
+        long length = segment.length();
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw"))
+        {
+            file.seek(9 + 8);
+            file.write('x');
+        }
+
+        journal = new AuditJournal(dir, 1024L, false);
+        journal.open();
+        assertEquals(length, segment.length());
+        assertEquals(2L, journal.getPendingCount());
+        assertEquals(Arrays.asList("a", "c"), strings(journal.read(10)));
+        journal.commit();
+        assertEquals(0L, journal.getPendingCount());
+    }
+
+    private static List<byte[]> records(String... values)
+    {
+        List<byte[]> records = new ArrayList<>();
+        for (String value : values)
+        {
+            records.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+
+    private static List<String> strings(List<byte[]> records) throws IOException
+    {
+        List<String> values = new ArrayList<>();
+        for (byte[] record : records)
+        {
+            values.add(new String(record, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+}
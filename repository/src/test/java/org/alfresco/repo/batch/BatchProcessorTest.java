@@ -0,0 +1,225 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.batch;
+
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import junit.framework.TestCase;
+
+import org.alfresco.repo.batch.BatchProcessor.BatchProcessWorkerAdaptor;
+import org.alfresco.repo.batch.BatchProcessor.ExecutionMode;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.service.ServiceRegistry;
+import org.alfresco.test_category.OwnJVMTestsCategory;
+import org.alfresco.util.ApplicationContextHelper;
+import org.apache.commons.logging.Log;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * @see BatchProcessor
+ */
+@Category(OwnJVMTestsCategory.class)
+public class BatchProcessorTest extends TestCase
+{
+    private static final String PROCESS_NAME = "BatchProcessorTest";
+
+    private ApplicationContext ctx = ApplicationContextHelper.getApplicationContext();
+
+    private RetryingTransactionHelper txnHelper;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        ServiceRegistry serviceRegistry = (ServiceRegistry) ctx.getBean(ServiceRegistry.SERVICE_REGISTRY);
+        txnHelper = serviceRegistry.getTransactionService().getRetryingTransactionHelper();
+    }
+
+    public void testThreadPoolMode() throws Exception
+    {
+        processAndCheck(ExecutionMode.THREAD_POOL, 0);
+    }
+
+    public void testWorkStealingMode() throws Exception
+    {
+        processAndCheck(ExecutionMode.WORK_STEALING, 0);
+        processAndCheck(ExecutionMode.WORK_STEALING, 12);
+    }
+
+    public void testBatchProcessorDefaults() throws Exception
+    {
+        BatchProcessorDefaults defaults = new BatchProcessorDefaults();
+        defaults.setExecutionMode(ExecutionMode.WORK_STEALING);
+        defaults.setMaxInFlight(-1);
+        assertEquals(0, defaults.getMaxInFlight());
+        defaults.setExecutionMode(null);
+        assertEquals(ExecutionMode.THREAD_POOL, defaults.getExecutionMode());
+    }
+
+    /**
+     * Progress is reported once at each multiple of the logging interval, however the batches straddle it, and once
+     * more at the end.
+     */
+    public void testProgressIsReportedAtEachLoggingInterval() throws Exception
+    {
+        for (ExecutionMode executionMode : ExecutionMode.values())
+        {
+            Log logger = mock(Log.class);
+            when(logger.isInfoEnabled()).thenReturn(true);
+
+            BatchProcessor<Integer> batchProcessor = new BatchProcessor<Integer>(PROCESS_NAME, txnHelper,
+                        entries(95), 4, 7, null, logger, 10);
+            configure(batchProcessor, executionMode, 0);
+            batchProcessor.processLong(new BatchProcessWorkerAdaptor<Integer>()
+            {
+                @Override
+                public void process(Integer entry) throws Throwable
+                {
+                }
+            }, true);
+
+            ArgumentCaptor<Object> messages = ArgumentCaptor.forClass(Object.class);
+            verify(logger, atLeastOnce()).info(messages.capture());
+            List<String> progress = new ArrayList<String>();
+            for (Object message : messages.getAllValues())
+            {
+                String text = message.toString();
+                int idx = text.indexOf(": Processed ");
+                if (idx >= 0)
+                {
+                    progress.add(text.substring(idx + 12, text.indexOf(" entries", idx)));
+                }
+            }
+            progress.sort((a, b) -> Integer.valueOf(a).compareTo(Integer.valueOf(b)));
+            assertEquals(executionMode.toString(),
+                        List.of("10", "20", "30", "40", "50", "60", "70", "80", "90", "95"), progress);
+        }
+    }
+
+    private void processAndCheck(ExecutionMode executionMode, int maxInFlight)
+    {
+        final int count = 1000;
+        final Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        BatchProcessor<Integer> batchProcessor = new BatchProcessor<Integer>(PROCESS_NAME, txnHelper,
+                    entries(count), 4, 10, null, mock(Log.class), 100);
+        configure(batchProcessor, executionMode, maxInFlight);
+        long total = batchProcessor.processLong(new BatchProcessWorkerAdaptor<Integer>()
+        {
+            @Override
+            public void beforeProcess() throws Throwable
+            {
+                threads.add(Thread.currentThread());
+            }
+
+            @Override
+            public void process(Integer entry) throws Throwable
+            {
+                assertTrue("Processed twice: " + entry, processed.add(entry));
+                if (entry % 100 == 0)
+                {
+                    throw new IllegalStateException("Failing " + entry);
+                }
+            }
+        }, true);
+
+        assertEquals(count, total);
+        assertEquals(count, processed.size());
+        assertEquals(count - 10, batchProcessor.getSuccessfullyProcessedEntriesLong());
+        assertEquals(10, batchProcessor.getTotalErrorsLong());
+        assertNotNull(batchProcessor.getLastError());
+        assertNotNull(batchProcessor.getEndTime());
+        assertEquals("100%", batchProcessor.getPercentComplete());
+
+        // the worker threads are made by the processor's thread factory in either mode
+        assertTrue(threads.size() <= 4);
+        for (Thread thread : threads)
+        {
+            assertTrue(thread.getName(), thread.getName().startsWith(PROCESS_NAME));
+            assertTrue(thread.getName(), thread.isDaemon());
+        }
+    }
+
+    private void configure(BatchProcessor<Integer> batchProcessor, ExecutionMode executionMode, int maxInFlight)
+    {
+        BatchProcessorDefaults defaults = new BatchProcessorDefaults();
+        defaults.setExecutionMode(executionMode);
+        defaults.setMaxInFlight(maxInFlight);
+        defaults.configure(batchProcessor);
+    }
+
+    private static BatchProcessWorkProvider<Integer> entries(int count)
+    {
+        List<Integer> entries = new ArrayList<Integer>(count);
+        for (int i = 1; i <= count; i++)
+        {
+            entries.add(i);
+        }
+        return new ListWorkProvider(entries);
+    }
+
+    private static class ListWorkProvider implements BatchProcessWorkProvider<Integer>
+    {
+        private final int size;
+        private List<Integer> entries;
+
+        private ListWorkProvider(List<Integer> entries)
+        {
+            this.size = entries.size();
+            this.entries = entries;
+        }
+
+        @Override
+        public int getTotalEstimatedWorkSize()
+        {
+            return size;
+        }
+
+        @Override
+        public long getTotalEstimatedWorkSizeLong()
+        {
+            return size;
+        }
+
+        @Override
+        public List<Integer> getNextWork()
+        {
+            List<Integer> next = entries;
+            entries = new ArrayList<Integer>(0);
+            return next;
+        }
+    }
+}
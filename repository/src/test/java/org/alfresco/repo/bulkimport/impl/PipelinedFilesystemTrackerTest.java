@@ -0,0 +1,243 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.bulkimport.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.alfresco.error.AlfrescoRuntimeException;
+import org.alfresco.repo.batch.BatchProcessWorkProvider;
+import org.alfresco.repo.bulkimport.AnalysedDirectory;
+import org.alfresco.repo.bulkimport.DirectoryAnalyser;
+import org.alfresco.repo.bulkimport.ImportableItem;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link PipelinedFilesystemTracker} against a directory analyser that simply lists the directory.
+ */
+public class PipelinedFilesystemTrackerTest
+{
+    private static final NodeRef TARGET = new NodeRef("workspace", "SpacesStore", "123");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BulkImportStatusImpl importStatus;
+    private File root;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        AuthenticationUtil.setFullyAuthenticatedUser(AuthenticationUtil.getSystemUserName());
+        importStatus = new BulkImportStatusImpl();
+
+        root = folder.newFolder("root");
+        File sub = new File(root, "sub");
+        sub.mkdir();
+        new File(root, "a.txt").createNewFile();
+        new File(root, "b.txt").createNewFile();
+        new File(root, "c.txt").createNewFile();
+        new File(sub, "d.txt").createNewFile();
+        new File(sub, "e.txt").createNewFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        AuthenticationUtil.clearCurrentSecurityContext();
+    }
+
+    @Test
+    public void testRootDirectoryIsQueuedInBatches()
+    {
+        PipelinedFilesystemTracker tracker = new PipelinedFilesystemTracker(new ListingDirectoryAnalyser(), importStatus, TARGET, root, 3, 2, 10);
+        try
+        {
+            List<Collection<ImportableItem>> batches = drain(tracker.getWorkProvider());
+
+            assertEquals(2, batches.size());
+            assertEquals(3, batches.get(0).size());
+            assertEquals(1, batches.get(1).size());
+            assertEquals(Set.of("a.txt", "b.txt", "c.txt", "sub"), names(batches));
+            assertFalse(tracker.moreWork());
+
+            assertEquals(1, importStatus.getNumberOfDirectoriesAnalysed());
+            assertEquals(2, importStatus.getNumberOfBatchesQueued());
+            assertEquals(4, importStatus.getNumberOfItemsQueued());
+        }
+        finally
+        {
+            tracker.close();
+        }
+    }
+
+    @Test
+    public void testCommittedDirectoryIsAnalysed()
+    {
+        PipelinedFilesystemTracker tracker = new PipelinedFilesystemTracker(new ListingDirectoryAnalyser(), importStatus, TARGET, root, 10, 2, 10);
+        try
+        {
+            ImportableItem sub = null;
+            for (ImportableItem item : drain(tracker.getWorkProvider()).get(0))
+            {
+                if (item.getHeadRevision().getContentFile().getFileName().toString().equals("sub"))
+                {
+                    sub = item;
+                }
+            }
+
+            // What the commit of the transaction that imported the directory does
+            sub.setNodeRef(new NodeRef("workspace", "SpacesStore", "456"));
+            tracker.submitDirectory(sub);
+
+            List<Collection<ImportableItem>> batches = drain(tracker.getWorkProvider());
+            assertEquals(Set.of("d.txt", "e.txt"), names(batches));
+            for (ImportableItem item : batches.get(0))
+            {
+                assertEquals(sub, item.getParent());
+            }
+            assertFalse(tracker.moreWork());
+            assertEquals(2, importStatus.getNumberOfDirectoriesAnalysed());
+        }
+        finally
+        {
+            tracker.close();
+        }
+    }
+
+    @Test
+    public void testWalkersBlockOnFullQueue()
+    {
+        // A queue of one single item batch forces the walker to wait for the import for all but the first item
+        PipelinedFilesystemTracker tracker = new PipelinedFilesystemTracker(new ListingDirectoryAnalyser(), importStatus, TARGET, root, 1, 1, 1);
+        try
+        {
+            List<Collection<ImportableItem>> batches = drain(tracker.getWorkProvider());
+
+            assertEquals(4, batches.size());
+            assertEquals(Set.of("a.txt", "b.txt", "c.txt", "sub"), names(batches));
+            assertEquals(4, importStatus.getNumberOfBatchesQueued());
+        }
+        finally
+        {
+            tracker.close();
+        }
+    }
+
+    @Test
+    public void testWalkErrorFailsImport()
+    {
+        DirectoryAnalyser failingAnalyser = (directory, filter) -> {
+            throw new AlfrescoRuntimeException("Unreadable directory");
+        };
+        PipelinedFilesystemTracker tracker = new PipelinedFilesystemTracker(failingAnalyser, importStatus, TARGET, root, 10, 1, 10);
+        try
+        {
+            tracker.getWorkProvider().getNextWork();
+            fail("Expected the failed analysis to fail the import");
+        }
+        catch (AlfrescoRuntimeException e)
+        {
+            assertTrue(e.getCause().getMessage().contains("Unreadable directory"));
+        }
+        finally
+        {
+            tracker.close();
+        }
+    }
+
+    private List<Collection<ImportableItem>> drain(BatchProcessWorkProvider<ImportableItem> workProvider)
+    {
+        List<Collection<ImportableItem>> batches = new ArrayList<>();
+        Collection<ImportableItem> batch;
+        while (!(batch = workProvider.getNextWork()).isEmpty())
+        {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private Set<String> names(List<Collection<ImportableItem>> batches)
+    {
+        Set<String> names = new HashSet<>();
+        for (Collection<ImportableItem> batch : batches)
+        {
+            for (ImportableItem item : batch)
+            {
+                names.add(item.getHeadRevision().getContentFile().getFileName().toString());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Turns every entry of the directory into an importable item, without any metadata or version handling.
+     */
+    private static class ListingDirectoryAnalyser implements DirectoryAnalyser
+    {
+        @Override
+        public AnalysedDirectory analyseDirectory(ImportableItem directory, DirectoryStream.Filter<Path> filter)
+        {
+            try (Stream<Path> files = Files.list(directory.getHeadRevision().getContentFile()))
+            {
+                AnalysedDirectory result = new AnalysedDirectory(files.collect(Collectors.toList()));
+                for (Path file : result.getOriginalPaths())
+                {
+                    ImportableItem item = new ImportableItem();
+                    item.getHeadRevision().setContentFile(file);
+                    item.setParent(directory);
+                    result.addImportableItem(item);
+                }
+                return result;
+            }
+            catch (IOException e)
+            {
+                throw new AlfrescoRuntimeException("Failed to list " + directory, e);
+            }
+        }
+    }
+}
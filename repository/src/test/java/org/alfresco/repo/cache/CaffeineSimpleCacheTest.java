@@ -0,0 +1,168 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link CaffeineSimpleCache} class.
+ */
+public class CaffeineSimpleCacheTest extends SimpleCacheTestBase<CaffeineSimpleCache<Integer, String>>
+{
+    @Override
+    protected CaffeineSimpleCache<Integer, String> createCache()
+    {
+        return new CaffeineSimpleCache<Integer, String>(100, true, 0, 0, getClass().getName());
+    }
+
+    @Test
+    public void boundedSizeCache()
+    {
+        cache = new CaffeineSimpleCache<Integer, String>(3, true, 0, 0, getClass().getName());
+        for (int i = 0; i < 100; i++)
+        {
+            cache.put(i, Integer.toString(i));
+        }
+        cache.cleanUp();
+
+        // Which entries survive is down to the admission policy, but the cap must be respected
+        assertEquals(3, cache.getKeys().size());
+        assertTrue(cache.isUseMaxItems());
+    }
+
+    @Test
+    public void frequentlyUsedEntriesSurviveScan()
+    {
+        cache = new CaffeineSimpleCache<Integer, String>(100, true, 0, 0, getClass().getName());
+        // Build up a hot working set
+        for (int round = 0; round < 10; round++)
+        {
+            for (int i = 0; i < 50; i++)
+            {
+                cache.put(i, "hot" + i);
+                cache.get(i);
+            }
+        }
+        // A scan of one-off keys, many times the capacity of the cache
+        for (int i = 1000; i < 11000; i++)
+        {
+            cache.put(i, "cold" + i);
+        }
+        cache.cleanUp();
+
+        int hotSurvivors = 0;
+        for (int i = 0; i < 50; i++)
+        {
+            if (cache.contains(i))
+            {
+                hotSurvivors++;
+            }
+        }
+        assertTrue("Scan flushed the hot set, survivors: " + hotSurvivors, hotSurvivors > 40);
+    }
+
+    @Test
+    public void defaultMaxItems()
+    {
+        cache = new CaffeineSimpleCache<Integer, String>(0, true, 0, 0, getClass().getName());
+        assertEquals(Integer.MAX_VALUE, cache.getMaxItems());
+        assertTrue(cache.isUseMaxItems());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void noNegativeMaxItems()
+    {
+        cache = new CaffeineSimpleCache<Integer, String>(-1, true, 0, 0, getClass().getName());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void noNegativeMaxWeight()
+    {
+        cache = new CaffeineSimpleCache<Integer, String>(0, false, -1L, 0, 0, getClass().getName());
+    }
+
+    @Test
+    public void weightBoundedCache()
+    {
+        // Room for roughly ten entries of 1000 characters
+        cache = new CaffeineSimpleCache<Integer, String>(0, false, 25000L, 0, 0, getClass().getName());
+        assertEquals(25000L, cache.getMaxWeightBytes());
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+        {
+            sb.append('x');
+        }
+        String large = sb.toString();
+        for (int i = 0; i < 100; i++)
+        {
+            cache.put(i, large + i);
+        }
+        cache.cleanUp();
+
+        int size = cache.getKeys().size();
+        assertTrue("Weight cap not applied, size: " + size, size > 0 && size <= 12);
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void approximateEntrySizeRanksLargerValuesHigher()
+    {
+        Map<String, String> small = new HashMap<>();
+        small.put("a", "b");
+        Map<String, String> large = new HashMap<>();
+        for (int i = 0; i < 100; i++)
+        {
+            large.put("key" + i, "value" + i);
+        }
+        int smallBytes = CaffeineSimpleCache.approximateEntryBytes(1L, small);
+        int largeBytes = CaffeineSimpleCache.approximateEntryBytes(1L, large);
+        assertTrue(smallBytes > 0);
+        assertTrue(largeBytes > 10 * smallBytes);
+        assertTrue(CaffeineSimpleCache.approximateEntryBytes(1L, null) > 0);
+    }
+
+    @Test
+    public void putAndCheckUpdate()
+    {
+        cache.put(101, "101");
+        assertEquals(true, cache.putAndCheckUpdate(101, "99101"));
+        assertEquals("99101", cache.get(101));
+
+        assertFalse(cache.contains(102));
+        assertEquals(false, cache.putAndCheckUpdate(102, "102"));
+
+        cache.put(103, null);
+        assertEquals(true, cache.putAndCheckUpdate(103, "103"));
+        assertEquals(false, cache.putAndCheckUpdate(103, "103"));
+        assertEquals(true, cache.putAndCheckUpdate(103, null));
+    }
+}
@@ -62,6 +62,15 @@ public class DefaultCacheFactoryTest
         properties.setProperty("cache.withMaxIdle.maxItems", "0");
         properties.setProperty("cache.withMaxIdle.eviction-policy", "NONE");
         properties.setProperty("cache.withMaxIdle.maxIdleSeconds", "7");
+        // cache.caffeine
+        properties.setProperty("cache.caffeine.implementation", "caffeine");
+        properties.setProperty("cache.caffeine.maxItems", "5");
+        properties.setProperty("cache.caffeine.eviction-policy", "LRU");
+        // cache.caffeineByWeight
+        properties.setProperty("cache.caffeineByWeight.implementation", "Caffeine");
+        properties.setProperty("cache.caffeineByWeight.maxWeightBytes", "1048576");
+        // cache.unknownImpl
+        properties.setProperty("cache.unknownImpl.implementation", "unknown");
         
         cacheFactory.setProperties(properties);
     }
@@ -100,4 +109,29 @@ public class DefaultCacheFactoryTest
         assertEquals(0, cache.getTTLSecs());        
         assertEquals(7, cache.getMaxIdleSecs());        
     }
+    
+    @Test
+    public void canCreateCaffeineCache()
+    {
+        CaffeineSimpleCache<String, String> caffeineCache =
+                    (CaffeineSimpleCache<String, String>) cacheFactory.createCache("cache.caffeine");
+        assertEquals("cache.caffeine", caffeineCache.getCacheName());
+        assertEquals(5, caffeineCache.getMaxItems());
+        assertTrue(caffeineCache.isUseMaxItems());
+        assertEquals(0L, caffeineCache.getMaxWeightBytes());
+    }
+    
+    @Test
+    public void canCreateWeightBoundedCaffeineCache()
+    {
+        CaffeineSimpleCache<String, String> caffeineCache =
+                    (CaffeineSimpleCache<String, String>) cacheFactory.createCache("cache.caffeineByWeight");
+        assertEquals(1048576L, caffeineCache.getMaxWeightBytes());
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void unknownImplementationRejected()
+    {
+        cacheFactory.createCache("cache.unknownImpl");
+    }
 }
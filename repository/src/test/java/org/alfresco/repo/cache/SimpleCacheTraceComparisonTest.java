@@ -0,0 +1,151 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.cache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.alfresco.util.testing.category.PerformanceTests;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Replays a key trace against {@link DefaultSimpleCache} (Guava) and {@link CaffeineSimpleCache}
+ * and reports the hit ratio and the elapsed time of each.
+ * <p>
+ * A recorded trace can be supplied with <tt>-Dcache.trace.file=/path/to/trace</tt>: one key per line,
+ * e.g. node ids captured from the <tt>nodesSharedCache</tt> by a logging wrapper. The capacity is set with
+ * <tt>-Dcache.trace.maxItems</tt>. Without a trace file a synthetic trace is generated, with a skewed hot set
+ * that is periodically interrupted by long scans of keys that are never read again (a bulk export or index
+ * tracking pass).
+ */
+@Category(PerformanceTests.class)
+public class SimpleCacheTraceComparisonTest
+{
+    private static final Log logger = LogFactory.getLog(SimpleCacheTraceComparisonTest.class);
+
+    private static final int SYNTHETIC_KEY_SPACE = 200000;
+    private static final int SYNTHETIC_TRACE_LENGTH = 2000000;
+
+    private static List<String> trace;
+    private static int maxItems;
+
+    @BeforeClass
+    public static void loadTrace() throws IOException
+    {
+        maxItems = Integer.getInteger("cache.trace.maxItems", 10000);
+        String traceFile = System.getProperty("cache.trace.file");
+        if (traceFile != null)
+        {
+            Path path = Paths.get(traceFile);
+            try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8))
+            {
+                trace = new ArrayList<>();
+                lines.map(String::trim).filter(line -> !line.isEmpty()).forEach(trace::add);
+            }
+            logger.info("Loaded " + trace.size() + " keys from " + path);
+        }
+        else
+        {
+            trace = syntheticTrace();
+            logger.info("Generated synthetic trace of " + trace.size() + " keys");
+        }
+    }
+
+    private static List<String> syntheticTrace()
+    {
+        Random random = new Random(42L);
+        List<String> keys = new ArrayList<>(SYNTHETIC_TRACE_LENGTH);
+        long scanKey = SYNTHETIC_KEY_SPACE;
+        while (keys.size() < SYNTHETIC_TRACE_LENGTH)
+        {
+            // Skewed reads of the working set
+            for (int i = 0; i < 50000; i++)
+            {
+                double skewed = Math.pow(random.nextDouble(), 4.0);
+                keys.add(Long.toString((long) (skewed * SYNTHETIC_KEY_SPACE)));
+            }
+            // A scan of keys that are never seen again
+            for (int i = 0; i < 20000; i++)
+            {
+                keys.add(Long.toString(scanKey++));
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    public void compareHitRatios()
+    {
+        // Warm up the JIT for both implementations before measuring
+        replay(new DefaultSimpleCache<String, String>(maxItems, true, 0, 0, "warmup"));
+        replay(new CaffeineSimpleCache<String, String>(maxItems, true, 0, 0, "warmup"));
+
+        report("guava", replay(new DefaultSimpleCache<String, String>(maxItems, true, 0, 0, "guava")));
+        report("caffeine", replay(new CaffeineSimpleCache<String, String>(maxItems, true, 0, 0, "caffeine")));
+    }
+
+    /**
+     * @return { hits, misses, elapsed nanoseconds }
+     */
+    private long[] replay(SimpleCache<String, String> cache)
+    {
+        long hits = 0;
+        long misses = 0;
+        long start = System.nanoTime();
+        for (String key : trace)
+        {
+            if (cache.get(key) != null)
+            {
+                hits++;
+            }
+            else
+            {
+                misses++;
+                cache.put(key, key);
+            }
+        }
+        return new long[] {hits, misses, System.nanoTime() - start};
+    }
+
+    private void report(String name, long[] result)
+    {
+        long total = result[0] + result[1];
+        double hitRatio = total == 0 ? 0.0 : (100.0 * result[0] / total);
+        double nsPerOp = total == 0 ? 0.0 : ((double) result[2] / total);
+        logger.info(String.format("%-10s maxItems=%d hitRatio=%.2f%% avg=%.1fns/op", name, maxItems, hitRatio, nsPerOp));
+    }
+}
@@ -26,6 +26,9 @@
 package org.alfresco.repo.cache.lookup;
 
 import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -58,6 +61,8 @@ public class EntityLookupCacheTest extends TestCase implements EntityLookupCallb
     private EntityLookupCache<Long, Object, String> entityLookupCacheB;
     private TreeMap<Long, String> database;
     private ControlDAO controlDAO;
+    private int findByKeysCount;
+    private int findByValuesCount;
 
     @Override
     protected void setUp() throws Exception
@@ -66,6 +71,8 @@ public class EntityLookupCacheTest extends TestCase implements EntityLookupCallb
         entityLookupCacheA = new EntityLookupCache<Long, Object, String>(cache, "A", this);
         entityLookupCacheB = new EntityLookupCache<Long, Object, String>(cache, "B", this);
         database = new TreeMap<Long, String>();
+        findByKeysCount = 0;
+        findByValuesCount = 0;
         
         controlDAO = Mockito.mock(ControlDAO.class);
         Mockito.when(controlDAO.createSavepoint(Mockito.anyString())).thenReturn(Mockito.mock(Savepoint.class));
@@ -266,6 +273,92 @@ public class EntityLookupCacheTest extends TestCase implements EntityLookupCallb
         assertEquals(0, cache.getKeys().size());                    // ... but cache must be empty
     }
 
+    public void testGetByKeys() throws Exception
+    {
+        createValue(new TestValue("AAA"));
+        createValue(new TestValue("BBB"));
+        createValue(new TestValue("CCC"));
+        // Prime the cache with one of them
+        entityLookupCacheA.getByKey(2L);
+        
+        List<Pair<Long, Object>> entityPairs = entityLookupCacheA.getByKeys(Arrays.asList(3L, 2L, 99L, 1L, 3L));
+        assertEquals("Missing keys are left out and duplicates removed", 3, entityPairs.size());
+        assertEquals(Long.valueOf(3), entityPairs.get(0).getFirst());
+        assertEquals(new TestValue("CCC"), entityPairs.get(0).getSecond());
+        assertEquals(Long.valueOf(2), entityPairs.get(1).getFirst());
+        assertEquals(Long.valueOf(1), entityPairs.get(2).getFirst());
+        assertEquals("Cache misses should have been resolved in one call", 1, findByKeysCount);
+        
+        // Everything, including the miss, is now cached
+        entityPairs = entityLookupCacheA.getByKeys(Arrays.asList(1L, 2L, 3L, 99L));
+        assertEquals(3, entityPairs.size());
+        assertEquals("Should not have gone to the database", 1, findByKeysCount);
+        assertNull(entityLookupCacheA.getByKey(99L));
+        // ... and available for lookups by value
+        assertEquals(Long.valueOf(1), entityLookupCacheA.getKey("AAA"));
+    }
+    
+    public void testGetByKeysWithoutCache() throws Exception
+    {
+        EntityLookupCache<Long, Object, String> entityLookupCacheNoCache = new EntityLookupCache<Long, Object, String>(this);
+        createValue(new TestValue("AAA"));
+        createValue(new TestValue("BBB"));
+        
+        List<Pair<Long, Object>> entityPairs = entityLookupCacheNoCache.getByKeys(Arrays.asList(2L, 1L, 5L));
+        assertEquals(2, entityPairs.size());
+        assertEquals(Long.valueOf(2), entityPairs.get(0).getFirst());
+        assertEquals(1, findByKeysCount);
+    }
+    
+    public void testGetByKeysBatchesLargeRequests() throws Exception
+    {
+        List<Long> keys = new ArrayList<Long>();
+        for (int i = 0; i < EntityLookupCache.MAX_BATCH_LOOKUP_SIZE + 10; i++)
+        {
+            keys.add(createValue(new TestValue("V" + i)).getFirst());
+        }
+        List<Pair<Long, Object>> entityPairs = entityLookupCacheA.getByKeys(keys);
+        assertEquals(keys.size(), entityPairs.size());
+        assertEquals(2, findByKeysCount);
+    }
+    
+    public void testGetByKeysRejectsNull() throws Exception
+    {
+        try
+        {
+            entityLookupCacheA.getByKeys(Arrays.asList(1L, null));
+            fail("Null keys should be rejected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Expected
+        }
+    }
+    
+    public void testGetByValues() throws Exception
+    {
+        createValue(new TestValue("AAA"));
+        createValue(new TestValue("BBB"));
+        createValue(new TestValue("CCC"));
+        // Prime the cache with one of them
+        entityLookupCacheA.getByValue(new TestValue("BBB"));
+        
+        List<Pair<Long, Object>> entityPairs = entityLookupCacheA.getByValues(Arrays.<Object>asList(
+                new TestValue("CCC"), new TestValue("BBB"), new TestValue("ZZZ"), new TestValue("AAA")));
+        assertEquals(3, entityPairs.size());
+        assertEquals(Long.valueOf(3), entityPairs.get(0).getFirst());
+        assertEquals(Long.valueOf(2), entityPairs.get(1).getFirst());
+        assertEquals(Long.valueOf(1), entityPairs.get(2).getFirst());
+        assertEquals("Cache misses should have been resolved in one call", 1, findByValuesCount);
+        
+        // All cached now, including the miss
+        entityPairs = entityLookupCacheA.getByValues(Arrays.<Object>asList(new TestValue("AAA"), new TestValue("ZZZ")));
+        assertEquals(1, entityPairs.size());
+        assertEquals(1, findByValuesCount);
+        assertNull(entityLookupCacheA.getByValue(new TestValue("ZZZ")));
+        assertEquals(new TestValue("AAA"), entityLookupCacheA.getValue(1L));
+    }
+
     /**
      * Helper class to represent business object
      */
@@ -330,6 +423,30 @@ public class EntityLookupCacheTest extends TestCase implements EntityLookupCallb
         return null;
     }
 
+    @Override
+    public List<Pair<Long, Object>> findByKeys(List<Long> keys)
+    {
+        findByKeysCount++;
+        return EntityLookupCallbackDAO.super.findByKeys(keys);
+    }
+
+    @Override
+    public List<Pair<Long, Object>> findByValues(List<Object> values)
+    {
+        findByValuesCount++;
+        List<Pair<Long, Object>> results = new ArrayList<Pair<Long, Object>>();
+        for (Object value : values)
+        {
+            Pair<Long, Object> entityPair = findByValue(value);
+            if (entityPair != null)
+            {
+                // Return the business object rather than the raw database value
+                results.add(new Pair<Long, Object>(entityPair.getFirst(), value));
+            }
+        }
+        return results;
+    }
+
     /**
      * Simulate creation of a new database entry
      */
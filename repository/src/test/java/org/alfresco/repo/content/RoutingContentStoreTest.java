@@ -29,6 +29,9 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.alfresco.repo.cache.DefaultSimpleCache;
 import org.alfresco.repo.cache.SimpleCache;
@@ -157,6 +160,69 @@ public class RoutingContentStoreTest extends AbstractWritableContentStoreTest
         }
     }
     
+    /**
+     * Checks that concurrent reads of a URL that is not cached share one search of the stores.
+     */
+    @Test
+    public void testConcurrentReadsShareProbe() throws Exception
+    {
+        ContentWriter writer = storeA.getWriter(new ContentContext(null, null));
+        writer.putContent("testConcurrentReadsShareProbe");
+        final String contentUrl = writer.getContentUrl();
+        final SlowExistsStore slowStore = new SlowExistsStore(storeA);
+        final RandomRoutingContentStore router = new RandomRoutingContentStore(slowStore);
+        
+        final int threadCount = 5;
+        final AtomicInteger found = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>(threadCount);
+        for (int i = 0; i < threadCount; i++)
+        {
+            Thread thread = new Thread(() -> {
+                if (router.getReader(contentUrl).exists())
+                {
+                    found.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        // Wait for the other reads to join the first one's search
+        long timeout = System.currentTimeMillis() + 10000L;
+        while (router.getSharedResolutionCount() < threadCount - 1 && System.currentTimeMillis() < timeout)
+        {
+            Thread.sleep(10L);
+        }
+        slowStore.release.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join(10000L);
+        }
+        
+        assertEquals(threadCount, found.get());
+        assertEquals(1, slowStore.probes.get());
+        assertEquals(1L, router.getResolutionCount());
+        assertEquals(threadCount - 1, router.getSharedResolutionCount());
+    }
+    
+    /**
+     * Checks that URLs with a routed prefix go straight to their store.
+     */
+    @Test
+    public void testUrlPrefixRoutes()
+    {
+        ContentWriter writer = storeB.getWriter(new ContentContext(null, null));
+        writer.putContent("testUrlPrefixRoutes");
+        String contentUrl = writer.getContentUrl();
+        RandomRoutingContentStore router = new RandomRoutingContentStore(storeA, storeB);
+        router.setUrlPrefixRoutes(Collections.singletonMap(FileContentStore.STORE_PROTOCOL + ContentStore.PROTOCOL_DELIMITER, storeB));
+        
+        ContentReader reader = router.getReader(contentUrl);
+        assertEquals("testUrlPrefixRoutes", reader.getContentString());
+        assertTrue(router.exists(contentUrl));
+        assertEquals(0L, router.getProbeCount());
+        assertEquals(2L, router.getRoutedCount());
+    }
+    
     /**
      * A test routing store that directs content writes to a randomly-chosen store.
      * Matching of content URLs back to the stores is handled by the base class.
@@ -228,6 +294,46 @@ public class RoutingContentStoreTest extends AbstractWritableContentStoreTest
         }
     }
     
+    /**
+     * A read-only store that holds up checks for content until released.
+     */
+    private static class SlowExistsStore extends AbstractContentStore
+    {
+        private final ContentStore store;
+        private final AtomicInteger probes = new AtomicInteger();
+        private final CountDownLatch release = new CountDownLatch(1);
+        
+        public SlowExistsStore(ContentStore store)
+        {
+            this.store = store;
+        }
+
+        public boolean isWriteSupported()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean exists(String contentUrl)
+        {
+            probes.incrementAndGet();
+            try
+            {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return store.exists(contentUrl);
+        }
+
+        public ContentReader getReader(String contentUrl)
+        {
+            return store.getReader(contentUrl);
+        }
+    }
+    
     /**
      * This store supports nothing.  It is designed to catch the routing code out.
      * 
@@ -28,6 +28,7 @@ package org.alfresco.repo.content.caching;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
@@ -45,12 +46,17 @@ import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 
+import org.alfresco.repo.cache.DefaultSimpleCache;
+import org.alfresco.repo.cache.SimpleCache;
 import org.alfresco.repo.content.ContentContext;
 import org.alfresco.repo.content.ContentRestoreParams;
 import org.alfresco.repo.content.ContentStore;
@@ -391,6 +397,98 @@ public class CachingContentStoreTest
         verify(bsWriter).setMimetype("not/real/mimetype");
     }
     
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Tests for read-through, prefetching and the hot tier follow...
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    
+    @Test
+    public void getReaderInReadThroughModeFollowsCopyIntoCache() throws IOException
+    {
+        File tempFile = stubCacheFill();
+        cachingStore.setReadThrough(true);
+        
+        ContentReader reader = cachingStore.getReader("url");
+        
+        assertEquals(5L, reader.getSize());
+        assertEquals("hello", reader.getContentString());
+        verify(cache, never()).put(anyString(), any(ContentReader.class));
+        verify(cache).putTempFile("url", tempFile);
+    }
+    
+    @Test
+    public void prefetchCopiesItemIntoCache() throws IOException
+    {
+        File tempFile = stubCacheFill();
+        
+        cachingStore.prefetch("url");
+        
+        verify(cache).putTempFile("url", tempFile);
+    }
+    
+    @Test
+    public void prefetchDoesNothingWithoutExecutor()
+    {
+        cachingStore.prefetch("url");
+        
+        verify(backingStore, never()).getReader(anyString());
+    }
+    
+    private File stubCacheFill() throws IOException
+    {
+        File tempFile = File.createTempFile("CachingContentStoreTest", ".tmp");
+        tempFile.deleteOnExit();
+        cachingStore.setCacheFillExecutor(Runnable::run);
+        when(backingStore.getReader("url")).thenReturn(sourceContent);
+        when(sourceContent.getSize()).thenReturn(5L);
+        when(sourceContent.getContentInputStream()).thenReturn(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)));
+        when(cache.createTempFile()).thenReturn(tempFile);
+        when(cache.putTempFile("url", tempFile)).thenReturn(tempFile);
+        return tempFile;
+    }
+    
+    @Test
+    public void getReaderForSmallItemKeepsItInMemory()
+    {
+        cachingStore.setHotContentCache(new DefaultSimpleCache<>(10, "hotContentCache"));
+        cachingStore.setHotContentMaxSize(16L);
+        when(cache.contains("url")).thenReturn(true);
+        when(cache.getReader("url")).thenReturn(cachedContent);
+        when(cachedContent.getSize()).thenReturn(5L);
+        when(cachedContent.getContentInputStream()).thenReturn(new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)));
+        
+        assertEquals("hello", cachingStore.getReader("url").getContentString());
+        assertEquals("hello", cachingStore.getReader("url").getContentString());
+        // The cache file is only read once
+        verify(cache).getReader("url");
+    }
+    
+    @Test
+    public void getReaderForLargeItemDoesNotKeepItInMemory()
+    {
+        SimpleCache<String, byte[]> hotContentCache = new DefaultSimpleCache<>(10, "hotContentCache");
+        cachingStore.setHotContentCache(hotContentCache);
+        cachingStore.setHotContentMaxSize(16L);
+        when(cache.contains("url")).thenReturn(true);
+        when(cache.getReader("url")).thenReturn(cachedContent);
+        when(cachedContent.getSize()).thenReturn(17L);
+        
+        assertSame(cachedContent, cachingStore.getReader("url"));
+        assertFalse(hotContentCache.contains("url"));
+    }
+    
+    @Test
+    public void deleteRemovesItemFromMemory()
+    {
+        SimpleCache<String, byte[]> hotContentCache = new DefaultSimpleCache<>(10, "hotContentCache");
+        hotContentCache.put("url", new byte[] { 1 });
+        cachingStore.setHotContentCache(hotContentCache);
+        cachingStore.setHotContentMaxSize(16L);
+        when(backingStore.delete("url")).thenReturn(true);
+        
+        assertTrue(cachingStore.delete("url"));
+        assertNull(hotContentCache.get("url"));
+    }
+    
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // Tests for spoofed content follow...
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
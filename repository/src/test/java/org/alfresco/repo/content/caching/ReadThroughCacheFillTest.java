@@ -0,0 +1,188 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.content.caching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.alfresco.repo.content.ContentStore;
+import org.alfresco.repo.content.caching.quota.QuotaManagerStrategy;
+import org.alfresco.repo.content.caching.quota.UnlimitedQuotaStrategy;
+import org.alfresco.repo.content.filestore.FileContentReader;
+import org.alfresco.service.cmr.repository.ContentReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * Tests for {@link ReadThroughCacheFill}, using a mock cache and backing store.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ReadThroughCacheFillTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private ContentCache cache;
+
+    @Mock
+    private ContentStore backingStore;
+
+    @Mock
+    private ContentReader source;
+
+    private File tempFile;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        tempFile = folder.newFile("fill.tmp");
+    }
+
+    private ReadThroughCacheFill newFill(QuotaManagerStrategy quota)
+    {
+        return new ReadThroughCacheFill("url", source, tempFile, cache, quota, backingStore);
+    }
+
+    @Test
+    public void readersFollowTheCopy() throws Exception
+    {
+        PipedOutputStream backingContent = new PipedOutputStream();
+        when(source.getSize()).thenReturn(6L);
+        when(source.getContentInputStream()).thenReturn(new PipedInputStream(backingContent, 1024));
+        when(cache.putTempFile("url", tempFile)).thenReturn(tempFile);
+        ReadThroughCacheFill fill = newFill(new UnlimitedQuotaStrategy());
+        ContentReader reader = fill.getReader();
+        Thread filler = new Thread(fill);
+        filler.start();
+
+        try (InputStream is = reader.getContentInputStream())
+        {
+            backingContent.write("abc".getBytes(StandardCharsets.UTF_8));
+            backingContent.flush();
+            // The first bytes can be read before the rest of the content is available
+            assertEquals("abc", new String(is.readNBytes(3), StandardCharsets.UTF_8));
+
+            backingContent.write("def".getBytes(StandardCharsets.UTF_8));
+            backingContent.close();
+            assertEquals("def", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        filler.join(10000L);
+
+        assertEquals(6L, reader.getSize());
+        verify(cache).putTempFile("url", tempFile);
+        // Readers that start after the copy read the cache file
+        assertEquals("abcdef", fill.getReader().getContentString());
+    }
+
+    @Test
+    public void failedCopyIsNotCached() throws Exception
+    {
+        InputStream failing = new SequenceInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3 }), new InputStream()
+        {
+            @Override
+            public int read() throws IOException
+            {
+                throw new IOException("Backing store failure");
+            }
+        });
+        when(source.getSize()).thenReturn(6L);
+        when(source.getContentInputStream()).thenReturn(failing);
+        ReadThroughCacheFill fill = newFill(new UnlimitedQuotaStrategy());
+        ContentReader reader = fill.getReader();
+        InputStream is = reader.getContentInputStream();
+
+        fill.run();
+
+        assertThrows(IOException.class, () -> is.readAllBytes());
+        verify(cache, never()).putTempFile(anyString(), any(File.class));
+        assertFalse(tempFile.exists());
+
+        // Readers that start after the failure read from the backing store
+        File backingFile = folder.newFile("backing.bin");
+        Files.write(backingFile.toPath(), "abcdef".getBytes(StandardCharsets.UTF_8));
+        when(backingStore.getReader("url")).thenReturn(new FileContentReader(backingFile));
+        assertEquals("abcdef", fill.getReader().getContentString());
+    }
+
+    @Test
+    public void cancelledCopyIsNotCached() throws Exception
+    {
+        when(source.getSize()).thenReturn(3L);
+        when(source.getContentInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes(StandardCharsets.UTF_8)));
+        ReadThroughCacheFill fill = newFill(new UnlimitedQuotaStrategy());
+        ContentReader reader = fill.getReader();
+        InputStream is = reader.getContentInputStream();
+
+        fill.cancel();
+        fill.run();
+
+        // Readers already following the copy are not affected
+        assertEquals("abc", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        is.close();
+        verify(cache, never()).putTempFile(anyString(), any(File.class));
+    }
+
+    @Test
+    public void quotaManagerCanRequestFileDeletionAfterCopy() throws Exception
+    {
+        QuotaManagerStrategy quota = mock(QuotaManagerStrategy.class);
+        when(quota.afterWritingCacheFile(anyLong())).thenReturn(false);
+        when(source.getSize()).thenReturn(3L);
+        when(source.getContentInputStream()).thenReturn(new ByteArrayInputStream("abc".getBytes(StandardCharsets.UTF_8)));
+        when(cache.putTempFile("url", tempFile)).thenReturn(tempFile);
+        ReadThroughCacheFill fill = newFill(quota);
+
+        fill.run();
+
+        verify(quota).afterWritingCacheFile(3L);
+        verify(cache).deleteFile("url");
+        verify(cache).remove("url");
+    }
+}
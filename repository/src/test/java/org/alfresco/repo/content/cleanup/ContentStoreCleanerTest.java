@@ -394,6 +394,69 @@ public class ContentStoreCleanerTest extends TestCase
         assertTrue("Content listener was not called", deletedUrls.contains(reader.getContentUrl()));
     }
     
+    public void testImmediateRemovalInParallel() throws Exception
+    {
+        eagerCleaner.setEagerOrphanCleanup(false);
+        eagerCleaner.setMaxConcurrentDeletesPerStore(1);
+        
+        final StoreRef storeRef = nodeService.createStore("test", getName() + "-" + GUID.generate());
+        RetryingTransactionCallback<List<ContentData>> testCallback = new RetryingTransactionCallback<List<ContentData>>()
+        {
+            public List<ContentData> execute() throws Throwable
+            {
+                NodeRef rootNodeRef = nodeService.getRootNode(storeRef);
+                List<ContentData> contentDatas = new ArrayList<ContentData>(10);
+                for (int i = 0; i < 10; i++)
+                {
+                    // Create some content
+                    Map<QName, Serializable> properties = new HashMap<QName, Serializable>(13);
+                    properties.put(ContentModel.PROP_NAME, (Serializable)("test" + i + ".txt"));
+                    NodeRef contentNodeRef = nodeService.createNode(
+                            rootNodeRef,
+                            ContentModel.ASSOC_CHILDREN,
+                            ContentModel.ASSOC_CHILDREN,
+                            ContentModel.TYPE_CONTENT,
+                            properties).getChildRef();
+                    ContentWriter writer = contentService.getWriter(contentNodeRef, ContentModel.PROP_CONTENT, true);
+                    writer.setMimetype(MimetypeMap.MIMETYPE_TEXT_PLAIN);
+                    writer.putContent("INITIAL CONTENT " + i);
+                    contentDatas.add(writer.getContentData());
+                    
+                    // Delete the node, bypassing archive
+                    nodeService.addAspect(contentNodeRef, ContentModel.ASPECT_TEMPORARY, null);
+                    nodeService.deleteNode(contentNodeRef);
+                }
+                // Done
+                return contentDatas;
+            }
+        };
+        List<ContentData> contentDatas = transactionService.getRetryingTransactionHelper().doInTransaction(testCallback);
+        
+        // fire the cleaner, using small partitions to spread the orphans across the threads
+        cleaner.setProtectDays(0);
+        cleaner.setBatchSize(3);
+        cleaner.setWorkerThreads(4);
+        try
+        {
+            cleaner.execute();
+        }
+        finally
+        {
+            cleaner.setBatchSize(1000);
+            cleaner.setWorkerThreads(1);
+            eagerCleaner.setMaxConcurrentDeletesPerStore(0);
+        }
+        
+        for (ContentData contentData : contentDatas)
+        {
+            ContentReader reader = contentService.getRawReader(contentData.getContentUrl());
+            assertFalse("Unprotected content was not deleted", reader.exists());
+            assertTrue("Content listener was not called", deletedUrls.contains(reader.getContentUrl()));
+        }
+        assertNotNull("Parallel cleanup should report its progress", cleaner.getBatchMonitor());
+        assertEquals(0L, cleaner.getBatchMonitor().getTotalErrorsLong());
+    }
+    
     /**
      * Test forced and immediate shredding of content
      * <p/>
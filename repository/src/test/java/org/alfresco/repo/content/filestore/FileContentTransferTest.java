@@ -0,0 +1,232 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.content.filestore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.alfresco.service.cmr.repository.TransformationOptionLimits;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link FileContentTransfer}.
+ */
+public class FileContentTransferTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] content;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        content = new byte[100000];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) (i % 251);
+        }
+        file = folder.newFile("content.bin");
+        Files.write(file.toPath(), content);
+    }
+
+    @Test
+    public void testTransferableReaders() throws Exception
+    {
+        FileContentReader reader = new FileContentReader(file);
+        assertSame(reader, FileContentTransfer.getTransferableReader(reader));
+        assertNull(FileContentTransfer.getTransferableReader(null));
+        // Missing files
+        assertNull(FileContentTransfer.getTransferableReader(new FileContentReader(new File(folder.getRoot(), "missing.bin"))));
+        // Subclasses may alter the content, e.g. by decrypting it
+        assertNull(FileContentTransfer.getTransferableReader(new FileContentReader(file)
+        {
+        }));
+        // Readers already in use
+        FileContentReader openReader = new FileContentReader(file);
+        try (InputStream is = openReader.getContentInputStream())
+        {
+            assertNull(FileContentTransfer.getTransferableReader(openReader));
+        }
+        // Readers without random access
+        FileContentReader streamReader = new FileContentReader(file);
+        streamReader.setAllowRandomAccess(false);
+        assertNull(FileContentTransfer.getTransferableReader(streamReader));
+        // Readers with read limits, which only apply to streams
+        FileContentReader limitedReader = new FileContentReader(file);
+        limitedReader.setLimits(new TransformationOptionLimits());
+        assertNull(FileContentTransfer.getTransferableReader(limitedReader));
+    }
+
+    @Test
+    public void testTargetChannels() throws Exception
+    {
+        assertNull(FileContentTransfer.getTargetChannel(new ByteArrayOutputStream()));
+        try (FileOutputStream os = new FileOutputStream(folder.newFile("target.bin")))
+        {
+            assertNotNull(FileContentTransfer.getTargetChannel(os));
+        }
+    }
+
+    @Test
+    public void testTransferWholeFile() throws Exception
+    {
+        File target = folder.newFile("target.bin");
+        try (FileOutputStream os = new FileOutputStream(target))
+        {
+            assertEquals(content.length, FileContentTransfer.transfer(new FileContentReader(file), FileContentTransfer.getTargetChannel(os)));
+        }
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testTransferCallsListeners() throws Exception
+    {
+        final AtomicBoolean closed = new AtomicBoolean();
+        FileContentReader reader = new FileContentReader(file);
+        reader.addListener(() -> closed.set(true));
+        try (FileChannel target = openTarget())
+        {
+            FileContentTransfer.transfer(reader, target);
+        }
+        assertTrue(closed.get());
+        assertTrue(reader.isClosed());
+    }
+
+    @Test
+    public void testTransferRanges() throws Exception
+    {
+        checkRange(0, 1);
+        checkRange(500, 1000);
+        checkRange(content.length - 10, 10);
+        // Ranges past the end are truncated
+        try (FileChannel target = openTarget())
+        {
+            assertEquals(10L, FileContentTransfer.transfer(new FileContentReader(file), content.length - 10, 100, target));
+            assertEquals(0L, FileContentTransfer.transfer(new FileContentReader(file), content.length + 10, 100, target));
+        }
+    }
+
+    @Test
+    public void testSendFile() throws Exception
+    {
+        final AtomicBoolean closed = new AtomicBoolean();
+        FileContentReader reader = new FileContentReader(file);
+        reader.addListener(() -> closed.set(true));
+        HttpServletRequest request = mockRequest(Boolean.TRUE);
+        assertTrue(FileContentTransfer.sendFile(request, mock(HttpServletResponse.class), reader, 100L, content.length));
+        verify(request).setAttribute(FileContentTransfer.SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+        verify(request).setAttribute(FileContentTransfer.SENDFILE_START_ATTR, Long.valueOf(100L));
+        verify(request).setAttribute(FileContentTransfer.SENDFILE_END_ATTR, Long.valueOf(content.length));
+        // The content is considered read once it is handed over
+        assertTrue(closed.get());
+        assertTrue(reader.isClosed());
+    }
+
+    @Test
+    public void testSendFileFallback() throws Exception
+    {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        // Containers that cannot send files
+        checkNotSent(mockRequest(null), response, new FileContentReader(file), 0L, content.length);
+        checkNotSent(mockRequest(Boolean.FALSE), response, new FileContentReader(file), 0L, content.length);
+        // Small ranges
+        checkNotSent(mockRequest(Boolean.TRUE), response, new FileContentReader(file), 0L, FileContentTransfer.SENDFILE_MIN_SIZE - 1L);
+        // Ranges past the end of the file
+        checkNotSent(mockRequest(Boolean.TRUE), response, new FileContentReader(file), 0L, content.length + 1L);
+        // Readers that must be read as normal
+        FileContentReader streamReader = new FileContentReader(file);
+        streamReader.setAllowRandomAccess(false);
+        checkNotSent(mockRequest(Boolean.TRUE), response, streamReader, 0L, content.length);
+        // Responses that buffer or alter their output
+        checkNotSent(mockRequest(Boolean.TRUE), new HttpServletResponseWrapper(response), new FileContentReader(file), 0L, content.length);
+        // Responses that have already been committed
+        HttpServletResponse committed = mock(HttpServletResponse.class);
+        when(committed.isCommitted()).thenReturn(true);
+        checkNotSent(mockRequest(Boolean.TRUE), committed, new FileContentReader(file), 0L, content.length);
+    }
+
+    private void checkNotSent(HttpServletRequest request, HttpServletResponse response, FileContentReader reader, long start, long end) throws IOException
+    {
+        assertFalse(FileContentTransfer.sendFile(request, response, reader, start, end));
+        verify(request, never()).setAttribute(anyString(), any());
+        // The content can still be copied as normal
+        assertFalse(reader.isChannelOpen());
+        assertFalse(reader.isClosed());
+    }
+
+    private HttpServletRequest mockRequest(Boolean sendFileSupport)
+    {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getAttribute(FileContentTransfer.SENDFILE_SUPPORT_ATTR)).thenReturn(sendFileSupport);
+        return request;
+    }
+
+    private void checkRange(int position, int count) throws IOException
+    {
+        File target = folder.newFile();
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE))
+        {
+            assertEquals(count, FileContentTransfer.transfer(new FileContentReader(file), position, count, channel));
+        }
+        assertArrayEquals(Arrays.copyOfRange(content, position, position + count), Files.readAllBytes(target.toPath()));
+    }
+
+    private FileChannel openTarget() throws IOException
+    {
+        return FileChannel.open(folder.newFile().toPath(), StandardOpenOption.WRITE);
+    }
+}
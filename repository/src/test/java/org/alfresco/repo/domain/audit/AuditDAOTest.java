@@ -43,6 +43,7 @@ import jakarta.transaction.UserTransaction;
 import org.alfresco.error.AlfrescoRuntimeException;
 import org.alfresco.repo.content.transform.AbstractContentTransformerTest;
 import org.alfresco.repo.domain.audit.AuditDAO.AuditApplicationInfo;
+import org.alfresco.repo.domain.audit.AuditDAO.AuditEntryInfo;
 import org.alfresco.repo.domain.contentdata.ContentDataDAO;
 import org.alfresco.repo.domain.dialect.Dialect;
 import org.alfresco.repo.domain.dialect.MySQLClusterNDBDialect;
@@ -172,6 +173,66 @@ public class AuditDAOTest extends TestCase
         assertNotNull(minMax.get(expectedExtremes[1]));
     }
 
+    /**
+     * Entries created together, in more than one multi-row insert, are found with their users and values
+     */
+    public void testCreateAuditEntries() throws Exception
+    {
+        final AuditApplicationInfo appInfo = txnHelper.doInTransaction(() -> createAuditApp());
+        final int count = 600;
+        final long time = System.currentTimeMillis();
+        final List<AuditEntryInfo> entries = new ArrayList<AuditEntryInfo>(count);
+        for (int i = 0; i < count; i++)
+        {
+            String username = (i % 3 == 0) ? null : "user" + (i % 2);
+            Map<String, Serializable> values = Collections.singletonMap("/a/b/c", (Serializable) Integer.valueOf(i));
+            entries.add(new AuditEntryInfo(appInfo.getId(), time + i, username, values));
+        }
+        int created = txnHelper.doInTransaction(() -> auditDAO.createAuditEntries(entries), false, true);
+        assertEquals(count, created);
+
+        final Map<Long, Pair<String, Map<String, Serializable>>> found = new HashMap<Long, Pair<String, Map<String, Serializable>>>();
+        final AuditQueryCallback callback = new AuditQueryCallback()
+        {
+            public boolean valuesRequired()
+            {
+                return true;
+            }
+
+            public boolean handleAuditEntry(
+                    Long entryId,
+                    String applicationName,
+                    String user,
+                    long entryTime,
+                    Map<String, Serializable> values)
+            {
+                found.put(entryTime, new Pair<String, Map<String, Serializable>>(user, values));
+                return true;
+            }
+
+            public boolean handleAuditEntryError(Long entryId, String errorMsg, Throwable error)
+            {
+                throw new AlfrescoRuntimeException(errorMsg, error);
+            }
+        };
+        final AuditQueryParameters params = new AuditQueryParameters();
+        params.setApplicationName(appInfo.getName());
+        txnHelper.doInTransaction(() ->
+        {
+            auditDAO.findAuditEntries(callback, params, Integer.MAX_VALUE);
+            return null;
+        }, true);
+
+        assertEquals(count, found.size());
+        for (AuditEntryInfo entry : entries)
+        {
+            Pair<String, Map<String, Serializable>> userAndValues = found.get(entry.getTime());
+            assertNotNull("Entry not found: " + entry, userAndValues);
+            assertEquals(entry.getUsername(), userAndValues.getFirst());
+            assertEquals(entry.getValues(), userAndValues.getSecond());
+        }
+    }
+
     /**
      * @return              Returns the name of the application
      */
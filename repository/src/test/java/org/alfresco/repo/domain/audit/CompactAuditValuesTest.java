@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.domain.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.StoreRef;
+import org.alfresco.service.namespace.QName;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CompactAuditValues}.
+ */
+public class CompactAuditValuesTest
+{
+    private static Map<String, Serializable> getValues()
+    {
+        Map<String, Serializable> values = new HashMap<String, Serializable>();
+        values.put("/test/action/name", "createNode");
+        values.put("/test/action/count", 42L);
+        values.put("/test/action/index", 7);
+        values.put("/test/action/ok", Boolean.TRUE);
+        values.put("/test/action/failed", Boolean.FALSE);
+        values.put("/test/action/ratio", 0.25D);
+        values.put("/test/action/fraction", 0.5F);
+        values.put("/test/action/date", new Date(1234567890L));
+        values.put("/test/action/node", new NodeRef(StoreRef.STORE_REF_WORKSPACE_SPACESSTORE, "abc-123"));
+        values.put("/test/action/type", QName.createQName("http://www.alfresco.org/model/content/1.0", "content"));
+        values.put("/test/action/missing", null);
+        ArrayList<String> list = new ArrayList<String>();
+        list.add("a");
+        list.add("b");
+        values.put("/test/action/list", list);
+        return values;
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        Map<String, Serializable> values = getValues();
+        byte[] data = CompactAuditValues.encode(values);
+        assertEquals(values, CompactAuditValues.decode(data));
+    }
+
+    @Test
+    public void testRoundTripEmpty()
+    {
+        Map<String, Serializable> values = Collections.emptyMap();
+        assertEquals(values, CompactAuditValues.decode(CompactAuditValues.encode(values)));
+    }
+
+    @Test
+    public void testLargeValuesAreDeflated()
+    {
+        Map<String, Serializable> values = new HashMap<String, Serializable>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++)
+        {
+            sb.append("repeated text ");
+            values.put("/test/path/" + i, "value " + (i % 5));
+        }
+        values.put("/test/text", sb.toString());
+        byte[] data = CompactAuditValues.encode(values);
+        assertTrue("Expected repetitive values to compress: " + data.length, data.length < sb.length());
+        assertEquals(values, CompactAuditValues.decode(data));
+    }
+
+    @Test
+    public void testSearchHashes()
+    {
+        Map<String, Serializable> values = getValues();
+        Set<String> indexedKeys = new HashSet<String>();
+        indexedKeys.add("/test/action/name");
+        indexedKeys.add("/test/action/list");
+        indexedKeys.add("/test/action/absent");
+        Set<Long> hashes = CompactAuditValues.getSearchHashes(values, indexedKeys);
+
+        assertTrue(hashes.contains(CompactAuditValues.getSearchHash("/test/action/name", null)));
+        assertTrue(hashes.contains(CompactAuditValues.getSearchHash(null, "createNode")));
+        assertTrue(hashes.contains(CompactAuditValues.getSearchHash("/test/action/name", "createNode")));
+        // Values of other types can only be found by key
+        assertTrue(hashes.contains(CompactAuditValues.getSearchHash("/test/action/list", null)));
+        // Keys that are not indexed or not present cannot be found
+        assertFalse(hashes.contains(CompactAuditValues.getSearchHash("/test/action/count", null)));
+        assertFalse(hashes.contains(CompactAuditValues.getSearchHash("/test/action/absent", null)));
+        assertEquals(4, hashes.size());
+    }
+
+    @Test
+    public void testSearchHashDistinguishesTypes()
+    {
+        Long stringHash = CompactAuditValues.getSearchHash("/test/action/count", "42");
+        Long longHash = CompactAuditValues.getSearchHash("/test/action/count", 42L);
+        assertNotNull(stringHash);
+        assertNotNull(longHash);
+        assertFalse(stringHash.equals(longHash));
+        assertEquals(longHash, CompactAuditValues.getSearchHash("/test/action/count", 42L));
+        assertNull(CompactAuditValues.getSearchHash(null, null));
+        assertNull(CompactAuditValues.getSearchHash("/test/action/list", new ArrayList<String>()));
+    }
+}
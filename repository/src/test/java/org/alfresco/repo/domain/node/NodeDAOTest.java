@@ -29,7 +29,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -39,13 +41,18 @@ import org.alfresco.model.ContentModel;
 import org.alfresco.repo.cache.SimpleCache;
 import org.alfresco.repo.cache.TransactionalCache;
 import org.alfresco.repo.cache.TransactionalCache.ValueHolder;
+import org.alfresco.repo.domain.node.NodeDAO.ChildAssocRefQueryCallback;
 import org.alfresco.repo.domain.node.NodeDAO.NodeRefQueryCallback;
 import org.alfresco.repo.transaction.RetryingTransactionHelper;
 import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
 import org.alfresco.service.ServiceRegistry;
 import org.alfresco.service.cmr.dictionary.DataTypeDefinition;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.NodeService;
+import org.alfresco.service.cmr.repository.Path;
 import org.alfresco.service.cmr.repository.StoreRef;
+import org.alfresco.service.namespace.NamespaceService;
 import org.alfresco.service.namespace.QName;
 import org.alfresco.service.transaction.TransactionService;
 import org.alfresco.test_category.OwnJVMTestsCategory;
@@ -345,6 +352,161 @@ public class NodeDAOTest extends TestCase
         txnHelper.doInTransaction(callback, true);
     }
     
+    /**
+     * Parent associations loaded in bulk must match those loaded singly.
+     */
+    public void testCacheParentAssocs() throws Throwable
+    {
+        final NodeService nodeService = (NodeService) ctx.getBean("nodeService");
+        final String storeName = getName() + System.currentTimeMillis();
+        final List<NodeRef> nodeRefs = txnHelper.doInTransaction(() -> {
+            StoreRef storeRef = nodeService.createStore(StoreRef.PROTOCOL_WORKSPACE, storeName);
+            NodeRef rootNodeRef = nodeService.getRootNode(storeRef);
+            NodeRef folderA = createFolder(nodeService, rootNodeRef, ContentModel.ASSOC_CHILDREN, "a");
+            NodeRef folderB = createFolder(nodeService, rootNodeRef, ContentModel.ASSOC_CHILDREN, "b");
+            NodeRef folderC = createFolder(nodeService, folderA, ContentModel.ASSOC_CONTAINS, "c");
+            nodeService.addChild(folderB, folderC, ContentModel.ASSOC_CONTAINS, QName.createQName(NamespaceService.CONTENT_MODEL_1_0_URI, "link"));
+            return List.of(rootNodeRef, folderA, folderB, folderC);
+        }, false, true);
+
+        final List<Set<String>> singleParentAssocs = new ArrayList<Set<String>>();
+        for (NodeRef nodeRef : nodeRefs)
+        {
+            singleParentAssocs.add(getParentAssocStrings(nodeRef));
+        }
+        assertEquals(2, singleParentAssocs.get(3).size());
+
+        // Drop the cached parent associations and load them in bulk
+        nodeDAO.clear();
+        final List<Set<String>> bulkParentAssocs = txnHelper.doInTransaction(() -> {
+            List<Long> nodeIds = new ArrayList<Long>();
+            for (NodeRef nodeRef : nodeRefs)
+            {
+                nodeIds.add(nodeDAO.getNodePair(nodeRef).getFirst());
+            }
+            nodeDAO.setCheckNodeConsistency();
+            nodeDAO.cacheNodesById(nodeIds);
+            nodeDAO.cacheParentAssocs(nodeIds);
+            List<Set<String>> parentAssocs = new ArrayList<Set<String>>();
+            for (NodeRef nodeRef : nodeRefs)
+            {
+                parentAssocs.add(getParentAssocStrings(nodeRef));
+            }
+            return parentAssocs;
+        }, true);
+        assertEquals(singleParentAssocs, bulkParentAssocs);
+    }
+
+    private Set<String> getParentAssocStrings(final NodeRef nodeRef)
+    {
+        return txnHelper.doInTransaction(() -> {
+            final Set<String> parentAssocStrings = new HashSet<String>();
+            nodeDAO.getParentAssocs(nodeDAO.getNodePair(nodeRef).getFirst(), null, null, null, new ChildAssocRefQueryCallback()
+            {
+                @Override
+                public boolean preLoadNodes()
+                {
+                    return false;
+                }
+
+                @Override
+                public boolean orderResults()
+                {
+                    return false;
+                }
+
+                @Override
+                public boolean handle(Pair<Long, ChildAssociationRef> childAssocPair,
+                        Pair<Long, NodeRef> parentNodePair, Pair<Long, NodeRef> childNodePair)
+                {
+                    parentAssocStrings.add(childAssocPair.getSecond().toString());
+                    return true;
+                }
+
+                @Override
+                public void done()
+                {
+                }
+            });
+            return parentAssocStrings;
+        }, true);
+    }
+
+    /**
+     * The paths of nodes below a moved or renamed folder must follow the change, whether they are built singly or
+     * in bulk.
+     */
+    public void testPathsFollowMovesAndRenames() throws Throwable
+    {
+        final NodeService nodeService = (NodeService) ctx.getBean("nodeService");
+        final String storeName = getName() + System.currentTimeMillis();
+        final List<NodeRef> nodeRefs = txnHelper.doInTransaction(() -> {
+            StoreRef storeRef = nodeService.createStore(StoreRef.PROTOCOL_WORKSPACE, storeName);
+            NodeRef rootNodeRef = nodeService.getRootNode(storeRef);
+            NodeRef folderA = createFolder(nodeService, rootNodeRef, ContentModel.ASSOC_CHILDREN, "a");
+            NodeRef folderB = createFolder(nodeService, rootNodeRef, ContentModel.ASSOC_CHILDREN, "b");
+            NodeRef folderC = createFolder(nodeService, folderA, ContentModel.ASSOC_CONTAINS, "c");
+            NodeRef folderD = createFolder(nodeService, folderC, ContentModel.ASSOC_CONTAINS, "d");
+            nodeService.addChild(folderB, folderD, ContentModel.ASSOC_CONTAINS, QName.createQName(NamespaceService.CONTENT_MODEL_1_0_URI, "link"));
+            return List.of(folderA, folderB, folderC, folderD);
+        }, false, true);
+        final NodeRef folderB = nodeRefs.get(1);
+        final NodeRef folderC = nodeRefs.get(2);
+        final NodeRef folderD = nodeRefs.get(3);
+
+        assertEquals(Set.of("/{cm}a/{cm}c/{cm}d", "/{cm}b/{cm}link"), getPathStrings(folderD, false));
+        assertEquals(Set.of("/{cm}a/{cm}c/{cm}d"), getPathStrings(folderD, true));
+
+        // Move the middle folder to another parent under a new name
+        txnHelper.doInTransaction(() -> {
+            nodeService.moveNode(folderC, folderB, ContentModel.ASSOC_CONTAINS, QName.createQName(NamespaceService.CONTENT_MODEL_1_0_URI, "moved"));
+            // The paths seen by the moving transaction follow the move
+            assertEquals(Set.of("/{cm}b/{cm}moved/{cm}d", "/{cm}b/{cm}link"), getPathStrings(folderD, false));
+            return null;
+        }, false, true);
+        assertEquals(Set.of("/{cm}b/{cm}moved/{cm}d", "/{cm}b/{cm}link"), getPathStrings(folderD, false));
+        assertEquals(Set.of("/{cm}b/{cm}moved/{cm}d"), getPathStrings(folderD, true));
+
+        // The bulk call builds the same paths
+        Map<Long, List<Path>> pathsByNodeId = txnHelper.doInTransaction(() -> {
+            List<Long> nodeIds = new ArrayList<Long>();
+            for (NodeRef nodeRef : nodeRefs)
+            {
+                nodeIds.add(nodeDAO.getNodePair(nodeRef).getFirst());
+            }
+            return nodeDAO.getPaths(nodeIds, false);
+        }, true);
+        assertEquals(nodeRefs.size(), pathsByNodeId.size());
+        for (NodeRef nodeRef : nodeRefs)
+        {
+            Set<String> bulkPaths = new HashSet<String>();
+            Long nodeId = txnHelper.doInTransaction(() -> nodeDAO.getNodePair(nodeRef).getFirst(), true);
+            for (Path path : pathsByNodeId.get(nodeId))
+            {
+                bulkPaths.add(path.toString());
+            }
+            assertEquals(getPathStrings(nodeRef, false), bulkPaths);
+        }
+    }
+
+    private NodeRef createFolder(NodeService nodeService, NodeRef parentNodeRef, QName assocTypeQName, String name)
+    {
+        QName assocQName = QName.createQName(NamespaceService.CONTENT_MODEL_1_0_URI, name);
+        return nodeService.createNode(parentNodeRef, assocTypeQName, assocQName, ContentModel.TYPE_FOLDER).getChildRef();
+    }
+
+    private Set<String> getPathStrings(final NodeRef nodeRef, final boolean primaryOnly)
+    {
+        return txnHelper.doInTransaction(() -> {
+            Set<String> pathStrings = new HashSet<String>();
+            for (Path path : nodeDAO.getPaths(nodeDAO.getNodePair(nodeRef), primaryOnly))
+            {
+                pathStrings.add(path.toString().replace(NamespaceService.CONTENT_MODEL_1_0_URI, "cm"));
+            }
+            return pathStrings;
+        }, true);
+    }
+
     /**
      * Ensure that the {@link NodeEntity} values cached as root nodes are valid instances.
      * <p/>
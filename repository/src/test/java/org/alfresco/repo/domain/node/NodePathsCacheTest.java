@@ -0,0 +1,116 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.domain.node;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.cmr.repository.Path;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link NodePathsCache}.
+ */
+public class NodePathsCacheTest
+{
+    @Test
+    public void testEntryWeighsPathsAndParentAssocs()
+    {
+        ParentAssocsInfo parentAssocsInfo = createParentAssocsInfo(2);
+        Path path = new Path();
+        for (int i = 0; i < 3; i++)
+        {
+            path.append(createElement("node" + i));
+        }
+        NodePathsCache.Entry entry = new NodePathsCache.Entry(parentAssocsInfo, new NodePathsCache.Entry[0], Collections.singletonList(path));
+        assertEquals(1 + 2 + 3, entry.getWeight());
+    }
+
+    @Test
+    public void testEntryBuiltFromCurrentParents()
+    {
+        ParentAssocsInfo rootInfo = createParentAssocsInfo(0);
+        ParentAssocsInfo childInfo = createParentAssocsInfo(1);
+        NodePathsCache.Entry parentEntry = new NodePathsCache.Entry(rootInfo, new NodePathsCache.Entry[0], createPaths("root"));
+        NodePathsCache.Entry childEntry = new NodePathsCache.Entry(childInfo, new NodePathsCache.Entry[] {parentEntry}, createPaths("child"));
+        assertTrue(childEntry.isBuiltFrom(childInfo, new NodePathsCache.Entry[] {parentEntry}));
+
+        // A rebuilt parent entry invalidates the child even if the paths are the same
+        NodePathsCache.Entry rebuiltParentEntry = new NodePathsCache.Entry(rootInfo, new NodePathsCache.Entry[0], createPaths("root"));
+        assertFalse(childEntry.isBuiltFrom(childInfo, new NodePathsCache.Entry[] {rebuiltParentEntry}));
+
+        // So do new parent associations
+        assertFalse(childEntry.isBuiltFrom(createParentAssocsInfo(1), new NodePathsCache.Entry[] {parentEntry}));
+        assertFalse(childEntry.isBuiltFrom(childInfo, new NodePathsCache.Entry[0]));
+    }
+
+    @Test
+    public void testPutGetRemove()
+    {
+        NodePathsCache cache = new NodePathsCache(100, 16);
+        NodePathsCache.Entry entry = new NodePathsCache.Entry(createParentAssocsInfo(0), new NodePathsCache.Entry[0], createPaths("root"));
+        cache.put(1L, true, entry);
+        assertSame(entry, cache.get(1L, true));
+        assertNull(cache.get(1L, false));
+        cache.remove(1L);
+        assertNull(cache.get(1L, true));
+    }
+
+    private static ParentAssocsInfo createParentAssocsInfo(int parentCount)
+    {
+        List<ChildAssocEntity> assocs = new ArrayList<ChildAssocEntity>(parentCount);
+        for (long i = 0; i < parentCount; i++)
+        {
+            ChildAssocEntity assoc = new ChildAssocEntity();
+            assoc.setId(i);
+            assoc.setPrimary(i == 0);
+            assocs.add(assoc);
+        }
+        return new ParentAssocsInfo(parentCount == 0, false, assocs);
+    }
+
+    private static List<Path> createPaths(String name)
+    {
+        Path path = new Path();
+        path.append(createElement(name));
+        return Collections.singletonList(path);
+    }
+
+    private static Path.Element createElement(String name)
+    {
+        NodeRef nodeRef = new NodeRef("workspace://SpacesStore/" + name);
+        return new Path.ChildAssocElement(new ChildAssociationRef(null, null, null, nodeRef));
+    }
+}
@@ -44,8 +44,10 @@ import org.alfresco.model.ContentModel;
 import org.alfresco.repo.content.MimetypeMap;
 import org.alfresco.repo.domain.node.NodeDAO;
 import org.alfresco.repo.domain.node.NodeDAO.NodeRefQueryCallback;
+import org.alfresco.repo.domain.node.NodeIdAndAclId;
 import org.alfresco.repo.model.Repository;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.security.permissions.impl.AclChange;
 import org.alfresco.repo.security.permissions.impl.PermissionsDaoComponent;
 import org.alfresco.repo.transaction.RetryingTransactionHelper;
 import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
@@ -98,6 +100,7 @@ public class FixedAclUpdaterTest
     private PermissionsDaoComponent permissionsDaoComponent;
     private PermissionService permissionService;
     private NodeDAO nodeDAO;
+    private AclDAO aclDAO;
     private NodeRef homeFolderNodeRef;
     private LockService lockService;
     private CheckOutCheckInService checkOutCheckInService;
@@ -127,6 +130,7 @@ public class FixedAclUpdaterTest
         permissionsDaoComponent = (PermissionsDaoComponent) ctx.getBean("admPermissionsDaoComponent");
         permissionService = (PermissionService) ctx.getBean("permissionService");
         nodeDAO = (NodeDAO) ctx.getBean("nodeDAO");
+        aclDAO = (AclDAO) ctx.getBean("aclDAO");
         lockService = (LockService) ctx.getBean("lockService");
         checkOutCheckInService = (CheckOutCheckInService) ctx.getBean("checkOutCheckInService");
         contentService = (ContentService) ctx.getBean("contentService");
@@ -1514,6 +1518,136 @@ public class FixedAclUpdaterTest
         }
     }
 
+    /*
+     * Test propagating the shared ACL in batches without timing out
+     */
+    @Test
+    public void testSyncBatchedPropagation()
+    {
+        NodeRef folderRef = createFolderHierarchyInRootForFileTests("testSyncBatchedPropagationFolder");
+        ACLComparator aclComparator = new ACLComparator(folderRef);
+
+        try
+        {
+            setPropagationBatchSize(permissionsDaoComponent, homeFolderNodeRef, 10);
+            setFixedAclMaxTransactionTime(permissionsDaoComponent, homeFolderNodeRef, LARGE_TRANSACTION_TIME);
+            setPermissionsOnTree(folderRef, false, false);
+            aclComparator.compareACLs();
+
+            assertEquals("There are nodes pending", 0, getNodesCountWithPendingFixedAclAspect());
+        }
+        finally
+        {
+            setPropagationBatchSize(permissionsDaoComponent, homeFolderNodeRef, 0);
+            setFixedAclMaxTransactionTime(permissionsDaoComponent, homeFolderNodeRef, MAX_TRANSACTION_TIME_DEFAULT);
+            deleteNodes(folderRef);
+        }
+    }
+
+    /*
+     * Test propagating the shared ACL in batches, leaving the rest to the job when timing out
+     */
+    @Test
+    @RetryAtMost(3)
+    public void testAsyncBatchedPropagation()
+    {
+        NodeRef folderRef = createFolderHierarchyInRootForFolderTests("testAsyncBatchedPropagationFolder");
+        ACLComparator aclComparator = new ACLComparator(folderRef);
+
+        try
+        {
+            setPropagationBatchSize(permissionsDaoComponent, homeFolderNodeRef, 2);
+            setPermissionsOnTree(folderRef, true, true);
+
+            NodeRef folderWithPendingAcl = getFirstNodeWithAclPending(ContentModel.TYPE_FOLDER);
+            assertNotNull("No children folders were found with pendingFixACl aspect", folderWithPendingAcl);
+            ACLComparator aclComparatorForPending = new ACLComparator(folderWithPendingAcl);
+
+            triggerFixedACLJob();
+
+            aclComparator.updateCurrentACLs();
+            aclComparatorForPending.updateCurrentACLs();
+            assertEquals("Not all nodes were processed", 0, getNodesCountWithPendingFixedAclAspect());
+            assertEquals("Processed Pending ACL children doesn't have correct ACL", aclComparator.getChildAcl(),
+                    aclComparatorForPending.getChildAcl());
+            assertTrue("Children of Pending nodes doesn't have same permission as parent",
+                    aclComparatorForPending.firstChildHasOriginalPermission());
+        }
+        finally
+        {
+            setPropagationBatchSize(permissionsDaoComponent, homeFolderNodeRef, 0);
+            deleteNodes(folderRef);
+        }
+    }
+
+    /*
+     * Test that the batched propagation moves the same children as the recursion: only the children without an ACL or
+     * with the replaced shared ACL. Children that still have the parent's previous ACL are visited but keep it.
+     */
+    @Test
+    public void testBatchedPropagationMovesSameChildrenAsRecursion()
+    {
+        NodeRef recursiveFolderRef = createFolderHierarchyInRootForFileTests("testRecursivePropagationRuleFolder");
+        NodeRef batchedFolderRef = createFolderHierarchyInRootForFileTests("testBatchedPropagationRuleFolder");
+
+        try
+        {
+            setFixedAclMaxTransactionTime(permissionsDaoComponent, homeFolderNodeRef, LARGE_TRANSACTION_TIME);
+            assertChildrenKeepPreviousAcl(recursiveFolderRef, 0);
+            assertChildrenKeepPreviousAcl(batchedFolderRef, 10);
+        }
+        finally
+        {
+            setPropagationBatchSize(permissionsDaoComponent, homeFolderNodeRef, 0);
+            setFixedAclMaxTransactionTime(permissionsDaoComponent, homeFolderNodeRef, MAX_TRANSACTION_TIME_DEFAULT);
+            deleteNodes(recursiveFolderRef);
+            deleteNodes(batchedFolderRef);
+        }
+    }
+
+    /*
+     * Test processing the pending nodes as disjoint subtrees
+     */
+    @Test
+    @RetryAtMost(3)
+    public void testAsyncPartitioned()
+    {
+        NodeRef folderRef = createFolderHierarchyInRootForFolderTests("testAsyncPartitionedFolder");
+        ACLComparator aclComparator = new ACLComparator(folderRef);
+
+        try
+        {
+            setPermissionsOnTree(folderRef, true, true);
+            NodeRef folderWithPendingAcl = getFirstNodeWithAclPending(ContentModel.TYPE_FOLDER);
+            assertNotNull("No children folders were found with pendingFixACl aspect", folderWithPendingAcl);
+            ACLComparator aclComparatorForPending = new ACLComparator(folderWithPendingAcl);
+
+            fixedAclUpdater.setPartitioned(true);
+            int count = txnHelper.doInTransaction(() -> fixedAclUpdater.execute(), false, true);
+            assertTrue("No pending nodes were processed", count > 0);
+            assertTrue("No partitions were processed", fixedAclUpdater.getRound() > 0 && fixedAclUpdater.getPartitionCount() > 0);
+            assertEquals("Partitions still active after the job", 0, fixedAclUpdater.getActivePartitionCount());
+
+            // Pick up anything left pending by concurrent activity
+            triggerFixedACLJob();
+            assertEquals("Not all nodes were processed", 0, getNodesCountWithPendingFixedAclAspect());
+
+            aclComparator.updateCurrentACLs();
+            aclComparatorForPending.updateCurrentACLs();
+            assertEquals("Processed Pending ACL children doesn't have correct ACL", aclComparator.getChildAcl(),
+                    aclComparatorForPending.getChildAcl());
+            assertTrue("Pending nodes doesn't have same permission as parent",
+                    aclComparatorForPending.parentHasOriginalPermission());
+            assertTrue("Children of Pending nodes doesn't have same permission as parent",
+                    aclComparatorForPending.firstChildHasOriginalPermission());
+        }
+        finally
+        {
+            fixedAclUpdater.setPartitioned(false);
+            deleteNodes(folderRef);
+        }
+    }
+
     private Long getChild(Long parentId)
     {
         List<FileInfo> children = fileFolderService.list(nodeDAO.getNodePair(parentId).getSecond());
@@ -1595,6 +1729,51 @@ public class FixedAclUpdaterTest
         }
     }
 
+    /**
+     * Propagates a new shared ACL from the folder, replacing an ACL that none of its children have, and checks that
+     * the children keep the folder's previous ACL.
+     */
+    private void assertChildrenKeepPreviousAcl(NodeRef folderRef, int propagationBatchSize)
+    {
+        setPropagationBatchSize(permissionsDaoComponent, homeFolderNodeRef, propagationBatchSize);
+        txnHelper.doInTransaction((RetryingTransactionCallback<Void>) () -> {
+            Long folderId = nodeDAO.getNodePair(folderRef).getFirst();
+            Long previousAcl = nodeDAO.getNodeAclId(folderId);
+
+            NodeRef definingFolderRef = createFile(fileFolderService, homeFolderNodeRef, "definingFolder", ContentModel.TYPE_FOLDER);
+            permissionService.setInheritParentPermissions(definingFolderRef, false);
+            Long definingAcl = nodeDAO.getNodeAclId(nodeDAO.getNodePair(definingFolderRef).getFirst());
+            Long newSharedAcl = aclDAO.getInheritedAccessControlList(definingAcl);
+
+            ADMAccessControlListDAO accessControlListDAO = (ADMAccessControlListDAO) ((ADMPermissionsDaoComponentImpl) permissionsDaoComponent)
+                    .getACLDAO(folderRef);
+            accessControlListDAO.setFixedAcls(folderId, definingAcl, newSharedAcl, definingAcl, new ArrayList<AclChange>(), true,
+                    false, true, false);
+
+            assertEquals("The folder did not get the new shared ACL", newSharedAcl, nodeDAO.getNodeAclId(folderId));
+            for (NodeIdAndAclId child : nodeDAO.getPrimaryChildrenAcls(folderId))
+            {
+                assertEquals("A child with the folder's previous ACL was moved", previousAcl,
+                        nodeDAO.getNodeAclId(child.getId()));
+            }
+            fileFolderService.delete(definingFolderRef);
+            return null;
+        }, false, true);
+    }
+
+    private static void setPropagationBatchSize(PermissionsDaoComponent permissionsDaoComponent, NodeRef folderNodeRef,
+            int propagationBatchSize)
+    {
+        if (permissionsDaoComponent instanceof ADMPermissionsDaoComponentImpl)
+        {
+            AccessControlListDAO acldao = ((ADMPermissionsDaoComponentImpl) permissionsDaoComponent).getACLDAO(folderNodeRef);
+            if (acldao instanceof ADMAccessControlListDAO)
+            {
+                ((ADMAccessControlListDAO) acldao).setPropagationBatchSize(propagationBatchSize);
+            }
+        }
+    }
+
     private static void setACL(PermissionsDaoComponent permissionsDaoComponent, NodeRef nodeRef, long aclId)
     {
         if (permissionsDaoComponent instanceof ADMPermissionsDaoComponentImpl)
@@ -27,24 +27,28 @@ package org.alfresco.repo.event2;
 
 import static java.lang.Thread.sleep;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.alfresco.repo.event.v1.model.RepoEvent;
+import org.alfresco.repo.event2.EnqueuingEventSender.OverflowStrategy;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -71,7 +75,7 @@ public class EnqueuingEventSenderUnitTest
         eventSender = new EnqueuingEventSender(bus, enqueuePool, dequeuePool);
         eventSender.initialize();
 
-        events = new HashMap<>();
+        events = new ConcurrentHashMap<>();
 
         setupEventsRecorder();
     }
@@ -215,6 +219,134 @@ public class EnqueuingEventSenderUnitTest
         assertEquals("C", recordedEvents.get(1).getId());
     }
 
+    @Test
+    public void shouldDropEventsWhenQueueIsFull() throws Exception
+    {
+        List<String> sent = new CopyOnWriteArrayList<>();
+        Semaphore sends = new Semaphore(0);
+        CountDownLatch sendingA = new CountDownLatch(1);
+        CountDownLatch releaseA = new CountDownLatch(1);
+        recordSends(sent, sends, sendingA, releaseA);
+
+        EnqueuingEventSender sender = newBoundedSender(2, OverflowStrategy.DROP);
+        // A holds the listener, B and C fill the queue
+        sender.accept(messageWithDelay("A", 0l));
+        assertTrue(sendingA.await(5, TimeUnit.SECONDS));
+        sender.accept(messageWithDelay("B", 0l));
+        sender.accept(messageWithDelay("C", 0l));
+        sender.accept(messageWithDelay("D", 0l));
+        assertEquals(1, sender.getDroppedCount());
+
+        releaseA.countDown();
+        assertTrue(sends.tryAcquire(3, 5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("A", "B", "C"), sent);
+        assertEquals(1, sender.getDroppedCount());
+        assertEquals(0, sender.getQueueDepth());
+    }
+
+    @Test
+    public void shouldSpillEventsWhenQueueIsFullPreservingOrder() throws Exception
+    {
+        List<String> sent = new CopyOnWriteArrayList<>();
+        Semaphore sends = new Semaphore(0);
+        CountDownLatch sendingA = new CountDownLatch(1);
+        CountDownLatch releaseA = new CountDownLatch(1);
+        recordSends(sent, sends, sendingA, releaseA);
+        when(bus.toJson(any())).thenAnswer(invocation -> invocation.getArgument(0).toString());
+
+        EnqueuingEventSender sender = newBoundedSender(2, OverflowStrategy.SPILL);
+        // A holds the listener, B and C fill the queue, so D is spilled
+        sender.accept(messageWithDelay("A", 0l));
+        assertTrue(sendingA.await(5, TimeUnit.SECONDS));
+        sender.accept(messageWithDelay("B", 0l));
+        sender.accept(messageWithDelay("C", 0l));
+        CountDownLatch makingD = new CountDownLatch(1);
+        CountDownLatch releaseD = new CountDownLatch(1);
+        Thread spiller = new Thread(() -> sender.accept(messageAwaiting("D", makingD, releaseD)));
+        spiller.start();
+        assertTrue(makingD.await(5, TimeUnit.SECONDS));
+
+        // the queue drains while D is still being made, but E must follow D
+        releaseA.countDown();
+        assertTrue(sends.tryAcquire(3, 5, TimeUnit.SECONDS));
+        assertEquals(0, sender.getQueueDepth());
+        sender.accept(messageWithDelay("E", 0l));
+        assertEquals(List.of("A", "B", "C"), sent);
+        assertEquals(2, sender.getSpillDepth());
+
+        releaseD.countDown();
+        spiller.join(5000l);
+        assertTrue(sends.tryAcquire(2, 5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("A", "B", "C", "D", "E"), sent);
+        assertEquals(2, sender.getSpilledCount());
+        assertEquals(0, sender.getDroppedCount());
+        assertEquals(0, sender.getSpillDepth());
+    }
+
+    @Test
+    public void shouldSpillInOrderEventsMadeOutOfOrder() throws Exception
+    {
+        List<String> sent = new CopyOnWriteArrayList<>();
+        Semaphore sends = new Semaphore(0);
+        CountDownLatch sendingA = new CountDownLatch(1);
+        CountDownLatch releaseA = new CountDownLatch(1);
+        recordSends(sent, sends, sendingA, releaseA);
+        when(bus.toJson(any())).thenAnswer(invocation -> invocation.getArgument(0).toString());
+
+        EnqueuingEventSender sender = newBoundedSender(1, OverflowStrategy.SPILL);
+        // A holds the listener and B fills the queue, so C and D are spilled
+        sender.accept(messageWithDelay("A", 0l));
+        assertTrue(sendingA.await(5, TimeUnit.SECONDS));
+        sender.accept(messageWithDelay("B", 0l));
+        CountDownLatch makingC = new CountDownLatch(1);
+        CountDownLatch releaseC = new CountDownLatch(1);
+        Thread spiller = new Thread(() -> sender.accept(messageAwaiting("C", makingC, releaseC)));
+        spiller.start();
+        assertTrue(makingC.await(5, TimeUnit.SECONDS));
+        // D is made first but waits for C
+        sender.accept(messageWithDelay("D", 0l));
+        assertEquals(0, sender.getSpilledCount());
+
+        releaseA.countDown();
+        releaseC.countDown();
+        spiller.join(5000l);
+        assertTrue(sends.tryAcquire(4, 5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("A", "B", "C", "D"), sent);
+        assertEquals(2, sender.getSpilledCount());
+        assertEquals(0, sender.getSpillDepth());
+    }
+
+    /**
+     * Records the sent events by id, holding the listener in the send of A until released.
+     */
+    private void recordSends(List<String> sent, Semaphore sends, CountDownLatch sendingA, CountDownLatch releaseA)
+    {
+        Mockito.doAnswer(invocation -> {
+            String id = invocation.getArgument(0).toString();
+            if (id.equals("A"))
+            {
+                sendingA.countDown();
+                releaseA.await(5, TimeUnit.SECONDS);
+            }
+            sent.add(id);
+            sends.release();
+            return null;
+        }).when(bus).send(any());
+    }
+
+    private EnqueuingEventSender newBoundedSender(int queueCapacity, OverflowStrategy overflowStrategy)
+    {
+        EnqueuingEventSender sender = new EnqueuingEventSender(bus, enqueuePool, dequeuePool);
+        sender.setQueueCapacity(queueCapacity);
+        sender.setOverflowStrategy(overflowStrategy);
+        sender.setSendBatchSize(1);
+        sender.initialize();
+        return sender;
+    }
+
     private Callable<Optional<RepoEvent<?>>> messageWithDelay(String id, long delay)
     {
         return new Callable<Optional<RepoEvent<?>>>()
@@ -237,6 +369,26 @@ public class EnqueuingEventSenderUnitTest
         };
     }
     
+    private Callable<Optional<RepoEvent<?>>> messageAwaiting(String id, CountDownLatch making, CountDownLatch release)
+    {
+        return new Callable<Optional<RepoEvent<?>>>()
+        {
+            @Override
+            public Optional<RepoEvent<?>> call() throws Exception
+            {
+                making.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return Optional.of(newRepoEvent(id));
+            }
+
+            @Override
+            public String toString()
+            {
+                return id;
+            }
+        };
+    }
+
     private RepoEvent<?> newRepoEvent(String id)
     {
         RepoEvent<?> ev = events.get(id);
@@ -389,6 +389,126 @@ public class GetChildrenCannedQueryTest extends TestCase
         }
     }
     
+    public void testKeysetPaging() throws Exception
+    {
+        NodeRef parentNodeRef = getOrCreateParentTestFolder("GetChildrenCannedQueryTest-"+TEST_RUN_ID);
+        
+        // unsorted - seeks on child node id
+        keysetPageAndCheck(parentNodeRef, null);
+        
+        // sorted - seeks on sort values then child node id
+        List<Pair<QName, Boolean>> sortPairs = new ArrayList<Pair<QName, Boolean>>(2);
+        sortPairs.add(new Pair<QName, Boolean>(ContentModel.PROP_TITLE, false));
+        sortPairs.add(new Pair<QName, Boolean>(ContentModel.PROP_NAME, true));
+        keysetPageAndCheck(parentNodeRef, sortPairs);
+        
+        // sorted by name, folders first (default listing) - ordered and sought by the query itself
+        sortPairs = new ArrayList<Pair<QName, Boolean>>(2);
+        sortPairs.add(new Pair<QName, Boolean>(GetChildrenCannedQuery.SORT_QNAME_NODE_IS_FOLDER, false));
+        sortPairs.add(new Pair<QName, Boolean>(ContentModel.PROP_NAME, true));
+        keysetPageAndCheck(parentNodeRef, sortPairs);
+        
+        // sorted by name, folders last and descending
+        sortPairs = new ArrayList<Pair<QName, Boolean>>(2);
+        sortPairs.add(new Pair<QName, Boolean>(GetChildrenCannedQuery.SORT_QNAME_NODE_IS_FOLDER, true));
+        sortPairs.add(new Pair<QName, Boolean>(ContentModel.PROP_NAME, false));
+        keysetPageAndCheck(parentNodeRef, sortPairs);
+        
+        // sorted by name only
+        keysetPageAndCheck(parentNodeRef, Collections.singletonList(new Pair<QName, Boolean>(ContentModel.PROP_NAME, true)));
+    }
+    
+    private void keysetPageAndCheck(NodeRef parentNodeRef, List<Pair<QName, Boolean>> sortProps)
+    {
+        List<NodeRef> expected = list(parentNodeRef, -1, -1, 0, null, null, sortProps).getPage();
+        int pageSize = 3;
+        assertTrue(expected.size() > pageSize);
+        
+        boolean byName = (sortProps != null) && sortProps.get(sortProps.size() - 1).getFirst().equals(ContentModel.PROP_NAME) &&
+                         ((sortProps.size() == 1) || sortProps.get(0).getFirst().equals(GetChildrenCannedQuery.SORT_QNAME_NODE_IS_FOLDER));
+        if (byName)
+        {
+            // names are compared by the database (rather than by collation) so compare with a single keyset page
+            List<NodeRef> listed = listKeyset(parentNodeRef, null, expected.size(), sortProps).getFirst();
+            assertEquals(new HashSet<NodeRef>(expected), new HashSet<NodeRef>(listed));
+            assertEquals(expected.size(), listed.size());
+            if (sortProps.size() > 1)
+            {
+                checkFolderGroups(listed, ! sortProps.get(0).getSecond());
+            }
+            expected = listed;
+        }
+        
+        List<NodeRef> actual = new ArrayList<NodeRef>(expected.size());
+        String cursor = null;
+        do
+        {
+            Pair<List<NodeRef>, String> page = listKeyset(parentNodeRef, cursor, pageSize, sortProps);
+            assertTrue(page.getFirst().size() <= pageSize);
+            actual.addAll(page.getFirst());
+            cursor = page.getSecond();
+        }
+        while (cursor != null);
+        
+        if (sortProps == null)
+        {
+            // the full listing is not ordered so only compare content
+            assertEquals(new HashSet<NodeRef>(expected), new HashSet<NodeRef>(actual));
+            assertEquals(expected.size(), actual.size());
+        }
+        else
+        {
+            assertEquals(expected, actual);
+        }
+    }
+    
+    private void checkFolderGroups(List<NodeRef> nodeRefs, boolean foldersFirst)
+    {
+        boolean secondGroup = false;
+        for (NodeRef nodeRef : nodeRefs)
+        {
+            boolean isFolder = dictionaryService.isSubClass(nodeService.getType(nodeRef), ContentModel.TYPE_FOLDER);
+            if (isFolder != foldersFirst)
+            {
+                secondGroup = true;
+            }
+            else
+            {
+                assertFalse("Folders not grouped: "+nodeRefs, secondGroup);
+            }
+        }
+    }
+    
+    // test helper method - returns the page and the cursor after it (null if there are no more items)
+    // note: a null afterCursor requests the first page
+    private Pair<List<NodeRef>, String> listKeyset(NodeRef parentNodeRef, String afterCursor, final int maxItems, List<Pair<QName, Boolean>> sortProps)
+    {
+        PagingRequest pagingRequest = new PagingRequest(0, maxItems, null);
+        pagingRequest.setKeysetPaging(true);
+        pagingRequest.setAfterCursor(afterCursor);
+        
+        GetChildrenCannedQueryFactory getChildrenCannedQueryFactory = (GetChildrenCannedQueryFactory)cannedQueryRegistry.getNamedObject(CQ_FACTORY_NAME);
+        final GetChildrenCannedQuery cq = (GetChildrenCannedQuery)getChildrenCannedQueryFactory.getCannedQuery(parentNodeRef, null, null, null, null, null, null, sortProps, pagingRequest);
+        
+        RetryingTransactionCallback<Pair<List<NodeRef>, String>> callback = new RetryingTransactionCallback<Pair<List<NodeRef>, String>>()
+        {
+            @Override
+            public Pair<List<NodeRef>, String> execute() throws Throwable
+            {
+                CannedQueryResults<NodeRef> results = cq.execute();
+                List<NodeRef> nodeRefs = results.getPages().get(0);
+                String nextCursor = null;
+                if (results.hasMoreItems())
+                {
+                    nextCursor = cq.getCursorAfter(nodeRefs.get(nodeRefs.size() - 1));
+                    assertNotNull(nextCursor);
+                }
+                return new Pair<List<NodeRef>, String>(nodeRefs, nextCursor);
+            }
+        };
+        return transactionService.getRetryingTransactionHelper().doInTransaction(callback, true);
+    }
+    
     public void testTypeFiltering() throws Exception
     {
         NodeRef parentNodeRef = getOrCreateParentTestFolder("GetChildrenCannedQueryTest-"+TEST_RUN_ID);
@@ -0,0 +1,111 @@
+/*
+ * #%L
+ * Alfresco Repository
+ * %%
+ * Copyright (C) 2005 - 2024 Alfresco Software Limited
+ * %%
+ * This file is part of the Alfresco software.
+ * If the software was purchased under a paid Alfresco license, the terms of
+ * the paid license agreement will prevail.  Otherwise, the software is
+ * provided under the following open source license terms:
+ *
+ * Alfresco is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Alfresco is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Alfresco. If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+package org.alfresco.repo.node.getchildren;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.alfresco.model.ContentModel;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link GetChildrenCursor}.
+ */
+public class GetChildrenCursorTest
+{
+    @Test
+    public void testRoundTrip()
+    {
+        List<Serializable> sortValues = Arrays.<Serializable> asList(
+                Boolean.FALSE, "folder Ä/1", new Date(1234567890123L), 42L, 7, ContentModel.TYPE_FOLDER, 2.5d, 1.25f, null);
+        GetChildrenCursor cursor = new GetChildrenCursor(sortValues, 987654321L);
+
+        String encoded = cursor.encode();
+        assertTrue("Cursor must be URL safe: " + encoded, encoded.matches("[A-Za-z0-9_-]+"));
+
+        GetChildrenCursor decoded = GetChildrenCursor.decode(encoded);
+        assertEquals(sortValues, decoded.getSortValues());
+        assertEquals(987654321L, decoded.getNodeId());
+    }
+
+    @Test
+    public void testRoundTripWithoutSortValues()
+    {
+        GetChildrenCursor decoded = GetChildrenCursor.decode(new GetChildrenCursor(Collections.<Serializable> emptyList(), 5L).encode());
+        assertTrue(decoded.getSortValues().isEmpty());
+        assertEquals(5L, decoded.getNodeId());
+    }
+
+    @Test
+    public void testDifferentPositionsEncodeDifferently()
+    {
+        List<Serializable> sortValues = Arrays.<Serializable> asList("a");
+        assertFalse(new GetChildrenCursor(sortValues, 1L).encode().equals(new GetChildrenCursor(sortValues, 2L).encode()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGarbageRejected()
+    {
+        GetChildrenCursor.decode("not a cursor!");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedRejected()
+    {
+        String encoded = new GetChildrenCursor(Arrays.<Serializable> asList("abc"), 10L).encode();
+        GetChildrenCursor.decode(encoded.substring(0, encoded.length() - 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrailingBytesRejected()
+    {
+        String encoded = new GetChildrenCursor(Collections.<Serializable> emptyList(), 10L).encode();
+        GetChildrenCursor.decode(encoded + "AAAA");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedSortTypeRejected()
+    {
+        new GetChildrenCursor(Arrays.<Serializable> asList(new StringBuilder("x")), 1L).encode();
+    }
+
+    @Test
+    public void testSupportedSortTypes()
+    {
+        assertTrue(GetChildrenCursor.isSupported(null));
+        assertTrue(GetChildrenCursor.isSupported(3.0d));
+        assertTrue(GetChildrenCursor.isSupported(3.0f));
+        assertFalse(GetChildrenCursor.isSupported(new BigDecimal("3.0")));
+    }
+}
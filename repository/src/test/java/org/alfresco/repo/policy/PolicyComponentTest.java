@@ -25,9 +25,12 @@
  */
 package org.alfresco.repo.policy;
 
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import junit.framework.TestCase;
@@ -60,6 +63,10 @@ public class PolicyComponentTest extends TestCase
     private static QName INVALID_TYPE = QName.createQName(TEST_NAMESPACE, "classdoesnotexist");
 
     private PolicyComponent policyComponent = null;
+    
+    // Used by the compiled dispatch behaviours
+    private List<String> invocations = new ArrayList<String>();
+    private TestClassPolicy reentrantPolicy = null;
 
 
     @Override
@@ -292,6 +299,131 @@ public class PolicyComponentTest extends TestCase
     }
     
     
+    public void testCompiledClassDelegate()
+    {
+        ((PolicyComponentImpl)policyComponent).setDispatchMode(PolicyComponentImpl.DispatchMode.COMPILED);
+        try
+        {
+            // Register Policy
+            ClassPolicyDelegate<TestClassPolicy> delegate = policyComponent.registerClassPolicy(TestClassPolicy.class);
+            
+            // Bind Behaviours, the same behaviour twice
+            QName policyName = QName.createQName(TEST_NAMESPACE, "test");
+            policyComponent.bindClassBehaviour(policyName, FILE_TYPE, new JavaBehaviour(this, "recordFileTest"));
+            policyComponent.bindClassBehaviour(policyName, TEST_ASPECT, new JavaBehaviour(this, "recordAspectTest"));
+            policyComponent.bindClassBehaviour(policyName, FOLDER_TYPE, new JavaBehaviour(this, "recordAspectTest"));
+            
+            // Test NOOP Policy
+            Set<QName> classes = new HashSet<QName>();
+            classes.add(BASE_TYPE);
+            TestClassPolicy basePolicy = delegate.get(classes);
+            assertFalse(Proxy.isProxyClass(basePolicy.getClass()));
+            assertNull(basePolicy.test("base"));
+            assertTrue(invocations.isEmpty());
+            
+            // Test single Policy
+            classes.add(FILE_TYPE);
+            TestClassPolicy filePolicy = delegate.get(classes);
+            assertFalse(Proxy.isProxyClass(filePolicy.getClass()));
+            assertEquals("File: file", filePolicy.test("file"));
+            assertEquals(1, invocations.size());
+            
+            // Test multi Policy, which invokes each distinct behaviour once
+            invocations.clear();
+            classes.add(TEST_ASPECT);
+            classes.add(FOLDER_TYPE);
+            TestClassPolicy multiPolicy = delegate.get(classes);
+            assertFalse(Proxy.isProxyClass(multiPolicy.getClass()));
+            multiPolicy.test("multi");
+            assertEquals(2, invocations.size());
+            assertTrue(invocations.contains("File: multi"));
+            assertTrue(invocations.contains("Aspect: multi"));
+        }
+        finally
+        {
+            ((PolicyComponentImpl)policyComponent).setDispatchMode(PolicyComponentImpl.DispatchMode.PROXY);
+        }
+    }
+    
+    
+    public void testCompiledObjectMethods()
+    {
+        // Register Policy
+        ClassPolicyDelegate<TestClassPolicy> delegate = policyComponent.registerClassPolicy(TestClassPolicy.class);
+        QName policyName = QName.createQName(TEST_NAMESPACE, "test");
+        policyComponent.bindClassBehaviour(policyName, FILE_TYPE, new JavaBehaviour(this, "recordFileTest"));
+        policyComponent.bindClassBehaviour(policyName, TEST_ASPECT, new JavaBehaviour(this, "recordAspectTest"));
+        Set<QName> fileClasses = new HashSet<QName>();
+        fileClasses.add(FILE_TYPE);
+        Set<QName> multiClasses = new HashSet<QName>(fileClasses);
+        multiClasses.add(TEST_ASPECT);
+        
+        TestClassPolicy proxyFilePolicy = delegate.get(fileClasses);
+        assertTrue(Proxy.isProxyClass(proxyFilePolicy.getClass()));
+        
+        ((PolicyComponentImpl)policyComponent).setDispatchMode(PolicyComponentImpl.DispatchMode.COMPILED);
+        try
+        {
+            // A single policy is equal to the proxy and to the other aggregates of the same behaviour
+            TestClassPolicy filePolicy = delegate.get(fileClasses);
+            assertFalse(Proxy.isProxyClass(filePolicy.getClass()));
+            assertEquals(filePolicy, delegate.get(fileClasses));
+            assertEquals(filePolicy.hashCode(), delegate.get(fileClasses).hashCode());
+            assertEquals(proxyFilePolicy, filePolicy);
+            assertEquals(filePolicy, proxyFilePolicy);
+            assertEquals(proxyFilePolicy.hashCode(), filePolicy.hashCode());
+            assertTrue(filePolicy.toString().endsWith(": wrapped 1 policy"));
+            
+            // Multi policies are only equal to themselves
+            TestClassPolicy multiPolicy = delegate.get(multiClasses);
+            assertEquals(multiPolicy, multiPolicy);
+            assertFalse(multiPolicy.equals(delegate.get(multiClasses)));
+            assertFalse(multiPolicy.equals(filePolicy));
+            assertFalse(filePolicy.equals(multiPolicy));
+            assertTrue(multiPolicy.toString().endsWith(": wrapped 2 policies"));
+        }
+        finally
+        {
+            ((PolicyComponentImpl)policyComponent).setDispatchMode(PolicyComponentImpl.DispatchMode.PROXY);
+        }
+    }
+    
+    
+    public void testCompiledBehaviourGuard()
+    {
+        ((PolicyComponentImpl)policyComponent).setDispatchMode(PolicyComponentImpl.DispatchMode.COMPILED);
+        try
+        {
+            ClassPolicyDelegate<TestClassPolicy> delegate = policyComponent.registerClassPolicy(TestClassPolicy.class);
+            QName policyName = QName.createQName(TEST_NAMESPACE, "test");
+            policyComponent.bindClassBehaviour(policyName, FILE_TYPE, new JavaBehaviour(this, "reentrantTest"));
+            Set<QName> classes = new HashSet<QName>();
+            classes.add(FILE_TYPE);
+            reentrantPolicy = delegate.get(classes);
+            
+            // The behaviour is disabled while it runs, so the nested call is skipped
+            assertEquals("Reentrant: null", reentrantPolicy.test("outer"));
+            assertEquals(1, invocations.size());
+            
+            // Exceptions are not wrapped and the behaviour is enabled again afterwards
+            try
+            {
+                reentrantPolicy.test("fail");
+                fail("Failed to propagate behaviour exception");
+            }
+            catch (IllegalStateException e)
+            {
+                assertEquals("fail", e.getMessage());
+            }
+            assertEquals("Reentrant: null", reentrantPolicy.test("again"));
+        }
+        finally
+        {
+            ((PolicyComponentImpl)policyComponent).setDispatchMode(PolicyComponentImpl.DispatchMode.PROXY);
+        }
+    }
+    
+    
     public void testClassCache()
     {
         // Register Policy
@@ -629,4 +761,28 @@ public class PolicyComponentTest extends TestCase
         return "Service: " + argument;
     }
     
+    public String recordFileTest(String argument)
+    {
+        String result = "File: " + argument;
+        invocations.add(result);
+        return result;
+    }
+    
+    public String recordAspectTest(String argument)
+    {
+        String result = "Aspect: " + argument;
+        invocations.add(result);
+        return result;
+    }
+    
+    public String reentrantTest(String argument)
+    {
+        if (argument.equals("fail"))
+        {
+            throw new IllegalStateException(argument);
+        }
+        invocations.add(argument);
+        return "Reentrant: " + reentrantPolicy.test("inner");
+    }
+    
 }
@@ -210,6 +210,21 @@ public class DBQueryEngineTest
         assertEquals(0, result.length());
         verify(resultContext).stop();
     }
+
+    @Test
+    public void shouldRecordPermissionChecksOnTheReturnedResultSet()
+    {
+        withMaxItems(10);
+        prepareTemplate(dbQuery, createNodes(4));
+        when(assessor.isIncluded(any(Node.class))).thenReturn(true);
+        when(assessor.getChecksPerformed()).thenReturn(4);
+        when(assessor.getChecksSaved()).thenReturn(3);
+
+        FilteringResultSet result = engine.acceleratedNodeSelection(options, dbQuery, assessor);
+
+        assertEquals(4, result.getPermissionChecksPerformed());
+        assertEquals(3, result.getPermissionChecksSaved());
+    }
     
     private void prepareTemplate(DBQuery dbQuery, List<Node> nodes)
     {
@@ -25,12 +25,15 @@
  */
 package org.alfresco.repo.search.impl.querymodel.impl.db;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Set;
@@ -48,6 +51,7 @@ import org.junit.Test;
 public class NodePermissionAssessorPermissionsTest
 {
     private PermissionService permissionService;
+    private Authority assessorAuthority;
     
     @Before
     public void setup()
@@ -90,6 +94,38 @@ public class NodePermissionAssessorPermissionsTest
         assertFalse(included);
     }
 
+    @Test
+    public void shouldEvaluateEachAclOnce()
+    {
+        // setup
+        AuthenticationUtil.setRunAsUser("someUser");
+        when(permissionService.getAuthorisations()).thenReturn(Set.of("someUser"));
+        when(permissionService.getReaders(1L)).thenReturn(Set.of("someUser"));
+        when(permissionService.getReaders(2L)).thenReturn(Set.of());
+        when(permissionService.getReadersDenied(anyLong())).thenReturn(Set.of());
+        Node readable = mock(Node.class);
+        when(readable.getAclId()).thenReturn(1L);
+        Node unreadable = mock(Node.class);
+        when(unreadable.getAclId()).thenReturn(2L);
+        NodePermissionAssessor assessor = createAssessor();
+        when(assessor.isOwnerReading(any(Node.class), any(Authority.class))).thenReturn(false);
+
+        // call the assessor
+        for (int i = 0; i < 3; i++)
+        {
+            assertTrue(assessor.isIncluded(readable));
+            assertFalse(assessor.isIncluded(unreadable));
+        }
+
+        // each ACL was evaluated once, but unreadable nodes are still checked for ownership
+        assertEquals(6, assessor.getChecksPerformed());
+        assertEquals(2, assessor.getAclEvaluations());
+        assertEquals(4, assessor.getChecksSaved());
+        verify(permissionService, times(1)).getReaders(1L);
+        verify(permissionService, times(1)).getReaders(2L);
+        verify(assessor, times(3)).isOwnerReading(unreadable, assessorAuthority);
+    }
+
     @Test
     public void shouldIsOwnerReadingReturnFalseWhenTheAuthorityIsNull()
     {
@@ -104,8 +140,8 @@ public class NodePermissionAssessorPermissionsTest
     private NodePermissionAssessor createAssessor()
     {
         NodeService nodeService = mock(NodeService.class);
-        Authority authority = mock(Authority.class);
+        assessorAuthority = mock(Authority.class);
         EntityLookupCache<Long, Node, NodeRef> nodeCache = mock(EntityLookupCache.class);
-        return spy(new NodePermissionAssessor(nodeService, permissionService, authority, nodeCache));
+        return spy(new NodePermissionAssessor(nodeService, permissionService, assessorAuthority, nodeCache));
     }
 }
@@ -25,15 +25,25 @@
  */
 package org.alfresco.repo.search.impl.solr;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
 import org.alfresco.repo.domain.node.NodeDAO;
 import org.alfresco.repo.search.impl.solr.facet.facetsresponse.GenericFacetResponse;
+import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.repository.NodeService;
 import org.alfresco.service.cmr.search.LimitBy;
 import org.alfresco.service.cmr.search.SearchParameters;
+import org.alfresco.util.Pair;
 import org.alfresco.util.testing.category.LuceneTests;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -341,6 +351,43 @@ public class SolrJSONResultTest
             + "    \"lastIndexedTxTime\":1698923805438\r\n"
             + " }";
 
+    private static final String SEARCH_JSON = "{"
+            + "\"responseHeader\":{\"status\":0,\"QTime\":3,\"params\":{\"q\":\"x\",\"fq\":[\"a\",\"b\"]}},"
+            + "\"response\":{\"numFound\":12,\"start\":0,\"maxScore\":2.5,\"docs\":["
+            + "{\"DBID\":[1],\"score\":2.5},"
+            + "{\"DBID\":3,\"score\":1.0},"
+            + "{\"id\":\"_DEFAULT_!2\",\"DBID\":2,\"score\":0.5}]},"
+            + "\"lastIndexedTx\":42,"
+            + "\"processedDenies\":true,"
+            + "\"highlighting\":{"
+            + "\"_DEFAULT_!1\":{\"DBID\":1,\"cm:name\":[\"<em>alpha</em>\",\"<em>alpha</em>s\"]},"
+            + "\"_DEFAULT_!3\":{\"DBID\":3,\"cm:name\":[\"gone\"]}},"
+            + "\"facet_counts\":{"
+            + "\"facet_queries\":{\"cm:name:alpha\":4},"
+            + "\"facet_fields\":{\"cm:creator\":[\"admin\",7,null,2]},"
+            + "\"facet_intervals\":{\"cm:created\":{\"before\":3,\"after\":9}},"
+            + "\"facet_ranges\":{\"cm:content.size\":{\"counts\":[\"0\",2,\"100\",1],\"gap\":100,\"start\":0,\"end\":200}},"
+            + "\"facet_heatmaps\":{}},"
+            + "\"stats\":{\"stats_fields\":{\"cm:content.size\":{\"min\":1.0,\"max\":99.0,\"count\":3,\"sum\":120.0}}},"
+            + "\"spellcheck\":{\"didYouMean\":[\"alpha\",\"beta\"]}"
+            + "}";
+
+    private static final String OBJECT_SHAPED_JSON = "{"
+            + "\"response\":{\"numFound\":2,\"start\":0,\"docs\":[{\"DBID\":1,\"score\":1.0},{\"DBID\":2,\"score\":0.5}]},"
+            + "\"highlighting\":{"
+            + "\"_DEFAULT_!1\":{\"DBID\":1,\"cm:name\":\"<em>alpha</em>\",\"cm:title\":{\"raw\":[\"x\"]},\"cm:description\":[\"<em>a</em>\",[\"y\"]]},"
+            + "\"_DEFAULT_!2\":null},"
+            + "\"facet_counts\":{"
+            + "\"facet_fields\":{"
+            + "\"cm:creator\":{\"admin\":7,\"guest\":2},"
+            + "\"cm:modifier\":[[\"admin\",5],[null,1]],"
+            + "\"cm:owner\":[{\"admin\":3},{\"guest\":4}]},"
+            + "\"facet_intervals\":{\"cm:created\":{\"before\":3}}},"
+            + "\"lastIndexedTx\":7"
+            + "}";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     @Test
     public void testMNT23152() throws JSONException
     {
@@ -350,4 +397,92 @@ public class SolrJSONResultTest
         List<GenericFacetResponse> pivotsFacet = s.getPivotFacets();
         assertTrue("The pivots facets shouldn't be empty", pivotsFacet != null && !pivotsFacet.isEmpty());
     }
+
+    @Test
+    public void testStreamingParserReadsPivots() throws IOException
+    {
+        SearchParameters parameters = new SearchParameters();
+        SolrJSONResultSet s = streamed(JSON, parameters);
+        List<GenericFacetResponse> pivotsFacet = s.getPivotFacets();
+        assertTrue("The pivots facets shouldn't be empty", pivotsFacet != null && !pivotsFacet.isEmpty());
+        assertEquals(26, s.getLastIndexedTxId());
+    }
+
+    @Test
+    public void testStreamingParserMatchesTreeParser() throws IOException, JSONException
+    {
+        NodeRef node1 = new NodeRef("workspace://SpacesStore/node1");
+        NodeRef node2 = new NodeRef("workspace://SpacesStore/node2");
+        when(nodeService.getNodeRef(1L)).thenReturn(node1);
+        when(nodeService.getNodeRef(2L)).thenReturn(node2);
+        when(nodeService.getNodeRef(3L)).thenReturn(null);
+        SearchParameters parameters = new SearchParameters();
+
+        SolrJSONResultSet tree = new SolrJSONResultSet(new JSONObject(SEARCH_JSON), parameters, nodeService, nodeDao, LimitBy.UNLIMITED, 100);
+        SolrJSONResultSet streamed = streamed(SEARCH_JSON, parameters);
+
+        // DBID 3 no longer resolves and is dropped from the page along with its highlights
+        assertEquals(List.of(node1, node2), streamed.getNodeRefs());
+        assertEquals(tree.getNodeRefs(), streamed.getNodeRefs());
+        for (int i = 0; i < tree.length(); i++)
+        {
+            assertEquals(tree.getScore(i), streamed.getScore(i), 0.0f);
+        }
+        assertEquals(0.5f, streamed.getScore(1), 0.0f);
+        assertEquals(12, streamed.getNumberFound());
+        assertEquals(tree.getQueryTime(), streamed.getQueryTime());
+        assertEquals(tree.getStart(), streamed.getStart());
+        assertEquals(tree.hasMore(), streamed.hasMore());
+        assertEquals(42, streamed.getLastIndexedTxId());
+        assertEquals(tree.getProcessedDenies(), streamed.getProcessedDenies());
+        assertEquals(1, streamed.getHighlighting().size());
+        assertEquals(tree.getHighlighting(), streamed.getHighlighting());
+        assertEquals(tree.getFacetQueries(), streamed.getFacetQueries());
+        assertEquals(tree.getFieldFacets(), streamed.getFieldFacets());
+        assertEquals("Null", streamed.getFieldFacet("cm:creator").get(1).getFirst());
+        // the tree parser does not keep the order of object members
+        assertEquals(new HashSet<>(tree.getFacetIntervals().get("cm:created")), new HashSet<>(streamed.getFacetIntervals().get("cm:created")));
+        assertEquals(tree.getFacetRanges(), streamed.getFacetRanges());
+        assertEquals(tree.getStats(), streamed.getStats());
+        assertEquals(tree.getSpellCheckResult().getResultName(), streamed.getSpellCheckResult().getResultName());
+        assertEquals(List.of("alpha", "beta"), streamed.getSpellCheckResult().getResults());
+        assertEquals(tree.getResultSetMetaData().getLimitedBy(), streamed.getResultSetMetaData().getLimitedBy());
+    }
+
+    @Test
+    public void testStreamingParserReadsObjectShapes() throws IOException
+    {
+        NodeRef node1 = new NodeRef("workspace://SpacesStore/node1");
+        NodeRef node2 = new NodeRef("workspace://SpacesStore/node2");
+        when(nodeService.getNodeRef(1L)).thenReturn(node1);
+        when(nodeService.getNodeRef(2L)).thenReturn(node2);
+
+        SolrJSONResultSet streamed = streamed(OBJECT_SHAPED_JSON, new SearchParameters());
+
+        // single snippets are read as lists, and unexpected structures are skipped
+        assertEquals(List.of(
+                new Pair<String, List<String>>("cm:name", List.of("<em>alpha</em>")),
+                new Pair<String, List<String>>("cm:description", List.of("<em>a</em>"))),
+                streamed.getHighlighting().get(node1));
+        assertNull(streamed.getHighlighting().get(node2));
+        // named lists in the map, pair list and map list styles
+        assertEquals(List.of(new Pair<String, Integer>("admin", 7), new Pair<String, Integer>("guest", 2)),
+                streamed.getFieldFacet("cm:creator"));
+        assertEquals(List.of(new Pair<String, Integer>("admin", 5), new Pair<String, Integer>("Null", 1)),
+                streamed.getFieldFacet("cm:modifier"));
+        assertEquals(List.of(new Pair<String, Integer>("admin", 3), new Pair<String, Integer>("guest", 4)),
+                streamed.getFieldFacet("cm:owner"));
+        // the sections after them are still read
+        assertEquals(List.of(new Pair<String, Integer>("before", 3)), streamed.getFacetIntervals().get("cm:created"));
+        assertEquals(7, streamed.getLastIndexedTxId());
+        assertEquals(List.of(node1, node2), streamed.getNodeRefs());
+    }
+
+    private SolrJSONResultSet streamed(String json, SearchParameters parameters) throws IOException
+    {
+        try (JsonParser parser = JSON_FACTORY.createParser(json))
+        {
+            return new SolrJSONResultSet(parser, parameters, nodeService, nodeDao, LimitBy.UNLIMITED, 100);
+        }
+    }
 }
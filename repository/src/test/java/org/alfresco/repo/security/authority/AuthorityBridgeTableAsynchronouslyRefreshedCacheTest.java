@@ -154,6 +154,65 @@ public class AuthorityBridgeTableAsynchronouslyRefreshedCacheTest extends TestCa
         AuthenticationUtil.setFullyAuthenticatedUser(AuthenticationUtil.getAdminUserName());
     }
 
+    public void testGroupLinksAreAppliedInPlace() throws Exception
+    {
+        AuthenticationUtil.setFullyAuthenticatedUser(AuthenticationUtil.getAdminUserName());
+        final RetryingTransactionHelper txnHelper = transactionService.getRetryingTransactionHelper();
+        final String parentGroup = txnHelper.doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<String>()
+        {
+            @Override
+            public String execute() throws Throwable
+            {
+                return authorityService.createAuthority(AuthorityType.GROUP, "bridgeParent" + GUID.generate());
+            }
+        }, false, true);
+        final String childGroup = txnHelper.doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<String>()
+        {
+            @Override
+            public String execute() throws Throwable
+            {
+                String childGroup = authorityService.createAuthority(AuthorityType.GROUP, "bridgeChild" + GUID.generate());
+                authorityBridgeTableCache.forceInChangesForThisUncommittedTransaction();
+                return childGroup;
+            }
+        }, false, true);
+        long applied = getLinkChangeCount();
+
+        txnHelper.doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<Void>()
+        {
+            @Override
+            public Void execute() throws Throwable
+            {
+                authorityService.addAuthority(parentGroup, childGroup);
+                assertFalse("Uncommitted link changes are not in the bridge table", authorityBridgeTableCache.isUpToDate());
+                return null;
+            }
+        }, false, true);
+        assertEquals(applied + 1, getLinkChangeCount());
+        assertTrue(authorityBridgeTableCache.get().getAncestors(childGroup).contains(parentGroup));
+
+        txnHelper.doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<Void>()
+        {
+            @Override
+            public Void execute() throws Throwable
+            {
+                authorityService.removeAuthority(parentGroup, childGroup);
+                return null;
+            }
+        }, false, true);
+        assertEquals(applied + 2, getLinkChangeCount());
+        assertFalse(authorityBridgeTableCache.get().getAncestors(childGroup).contains(parentGroup));
+        assertTrue(authorityBridgeTableCache.getFootprintReport().length() > 0);
+    }
+
+    /**
+     * A refresh running when a change commits may already include it, in which case the change is skipped.
+     */
+    private long getLinkChangeCount()
+    {
+        return authorityBridgeTableCache.getIncrementalUpdateCount() + authorityBridgeTableCache.getSkippedUpdateCount();
+    }
+
     private void createTenant(final String tenantDomain)
     {
         transactionService.getRetryingTransactionHelper().doInTransaction(new RetryingTransactionHelper.RetryingTransactionCallback<Void>()
@@ -255,6 +314,45 @@ public class AuthorityBridgeTableAsynchronouslyRefreshedCacheTest extends TestCa
         }
     }
     
+    /**
+     * A link change applied while the table is rebuilt from links read before the change committed must survive the
+     * rebuilt table replacing the live one.
+     */
+    public void testLinkChangeDuringRebuildIsKept()
+    {
+        final String cacheId = "linkChangeDuringRebuildCache";
+        final String tenantId = tenantAdminService.getCurrentUserDomain();
+        final List<AuthorityBridgeLink> links = new LinkedList<AuthorityBridgeLink>();
+        links.add(createAuthorityBridgeLink("g1", "g2"));
+
+        final AuthorityBridgeTableAsynchronouslyRefreshedCache cache = new AuthorityBridgeTableAsynchronouslyRefreshedCache();
+        final AuthorityBridgeLinkEvent change = new AuthorityBridgeLinkEvent(cacheId, tenantId, "g2", "g3", true);
+        AuthorityBridgeDAO authorityBridgeDAOMock = mock(AuthorityBridgeDAO.class);
+        when(authorityBridgeDAOMock.getAuthorityBridgeLinks()).thenReturn(links).thenAnswer(new Answer<List<AuthorityBridgeLink>>()
+        {
+            public List<AuthorityBridgeLink> answer(InvocationOnMock invocation)
+            {
+                // The rebuild reads the links before the change commits, the change is applied while it runs
+                List<AuthorityBridgeLink> linksBeforeChange = new LinkedList<AuthorityBridgeLink>(links);
+                cache.onRefreshableCacheEvent(change);
+                return linksBeforeChange;
+            }
+        });
+        cache.setBeanName(cacheId);
+        cache.setAuthorityBridgeDAO(authorityBridgeDAOMock);
+        cache.setAuthorityDAO(mock(AuthorityDAO.class));
+        cache.setTenantAdminService(tenantAdminService);
+        cache.setRetryingTransactionHelper(transactionService.getRetryingTransactionHelper());
+
+        cache.forceInChangesForThisUncommittedTransaction(tenantId);
+        assertFalse(cache.get(tenantId).getAncestors("g3").contains("g2"));
+
+        cache.forceInChangesForThisUncommittedTransaction(tenantId);
+        assertEquals("The change was not applied to the live table", 1, cache.getIncrementalUpdateCount());
+        assertTrue("The change was lost by the rebuild", cache.get(tenantId).getAncestors("g3").contains("g2"));
+        assertTrue(cache.get(tenantId).getAncestors("g3").contains("g1"));
+    }
+
     private AuthorityBridgeLink createAuthorityBridgeLink(String parentName, String childName)
     {
         AuthorityBridgeLink link = new AuthorityBridgeLink();
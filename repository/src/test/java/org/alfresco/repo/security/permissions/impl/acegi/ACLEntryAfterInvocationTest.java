@@ -650,6 +650,47 @@ public class ACLEntryAfterInvocationTest extends AbstractPermissionTest
     }
     
     
+    public void testResultSetFilterGroupedByAcl() throws Exception
+    {
+        runAs(AuthenticationUtil.getAdminUserName());
+
+        NodeRef f1 = nodeService.createNode(rootNodeRef, ContentModel.ASSOC_CHILDREN,
+                QName.createQName("{namespace}f1"), ContentModel.TYPE_FOLDER).getChildRef();
+        NodeRef c1 = nodeService.createNode(f1, ContentModel.ASSOC_CHILDREN,
+                QName.createQName("{namespace}c1"), ContentModel.TYPE_FOLDER).getChildRef();
+        NodeRef c2 = nodeService.createNode(f1, ContentModel.ASSOC_CHILDREN,
+                QName.createQName("{namespace}c2"), ContentModel.TYPE_FOLDER).getChildRef();
+        NodeRef f2 = nodeService.createNode(rootNodeRef, ContentModel.ASSOC_CHILDREN,
+                QName.createQName("{namespace}f2"), ContentModel.TYPE_FOLDER).getChildRef();
+        NodeRef d1 = nodeService.createNode(f2, ContentModel.ASSOC_CHILDREN,
+                QName.createQName("{namespace}d1"), ContentModel.TYPE_FOLDER).getChildRef();
+        NodeRef d2 = nodeService.createNode(f2, ContentModel.ASSOC_CHILDREN,
+                QName.createQName("{namespace}d2"), ContentModel.TYPE_FOLDER).getChildRef();
+        permissionService.setPermission(new SimplePermissionEntry(f1, getPermission(PermissionService.READ), "andy", AccessStatus.ALLOWED));
+
+        runAs("andy");
+
+        Object o = new ClassWithMethods();
+        Method methodResultSet = o.getClass().getMethod("echoResultSet", new Class[] { ResultSet.class });
+
+        Interceptor interceptor = new Interceptor("AFTER_ACL_NODE.sys:base.Read");
+        interceptor.groupReadPermissionChecksByAcl = true;
+        interceptor.bulkFetchSize = 2;
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.addAdvisor(GlobalAdvisorAdapterRegistry.getInstance().wrap(interceptor));
+        proxyFactory.setTargetSource(new SingletonTargetSource(o));
+        Object proxy = proxyFactory.getProxy();
+
+        List<NodeRef> nodeRefList = Arrays.asList(c1, d1, c2, d2, f1);
+        ChildAssocRefResultSet rsIn = new ChildAssocRefResultSet(nodeService, nodeRefList, false);
+
+        ResultSet answerResultSet = (ResultSet) methodResultSet.invoke(proxy, new Object[] { rsIn });
+        assertEquals(3, answerResultSet.length());
+        assertEquals(c1, answerResultSet.getNodeRef(0));
+        assertEquals(c2, answerResultSet.getNodeRef(1));
+        assertEquals(f1, answerResultSet.getNodeRef(2));
+    }
+
     public void testResultSetFilterForNullParentOnly() throws Exception
     {
         runAs(AuthenticationUtil.getAdminUserName());
@@ -1019,6 +1060,10 @@ public class ACLEntryAfterInvocationTest extends AbstractPermissionTest
     {
         ConfigAttributeDefinition cad = new ConfigAttributeDefinition();
 
+        boolean groupReadPermissionChecksByAcl = false;
+
+        int bulkFetchSize = 0;
+
         Interceptor(final String config)
         {
             cad.addConfigAttribute(new ConfigAttribute()
@@ -1044,6 +1089,12 @@ public class ACLEntryAfterInvocationTest extends AbstractPermissionTest
             after.setPermissionService(permissionService);
             after.setNodeService(nodeService);
             after.setUnfilteredFor(Collections.singleton("{ns}ln"));
+            if (groupReadPermissionChecksByAcl)
+            {
+                after.setOptimisePermissionsCheck(true);
+                after.setGroupReadPermissionChecksByAcl(true);
+                after.setOptimisePermissionsBulkFetchSize(bulkFetchSize);
+            }
             after.afterPropertiesSet();
 
             Object returnObject = invocation.proceed();
@@ -44,6 +44,7 @@ import org.alfresco.repo.dictionary.M2Type;
 import org.alfresco.repo.domain.node.Node;
 import org.alfresco.repo.domain.node.NodeDAO;
 import org.alfresco.repo.domain.qname.QNameDAO;
+import org.alfresco.repo.management.subsystems.SwitchableApplicationContextFactory;
 import org.alfresco.repo.node.db.DbNodeServiceImpl;
 import org.alfresco.repo.search.SearchTrackingComponent;
 import org.alfresco.repo.search.SearchTrackingComponent.NodeMetaDataQueryCallback;
@@ -399,6 +400,92 @@ public class SOLRTrackingComponentTest extends BaseSpringTest
         //        assertEquals("Unxpected number of nodes", 3, bt.getSuccessCount());
     }
 
+    @Test
+    public void testGetNodeMetaDataStreamed()
+    {
+        SwitchableApplicationContextFactory subsystemManager = (SwitchableApplicationContextFactory) applicationContext.getBean("Search");
+        final SOLRTrackingComponentImpl trackingComponent = (SOLRTrackingComponentImpl) subsystemManager.getApplicationContext().getBean("search.trackingComponent");
+        trackingComponent.setStreaming(true);
+        trackingComponent.setStreamingChunkSize(7);
+        try
+        {
+            long startTime = System.currentTimeMillis();
+
+            SOLRTest st = new SOLRTest100Nodes(txnHelper, fileFolderService, nodeDAO, qnameDAO, nodeService, dictionaryService, rootNodeRef, "testGetNodeMetaDataStreamed", true, true);
+            List<Long> createdTransactions = st.buildTransactions();
+
+            List<Transaction> txns = getTransactions(null, startTime-1000, null, null, 100);
+            List<Transaction> checkedTransactions = checkTransactions(txns, createdTransactions, new int[] {100}, new int[] {0});
+
+            NodeParameters nodeParameters = new NodeParameters();
+            nodeParameters.setTransactionIds(getTransactionIds(checkedTransactions));
+            getNodes(nodeParameters, st);
+
+            final NodeMetaDataParameters nodeMetaDataParams = new NodeMetaDataParameters();
+            nodeMetaDataParams.setNodeIds(st.getNodeIds());
+            getNodeMetaData(nodeMetaDataParams, null, st);
+
+            trackingComponent.setStreaming(false);
+            List<NodeMetaData> serialNodesMetaData = getNodesMetaData(trackingComponent, nodeMetaDataParams);
+            trackingComponent.setStreaming(true);
+            List<NodeMetaData> streamedNodesMetaData = getNodesMetaData(trackingComponent, nodeMetaDataParams);
+
+            // The chunks are built concurrently but handed over in the order requested, with the same metadata
+            assertEquals(st.getNodeIds().size(), serialNodesMetaData.size());
+            assertEquals(serialNodesMetaData.size(), streamedNodesMetaData.size());
+            for (int i = 0; i < serialNodesMetaData.size(); i++)
+            {
+                NodeMetaData serial = serialNodesMetaData.get(i);
+                NodeMetaData streamed = streamedNodesMetaData.get(i);
+                assertEquals(st.getNodeIds().get(i), streamed.getNodeId());
+                assertEquals(serial.getNodeId(), streamed.getNodeId());
+                assertEquals(serial.getNodeRef(), streamed.getNodeRef());
+                assertEquals(serial.getTxnId(), streamed.getTxnId());
+                assertEquals(serial.getNodeType(), streamed.getNodeType());
+                assertEquals(serial.getAclId(), streamed.getAclId());
+                assertEquals(serial.getOwner(), streamed.getOwner());
+                assertEquals(serial.getTenantDomain(), streamed.getTenantDomain());
+                assertEquals(serial.getProperties(), streamed.getProperties());
+                assertEquals(serial.getAspects(), streamed.getAspects());
+                assertEquals(String.valueOf(serial.getPaths()), String.valueOf(streamed.getPaths()));
+                assertEquals(String.valueOf(serial.getNamePaths()), String.valueOf(streamed.getNamePaths()));
+                assertEquals(serial.getParentAssocs(), streamed.getParentAssocs());
+                assertEquals(serial.getParentAssocsCrc(), streamed.getParentAssocsCrc());
+                assertEquals(serial.getChildAssocs(), streamed.getChildAssocs());
+                assertEquals(serial.getChildIds(), streamed.getChildIds());
+            }
+        }
+        finally
+        {
+            trackingComponent.setStreaming(false);
+            trackingComponent.setStreamingChunkSize(500);
+        }
+    }
+
+    private List<NodeMetaData> getNodesMetaData(final SOLRTrackingComponentImpl trackingComponent, final NodeMetaDataParameters params)
+    {
+        final List<NodeMetaData> nodesMetaData = new ArrayList<NodeMetaData>();
+        txnHelper.doInTransaction(new RetryingTransactionCallback<Void>()
+        {
+            @Override
+            public Void execute() throws Throwable
+            {
+                nodesMetaData.clear();
+                trackingComponent.getNodesMetadata(params, null, new NodeMetaDataQueryCallback()
+                {
+                    @Override
+                    public boolean handleNodeMetaData(NodeMetaData nodeMetaData)
+                    {
+                        nodesMetaData.add(nodeMetaData);
+                        return true;
+                    }
+                });
+                return null;
+            }
+        }, true, true);
+        return nodesMetaData;
+    }
+
     @Category(PerformanceTests.class)
     @Test
     public void testNodeMetaDataManyNodes() throws Exception